@@ -2,12 +2,13 @@ package com.example.bookcatalog;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BookCatalogServiceApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(BookCatalogServiceApplication.class, args);
     }
 }
-
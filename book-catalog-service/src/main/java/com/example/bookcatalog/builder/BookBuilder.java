@@ -1,10 +1,14 @@
 package com.example.bookcatalog.builder;
 
 import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.validator.BookValidator;
+import com.example.bookcatalog.validator.StandardBookValidator;
 
 import java.math.BigDecimal;
 
 public class BookBuilder {
+    private static final BookValidator VALIDATOR = new StandardBookValidator();
+
     private String title;
     private String author;
     private String isbn;
@@ -58,17 +62,12 @@ public class BookBuilder {
         return new BookBuilder();
     }
 
+    /**
+     * Runs the fields through the same constraints the standard validator applies, so a book
+     * that builds here is one {@code saveBook} will accept.
+     */
     public BookBuilder validate() {
-        if (title == null || title.trim().isEmpty()) {
-            throw new IllegalArgumentException("Title is required");
-        }
-        if (author == null || author.trim().isEmpty()) {
-            throw new IllegalArgumentException("Author is required");
-        }
-        if (isbn == null || isbn.trim().isEmpty()) {
-            throw new IllegalArgumentException("ISBN is required");
-        }
+        VALIDATOR.validate(build());
         return this;
     }
 }
-
@@ -0,0 +1,49 @@
+package com.example.bookcatalog.bulk;
+
+import com.example.bookcatalog.entity.BulkJob;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class BulkCriteria {
+
+    private final String sql;
+    private final List<Object> args;
+
+    private BulkCriteria(String sql, List<Object> args) {
+        this.sql = sql;
+        this.args = args;
+    }
+
+    static BulkCriteria of(BulkJob job) {
+        return of(job.getAuthor(), job.getPublishedBefore());
+    }
+
+    static BulkCriteria of(String author, Integer publishedBefore) {
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        if (author != null && !author.trim().isEmpty()) {
+            sql.append(" AND author = ?");
+            args.add(author);
+        }
+        if (publishedBefore != null) {
+            sql.append(" AND publication_year < ?");
+            args.add(publishedBefore);
+        }
+        if (args.isEmpty()) {
+            throw new IllegalArgumentException("At least one bulk criterion (author, publishedBefore) is required");
+        }
+        return new BulkCriteria(sql.toString(), args);
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    Object[] args(Object... leading) {
+        List<Object> all = new ArrayList<>(Arrays.asList(leading));
+        all.addAll(args);
+        return all.toArray();
+    }
+}
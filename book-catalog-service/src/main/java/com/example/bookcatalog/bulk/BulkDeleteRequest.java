@@ -0,0 +1,30 @@
+package com.example.bookcatalog.bulk;
+
+public class BulkDeleteRequest {
+
+    private String author;
+    private Integer publishedBefore;
+
+    public BulkDeleteRequest() {}
+
+    public BulkDeleteRequest(String author, Integer publishedBefore) {
+        this.author = author;
+        this.publishedBefore = publishedBefore;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getPublishedBefore() {
+        return publishedBefore;
+    }
+
+    public void setPublishedBefore(Integer publishedBefore) {
+        this.publishedBefore = publishedBefore;
+    }
+}
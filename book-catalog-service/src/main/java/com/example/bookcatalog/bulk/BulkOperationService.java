@@ -0,0 +1,312 @@
+package com.example.bookcatalog.bulk;
+
+import com.example.bookcatalog.changes.BookChangeLog;
+import com.example.bookcatalog.command.BulkJobCommand;
+import com.example.bookcatalog.command.CommandInvoker;
+import com.example.bookcatalog.entity.BulkJob;
+import com.example.bookcatalog.job.JobContext;
+import com.example.bookcatalog.repository.BulkJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class BulkOperationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkOperationService.class);
+
+    static final String SNAPSHOT_SQL = "INSERT INTO book_snapshots " +
+            "(job_id, book_id, title, author, isbn, publication_year, price, version) " +
+            "SELECT ?, id, title, author, isbn, publication_year, price, version FROM books " +
+            "WHERE id BETWEEN ? AND ? AND deleted_at IS NULL";
+    static final String REPRICE_SQL = "UPDATE books SET price = ROUND(price * ?, 2), version = version + 1 " +
+            "WHERE id BETWEEN ? AND ? AND deleted_at IS NULL";
+    static final String DELETE_SQL = "UPDATE books SET deleted_at = ?, version = version + 1 " +
+            "WHERE id BETWEEN ? AND ? AND deleted_at IS NULL";
+    static final String RESTORE_PRICE_SQL = "UPDATE books b JOIN book_snapshots s ON s.book_id = b.id " +
+            "SET b.price = s.price, b.version = b.version + 1 " +
+            "WHERE s.job_id = ? AND s.book_id BETWEEN ? AND ? AND b.version = s.version + 1";
+    static final String RESTORE_DELETED_SQL = "UPDATE books b JOIN book_snapshots s ON s.book_id = b.id " +
+            "SET b.deleted_at = NULL, b.version = b.version + 1 " +
+            "WHERE s.job_id = ? AND s.book_id BETWEEN ? AND ? " +
+            "AND b.deleted_at IS NOT NULL AND b.version = s.version + 1";
+    static final String REINSERT_DELETED_SQL = "INSERT INTO books " +
+            "(id, title, author, isbn, publication_year, price, version) " +
+            "SELECT s.book_id, s.title, s.author, s.isbn, s.publication_year, s.price, s.version + 1 " +
+            "FROM book_snapshots s WHERE s.job_id = ? AND s.book_id BETWEEN ? AND ? " +
+            "AND NOT EXISTS (SELECT 1 FROM books b WHERE b.id = s.book_id OR b.isbn = s.isbn)";
+    static final String COUNT_SNAPSHOTS_SQL = "SELECT COUNT(*) FROM book_snapshots " +
+            "WHERE job_id = ? AND book_id BETWEEN ? AND ?";
+    static final String DELETE_SNAPSHOTS_SQL = "DELETE FROM book_snapshots WHERE job_id = ? AND book_id BETWEEN ? AND ?";
+    static final String SNAPSHOT_RANGE_SQL = "SELECT MIN(book_id) AS min_id, MAX(book_id) AS max_id " +
+            "FROM book_snapshots WHERE job_id = ?";
+
+    private static final String REPRICE_FILTER = " AND price IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkJobRepository bulkJobRepository;
+    private final CommandInvoker commandInvoker;
+    private final BookChangeLog bookChangeLog;
+    private final int chunkSize;
+    private final long minPauseMillis;
+    private final double dutyCycle;
+
+    @Autowired
+    public BulkOperationService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                BulkJobRepository bulkJobRepository,
+                                CommandInvoker commandInvoker,
+                                BookChangeLog bookChangeLog,
+                                @Value("${bookcatalog.bulk.chunk-size:1000}") int chunkSize,
+                                @Value("${bookcatalog.bulk.min-pause-ms:50}") long minPauseMillis,
+                                @Value("${bookcatalog.bulk.duty-cycle:0.5}") double dutyCycle) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Bulk chunk size must be positive");
+        }
+        if (dutyCycle <= 0 || dutyCycle > 1) {
+            throw new IllegalArgumentException("Bulk duty cycle must be in (0, 1]");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bulkJobRepository = bulkJobRepository;
+        this.commandInvoker = commandInvoker;
+        this.bookChangeLog = bookChangeLog;
+        this.chunkSize = chunkSize;
+        this.minPauseMillis = minPauseMillis;
+        this.dutyCycle = dutyCycle;
+    }
+
+    public BulkJob reprice(BulkRepriceRequest request) {
+        return execute(prepareReprice(request).getId(), JobContext.NONE);
+    }
+
+    public BulkJob delete(BulkDeleteRequest request) {
+        return execute(prepareDelete(request).getId(), JobContext.NONE);
+    }
+
+    public BulkJob prepareReprice(BulkRepriceRequest request) {
+        if (request.getPercentChange() == null) {
+            throw new IllegalArgumentException("percentChange is required");
+        }
+        if (request.getPercentChange().compareTo(BigDecimal.valueOf(-100)) <= 0) {
+            throw new IllegalArgumentException("percentChange must be greater than -100");
+        }
+        BulkCriteria.of(request.getAuthor(), request.getPublishedBefore());
+
+        return bulkJobRepository.save(new BulkJob(BulkJob.Type.REPRICE,
+                request.getAuthor(), request.getPublishedBefore(), request.getPercentChange(), chunkSize));
+    }
+
+    public BulkJob prepareDelete(BulkDeleteRequest request) {
+        BulkCriteria.of(request.getAuthor(), request.getPublishedBefore());
+
+        return bulkJobRepository.save(new BulkJob(BulkJob.Type.DELETE,
+                request.getAuthor(), request.getPublishedBefore(), null, chunkSize));
+    }
+
+    public BulkJob prepareResume(Long jobId) {
+        BulkJob job = getJob(jobId);
+        if (job.getStatus() == BulkJob.Status.COMPLETED || job.getStatus() == BulkJob.Status.UNDONE) {
+            throw new IllegalStateException("Bulk job " + jobId + " is already " + job.getStatus());
+        }
+        return job;
+    }
+
+    public BulkJob resume(Long jobId) {
+        return execute(prepareResume(jobId).getId(), JobContext.NONE);
+    }
+
+    public BulkJob execute(Long jobId, JobContext context) {
+        try {
+            commandInvoker.executeCommand(new BulkJobCommand(this, jobId, context));
+        } catch (RuntimeException e) {
+            logger.error("Bulk job {} failed, it can be resumed", jobId, e);
+        }
+        return getJob(jobId);
+    }
+
+    public Optional<BulkJob> findJob(Long jobId) {
+        return bulkJobRepository.findById(jobId);
+    }
+
+    /**
+     * Closes out a job row whose execution was never scheduled so it does not sit in PENDING
+     * forever. It is marked CANCELLED and, like any cancelled job, can be resumed later.
+     */
+    public void reject(Long jobId, String reason) {
+        bulkJobRepository.findById(jobId).ifPresent(job -> {
+            if (job.getStatus() == BulkJob.Status.PENDING) {
+                job.setStatus(BulkJob.Status.CANCELLED);
+                job.setErrorMessage(reason);
+                touch(job);
+            }
+        });
+    }
+
+    public BulkJob runJob(Long jobId, JobContext context) {
+        BulkJob job = getJob(jobId);
+        if (job.getStatus() == BulkJob.Status.COMPLETED) {
+            return job;
+        }
+        BulkCriteria criteria = BulkCriteria.of(job);
+        job.setStatus(BulkJob.Status.RUNNING);
+        job.setErrorMessage(null);
+
+        try {
+            if (job.getStartId() == null) {
+                Map<String, Object> range = jdbcTemplate.queryForMap(
+                        "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM books WHERE deleted_at IS NULL"
+                                + typeFilter(job) + criteria.sql(),
+                        criteria.args());
+                if (range.get("min_id") == null) {
+                    return complete(job);
+                }
+                job.setStartId(((Number) range.get("min_id")).longValue());
+                job.setEndId(((Number) range.get("max_id")).longValue());
+                job.setNextId(job.getStartId());
+            }
+            job = touch(job);
+
+            long span = job.getEndId() - job.getStartId() + 1;
+            while (job.getNextId() <= job.getEndId()) {
+                if (context.isCancelled()) {
+                    job.setStatus(BulkJob.Status.CANCELLED);
+                    return touch(job);
+                }
+                long chunkStart = System.nanoTime();
+                job = runChunk(job, criteria);
+                context.reportProgress(job.getNextId() - job.getStartId(), span);
+                throttle(System.nanoTime() - chunkStart);
+            }
+            return complete(job);
+        } catch (RuntimeException e) {
+            fail(jobId, e);
+            throw e;
+        }
+    }
+
+    public BulkJob undoJob(Long jobId) {
+        BulkJob job = getJob(jobId);
+        Map<String, Object> range = jdbcTemplate.queryForMap(SNAPSHOT_RANGE_SQL, jobId);
+        if (range.get("min_id") != null) {
+            long endId = ((Number) range.get("max_id")).longValue();
+            for (long from = ((Number) range.get("min_id")).longValue(); from <= endId; from += job.getChunkSize()) {
+                long chunkStart = System.nanoTime();
+                long lo = from;
+                long hi = Math.min(endId, from + job.getChunkSize() - 1);
+                int[] restored = transactionTemplate.execute(status -> {
+                    Integer total = jdbcTemplate.queryForObject(COUNT_SNAPSHOTS_SQL, Integer.class, jobId, lo, hi);
+                    int updated;
+                    if (job.getType() == BulkJob.Type.DELETE) {
+                        // tombstones purged since the job ran come back from the snapshot,
+                        // unless their isbn has been taken by a newer book
+                        updated = jdbcTemplate.update(RESTORE_DELETED_SQL, jobId, lo, hi)
+                                + jdbcTemplate.update(REINSERT_DELETED_SQL, jobId, lo, hi);
+                    } else {
+                        updated = jdbcTemplate.update(RESTORE_PRICE_SQL, jobId, lo, hi);
+                    }
+                    bookChangeLog.recordSnapshots(jobId, lo, hi);
+                    jdbcTemplate.update(DELETE_SNAPSHOTS_SQL, jobId, lo, hi);
+                    return new int[]{updated, (total != null ? total : 0) - updated};
+                });
+                job.setRowsRestored(job.getRowsRestored() + restored[0]);
+                job.setRowsSkipped(job.getRowsSkipped() + restored[1]);
+                throttle(System.nanoTime() - chunkStart);
+            }
+        }
+        if (job.getRowsSkipped() > 0) {
+            logger.warn("Undo of bulk job {} skipped {} books changed or re-created after the job ran",
+                    jobId, job.getRowsSkipped());
+        }
+        job.setStatus(BulkJob.Status.UNDONE);
+        return touch(job);
+    }
+
+    private BulkJob runChunk(BulkJob job, BulkCriteria criteria) {
+        long lo = job.getNextId();
+        long hi = Math.min(job.getEndId(), lo + job.getChunkSize() - 1);
+        String filter = typeFilter(job) + criteria.sql();
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update(SNAPSHOT_SQL + filter, criteria.args(job.getId(), lo, hi));
+            int updated;
+            switch (job.getType()) {
+                case REPRICE:
+                    BigDecimal multiplier = BigDecimal.ONE.add(
+                            job.getPercentChange().divide(BigDecimal.valueOf(100), MathContext.DECIMAL64));
+                    updated = jdbcTemplate.update(REPRICE_SQL + filter, criteria.args(multiplier, lo, hi));
+                    break;
+                case DELETE:
+                    updated = jdbcTemplate.update(DELETE_SQL + filter,
+                            criteria.args(Timestamp.valueOf(LocalDateTime.now()), lo, hi));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown bulk job type: " + job.getType());
+            }
+            bookChangeLog.recordSnapshots(job.getId(), lo, hi);
+            job.setNextId(hi + 1);
+            job.setRowsAffected(job.getRowsAffected() + updated);
+            job.setChunksCompleted(job.getChunksCompleted() + 1);
+            return touch(job);
+        });
+    }
+
+    private void throttle(long chunkNanos) {
+        long proportionalMillis = (long) (TimeUnit.NANOSECONDS.toMillis(chunkNanos) * (1 - dutyCycle) / dutyCycle);
+        long pauseMillis = Math.max(minPauseMillis, proportionalMillis);
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk job interrupted", e);
+        }
+    }
+
+    private static String typeFilter(BulkJob job) {
+        return job.getType() == BulkJob.Type.REPRICE ? REPRICE_FILTER : "";
+    }
+
+    private BulkJob complete(BulkJob job) {
+        job.setStatus(BulkJob.Status.COMPLETED);
+        return touch(job);
+    }
+
+    private void fail(Long jobId, RuntimeException e) {
+        // reload so the cursor reflects the last committed chunk, not the one that rolled back
+        try {
+            bulkJobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(BulkJob.Status.FAILED);
+                job.setErrorMessage(e.getMessage());
+                touch(job);
+            });
+        } catch (RuntimeException saveFailure) {
+            e.addSuppressed(saveFailure);
+        }
+    }
+
+    private BulkJob touch(BulkJob job) {
+        job.setUpdatedAt(Instant.now());
+        return bulkJobRepository.save(job);
+    }
+
+    private BulkJob getJob(Long jobId) {
+        return bulkJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Bulk job not found with id: " + jobId));
+    }
+}
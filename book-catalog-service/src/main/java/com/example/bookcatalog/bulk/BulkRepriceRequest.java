@@ -0,0 +1,42 @@
+package com.example.bookcatalog.bulk;
+
+import java.math.BigDecimal;
+
+public class BulkRepriceRequest {
+
+    private String author;
+    private Integer publishedBefore;
+    private BigDecimal percentChange;
+
+    public BulkRepriceRequest() {}
+
+    public BulkRepriceRequest(String author, Integer publishedBefore, BigDecimal percentChange) {
+        this.author = author;
+        this.publishedBefore = publishedBefore;
+        this.percentChange = percentChange;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getPublishedBefore() {
+        return publishedBefore;
+    }
+
+    public void setPublishedBefore(Integer publishedBefore) {
+        this.publishedBefore = publishedBefore;
+    }
+
+    public BigDecimal getPercentChange() {
+        return percentChange;
+    }
+
+    public void setPercentChange(BigDecimal percentChange) {
+        this.percentChange = percentChange;
+    }
+}
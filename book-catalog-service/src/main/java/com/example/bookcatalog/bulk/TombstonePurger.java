@@ -0,0 +1,87 @@
+package com.example.bookcatalog.bulk;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+public class TombstonePurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(TombstonePurger.class);
+
+    static final String PURGE_SQL = "DELETE FROM books WHERE deleted_at IS NOT NULL AND deleted_at < ? " +
+            "ORDER BY deleted_at LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final Counter purgedCounter;
+
+    @Autowired
+    public TombstonePurger(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${bookcatalog.soft-delete.retention-hours:72}") long retentionHours,
+                           @Value("${bookcatalog.soft-delete.purge-batch-size:500}") int batchSize,
+                           @Value("${bookcatalog.bulk.min-pause-ms:50}") long pauseMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Purge batch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = Duration.ofHours(retentionHours);
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.purgedCounter = meterRegistry.counter("bookcatalog.softdelete.purged");
+    }
+
+    @Scheduled(fixedDelayString = "${bookcatalog.soft-delete.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        purgeDeletedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    public long purgeDeletedBefore(LocalDateTime cutoff) {
+        Timestamp threshold = Timestamp.valueOf(cutoff);
+        long purged = 0;
+        int deleted;
+        do {
+            // short transactions keep row locks brief while live traffic continues
+            Integer batch = transactionTemplate.execute(status -> jdbcTemplate.update(PURGE_SQL, threshold, batchSize));
+            deleted = batch != null ? batch : 0;
+            purged += deleted;
+            purgedCounter.increment(deleted);
+            if (deleted == batchSize) {
+                pause();
+            }
+        } while (deleted == batchSize && !Thread.currentThread().isInterrupted());
+
+        if (purged > 0) {
+            logger.info("Purged {} soft-deleted books older than {}", purged, cutoff);
+        }
+        return purged;
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bookcatalog.changes;
+
+import com.example.bookcatalog.entity.Book;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookChangeEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, RESTORED, BULK,
+        /** Events after {@code sequence} were lost for this subscriber; re-read the catalog. */
+        RESET
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final Long bookId;
+    private final Long jobId;
+    private final Book book;
+    private final Instant occurredAt;
+
+    BookChangeEvent(long sequence, Type type, Long bookId, Long jobId, Book book, Instant occurredAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.bookId = bookId;
+        this.jobId = jobId;
+        this.book = book;
+        this.occurredAt = occurredAt;
+    }
+
+    static BookChangeEvent reset(long sequence) {
+        return new BookChangeEvent(sequence, Type.RESET, null, null, null, Instant.now());
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+}
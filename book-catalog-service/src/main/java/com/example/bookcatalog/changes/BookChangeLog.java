@@ -0,0 +1,193 @@
+package com.example.bookcatalog.changes;
+
+import com.example.bookcatalog.command.Command;
+import com.example.bookcatalog.command.CompositeCommand;
+import com.example.bookcatalog.command.DeleteBookCommand;
+import com.example.bookcatalog.command.SaveBookCommand;
+import com.example.bookcatalog.entity.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change sequence behind delta sync. Writers record the ids they touched inside their own
+ * transaction, which also captures a revision of each book for as-of reads; readers page
+ * through {@code book_changes} by sequence, which stays an index range scan however large
+ * the catalog is.
+ *
+ * <p>Auto-increment values are handed out at insert but become visible at commit, so a
+ * slow transaction can commit a lower sequence after a reader already passed it. Reads
+ * therefore stop at rows older than the settle window.
+ */
+@Component
+public class BookChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookChangeLog.class);
+
+    static final String RECORD_SQL = "INSERT INTO book_changes (book_id, changed_at) VALUES (?, ?)";
+    static final String RECORD_SNAPSHOTS_SQL = "INSERT INTO book_changes (book_id, changed_at) " +
+            "SELECT book_id, ? FROM book_snapshots WHERE job_id = ? AND book_id BETWEEN ? AND ?";
+    static final String SNAPSHOT_IDS_SQL = "SELECT book_id FROM book_snapshots " +
+            "WHERE job_id = ? AND book_id BETWEEN ? AND ?";
+    static final String READ_SQL = "SELECT c.seq, c.book_id, b.id AS live_id, b.title, b.author, b.isbn, " +
+            "b.publication_year, b.price, b.version, b.deleted_at FROM book_changes c " +
+            "LEFT JOIN books b ON b.id = c.book_id " +
+            "WHERE c.seq > ? AND c.changed_at <= ? ORDER BY c.seq LIMIT ?";
+    static final String HEAD_SQL = "SELECT seq FROM book_changes WHERE changed_at <= ? ORDER BY seq DESC LIMIT 1";
+    static final String OLDEST_SQL = "SELECT MIN(seq) FROM book_changes";
+    static final String NEWEST_SQL = "SELECT MAX(seq) FROM book_changes";
+    static final String EXPIRED_SQL = "SELECT seq FROM book_changes WHERE changed_at < ? ORDER BY changed_at DESC, seq DESC LIMIT 1";
+    static final String PRUNE_SQL = "DELETE FROM book_changes WHERE seq <= ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookRevisionLog bookRevisionLog;
+    private final long settleMillis;
+    private final long retentionHours;
+    private final int pruneBatchSize;
+    private final int maxPageSize;
+
+    @Autowired
+    public BookChangeLog(JdbcTemplate jdbcTemplate,
+                         BookRevisionLog bookRevisionLog,
+                         @Value("${bookcatalog.changes.delta.settle-ms:5000}") long settleMillis,
+                         @Value("${bookcatalog.changes.delta.retention-hours:168}") long retentionHours,
+                         @Value("${bookcatalog.changes.delta.prune-batch-size:5000}") int pruneBatchSize,
+                         @Value("${bookcatalog.changes.delta.max-page-size:1000}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookRevisionLog = bookRevisionLog;
+        this.settleMillis = settleMillis;
+        this.retentionHours = retentionHours;
+        this.pruneBatchSize = pruneBatchSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public void record(Long bookId) {
+        recordAll(Collections.singletonList(bookId));
+    }
+
+    public void recordAll(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(bookIds.size());
+        for (Long bookId : bookIds) {
+            args.add(new Object[]{bookId, now});
+        }
+        jdbcTemplate.batchUpdate(RECORD_SQL, args);
+        bookRevisionLog.capture(bookIds, now);
+    }
+
+    /** Records the books of a save, delete or composite command after it ran or was undone. */
+    public void recordCommand(Command command) {
+        List<Long> bookIds = new ArrayList<>();
+        collectBookIds(command, bookIds);
+        recordAll(bookIds);
+    }
+
+    /** Records every book a bulk job snapshotted in the id range, which is exactly the set it touched. */
+    public int recordSnapshots(Long jobId, long fromId, long toId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int recorded = jdbcTemplate.update(RECORD_SNAPSHOTS_SQL, now, jobId, fromId, toId);
+        if (recorded > 0) {
+            bookRevisionLog.capture(jdbcTemplate.queryForList(SNAPSHOT_IDS_SQL, Long.class, jobId, fromId, toId), now);
+        }
+        return recorded;
+    }
+
+    /**
+     * Returns the changes after {@code since}, at most one per book and each carrying the
+     * book's current state, or a tombstone when it is gone.
+     */
+    public BookDeltaPage readSince(long since, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        Long oldest = jdbcTemplate.queryForObject(OLDEST_SQL, Long.class);
+        if (oldest != null && since < oldest - 1) {
+            throw new ChangeTokenExpiredException("Changes after " + since + " were pruned, reload the catalog");
+        }
+
+        long[] lastSeq = {since};
+        int[] scanned = {0};
+        Map<Long, BookDelta> latest = new LinkedHashMap<>();
+        jdbcTemplate.query(READ_SQL, rs -> {
+            long seq = rs.getLong("seq");
+            Long bookId = rs.getLong("book_id");
+            Book book = null;
+            if (rs.getObject("live_id") != null && rs.getTimestamp("deleted_at") == null) {
+                book = new Book(rs.getString("title"), rs.getString("author"), rs.getString("isbn"),
+                        rs.getObject("publication_year", Integer.class), rs.getBigDecimal("price"));
+                book.setId(bookId);
+                book.setVersion(rs.getLong("version"));
+            }
+            // a book changed twice in one page is sent once, at its newest position
+            latest.remove(bookId);
+            latest.put(bookId, new BookDelta(seq, bookId, book));
+            lastSeq[0] = seq;
+            scanned[0]++;
+        }, since, settledBefore(), limit);
+
+        return new BookDeltaPage(new ArrayList<>(latest.values()), lastSeq[0], scanned[0] == limit);
+    }
+
+    /** Token to take before loading the full catalog; deltas after it cover everything since. */
+    public long head() {
+        List<Long> seq = jdbcTemplate.queryForList(HEAD_SQL, Long.class, settledBefore());
+        return seq.isEmpty() ? 0 : seq.get(0);
+    }
+
+    @Scheduled(fixedDelayString = "${bookcatalog.changes.delta.prune-interval-ms:3600000}")
+    public void prune() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        List<Long> expired = jdbcTemplate.queryForList(EXPIRED_SQL, Long.class, cutoff);
+        Long newest = jdbcTemplate.queryForObject(NEWEST_SQL, Long.class);
+        if (expired.isEmpty() || newest == null) {
+            return;
+        }
+        // prune a sequence prefix, never by time alone, so MIN(seq) is exactly the expiry
+        // horizon; the newest row always survives so expiry is detectable on an idle log
+        long horizon = Math.min(expired.get(0), newest - 1);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PRUNE_SQL, horizon, pruneBatchSize);
+            total += deleted;
+        } while (deleted == pruneBatchSize);
+        if (total > 0) {
+            logger.info("Pruned {} book changes older than {} hours", total, retentionHours);
+        }
+    }
+
+    private Timestamp settledBefore() {
+        return Timestamp.valueOf(LocalDateTime.now().minusNanos(settleMillis * 1_000_000L));
+    }
+
+    private static void collectBookIds(Command command, List<Long> bookIds) {
+        if (command instanceof SaveBookCommand) {
+            Book book = ((SaveBookCommand) command).getBook();
+            if (book != null && book.getId() != null) {
+                bookIds.add(book.getId());
+            }
+        } else if (command instanceof DeleteBookCommand) {
+            bookIds.add(((DeleteBookCommand) command).getBookId());
+        } else if (command instanceof CompositeCommand) {
+            for (Command child : ((CompositeCommand) command).getCommands()) {
+                collectBookIds(child, bookIds);
+            }
+        }
+    }
+}
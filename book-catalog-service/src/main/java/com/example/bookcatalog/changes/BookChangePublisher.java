@@ -0,0 +1,280 @@
+package com.example.bookcatalog.changes;
+
+import com.example.bookcatalog.command.BulkJobCommand;
+import com.example.bookcatalog.command.Command;
+import com.example.bookcatalog.command.CommandListener;
+import com.example.bookcatalog.command.CompositeCommand;
+import com.example.bookcatalog.command.DeleteBookCommand;
+import com.example.bookcatalog.command.SaveBookCommand;
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.threads.CatalogThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans book changes out to change stream subscribers. Every event gets the next id of a
+ * node-local sequence and is kept in a replay buffer so a reconnecting client can resume
+ * from its Last-Event-ID; ids are consecutive, so a client can spot dropped events.
+ * Each subscriber has at most one send in flight, on a thread of its own, so a stalled
+ * client only holds up itself; one whose send outlasts the send timeout is disconnected.
+ */
+@Component
+public class BookChangePublisher implements CommandListener {
+
+    private final int replayBufferSize;
+    private final int subscriberBufferSize;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final int maxSubscribers;
+    private final long sendTimeoutNanos;
+    private final Executor dispatcher;
+
+    private final BookChangeEvent[] replay;
+    private int replayHead;
+    private int replaySize;
+    // seeded from the clock so ids keep increasing across restarts of this node
+    private long lastSequence = System.currentTimeMillis() * 1000;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<ChangeSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+    private final Counter disconnectedCounter;
+
+    @Autowired
+    public BookChangePublisher(MeterRegistry meterRegistry,
+                               @Value("${bookcatalog.changes.replay-buffer-size:10000}") int replayBufferSize,
+                               @Value("${bookcatalog.changes.subscriber-buffer-size:1000}") int subscriberBufferSize,
+                               @Value("${bookcatalog.changes.slow-consumer-policy:disconnect}") String slowConsumerPolicy,
+                               @Value("${bookcatalog.changes.max-subscribers:500}") int maxSubscribers,
+                               @Value("${bookcatalog.changes.send-timeout-ms:10000}") long sendTimeoutMillis,
+                               @Value("${" + CatalogThreads.VIRTUAL_PROPERTY + ":false}") boolean virtualThreads) {
+        this(meterRegistry, replayBufferSize, subscriberBufferSize,
+                SlowConsumerPolicy.valueOf(slowConsumerPolicy.trim().toUpperCase().replace('-', '_')),
+                maxSubscribers, sendTimeoutMillis,
+                Executors.newCachedThreadPool(CatalogThreads.factory("catalog-sse-", virtualThreads)));
+    }
+
+    BookChangePublisher(MeterRegistry meterRegistry, int replayBufferSize, int subscriberBufferSize,
+                        SlowConsumerPolicy slowConsumerPolicy, int maxSubscribers, long sendTimeoutMillis,
+                        Executor dispatcher) {
+        if (replayBufferSize < 1 || subscriberBufferSize < 1) {
+            throw new IllegalArgumentException("Change stream buffers must hold at least one event");
+        }
+        if (sendTimeoutMillis < 1) {
+            throw new IllegalArgumentException("Change stream send timeout must be positive");
+        }
+        this.replayBufferSize = replayBufferSize;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        this.maxSubscribers = maxSubscribers;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.dispatcher = dispatcher;
+        this.replay = new BookChangeEvent[replayBufferSize];
+
+        this.publishedCounter = meterRegistry.counter("bookcatalog.changes.published");
+        this.droppedCounter = meterRegistry.counter("bookcatalog.changes.dropped");
+        this.disconnectedCounter = meterRegistry.counter("bookcatalog.changes.slow.disconnected");
+        Gauge.builder("bookcatalog.changes.subscribers", subscribers, Set::size)
+                .description("Open change stream connections")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void commandExecuted(Command command) {
+        if (command instanceof SaveBookCommand) {
+            Book book = ((SaveBookCommand) command).getBook();
+            publish(BookChangeEvent.Type.CREATED, book.getId(), null, book);
+        } else if (command instanceof DeleteBookCommand) {
+            publish(BookChangeEvent.Type.DELETED, ((DeleteBookCommand) command).getBookId(), null, null);
+        } else if (command instanceof BulkJobCommand) {
+            publish(BookChangeEvent.Type.BULK, null, ((BulkJobCommand) command).getJobId(), null);
+        } else if (command instanceof CompositeCommand) {
+            for (Command child : ((CompositeCommand) command).getCommands()) {
+                commandExecuted(child);
+            }
+        }
+    }
+
+    @Override
+    public void commandUndone(Command command) {
+        if (command instanceof SaveBookCommand) {
+            publish(BookChangeEvent.Type.DELETED, ((SaveBookCommand) command).getBook().getId(), null, null);
+        } else if (command instanceof DeleteBookCommand) {
+            publish(BookChangeEvent.Type.RESTORED, ((DeleteBookCommand) command).getBookId(), null, null);
+        } else if (command instanceof BulkJobCommand) {
+            publish(BookChangeEvent.Type.BULK, null, ((BulkJobCommand) command).getJobId(), null);
+        } else if (command instanceof CompositeCommand) {
+            List<Command> children = ((CompositeCommand) command).getCommands();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                commandUndone(children.get(i));
+            }
+        }
+    }
+
+    public void bookUpdated(Book book) {
+        publish(BookChangeEvent.Type.UPDATED, book.getId(), null, book);
+    }
+
+    /**
+     * Registers a subscriber, first queueing everything after {@code lastEventId} when the
+     * replay buffer still holds it, or a RESET event when the client has fallen too far
+     * behind and must re-read the catalog.
+     */
+    public ChangeSubscriber subscribe(ChangeSink sink, Long lastEventId) {
+        ChangeSubscriber subscriber = new ChangeSubscriber(sink, subscriberBufferSize);
+        lock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new SubscriberLimitException("Change stream subscriber limit of " + maxSubscribers + " reached");
+            }
+            if (lastEventId != null && lastEventId != lastSequence) {
+                long missed = lastSequence - lastEventId;
+                if (missed < 0 || missed > replaySize || missed > subscriberBufferSize) {
+                    subscriber.offer(BookChangeEvent.reset(lastSequence), slowConsumerPolicy);
+                } else {
+                    for (long i = replaySize - missed; i < replaySize; i++) {
+                        subscriber.offer(replay[(int) ((replayHead + i) % replayBufferSize)], slowConsumerPolicy);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        dispatch(subscriber);
+        return subscriber;
+    }
+
+    public void unsubscribe(ChangeSubscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.close();
+    }
+
+    @Scheduled(fixedDelayString = "${bookcatalog.changes.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (ChangeSubscriber subscriber : subscribers) {
+            if (!disconnectIfStalled(subscriber, now)) {
+                subscriber.requestHeartbeat();
+                dispatch(subscriber);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ChangeSubscriber subscriber : new ArrayList<>(subscribers)) {
+            unsubscribe(subscriber);
+        }
+        if (dispatcher instanceof ExecutorService) {
+            ((ExecutorService) dispatcher).shutdown();
+        }
+    }
+
+    private void publish(BookChangeEvent.Type type, Long bookId, Long jobId, Book book) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // subscribers must never see a change that is later rolled back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(type, bookId, jobId, book);
+                }
+            });
+        } else {
+            publishNow(type, bookId, jobId, book);
+        }
+    }
+
+    private void publishNow(BookChangeEvent.Type type, Long bookId, Long jobId, Book book) {
+        lock.lock();
+        try {
+            BookChangeEvent event = new BookChangeEvent(++lastSequence, type, bookId, jobId, book, Instant.now());
+            replay[(replayHead + replaySize) % replayBufferSize] = event;
+            if (replaySize < replayBufferSize) {
+                replaySize++;
+            } else {
+                replayHead = (replayHead + 1) % replayBufferSize;
+            }
+            // offered under the lock so every subscriber buffer stays in sequence order
+            long now = System.nanoTime();
+            for (ChangeSubscriber subscriber : subscribers) {
+                if (disconnectIfStalled(subscriber, now)) {
+                    continue;
+                }
+                if (!subscriber.offer(event, slowConsumerPolicy)) {
+                    if (slowConsumerPolicy == SlowConsumerPolicy.DROP_OLDEST) {
+                        droppedCounter.increment();
+                    } else {
+                        disconnectedCounter.increment();
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        publishedCounter.increment();
+        for (ChangeSubscriber subscriber : subscribers) {
+            dispatch(subscriber);
+        }
+    }
+
+    /** A send stuck past the timeout marks a slow consumer whatever the policy: no buffer helps it. */
+    private boolean disconnectIfStalled(ChangeSubscriber subscriber, long nowNanos) {
+        if (!subscriber.abandonIfStalled(nowNanos, sendTimeoutNanos)) {
+            return false;
+        }
+        subscribers.remove(subscriber);
+        disconnectedCounter.increment();
+        return true;
+    }
+
+    private void dispatch(ChangeSubscriber subscriber) {
+        if (!subscriber.markScheduled()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                subscriber.drain();
+                if (subscriber.isClosed()) {
+                    subscribers.remove(subscriber);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            unsubscribe(subscriber);
+        }
+    }
+}
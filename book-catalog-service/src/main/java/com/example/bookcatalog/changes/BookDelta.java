@@ -0,0 +1,37 @@
+package com.example.bookcatalog.changes;
+
+import com.example.bookcatalog.entity.Book;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookDelta {
+
+    private final long sequence;
+    private final Long bookId;
+    private final boolean deleted;
+    private final Book book;
+
+    BookDelta(long sequence, Long bookId, Book book) {
+        this.sequence = sequence;
+        this.bookId = bookId;
+        this.deleted = book == null;
+        this.book = book;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    /** True when the book no longer exists; consumers drop their copy. */
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+}
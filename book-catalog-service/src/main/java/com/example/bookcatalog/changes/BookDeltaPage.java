@@ -0,0 +1,34 @@
+package com.example.bookcatalog.changes;
+
+import java.util.Collections;
+import java.util.List;
+
+public class BookDeltaPage {
+
+    private final List<BookDelta> changes;
+    private final long nextToken;
+    private final boolean hasMore;
+
+    BookDeltaPage(List<BookDelta> changes, long nextToken, boolean hasMore) {
+        this.changes = changes;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+
+    public static BookDeltaPage empty(long token) {
+        return new BookDeltaPage(Collections.emptyList(), token, false);
+    }
+
+    public List<BookDelta> getChanges() {
+        return changes;
+    }
+
+    /** Pass back as {@code since} to continue after this page. */
+    public long getNextToken() {
+        return nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.bookcatalog.changes;
+
+import com.example.bookcatalog.entity.Book;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Temporal history of books. Revisions are captured by {@link BookChangeLog} in the
+ * writer's transaction and only ever inserted, so history costs writers one batched
+ * insert and no row locks on older revisions. As-of reads take one probe of the
+ * (book_id, valid_from) index.
+ *
+ * <p>Maintenance keeps the table from growing without bound: revisions superseded before
+ * the retention horizon are pruned, and beyond the compaction age only the last revision
+ * of each calendar day is kept, which is the granularity billing questions are asked in.
+ */
+@Component
+public class BookRevisionLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookRevisionLog.class);
+
+    static final String CURRENT_SQL = "SELECT id, title, author, isbn, publication_year, price, version, " +
+            "deleted_at FROM books WHERE id IN (%s)";
+    static final String INSERT_SQL = "INSERT INTO book_revisions (book_id, valid_from, title, author, isbn, " +
+            "publication_year, price, version, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String AS_OF_SQL = "SELECT book_id, title, author, isbn, publication_year, price, version, deleted " +
+            "FROM book_revisions WHERE book_id = ? AND valid_from <= ? ORDER BY valid_from DESC, id DESC LIMIT 1";
+    static final String ID_RANGE_SQL = "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM book_revisions";
+    static final String CHUNK_NEWEST_SQL = "SELECT MAX(valid_from) FROM book_revisions WHERE id BETWEEN ? AND ?";
+    static final String OBSOLETE_SQL = "SELECT r.id FROM book_revisions r WHERE r.id BETWEEN ? AND ? AND (" +
+            // superseded, or deleted, before the retention horizon
+            "(r.valid_from < ? AND (r.deleted = TRUE OR EXISTS (SELECT 1 FROM book_revisions n " +
+            "WHERE n.book_id = r.book_id AND n.valid_from > r.valid_from AND n.valid_from <= ?))) OR " +
+            // not the last revision of its day, beyond the compaction age
+            "(r.valid_from < ? AND EXISTS (SELECT 1 FROM book_revisions n WHERE n.book_id = r.book_id " +
+            "AND n.valid_from > r.valid_from AND n.valid_from < ? " +
+            "AND CAST(n.valid_from AS DATE) = CAST(r.valid_from AS DATE))))";
+    static final String DELETE_SQL = "DELETE FROM book_revisions WHERE id = ?";
+
+    private static final int CAPTURE_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final Duration compactAfter;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final Counter capturedCounter;
+    private final Counter removedCounter;
+
+    @Autowired
+    public BookRevisionLog(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${bookcatalog.revisions.retention-days:2555}") long retentionDays,
+                           @Value("${bookcatalog.revisions.compact-after-days:30}") long compactAfterDays,
+                           @Value("${bookcatalog.revisions.maintenance-batch-size:5000}") int batchSize,
+                           @Value("${bookcatalog.bulk.min-pause-ms:50}") long pauseMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Revision maintenance batch size must be positive");
+        }
+        if (compactAfterDays > retentionDays) {
+            throw new IllegalArgumentException("Revisions cannot be compacted after they expire");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = Duration.ofDays(retentionDays);
+        this.compactAfter = Duration.ofDays(compactAfterDays);
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.capturedCounter = meterRegistry.counter("bookcatalog.revisions.captured");
+        this.removedCounter = meterRegistry.counter("bookcatalog.revisions.removed");
+    }
+
+    /** Appends the current state of each book, or a tombstone for books that no longer exist. */
+    public void capture(Collection<Long> bookIds, Timestamp validFrom) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        for (int from = 0; from < ids.size(); from += CAPTURE_CHUNK) {
+            captureChunk(ids.subList(from, Math.min(from + CAPTURE_CHUNK, ids.size())), validFrom);
+        }
+    }
+
+    public Optional<Book> findAsOf(Long bookId, LocalDateTime asOf) {
+        if (asOf.isBefore(LocalDateTime.now().minus(retention))) {
+            throw new IllegalArgumentException("asOf is older than the revision retention of "
+                    + retention.toDays() + " days");
+        }
+        List<Book> revision = jdbcTemplate.query(AS_OF_SQL, (rs, rowNum) -> {
+            if (rs.getBoolean("deleted")) {
+                return null;
+            }
+            Book book = new Book(rs.getString("title"), rs.getString("author"), rs.getString("isbn"),
+                    rs.getObject("publication_year", Integer.class), rs.getBigDecimal("price"));
+            book.setId(rs.getLong("book_id"));
+            book.setVersion(rs.getObject("version", Long.class));
+            return book;
+        }, bookId, Timestamp.valueOf(asOf));
+        return revision.isEmpty() ? Optional.empty() : Optional.ofNullable(revision.get(0));
+    }
+
+    @Scheduled(fixedDelayString = "${bookcatalog.revisions.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        removeObsolete(now.minus(retention), now.minus(compactAfter));
+    }
+
+    /**
+     * Walks the table in primary key chunks, oldest first, and stops at the first chunk
+     * holding revisions younger than the compaction cutoff.
+     */
+    public long removeObsolete(LocalDateTime retentionCutoff, LocalDateTime compactionCutoff) {
+        Map<String, Object> range = jdbcTemplate.queryForMap(ID_RANGE_SQL);
+        if (range.get("min_id") == null) {
+            return 0;
+        }
+        long maxId = ((Number) range.get("max_id")).longValue();
+        Timestamp retainFrom = Timestamp.valueOf(retentionCutoff);
+        Timestamp compactFrom = Timestamp.valueOf(compactionCutoff);
+        long removed = 0;
+        for (long lo = ((Number) range.get("min_id")).longValue(); lo <= maxId; lo += batchSize) {
+            long hi = lo + batchSize - 1;
+            List<Long> obsolete = jdbcTemplate.queryForList(OBSOLETE_SQL, Long.class,
+                    lo, hi, retainFrom, retainFrom, compactFrom, compactFrom);
+            if (!obsolete.isEmpty()) {
+                List<Object[]> args = new ArrayList<>(obsolete.size());
+                for (Long id : obsolete) {
+                    args.add(new Object[]{id});
+                }
+                transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(DELETE_SQL, args));
+                removed += obsolete.size();
+                removedCounter.increment(obsolete.size());
+            }
+            Timestamp newest = jdbcTemplate.queryForObject(CHUNK_NEWEST_SQL, Timestamp.class, lo, hi);
+            if (newest != null && !newest.before(compactFrom) || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            pause();
+        }
+        if (removed > 0) {
+            logger.info("Removed {} obsolete book revisions", removed);
+        }
+        return removed;
+    }
+
+    private void captureChunk(List<Long> ids, Timestamp validFrom) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Map<Long, Object[]> rows = new HashMap<>();
+        jdbcTemplate.query(String.format(CURRENT_SQL, placeholders), rs -> {
+            long id = rs.getLong("id");
+            rows.put(id, new Object[]{id, validFrom, rs.getString("title"), rs.getString("author"),
+                    rs.getString("isbn"), rs.getObject("publication_year", Integer.class),
+                    rs.getBigDecimal("price"), rs.getLong("version"), rs.getTimestamp("deleted_at") != null});
+        }, ids.toArray());
+
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Object[] row = rows.get(id);
+            args.add(row != null ? row : new Object[]{id, validFrom, null, null, null, null, null, null, true});
+        }
+        int[] argTypes = {Types.BIGINT, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                Types.INTEGER, Types.DECIMAL, Types.BIGINT, Types.BOOLEAN};
+        jdbcTemplate.batchUpdate(INSERT_SQL, args, argTypes);
+        capturedCounter.increment(args.size());
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
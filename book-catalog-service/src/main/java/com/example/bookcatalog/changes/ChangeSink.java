@@ -0,0 +1,16 @@
+package com.example.bookcatalog.changes;
+
+import java.io.IOException;
+
+/**
+ * Transport for one change stream subscriber. The publisher never calls a sink from two
+ * threads at once, so implementations need no locking of their own.
+ */
+public interface ChangeSink {
+
+    void send(BookChangeEvent event) throws IOException;
+
+    void heartbeat() throws IOException;
+
+    void close();
+}
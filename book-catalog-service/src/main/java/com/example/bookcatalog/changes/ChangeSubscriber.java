@@ -0,0 +1,142 @@
+package com.example.bookcatalog.changes;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ChangeSubscriber {
+
+    private final ChangeSink sink;
+    private final BlockingQueue<BookChangeEvent> buffer;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean sinkClosed = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile boolean overflowed;
+    private volatile boolean heartbeatDue;
+    // System.nanoTime() when the send in flight started, 0 when none is
+    private volatile long sendStartedNanos;
+
+    ChangeSubscriber(ChangeSink sink, int bufferSize) {
+        this.sink = sink;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    /**
+     * Buffers an event; only called by the publisher under its lock, so a slot freed by
+     * dropping the oldest event cannot be taken by another producer.
+     */
+    boolean offer(BookChangeEvent event, SlowConsumerPolicy policy) {
+        if (closed || overflowed) {
+            return true;
+        }
+        if (buffer.offer(event)) {
+            return true;
+        }
+        if (policy == SlowConsumerPolicy.DROP_OLDEST) {
+            buffer.poll();
+            buffer.offer(event);
+        } else {
+            overflowed = true;
+            buffer.clear();
+        }
+        return false;
+    }
+
+    /** Returns true when the caller should hand a drain to the dispatcher. */
+    boolean markScheduled() {
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Sends everything buffered, or a keep-alive when one is due and nothing else went out.
+     * Only one thread drains at a time; a producer that loses the race relies on the re-check
+     * after the flag is released.
+     */
+    void drain() {
+        scheduled.set(false);
+        while (!closed && draining.compareAndSet(false, true)) {
+            try {
+                if (overflowed) {
+                    close();
+                    return;
+                }
+                BookChangeEvent event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    heartbeatDue = false;
+                    sendStartedNanos = System.nanoTime();
+                    sink.send(event);
+                }
+                if (heartbeatDue && !closed) {
+                    heartbeatDue = false;
+                    sendStartedNanos = System.nanoTime();
+                    sink.heartbeat();
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                return;
+            } finally {
+                sendStartedNanos = 0;
+                draining.set(false);
+                if (closed) {
+                    // abandoned while a send was stuck; the sink is free again now
+                    closeSink();
+                }
+            }
+            if (buffer.isEmpty() && !overflowed && !heartbeatDue) {
+                return;
+            }
+        }
+    }
+
+    /** Asks the next drain to send a keep-alive unless events are flowing anyway. */
+    void requestHeartbeat() {
+        heartbeatDue = true;
+    }
+
+    /**
+     * Gives up on a subscriber whose send has been in flight for longer than the timeout.
+     * The sink is left to the thread stuck in it, which closes it once the send returns,
+     * so the caller never waits on a blocked connection.
+     */
+    boolean abandonIfStalled(long nowNanos, long timeoutNanos) {
+        long started = sendStartedNanos;
+        if (closed || started == 0 || nowNanos - started < timeoutNanos) {
+            return false;
+        }
+        closed = true;
+        buffer.clear();
+        if (!draining.get()) {
+            // the send completed after all and its drain has already let go of the sink
+            closeSink();
+        }
+        return true;
+    }
+
+    void close() {
+        if (!closed) {
+            closed = true;
+            buffer.clear();
+            closeSink();
+        }
+    }
+
+    private void closeSink() {
+        if (sinkClosed.compareAndSet(false, true)) {
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                // the connection is already gone
+            }
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    int getBuffered() {
+        return buffer.size();
+    }
+}
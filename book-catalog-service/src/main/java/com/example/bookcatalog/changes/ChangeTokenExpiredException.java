@@ -0,0 +1,8 @@
+package com.example.bookcatalog.changes;
+
+public class ChangeTokenExpiredException extends RuntimeException {
+
+    public ChangeTokenExpiredException(String message) {
+        super(message);
+    }
+}
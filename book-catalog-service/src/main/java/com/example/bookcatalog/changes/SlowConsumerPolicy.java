@@ -0,0 +1,8 @@
+package com.example.bookcatalog.changes;
+
+public enum SlowConsumerPolicy {
+    /** Close the stream when the subscriber buffer overflows; the client resumes with Last-Event-ID. */
+    DISCONNECT,
+    /** Discard the oldest buffered event; the client sees a gap in the event ids. */
+    DROP_OLDEST
+}
@@ -0,0 +1,33 @@
+package com.example.bookcatalog.changes;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+public class SseChangeSink implements ChangeSink {
+
+    private final SseEmitter emitter;
+
+    public SseChangeSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(BookChangeEvent event) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(Long.toString(event.getSequence()))
+                .name(event.getType() == BookChangeEvent.Type.RESET ? "reset" : "change")
+                .data(event, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bookcatalog.changes;
+
+public class SubscriberLimitException extends RuntimeException {
+
+    public SubscriberLimitException(String message) {
+        super(message);
+    }
+}
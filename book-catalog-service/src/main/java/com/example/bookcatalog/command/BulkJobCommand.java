@@ -0,0 +1,57 @@
+package com.example.bookcatalog.command;
+
+import com.example.bookcatalog.bulk.BulkOperationService;
+import com.example.bookcatalog.entity.BulkJob;
+import com.example.bookcatalog.job.JobContext;
+
+public class BulkJobCommand implements Command {
+
+    private final BulkOperationService bulkOperationService;
+    private final Long jobId;
+    private final JobContext context;
+    private BulkJob job;
+
+    public BulkJobCommand(BulkOperationService bulkOperationService, Long jobId) {
+        this(bulkOperationService, jobId, JobContext.NONE);
+    }
+
+    public BulkJobCommand(BulkOperationService bulkOperationService, Long jobId, JobContext context) {
+        this.bulkOperationService = bulkOperationService;
+        this.jobId = jobId;
+        this.context = context;
+    }
+
+    BulkJobCommand(BulkOperationService bulkOperationService, Long jobId, BulkJob job) {
+        this(bulkOperationService, jobId, JobContext.NONE);
+        this.job = job;
+    }
+
+    @Override
+    public void execute() {
+        this.job = bulkOperationService.runJob(jobId, context);
+    }
+
+    @Override
+    public void undo() {
+        if (job != null) {
+            this.job = bulkOperationService.undoJob(jobId);
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        if (job == null) {
+            return "Bulk job " + jobId;
+        }
+        return "Bulk " + job.getType().name().toLowerCase() + " job " + jobId +
+                ": " + job.getRowsAffected() + " books";
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public BulkJob getJob() {
+        return job;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bookcatalog.command;
+
+public final class ClientContext {
+
+    public static final String DEFAULT_CLIENT_ID = "anonymous";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ClientContext() {
+    }
+
+    public static String currentClientId() {
+        String clientId = CURRENT.get();
+        return clientId != null ? clientId : DEFAULT_CLIENT_ID;
+    }
+
+    public static void setClientId(String clientId) {
+        if (clientId == null || clientId.isBlank()) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(clientId);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.bookcatalog.command;
+
+import com.example.bookcatalog.entity.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the children of a {@link CompositeCommand} in one transaction. Consecutive saves and
+ * deletes are sent as JDBC batches; any other command runs on its own inside the transaction.
+ */
+@Component
+public class CommandBatchExecutor {
+
+    static final String INSERT_SQL = "INSERT INTO books (title, author, isbn, publication_year, price, version) " +
+            "VALUES (?, ?, ?, ?, ?, 0)";
+    static final String SOFT_DELETE_SQL = "UPDATE books SET deleted_at = ?, version = version + 1 " +
+            "WHERE id = ? AND deleted_at IS NULL";
+    static final String RESTORE_SQL = "UPDATE books SET deleted_at = NULL, version = version + 1 " +
+            "WHERE id = ? AND deleted_at IS NOT NULL";
+    static final String HARD_DELETE_SQL = "DELETE FROM books WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public CommandBatchExecutor(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${bookcatalog.commands.batch-size:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Command batch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void executeAll(List<Command> commands) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (List<Command> run : runsOfSameType(commands)) {
+                Command first = run.get(0);
+                if (first instanceof SaveBookCommand) {
+                    insertBatch(run);
+                } else if (first instanceof DeleteBookCommand) {
+                    softDeleteBatch(run);
+                } else {
+                    run.forEach(Command::execute);
+                }
+            }
+        });
+    }
+
+    public void undoAll(List<Command> commandsNewestFirst) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (List<Command> run : runsOfSameType(commandsNewestFirst)) {
+                Command first = run.get(0);
+                if (first instanceof SaveBookCommand) {
+                    removeSavedBatch(run);
+                } else if (first instanceof DeleteBookCommand) {
+                    restoreBatch(run);
+                } else {
+                    run.forEach(Command::undo);
+                }
+            }
+        });
+    }
+
+    private void insertBatch(List<Command> run) {
+        for (List<Command> chunk : chunks(run)) {
+            long[] ids = jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL,
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    for (Command command : chunk) {
+                        Book book = ((SaveBookCommand) command).getBook();
+                        statement.setString(1, book.getTitle());
+                        statement.setString(2, book.getAuthor());
+                        statement.setString(3, book.getIsbn());
+                        statement.setObject(4, book.getPublicationYear(), Types.INTEGER);
+                        statement.setBigDecimal(5, book.getPrice());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    long[] generated = new long[chunk.size()];
+                    int count = 0;
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        while (keys.next() && count < generated.length) {
+                            generated[count++] = keys.getLong(1);
+                        }
+                    }
+                    if (count != generated.length) {
+                        throw new IllegalStateException("Expected " + generated.length +
+                                " generated book ids but got " + count);
+                    }
+                    return generated;
+                }
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                ((SaveBookCommand) chunk.get(i)).markSaved(ids[i]);
+            }
+        }
+    }
+
+    private void softDeleteBatch(List<Command> run) {
+        Timestamp deletedAt = Timestamp.valueOf(LocalDateTime.now());
+        for (List<Command> chunk : chunks(run)) {
+            List<Object[]> args = new ArrayList<>(chunk.size());
+            for (Command command : chunk) {
+                args.add(new Object[]{deletedAt, ((DeleteBookCommand) command).getBookId()});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(SOFT_DELETE_SQL, args);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    // rolls back the whole composite, earlier chunks included
+                    throw new RuntimeException("Book not found with id: " + ((DeleteBookCommand) chunk.get(i)).getBookId());
+                }
+            }
+            chunk.forEach(command -> ((DeleteBookCommand) command).markDeleted(true));
+        }
+    }
+
+    private void removeSavedBatch(List<Command> run) {
+        List<Object[]> args = new ArrayList<>(run.size());
+        for (Command command : run) {
+            Long savedBookId = ((SaveBookCommand) command).getSavedBookId();
+            if (savedBookId != null) {
+                args.add(new Object[]{savedBookId});
+            }
+        }
+        for (int from = 0; from < args.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(HARD_DELETE_SQL, args.subList(from, Math.min(from + batchSize, args.size())));
+        }
+        run.forEach(command -> ((SaveBookCommand) command).markSaved(null));
+    }
+
+    private void restoreBatch(List<Command> run) {
+        List<Command> deleted = new ArrayList<>(run.size());
+        for (Command command : run) {
+            if (((DeleteBookCommand) command).isDeleted()) {
+                deleted.add(command);
+            }
+        }
+        for (List<Command> chunk : chunks(deleted)) {
+            List<Object[]> args = new ArrayList<>(chunk.size());
+            for (Command command : chunk) {
+                args.add(new Object[]{((DeleteBookCommand) command).getBookId()});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(RESTORE_SQL, args);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    // the tombstone was purged; rolls back the whole undo, earlier chunks included
+                    throw new UndoNotPossibleException("Book with ID " + ((DeleteBookCommand) chunk.get(i)).getBookId()
+                            + " was purged and cannot be restored");
+                }
+            }
+        }
+        run.forEach(command -> ((DeleteBookCommand) command).markDeleted(false));
+    }
+
+    private List<List<Command>> chunks(List<Command> run) {
+        List<List<Command>> chunks = new ArrayList<>();
+        for (int from = 0; from < run.size(); from += batchSize) {
+            chunks.add(run.subList(from, Math.min(from + batchSize, run.size())));
+        }
+        return chunks;
+    }
+
+    private static List<List<Command>> runsOfSameType(List<Command> commands) {
+        List<List<Command>> runs = new ArrayList<>();
+        List<Command> current = null;
+        for (Command command : commands) {
+            if (current == null || current.get(0).getClass() != command.getClass()) {
+                current = new ArrayList<>();
+                runs.add(current);
+            }
+            current.add(command);
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.bookcatalog.command;
+
+import com.example.bookcatalog.bulk.BulkOperationService;
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.repository.BookRepository;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+class CommandCodec {
+
+    static final byte UNSUPPORTED = 0;
+    static final byte SAVE_BOOK = 1;
+    static final byte DELETE_BOOK = 2;
+    static final byte BULK_JOB = 3;
+    static final byte COMPOSITE = 4;
+
+    private final BookRepository bookRepository;
+    private final Supplier<BulkOperationService> bulkOperationService;
+    private final Supplier<CommandBatchExecutor> batchExecutor;
+
+    CommandCodec(BookRepository bookRepository, Supplier<BulkOperationService> bulkOperationService,
+                 Supplier<CommandBatchExecutor> batchExecutor) {
+        this.bookRepository = bookRepository;
+        this.bulkOperationService = bulkOperationService;
+        this.batchExecutor = batchExecutor;
+    }
+
+    byte typeOf(Command command) {
+        if (command instanceof SaveBookCommand) {
+            return SAVE_BOOK;
+        }
+        if (command instanceof DeleteBookCommand) {
+            return DELETE_BOOK;
+        }
+        if (command instanceof BulkJobCommand) {
+            return BULK_JOB;
+        }
+        if (command instanceof CompositeCommand) {
+            for (Command child : ((CompositeCommand) command).getCommands()) {
+                if (typeOf(child) == UNSUPPORTED) {
+                    return UNSUPPORTED;
+                }
+            }
+            return COMPOSITE;
+        }
+        return UNSUPPORTED;
+    }
+
+    byte[] encode(Command command) {
+        switch (typeOf(command)) {
+            case SAVE_BOOK:
+                SaveBookCommand save = (SaveBookCommand) command;
+                return encodeBook(save.getSavedBookId(), save.getBook());
+            case DELETE_BOOK:
+                return ByteBuffer.allocate(Long.BYTES).putLong(((DeleteBookCommand) command).getBookId()).array();
+            case BULK_JOB:
+                return ByteBuffer.allocate(Long.BYTES).putLong(((BulkJobCommand) command).getJobId()).array();
+            case COMPOSITE:
+                return encodeComposite((CompositeCommand) command);
+            default:
+                throw new IllegalArgumentException("Command cannot be persisted: " + command.getDescription());
+        }
+    }
+
+    Command decode(byte type, byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        switch (type) {
+            case SAVE_BOOK: {
+                Long id = readId(in);
+                return new SaveBookCommand(bookRepository, readBook(in), id);
+            }
+            case DELETE_BOOK:
+                return new DeleteBookCommand(bookRepository, in.getLong(), true);
+            case BULK_JOB: {
+                long jobId = in.getLong();
+                BulkOperationService service = bulkOperationService.get();
+                return new BulkJobCommand(service, jobId, service.findJob(jobId).orElse(null));
+            }
+            case COMPOSITE:
+                return decodeComposite(in);
+            default:
+                throw new IllegalArgumentException("Unknown persisted command type: " + type);
+        }
+    }
+
+    private byte[] encodeComposite(CompositeCommand composite) {
+        byte[] description = utf8(composite.getBaseDescription());
+        List<Command> children = composite.getCommands();
+        List<byte[]> bodies = new ArrayList<>(children.size());
+        int size = Integer.BYTES + length(description) + Integer.BYTES;
+        for (Command child : children) {
+            byte[] body = encode(child);
+            bodies.add(body);
+            size += 1 + Integer.BYTES + body.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        putString(out, description);
+        out.putInt(children.size());
+        for (int i = 0; i < children.size(); i++) {
+            out.put(typeOf(children.get(i)));
+            out.putInt(bodies.get(i).length);
+            out.put(bodies.get(i));
+        }
+        return out.array();
+    }
+
+    private Command decodeComposite(ByteBuffer in) {
+        String description = getString(in);
+        int count = in.getInt();
+        List<Command> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte type = in.get();
+            byte[] body = new byte[in.getInt()];
+            in.get(body);
+            children.add(decode(type, body));
+        }
+        return new CompositeCommand(description, children, batchExecutor.get(), true);
+    }
+
+    private static byte[] encodeBook(Long id, Book book) {
+        byte[] title = utf8(book != null ? book.getTitle() : null);
+        byte[] author = utf8(book != null ? book.getAuthor() : null);
+        byte[] isbn = utf8(book != null ? book.getIsbn() : null);
+        byte[] price = utf8(book != null && book.getPrice() != null ? book.getPrice().toPlainString() : null);
+        ByteBuffer out = ByteBuffer.allocate(1 + Long.BYTES + 1 + Integer.BYTES
+                + 4 * Integer.BYTES + length(title) + length(author) + length(isbn) + length(price));
+        out.put((byte) (id != null ? 1 : 0));
+        out.putLong(id != null ? id : 0);
+        Integer year = book != null ? book.getPublicationYear() : null;
+        out.put((byte) (year != null ? 1 : 0));
+        out.putInt(year != null ? year : 0);
+        putString(out, title);
+        putString(out, author);
+        putString(out, isbn);
+        putString(out, price);
+        return out.array();
+    }
+
+    private static Long readId(ByteBuffer in) {
+        boolean present = in.get() != 0;
+        long id = in.getLong();
+        return present ? id : null;
+    }
+
+    private static Book readBook(ByteBuffer in) {
+        boolean hasYear = in.get() != 0;
+        int year = in.getInt();
+        Book book = new Book();
+        book.setPublicationYear(hasYear ? year : null);
+        book.setTitle(getString(in));
+        book.setAuthor(getString(in));
+        book.setIsbn(getString(in));
+        String price = getString(in);
+        book.setPrice(price != null ? new BigDecimal(price) : null);
+        return book;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void putString(ByteBuffer out, byte[] value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        out.putInt(value.length);
+        out.put(value);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -1,50 +1,202 @@
 package com.example.bookcatalog.command;
 
+import com.example.bookcatalog.jfr.CommandEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Component
-public class CommandInvoker {
-    
-    private final List<Command> commandHistory;
+public class CommandInvoker implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandInvoker.class);
+
+    static final int DEFAULT_HISTORY_CAPACITY = 100;
+    static final int DEFAULT_MAX_CLIENTS = 1000;
+
+    private final Map<String, CommandJournal> journals = new ConcurrentHashMap<>();
+    private final int historyCapacity;
+    private final int maxClients;
+    private final PersistentCommandHistory persistentHistory;
+    private final List<CommandListener> listeners = new CopyOnWriteArrayList<>();
     
     public CommandInvoker() {
-        this.commandHistory = new ArrayList<>();
+        this(DEFAULT_HISTORY_CAPACITY, DEFAULT_MAX_CLIENTS);
+    }
+
+    public CommandInvoker(int historyCapacity, int maxClients) {
+        this(historyCapacity, maxClients, (PersistentCommandHistory) null);
+    }
+
+    @Autowired
+    public CommandInvoker(@Value("${bookcatalog.commands.history-capacity:100}") int historyCapacity,
+                          @Value("${bookcatalog.commands.max-clients:1000}") int maxClients,
+                          ObjectProvider<PersistentCommandHistory> persistentHistory,
+                          ObjectProvider<CommandListener> listeners) {
+        this(historyCapacity, maxClients, persistentHistory.getIfAvailable());
+        listeners.orderedStream().forEach(this::addListener);
+    }
+
+    CommandInvoker(int historyCapacity, int maxClients, PersistentCommandHistory persistentHistory) {
+        this.historyCapacity = historyCapacity;
+        this.maxClients = maxClients;
+        this.persistentHistory = persistentHistory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (persistentHistory != null) {
+            persistentHistory.restoreInto(this);
+        }
+    }
+    
+    /** The command {@link #undoLastCommand()} would undo next for the current client, or null. */
+    public Command peekLastCommand() {
+        return journal(ClientContext.currentClientId()).peekLast();
+    }
+
+    public void addListener(CommandListener listener) {
+        listeners.add(listener);
     }
     
     public void executeCommand(Command command) {
-        command.execute();
-        commandHistory.add(command);
+        String clientId = ClientContext.currentClientId();
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            command.execute();
+            failed = false;
+        } finally {
+            event.complete(CommandEvent.EXECUTE, command, clientId, failed);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // an undo entry for a write that rolls back would undo something that never happened,
+            // and the fsync of the durable log should not run while the row locks are held
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(clientId, command);
+                }
+            });
+        } else {
+            record(clientId, command);
+        }
+        for (CommandListener listener : listeners) {
+            notifyListener(() -> listener.commandExecuted(command));
+        }
     }
     
-    public void undoLastCommand() {
-        if (!commandHistory.isEmpty()) {
-            Command lastCommand = commandHistory.get(commandHistory.size() - 1);
-            lastCommand.undo();
-            commandHistory.remove(commandHistory.size() - 1);
+    public Command undoLastCommand() {
+        String clientId = ClientContext.currentClientId();
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        Command undone = null;
+        boolean failed = true;
+        try {
+            undone = journal(clientId).undoLast((command, sequence) -> {
+                if (sequence > 0 && persistentHistory != null) {
+                    persistentHistory.recordUndone(clientId, sequence);
+                }
+                for (CommandListener listener : listeners) {
+                    notifyListener(() -> listener.commandUndone(command));
+                }
+            }, (command, sequence) -> {
+                // nothing was reverted, only the journal entry goes
+                if (sequence > 0 && persistentHistory != null) {
+                    persistentHistory.recordUndone(clientId, sequence);
+                }
+            });
+            failed = false;
+            return undone;
+        } finally {
+            event.complete(CommandEvent.UNDO, undone, clientId, failed);
         }
     }
     
     public List<String> getCommandHistory() {
-        List<String> history = new ArrayList<>();
-        for (Command command : commandHistory) {
-            history.add(command.getDescription());
-        }
-        return history;
+        return journal(ClientContext.currentClientId()).descriptions();
     }
     
     public void clearHistory() {
-        commandHistory.clear();
+        String clientId = ClientContext.currentClientId();
+        journal(clientId).clear();
+        if (persistentHistory != null) {
+            persistentHistory.recordCleared(clientId);
+        }
     }
     
     public int getHistorySize() {
-        return commandHistory.size();
+        return journal(ClientContext.currentClientId()).size();
     }
     
     public boolean hasCommands() {
-        return !commandHistory.isEmpty();
+        return getHistorySize() > 0;
+    }
+
+    public int getClientCount() {
+        return journals.size();
+    }
+
+    void restore(String clientId, long sequence, Command command) {
+        journal(clientId).append(command, sequence);
+    }
+
+    private void record(String clientId, Command command) {
+        long sequence = 0;
+        if (persistentHistory != null) {
+            try {
+                sequence = persistentHistory.recordExecuted(clientId, command);
+            } catch (RuntimeException e) {
+                // the write is committed; it stays undoable until restart
+                logger.error("Failed to log command durably: {}", command.getDescription(), e);
+            }
+        }
+        journal(clientId).append(command, sequence);
+    }
+
+    private static void notifyListener(Runnable notification) {
+        try {
+            notification.run();
+        } catch (RuntimeException e) {
+            // a failing listener must never turn a committed command into an error
+            logger.warn("Command listener failed", e);
+        }
+    }
+
+    private CommandJournal journal(String clientId) {
+        CommandJournal journal = journals.get(clientId);
+        if (journal != null) {
+            return journal;
+        }
+        if (journals.size() >= maxClients) {
+            evictLeastRecentlyUsed();
+        }
+        return journals.computeIfAbsent(clientId, id -> new CommandJournal(historyCapacity));
     }
-}
 
+    private void evictLeastRecentlyUsed() {
+        String oldestClient = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<String, CommandJournal> entry : journals.entrySet()) {
+            long lastAccess = entry.getValue().getLastAccessNanos();
+            if (lastAccess < oldestAccess) {
+                oldestAccess = lastAccess;
+                oldestClient = entry.getKey();
+            }
+        }
+        if (oldestClient != null) {
+            journals.remove(oldestClient);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.bookcatalog.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+
+public class CommandJournal {
+
+    private final Command[] ring;
+    private final long[] sequences;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int head;
+    private int size;
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    public CommandJournal(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Command journal capacity must be positive");
+        }
+        this.ring = new Command[capacity];
+        this.sequences = new long[capacity];
+    }
+
+    public void append(Command command) {
+        append(command, 0);
+    }
+
+    public void append(Command command, long sequence) {
+        lock.lock();
+        try {
+            int slot = (head + size) % ring.length;
+            ring[slot] = command;
+            sequences[slot] = sequence;
+            if (size < ring.length) {
+                size++;
+            } else {
+                // full: the oldest entry is overwritten and becomes eligible for GC
+                head = (head + 1) % ring.length;
+            }
+            touch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Undoes the newest command and, while still holding the journal lock, hands it to
+     * {@code onUndone} with its log sequence (zero when it was never persisted). Returns
+     * the undone command, or null when the journal is empty. A command that throws
+     * {@link UndoNotPossibleException} is handed to {@code onDiscarded} and removed before
+     * the exception propagates, so it does not block the commands beneath it.
+     */
+    public Command undoLast(ObjLongConsumer<Command> onUndone, ObjLongConsumer<Command> onDiscarded) {
+        lock.lock();
+        try {
+            touch();
+            if (size == 0) {
+                return null;
+            }
+            int last = (head + size - 1) % ring.length;
+            Command command = ring[last];
+            long sequence = sequences[last];
+            try {
+                command.undo();
+            } catch (UndoNotPossibleException e) {
+                ring[last] = null;
+                size--;
+                onDiscarded.accept(command, sequence);
+                throw e;
+            }
+            ring[last] = null;
+            size--;
+            onUndone.accept(command, sequence);
+            return command;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Command peekLast() {
+        lock.lock();
+        try {
+            return size == 0 ? null : ring[(head + size - 1) % ring.length];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<String> descriptions() {
+        lock.lock();
+        try {
+            List<String> history = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                history.add(ring[(head + i) % ring.length].getDescription());
+            }
+            return history;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                ring[(head + i) % ring.length] = null;
+            }
+            head = 0;
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    private void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.bookcatalog.command;
+
+public interface CommandListener {
+    void commandExecuted(Command command);
+    void commandUndone(Command command);
+}
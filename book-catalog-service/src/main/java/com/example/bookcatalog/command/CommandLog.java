@@ -0,0 +1,444 @@
+package com.example.bookcatalog.command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only log of command history changes kept in preallocated memory-mapped
+ * segments. Every segment starts with {@code [magic][flags]} followed by records of the form
+ * {@code [length][crc32][kind][sequence][timestamp][clientId][commandType][body]}.
+ * <p>
+ * Appends are serialized on a short lock that only copies bytes into the mapping; durability
+ * is a separate group commit where one caller forces the mapping on behalf of every record
+ * appended before it. Compaction folds sealed segments into a snapshot segment holding only
+ * the entries that are still undoable; a snapshot supersedes every older segment on replay.
+ */
+public class CommandLog implements AutoCloseable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("cmd-(\\d+)\\.log");
+    private static final String COMPACTION_SUFFIX = ".compact";
+    private static final int MAGIC = 0x434D444C;
+    private static final int FLAG_SNAPSHOT = 1;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Queue<FileChannel> retiredChannels = new ConcurrentLinkedQueue<>();
+
+    private long generation;
+    private long lastSequence;
+    private volatile long durableSequence;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public CommandLog(Path directory, int segmentSize, boolean fsync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reads the log and returns the entries that are still undoable, grouped by client in
+     * execution order. Undone, cleared, expired and capacity-evicted entries are dropped.
+     */
+    public Map<String, Deque<CommandLogRecord>> replay(int capacityPerClient, long notBeforeMillis) {
+        long[] maxSequence = new long[1];
+        Map<String, Deque<CommandLogRecord>> live = replaySegments(fromLatestSnapshot(listSegments()),
+                capacityPerClient, notBeforeMillis, maxSequence);
+        lastSequence = Math.max(lastSequence, maxSequence[0]);
+        durableSequence = lastSequence;
+        return live;
+    }
+
+    public void open() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path stale : files.filter(path -> path.toString().endsWith(COMPACTION_SUFFIX))
+                        .collect(Collectors.toList())) {
+                    Files.deleteIfExists(stale);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare command log directory " + directory, e);
+        }
+        List<Path> segments = listSegments();
+        generation = segments.isEmpty() ? 0 : generationOf(segments.get(segments.size() - 1));
+        appendLock.lock();
+        try {
+            roll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long appendExecuted(String clientId, byte commandType, byte[] body, long timestampMillis) {
+        return append(CommandLogRecord.KIND_EXECUTED, clientId, commandType, body, timestampMillis);
+    }
+
+    public void appendUndone(String clientId, long undoneSequence, long timestampMillis) {
+        byte[] body = ByteBuffer.allocate(Long.BYTES).putLong(undoneSequence).array();
+        append(CommandLogRecord.KIND_UNDONE, clientId, (byte) 0, body, timestampMillis);
+    }
+
+    public void appendCleared(String clientId, long timestampMillis) {
+        append(CommandLogRecord.KIND_CLEARED, clientId, (byte) 0, new byte[0], timestampMillis);
+    }
+
+    /**
+     * Folds every sealed segment into one snapshot segment. Returns the number of segments
+     * removed, or zero when there was nothing to compact.
+     */
+    public int compact(int capacityPerClient, long notBeforeMillis) {
+        long activeGeneration;
+        appendLock.lock();
+        try {
+            activeGeneration = generation;
+        } finally {
+            appendLock.unlock();
+        }
+        List<Path> sealed = new ArrayList<>();
+        for (Path segment : fromLatestSnapshot(listSegments())) {
+            if (generationOf(segment) < activeGeneration) {
+                sealed.add(segment);
+            }
+        }
+        if (sealed.isEmpty() || (sealed.size() == 1 && isSnapshot(sealed.get(0)))) {
+            return 0;
+        }
+
+        List<CommandLogRecord> records = new ArrayList<>();
+        for (Deque<CommandLogRecord> entries : replaySegments(sealed, capacityPerClient, notBeforeMillis,
+                new long[1]).values()) {
+            records.addAll(entries);
+        }
+        records.sort(Comparator.comparingLong(CommandLogRecord::getSequence));
+
+        Path target = sealed.get(sealed.size() - 1);
+        Path temporary = target.resolveSibling(target.getFileName() + COMPACTION_SUFFIX);
+        try {
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+                header.putInt(MAGIC).putInt(FLAG_SNAPSHOT).flip();
+                writeFully(out, header);
+                for (CommandLogRecord record : records) {
+                    writeFully(out, ByteBuffer.wrap(encode(record)));
+                }
+                out.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (Path segment : sealed) {
+                if (!segment.equals(target)) {
+                    Files.deleteIfExists(segment);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact command log into " + target, e);
+        }
+        return sealed.size() - 1;
+    }
+
+    public int segmentCount() {
+        return listSegments().size();
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    @Override
+    public void close() {
+        syncLock.lock();
+        appendLock.lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                retire();
+                closeRetiredChannels();
+                durableSequence = lastSequence;
+            }
+        } finally {
+            appendLock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    private long append(byte kind, String clientId, byte commandType, byte[] body, long timestampMillis) {
+        long assigned;
+        appendLock.lock();
+        try {
+            assigned = ++lastSequence;
+            byte[] record = encode(new CommandLogRecord(kind, assigned, timestampMillis, clientId, commandType, body));
+            if (record.length + Integer.BYTES > segmentSize - SEGMENT_HEADER_BYTES) {
+                throw new IllegalArgumentException("Command log record of " + record.length +
+                        " bytes exceeds segment size");
+            }
+            if (buffer.remaining() < record.length + Integer.BYTES) {
+                roll();
+            }
+            buffer.put(record);
+        } finally {
+            appendLock.unlock();
+        }
+        if (fsync) {
+            awaitDurable(assigned);
+        }
+        return assigned;
+    }
+
+    private void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                // another caller's force already covered this record
+                return;
+            }
+            long target;
+            MappedByteBuffer current;
+            appendLock.lock();
+            try {
+                target = lastSequence;
+                current = buffer;
+            } finally {
+                appendLock.unlock();
+            }
+            current.force();
+            closeRetiredChannels();
+            durableSequence = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void roll() {
+        if (channel != null) {
+            buffer.force();
+            retire();
+            if (!fsync) {
+                closeRetiredChannels();
+            }
+        }
+        generation++;
+        Path segment = directory.resolve("cmd-" + generation + ".log");
+        try {
+            channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create command log segment " + segment, e);
+        }
+        buffer.putInt(MAGIC);
+        buffer.putInt(0);
+    }
+
+    private void retire() {
+        // a concurrent group commit may still be forcing this mapping, so closing is deferred
+        retiredChannels.add(channel);
+        channel = null;
+        buffer = null;
+    }
+
+    private void closeRetiredChannels() {
+        FileChannel retired;
+        while ((retired = retiredChannels.poll()) != null) {
+            try {
+                retired.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Map<String, Deque<CommandLogRecord>> replaySegments(List<Path> segments, int capacityPerClient,
+                                                                long notBeforeMillis, long[] maxSequence) {
+        Map<String, Deque<CommandLogRecord>> live = new LinkedHashMap<>();
+        for (Path segment : segments) {
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                if (data.remaining() < SEGMENT_HEADER_BYTES || data.getInt() != MAGIC) {
+                    continue;
+                }
+                data.getInt();
+                CommandLogRecord record;
+                while ((record = readRecord(data)) != null) {
+                    maxSequence[0] = Math.max(maxSequence[0], record.getSequence());
+                    apply(live, record, capacityPerClient, notBeforeMillis);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to replay command log segment " + segment, e);
+            }
+        }
+        live.values().removeIf(Deque::isEmpty);
+        return live;
+    }
+
+    private static void apply(Map<String, Deque<CommandLogRecord>> live, CommandLogRecord record,
+                              int capacityPerClient, long notBeforeMillis) {
+        switch (record.getKind()) {
+            case CommandLogRecord.KIND_EXECUTED:
+                if (record.getTimestampMillis() < notBeforeMillis) {
+                    return;
+                }
+                Deque<CommandLogRecord> entries = live.computeIfAbsent(record.getClientId(), id -> new ArrayDeque<>());
+                entries.addLast(record);
+                if (entries.size() > capacityPerClient) {
+                    entries.removeFirst();
+                }
+                return;
+            case CommandLogRecord.KIND_UNDONE:
+                Deque<CommandLogRecord> undone = live.get(record.getClientId());
+                if (undone != null) {
+                    long target = ByteBuffer.wrap(record.getBody()).getLong();
+                    // undo almost always targets the newest entry
+                    Iterator<CommandLogRecord> newestFirst = undone.descendingIterator();
+                    while (newestFirst.hasNext()) {
+                        if (newestFirst.next().getSequence() == target) {
+                            newestFirst.remove();
+                            break;
+                        }
+                    }
+                }
+                return;
+            case CommandLogRecord.KIND_CLEARED:
+                live.remove(record.getClientId());
+                return;
+            default:
+                throw new IllegalStateException("Unknown command log record kind: " + record.getKind());
+        }
+    }
+
+    private static CommandLogRecord readRecord(ByteBuffer data) {
+        if (data.remaining() < RECORD_HEADER_BYTES) {
+            return null;
+        }
+        int length = data.getInt();
+        if (length <= 0 || length > data.remaining() - Integer.BYTES) {
+            return null;
+        }
+        int expectedCrc = data.getInt();
+        ByteBuffer payload = data.slice();
+        payload.limit(length);
+        data.position(data.position() + length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            // torn write at the tail of a segment; everything after it is unusable
+            return null;
+        }
+        byte kind = payload.get();
+        long sequence = payload.getLong();
+        long timestamp = payload.getLong();
+        byte[] client = new byte[payload.getShort()];
+        payload.get(client);
+        byte commandType = payload.get();
+        byte[] body = new byte[payload.remaining()];
+        payload.get(body);
+        return new CommandLogRecord(kind, sequence, timestamp, new String(client, StandardCharsets.UTF_8),
+                commandType, body);
+    }
+
+    private static byte[] encode(CommandLogRecord record) {
+        byte[] client = record.getClientId().getBytes(StandardCharsets.UTF_8);
+        if (client.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Client id is too long for the command log");
+        }
+        int payloadLength = 1 + Long.BYTES + Long.BYTES + Short.BYTES + client.length + 1 + record.getBody().length;
+        ByteBuffer out = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadLength);
+        out.putInt(payloadLength);
+        out.putInt(0);
+        out.put(record.getKind());
+        out.putLong(record.getSequence());
+        out.putLong(record.getTimestampMillis());
+        out.putShort((short) client.length);
+        out.put(client);
+        out.put(record.getCommandType());
+        out.put(record.getBody());
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), RECORD_HEADER_BYTES, payloadLength);
+        out.putInt(Integer.BYTES, (int) crc.getValue());
+        return out.array();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            out.write(data);
+        }
+    }
+
+    private List<Path> fromLatestSnapshot(List<Path> segments) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (isSnapshot(segments.get(i))) {
+                return segments.subList(i, segments.size());
+            }
+        }
+        return segments;
+    }
+
+    private static boolean isSnapshot(Path segment) {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            while (header.hasRemaining() && in.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            return header.remaining() == SEGMENT_HEADER_BYTES && header.getInt() == MAGIC
+                    && (header.getInt() & FLAG_SNAPSHOT) != 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read command log segment " + segment, e);
+        }
+    }
+
+    private List<Path> listSegments() {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingLong(CommandLog::generationOf))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list command log directory " + directory, e);
+        }
+    }
+
+    private static long generationOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a command log segment: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+}
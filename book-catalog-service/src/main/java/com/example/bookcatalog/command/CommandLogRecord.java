@@ -0,0 +1,49 @@
+package com.example.bookcatalog.command;
+
+public class CommandLogRecord {
+
+    public static final byte KIND_EXECUTED = 1;
+    public static final byte KIND_UNDONE = 2;
+    public static final byte KIND_CLEARED = 3;
+
+    private final byte kind;
+    private final long sequence;
+    private final long timestampMillis;
+    private final String clientId;
+    private final byte commandType;
+    private final byte[] body;
+
+    public CommandLogRecord(byte kind, long sequence, long timestampMillis, String clientId,
+                            byte commandType, byte[] body) {
+        this.kind = kind;
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.clientId = clientId;
+        this.commandType = commandType;
+        this.body = body;
+    }
+
+    public byte getKind() {
+        return kind;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public byte getCommandType() {
+        return commandType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
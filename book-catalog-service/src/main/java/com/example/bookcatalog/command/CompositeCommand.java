@@ -0,0 +1,57 @@
+package com.example.bookcatalog.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class CompositeCommand implements Command {
+
+    private final String description;
+    private final List<Command> commands;
+    private final CommandBatchExecutor batchExecutor;
+    private boolean executed;
+
+    public CompositeCommand(String description, List<? extends Command> commands, CommandBatchExecutor batchExecutor) {
+        if (commands == null || commands.isEmpty()) {
+            throw new IllegalArgumentException("A composite command needs at least one command");
+        }
+        this.description = description;
+        this.commands = Collections.unmodifiableList(new ArrayList<>(commands));
+        this.batchExecutor = batchExecutor;
+    }
+
+    CompositeCommand(String description, List<? extends Command> commands, CommandBatchExecutor batchExecutor,
+                     boolean executed) {
+        this(description, commands, batchExecutor);
+        this.executed = executed;
+    }
+
+    @Override
+    public void execute() {
+        batchExecutor.executeAll(commands);
+        executed = true;
+    }
+
+    @Override
+    public void undo() {
+        if (executed) {
+            List<Command> newestFirst = new ArrayList<>(commands);
+            Collections.reverse(newestFirst);
+            batchExecutor.undoAll(newestFirst);
+            executed = false;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return description + " (" + commands.size() + " commands)";
+    }
+
+    public List<Command> getCommands() {
+        return commands;
+    }
+
+    String getBaseDescription() {
+        return description;
+    }
+}
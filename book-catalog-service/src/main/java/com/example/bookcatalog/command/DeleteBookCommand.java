@@ -1,42 +1,44 @@
 package com.example.bookcatalog.command;
 
-import com.example.bookcatalog.entity.Book;
 import com.example.bookcatalog.repository.BookRepository;
 
+import java.time.LocalDateTime;
+
 public class DeleteBookCommand implements Command {
     
     private final BookRepository bookRepository;
     private final Long bookId;
-    private Book deletedBook;
+    private boolean deleted;
     
     public DeleteBookCommand(BookRepository bookRepository, Long bookId) {
         this.bookRepository = bookRepository;
         this.bookId = bookId;
     }
+
+    DeleteBookCommand(BookRepository bookRepository, Long bookId, boolean deleted) {
+        this(bookRepository, bookId);
+        this.deleted = deleted;
+    }
     
     @Override
     public void execute() {
         System.out.println("Executing DeleteBookCommand: Deleting book with ID " + bookId);
-        this.deletedBook = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-        bookRepository.deleteById(bookId);
+        if (bookRepository.softDeleteById(bookId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Book not found with id: " + bookId);
+        }
+        this.deleted = true;
         System.out.println("DeleteBookCommand executed successfully: Book with ID " + bookId + " deleted");
     }
     
     @Override
     public void undo() {
-        if (deletedBook != null) {
-            System.out.println("Undoing DeleteBookCommand: Restoring book with ID " + bookId);
-
-            Book bookToRestore = new Book();
-            bookToRestore.setTitle(deletedBook.getTitle());
-            bookToRestore.setAuthor(deletedBook.getAuthor());
-            bookToRestore.setIsbn(deletedBook.getIsbn());
-            bookToRestore.setPublicationYear(deletedBook.getPublicationYear());
-            bookToRestore.setPrice(deletedBook.getPrice());
-            
-            Book restoredBook = bookRepository.save(bookToRestore);
-            System.out.println("DeleteBookCommand undone successfully: Book restored with new ID " + restoredBook.getId());
+        if (deleted) {
+            if (bookRepository.restoreById(bookId) == 0) {
+                // the tombstone was purged, e.g. because a new book took its isbn
+                deleted = false;
+                throw new UndoNotPossibleException("Book with ID " + bookId + " was purged and cannot be restored");
+            }
+            deleted = false;
         }
     }
     
@@ -45,8 +47,16 @@ public class DeleteBookCommand implements Command {
         return "Delete book with ID: " + bookId;
     }
     
-    public Book getDeletedBook() {
-        return deletedBook;
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    void markDeleted(boolean deleted) {
+        this.deleted = deleted;
     }
 }
 
@@ -0,0 +1,117 @@
+package com.example.bookcatalog.command;
+
+import com.example.bookcatalog.bulk.BulkOperationService;
+import com.example.bookcatalog.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "bookcatalog.commands.log.enabled", havingValue = "true")
+public class PersistentCommandHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentCommandHistory.class);
+
+    private final CommandLog commandLog;
+    private final CommandCodec codec;
+    private final int historyCapacity;
+    private final long retentionMillis;
+
+    private Map<String, Deque<CommandLogRecord>> recovered = Collections.emptyMap();
+
+    @Autowired
+    public PersistentCommandHistory(BookRepository bookRepository,
+                                    ObjectProvider<BulkOperationService> bulkOperationService,
+                                    ObjectProvider<CommandBatchExecutor> batchExecutor,
+                                    @Value("${bookcatalog.commands.log.directory:./data/command-log}") String directory,
+                                    @Value("${bookcatalog.commands.log.segment-size-bytes:67108864}") int segmentSize,
+                                    @Value("${bookcatalog.commands.log.fsync:true}") boolean fsync,
+                                    @Value("${bookcatalog.commands.log.retention-hours:24}") long retentionHours,
+                                    @Value("${bookcatalog.commands.history-capacity:100}") int historyCapacity) {
+        this(new CommandLog(Paths.get(directory), segmentSize, fsync),
+                new CommandCodec(bookRepository, bulkOperationService::getObject, batchExecutor::getObject),
+                historyCapacity, TimeUnit.HOURS.toMillis(retentionHours));
+    }
+
+    PersistentCommandHistory(CommandLog commandLog, CommandCodec codec, int historyCapacity, long retentionMillis) {
+        this.commandLog = commandLog;
+        this.codec = codec;
+        this.historyCapacity = historyCapacity;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @PostConstruct
+    public void open() {
+        long started = System.nanoTime();
+        recovered = commandLog.replay(historyCapacity, expiryCutoff());
+        commandLog.open();
+        int entries = recovered.values().stream().mapToInt(Deque::size).sum();
+        logger.info("Recovered {} undoable commands for {} clients from the command log in {} ms",
+                entries, recovered.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Hands the recovered journals to the invoker once; called after every bean exists so
+     * bulk job commands can be rebuilt against the bulk service.
+     */
+    void restoreInto(CommandInvoker invoker) {
+        for (Map.Entry<String, Deque<CommandLogRecord>> client : recovered.entrySet()) {
+            for (CommandLogRecord record : client.getValue()) {
+                try {
+                    invoker.restore(client.getKey(), record.getSequence(),
+                            codec.decode(record.getCommandType(), record.getBody()));
+                } catch (RuntimeException e) {
+                    logger.warn("Skipping unrecoverable command {} for client {}",
+                            record.getSequence(), client.getKey(), e);
+                }
+            }
+        }
+        recovered = Collections.emptyMap();
+    }
+
+    long recordExecuted(String clientId, Command command) {
+        byte type = codec.typeOf(command);
+        if (type == CommandCodec.UNSUPPORTED) {
+            return 0;
+        }
+        return commandLog.appendExecuted(clientId, type, codec.encode(command), System.currentTimeMillis());
+    }
+
+    void recordUndone(String clientId, long sequence) {
+        commandLog.appendUndone(clientId, sequence, System.currentTimeMillis());
+    }
+
+    void recordCleared(String clientId) {
+        commandLog.appendCleared(clientId, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${bookcatalog.commands.log.compaction-interval-ms:60000}")
+    public void compact() {
+        int removed = commandLog.compact(historyCapacity, expiryCutoff());
+        if (removed > 0) {
+            logger.info("Compacted {} command log segments", removed);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        commandLog.close();
+    }
+
+    private long expiryCutoff() {
+        return retentionMillis > 0 ? System.currentTimeMillis() - retentionMillis : Long.MIN_VALUE;
+    }
+}
@@ -13,6 +13,11 @@ public class SaveBookCommand implements Command {
         this.bookRepository = bookRepository;
         this.book = book;
     }
+
+    SaveBookCommand(BookRepository bookRepository, Book book, Long savedBookId) {
+        this(bookRepository, book);
+        markSaved(savedBookId);
+    }
     
     @Override
     public void execute() {
@@ -27,6 +32,8 @@ public class SaveBookCommand implements Command {
         if (savedBookId != null) {
             System.out.println("Undoing SaveBookCommand: Deleting book with ID " + savedBookId);
             bookRepository.deleteById(savedBookId);
+            // the delete must reach the table before the undo is recorded from it
+            bookRepository.flush();
             System.out.println("SaveBookCommand undone successfully: Book with ID " + savedBookId + " deleted");
             savedBookId = null;
         }
@@ -40,5 +47,16 @@ public class SaveBookCommand implements Command {
     public Long getSavedBookId() {
         return savedBookId;
     }
+
+    public Book getBook() {
+        return book;
+    }
+
+    void markSaved(Long savedBookId) {
+        this.savedBookId = savedBookId;
+        if (savedBookId != null) {
+            book.setId(savedBookId);
+        }
+    }
 }
 
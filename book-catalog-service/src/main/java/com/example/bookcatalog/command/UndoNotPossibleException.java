@@ -0,0 +1,12 @@
+package com.example.bookcatalog.command;
+
+/**
+ * Thrown by {@link Command#undo()} when the state it would restore no longer exists. Retrying
+ * cannot help, so the journal drops the command instead of keeping it on top.
+ */
+public class UndoNotPossibleException extends RuntimeException {
+
+    public UndoNotPossibleException(String message) {
+        super(message);
+    }
+}
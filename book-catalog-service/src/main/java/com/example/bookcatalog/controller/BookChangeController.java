@@ -0,0 +1,77 @@
+package com.example.bookcatalog.controller;
+
+import com.example.bookcatalog.changes.BookChangeLog;
+import com.example.bookcatalog.changes.BookChangePublisher;
+import com.example.bookcatalog.changes.BookDeltaPage;
+import com.example.bookcatalog.changes.ChangeTokenExpiredException;
+import com.example.bookcatalog.changes.ChangeSubscriber;
+import com.example.bookcatalog.changes.SseChangeSink;
+import com.example.bookcatalog.changes.SubscriberLimitException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/books/changes")
+@CrossOrigin(origins = "*")
+public class BookChangeController {
+
+    private final BookChangePublisher bookChangePublisher;
+    private final BookChangeLog bookChangeLog;
+    private final long emitterTimeoutMillis;
+
+    @Autowired
+    public BookChangeController(BookChangePublisher bookChangePublisher,
+                                BookChangeLog bookChangeLog,
+                                @Value("${bookcatalog.changes.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.bookChangePublisher = bookChangePublisher;
+        this.bookChangeLog = bookChangeLog;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+    }
+
+    /**
+     * Without {@code since} only the current token is returned: take it, load the catalog,
+     * then poll with it.
+     */
+    @GetMapping
+    public ResponseEntity<BookDeltaPage> getChanges(@RequestParam(required = false) Long since,
+                                                    @RequestParam(defaultValue = "500") int limit) {
+        try {
+            if (since == null) {
+                return new ResponseEntity<>(BookDeltaPage.empty(bookChangeLog.head()), HttpStatus.OK);
+            }
+            return new ResponseEntity<>(bookChangeLog.readSince(since, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (ChangeTokenExpiredException e) {
+            return new ResponseEntity<>(HttpStatus.GONE);
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long resumeAfter;
+        try {
+            resumeAfter = lastEventId == null || lastEventId.isBlank() ? null : Long.valueOf(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        ChangeSubscriber subscriber;
+        try {
+            subscriber = bookChangePublisher.subscribe(new SseChangeSink(emitter), resumeAfter);
+        } catch (SubscriberLimitException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        emitter.onCompletion(() -> bookChangePublisher.unsubscribe(subscriber));
+        emitter.onTimeout(() -> bookChangePublisher.unsubscribe(subscriber));
+        emitter.onError(e -> bookChangePublisher.unsubscribe(subscriber));
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+}
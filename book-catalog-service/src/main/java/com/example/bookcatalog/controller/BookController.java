@@ -1,13 +1,24 @@
 package com.example.bookcatalog.controller;
 
-import com.example.bookcatalog.decorator.LoggingBookServiceDecorator;
+import com.example.bookcatalog.command.UndoNotPossibleException;
+import com.example.bookcatalog.decorator.BookServiceDecorator;
+import com.example.bookcatalog.decorator.BulkheadFullException;
 import com.example.bookcatalog.entity.Book;
-import com.example.bookcatalog.service.BookService;
+import com.example.bookcatalog.limit.Admission;
+import com.example.bookcatalog.limit.RequestClass;
+import com.example.bookcatalog.service.BookVersionConflictException;
+import com.example.bookcatalog.validator.BookValidationReport;
+import com.example.bookcatalog.writebehind.WriteBehindBookUpdater;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,44 +27,60 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class BookController {
 
-    private final BookService bookService;
-    private final LoggingBookServiceDecorator loggingBookService;
+    private final BookServiceDecorator bookService;
+    private final ObjectProvider<WriteBehindBookUpdater> writeBehindBookUpdater;
 
     @Autowired
-    public BookController(BookService bookService, LoggingBookServiceDecorator loggingBookService) {
+    public BookController(BookServiceDecorator bookService,
+                          ObjectProvider<WriteBehindBookUpdater> writeBehindBookUpdater) {
         this.bookService = bookService;
-        this.loggingBookService = loggingBookService;
+        this.writeBehindBookUpdater = writeBehindBookUpdater;
     }
 
+    @Admission(RequestClass.BULK)
     @GetMapping
     public ResponseEntity<List<Book>> getAllBooks() {
-        List<Book> books = loggingBookService.getAllBooks();
+        List<Book> books = bookService.getAllBooks();
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-        Optional<Book> book = loggingBookService.getBookById(id);
-        return book.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+    public ResponseEntity<Book> getBookById(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (asOf != null) {
+            // historical state: no ETag, it must never satisfy an If-Match on the live row
+            try {
+                return bookService.getBookAsOf(id, asOf)
+                        .map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                        .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
+        Optional<Book> book = bookService.getBookById(id);
+        return book.map(value -> withETag(ResponseEntity.ok(), value.getVersion()).body(value))
                   .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping("/isbn/{isbn}")
     public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
-        Optional<Book> book = loggingBookService.getBookByIsbn(isbn);
+        Optional<Book> book = bookService.getBookByIsbn(isbn);
         return book.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
                   .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @Admission(RequestClass.SEARCH)
     @GetMapping("/author/{author}")
     public ResponseEntity<List<Book>> getBooksByAuthor(@PathVariable String author) {
-        List<Book> books = loggingBookService.getBooksByAuthor(author);
+        List<Book> books = bookService.getBooksByAuthor(author);
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
 
+    @Admission(RequestClass.SEARCH)
     @GetMapping("/search")
     public ResponseEntity<List<Book>> searchBooksByTitle(@RequestParam String title) {
-        List<Book> books = loggingBookService.searchBooksByTitle(title);
+        List<Book> books = bookService.searchBooksByTitle(title);
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
 
@@ -65,18 +92,92 @@ public class BookController {
             @RequestParam(required = false) Integer publicationYear,
             @RequestParam(required = false) Double price) {
         try {
-            Book savedBook = loggingBookService.saveBookWithBuilder(title, author, isbn, publicationYear, price);
+            Book savedBook = bookService.saveBookWithBuilder(title, author, isbn, publicationYear, price);
             return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
+        } catch (BulkheadFullException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
 
+    @Admission(RequestClass.BULK)
+    @PostMapping("/batch")
+    public ResponseEntity<List<Book>> createBooks(@RequestBody List<Book> books) {
+        try {
+            List<Book> savedBooks = bookService.saveBooks(books);
+            return new ResponseEntity<>(savedBooks, HttpStatus.CREATED);
+        } catch (BulkheadFullException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Admission(RequestClass.BULK)
+    @PostMapping("/validate")
+    public ResponseEntity<BookValidationReport> validateBooks(@RequestBody List<Book> books,
+                                                              @RequestParam(defaultValue = "standard") String type) {
+        try {
+            return new ResponseEntity<>(bookService.validateBooks(books, type), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Admission(RequestClass.BULK)
+    @PostMapping("/batch/delete")
+    public ResponseEntity<Void> deleteBooks(@RequestBody List<Long> ids) {
+        try {
+            bookService.deleteBooks(ids);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (BulkheadFullException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PutMapping(value = "/{id}", params = "async=true")
+    public ResponseEntity<Void> updateBookAsync(@PathVariable Long id, @RequestBody Book book) {
+        WriteBehindBookUpdater updater = writeBehindBookUpdater.getIfAvailable();
+        if (updater == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            updater.accept(id, book);
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book book) {
+    public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book book,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null && ifMatch.trim().startsWith("W/")) {
+            // If-Match uses strong comparison, a weak tag never matches
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        }
+        Long expectedVersion;
+        try {
+            expectedVersion = parseIfMatch(ifMatch);
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         try {
-            Book updatedBook = loggingBookService.updateBook(id, book);
-            return new ResponseEntity<>(updatedBook, HttpStatus.OK);
+            Book updatedBook = expectedVersion != null
+                    ? bookService.updateBook(id, book, expectedVersion)
+                    : bookService.updateBook(id, book);
+            return withETag(ResponseEntity.ok(), updatedBook.getVersion()).body(updatedBook);
+        } catch (BookVersionConflictException e) {
+            return withETag(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED), e.getCurrentVersion()).build();
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (BulkheadFullException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -87,8 +188,10 @@ public class BookController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         try {
-            loggingBookService.deleteBook(id);
+            bookService.deleteBook(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (BulkheadFullException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -99,6 +202,10 @@ public class BookController {
         try {
             bookService.undoLastOperation();
             return new ResponseEntity<>("Last operation undone successfully", HttpStatus.OK);
+        } catch (UndoNotPossibleException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (BulkheadFullException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return new ResponseEntity<>("No operation to undo", HttpStatus.BAD_REQUEST);
         }
@@ -115,5 +222,24 @@ public class BookController {
         bookService.clearOperationHistory();
         return new ResponseEntity<>("Operation history cleared", HttpStatus.OK);
     }
-}
 
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<Void> handleBulkheadFull() {
+        return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Long version) {
+        return version != null ? builder.eTag("\"" + version + "\"") : builder;
+    }
+
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        return Long.parseLong(tag);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bookcatalog.controller;
+
+import com.example.bookcatalog.bulk.BulkDeleteRequest;
+import com.example.bookcatalog.bulk.BulkOperationService;
+import com.example.bookcatalog.bulk.BulkRepriceRequest;
+import com.example.bookcatalog.entity.BulkJob;
+import com.example.bookcatalog.job.JobExecution;
+import com.example.bookcatalog.job.JobManager;
+import com.example.bookcatalog.job.JobRejectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/books/bulk")
+@CrossOrigin(origins = "*")
+public class BulkOperationController {
+
+    private final BulkOperationService bulkOperationService;
+    private final JobManager jobManager;
+
+    @Autowired
+    public BulkOperationController(BulkOperationService bulkOperationService, JobManager jobManager) {
+        this.bulkOperationService = bulkOperationService;
+        this.jobManager = jobManager;
+    }
+
+    @PostMapping("/reprice")
+    public ResponseEntity<JobExecution> reprice(@RequestBody BulkRepriceRequest request) {
+        BulkJob bulkJob;
+        try {
+            bulkJob = bulkOperationService.prepareReprice(request);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return submit("bulk-reprice", bulkJob.getId());
+    }
+
+    @PostMapping("/delete")
+    public ResponseEntity<JobExecution> delete(@RequestBody BulkDeleteRequest request) {
+        BulkJob bulkJob;
+        try {
+            bulkJob = bulkOperationService.prepareDelete(request);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return submit("bulk-delete", bulkJob.getId());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<BulkJob> getJob(@PathVariable Long id) {
+        return bulkOperationService.findJob(id)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PostMapping("/jobs/{id}/resume")
+    public ResponseEntity<JobExecution> resume(@PathVariable Long id) {
+        BulkJob bulkJob;
+        try {
+            bulkJob = bulkOperationService.prepareResume(id);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return submit("bulk-" + bulkJob.getType().name().toLowerCase(), bulkJob.getId());
+    }
+
+    private ResponseEntity<JobExecution> submit(String type, Long bulkJobId) {
+        try {
+            JobExecution job = jobManager.submit(type, context -> {
+                BulkJob result = bulkOperationService.execute(bulkJobId, context);
+                if (result.getStatus() == BulkJob.Status.FAILED) {
+                    throw new IllegalStateException("Bulk job " + bulkJobId + " failed: " + result.getErrorMessage());
+                }
+                return result;
+            });
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+        } catch (JobRejectedException e) {
+            bulkOperationService.reject(bulkJobId, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
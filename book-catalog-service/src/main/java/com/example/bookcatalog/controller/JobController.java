@@ -0,0 +1,46 @@
+package com.example.bookcatalog.controller;
+
+import com.example.bookcatalog.job.JobExecution;
+import com.example.bookcatalog.job.JobManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "*")
+public class JobController {
+
+    private final JobManager jobManager;
+
+    @Autowired
+    public JobController(JobManager jobManager) {
+        this.jobManager = jobManager;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<JobExecution>> getJobs() {
+        return new ResponseEntity<>(jobManager.list(), HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobExecution> getJob(@PathVariable Long id) {
+        return jobManager.find(id)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<JobExecution> cancelJob(@PathVariable Long id) {
+        if (jobManager.find(id).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (!jobManager.cancel(id)) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(jobManager.find(id).orElse(null), HttpStatus.ACCEPTED);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bookcatalog.controller;
+
+import com.example.bookcatalog.slo.SloTracker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter so route latency includes every other filter. Requests are keyed by route
+ * template, never the raw URI, and streaming (async) requests are left out of the percentiles.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RouteLatencyFilter extends OncePerRequestFilter {
+
+    static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private final SloTracker sloTracker;
+
+    public RouteLatencyFilter(SloTracker sloTracker) {
+        this.sloTracker = sloTracker;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long started = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            if (!request.isAsyncStarted()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String route = request.getMethod() + ' ' + (pattern != null ? pattern : UNMATCHED_ROUTE);
+                sloTracker.record(route, status, System.nanoTime() - started);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bookcatalog.controller;
+
+import com.example.bookcatalog.jdbc.StatementMonitor;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class StatementStatsFilter extends OncePerRequestFilter {
+
+    private final StatementMonitor statementMonitor;
+
+    public StatementStatsFilter(StatementMonitor statementMonitor) {
+        this.statementMonitor = statementMonitor;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!statementMonitor.beginRequest()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statementMonitor.endRequest(request.getMethod(), request.getRequestURI());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bookcatalog.controller;
+
+import com.example.bookcatalog.tracing.TraceCollector;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final TraceCollector traceCollector;
+
+    public TracingFilter(TraceCollector traceCollector) {
+        this.traceCollector = traceCollector;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!traceCollector.startTrace(request.getMethod(), request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            traceCollector.finishTrace();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bookcatalog.decorator;
+
+/**
+ * The service operations seen by the decorator chain. Decorators index precomputed state by
+ * ordinal, and {@link #isMutating()} tells caches and bulkheads which calls change books. The search
+ * type is fixed for the lookup shortcuts and {@code "none"} elsewhere; {@code searchBooks} resolves
+ * it per call.
+ */
+public enum BookOperation {
+
+    GET_ALL_BOOKS("getAllBooks", false),
+    GET_BOOK_BY_ID("getBookById", false),
+    GET_BOOK_AS_OF("getBookAsOf", false),
+    GET_BOOK_BY_ISBN("getBookByIsbn", false, "isbn"),
+    GET_BOOKS_BY_AUTHOR("getBooksByAuthor", false, "author"),
+    SEARCH_BOOKS_BY_TITLE("searchBooksByTitle", false, "title"),
+    SEARCH_BOOKS("searchBooks", false),
+    SAVE_BOOK_WITH_BUILDER("saveBookWithBuilder", true),
+    SAVE_BOOKS("saveBooks", true),
+    VALIDATE_BOOKS("validateBooks", false),
+    UPDATE_BOOK("updateBook", true),
+    DELETE_BOOK("deleteBook", true),
+    DELETE_BOOKS("deleteBooks", true),
+    UNDO_LAST_OPERATION("undoLastOperation", true),
+    GET_OPERATION_HISTORY("getOperationHistory", false),
+    CLEAR_OPERATION_HISTORY("clearOperationHistory", false);
+
+    public static final String NO_SEARCH_TYPE = "none";
+
+    private final String methodName;
+    private final boolean mutating;
+    private final String searchType;
+
+    BookOperation(String methodName, boolean mutating) {
+        this(methodName, mutating, NO_SEARCH_TYPE);
+    }
+
+    BookOperation(String methodName, boolean mutating, String searchType) {
+        this.methodName = methodName;
+        this.mutating = mutating;
+        this.searchType = searchType;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public boolean isMutating() {
+        return mutating;
+    }
+
+    public String getSearchType() {
+        return searchType;
+    }
+}
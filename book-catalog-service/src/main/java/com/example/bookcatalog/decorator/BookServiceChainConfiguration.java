@@ -0,0 +1,18 @@
+package com.example.bookcatalog.decorator;
+
+import com.example.bookcatalog.service.BookService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class BookServiceChainConfiguration {
+
+    @Bean
+    public BookServiceDecorator bookServiceChain(BookServiceDecoratorFactory decoratorFactory, BookService bookService,
+                                                 @Value("${bookcatalog.decorators.chain:metrics,tracing,jfr}") List<String> chain) {
+        return decoratorFactory.build(bookService, chain);
+    }
+}
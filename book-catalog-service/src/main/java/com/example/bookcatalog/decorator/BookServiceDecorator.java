@@ -1,19 +1,28 @@
 package com.example.bookcatalog.decorator;
 
 import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.validator.BookValidationReport;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookServiceDecorator {
     List<Book> getAllBooks();
     Optional<Book> getBookById(Long id);
+    Optional<Book> getBookAsOf(Long id, LocalDateTime asOf);
     Optional<Book> getBookByIsbn(String isbn);
     List<Book> getBooksByAuthor(String author);
     List<Book> searchBooksByTitle(String title);
     List<Book> searchBooks(String searchType, String searchTerm);
     Book saveBookWithBuilder(String title, String author, String isbn, Integer publicationYear, Double price);
+    List<Book> saveBooks(List<Book> books);
+    BookValidationReport validateBooks(List<Book> books, String validatorType);
     Book updateBook(Long id, Book bookDetails);
+    Book updateBook(Long id, Book bookDetails, Long expectedVersion);
     void deleteBook(Long id);
+    void deleteBooks(List<Long> ids);
+    void undoLastOperation();
+    List<String> getOperationHistory();
+    void clearOperationHistory();
 }
-
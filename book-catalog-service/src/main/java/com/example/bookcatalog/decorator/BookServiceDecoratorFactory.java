@@ -0,0 +1,70 @@
+package com.example.bookcatalog.decorator;
+
+import com.example.bookcatalog.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class BookServiceDecoratorFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookServiceDecoratorFactory.class);
+
+    private final MeterRegistry meterRegistry;
+    private final long cacheTtlMillis;
+    private final int cacheMaxEntries;
+    private final int bulkheadMaxConcurrent;
+    private final long bulkheadMaxWaitMillis;
+    private final double loggingSampleRate;
+
+    @Autowired
+    public BookServiceDecoratorFactory(MeterRegistry meterRegistry,
+                                       @Value("${bookcatalog.decorators.cache.ttl-ms:1000}") long cacheTtlMillis,
+                                       @Value("${bookcatalog.decorators.cache.max-entries:10000}") int cacheMaxEntries,
+                                       @Value("${bookcatalog.decorators.bulkhead.max-concurrent:64}") int bulkheadMaxConcurrent,
+                                       @Value("${bookcatalog.decorators.bulkhead.max-wait-ms:50}") long bulkheadMaxWaitMillis,
+                                       @Value("${bookcatalog.decorators.logging.sample-rate:0.01}") double loggingSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.cacheMaxEntries = cacheMaxEntries;
+        this.bulkheadMaxConcurrent = bulkheadMaxConcurrent;
+        this.bulkheadMaxWaitMillis = bulkheadMaxWaitMillis;
+        this.loggingSampleRate = loggingSampleRate;
+    }
+
+    /**
+     * Builds the chain once; the first name is the outermost decorator.
+     */
+    public BookServiceDecorator build(BookService bookService, List<String> chain) {
+        BookServiceDecorator decorator = new TargetBookServiceDecorator(bookService);
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            decorator = decorate(chain.get(i).trim(), decorator);
+        }
+        logger.info("Book service decorator chain: {}", chain);
+        return decorator;
+    }
+
+    public BookServiceDecorator decorate(String decoratorType, BookServiceDecorator delegate) {
+        switch (decoratorType.toLowerCase()) {
+            case "logging":
+                return new LoggingBookServiceDecorator(delegate, loggingSampleRate);
+            case "metrics":
+                return new MetricsBookServiceDecorator(delegate, meterRegistry);
+            case "cache":
+                return new CachingBookServiceDecorator(delegate, cacheTtlMillis, cacheMaxEntries);
+            case "bulkhead":
+                return new BulkheadBookServiceDecorator(delegate, bulkheadMaxConcurrent, bulkheadMaxWaitMillis);
+            case "tracing":
+                return new TracingBookServiceDecorator(delegate);
+            case "jfr":
+                return new JfrBookServiceDecorator(delegate);
+            default:
+                throw new IllegalArgumentException("Unknown decorator type: " + decoratorType);
+        }
+    }
+}
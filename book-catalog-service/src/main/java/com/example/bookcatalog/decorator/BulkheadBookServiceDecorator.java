@@ -0,0 +1,49 @@
+package com.example.bookcatalog.decorator;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent calls into the service. Callers wait up to {@code maxWaitMillis} for a permit and
+ * are then rejected with {@link BulkheadFullException} instead of queueing on the connection pool.
+ */
+public class BulkheadBookServiceDecorator extends ForwardingBookServiceDecorator {
+
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+
+    public BulkheadBookServiceDecorator(BookServiceDecorator delegate, int maxConcurrent, long maxWaitMillis) {
+        super(delegate);
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    protected <T> T invoke(BookOperation operation, Supplier<T> call) {
+        if (!acquire()) {
+            throw new BulkheadFullException("Too many concurrent calls, rejected " + operation.getMethodName());
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        try {
+            return maxWaitMillis > 0 && permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bookcatalog.decorator;
+
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
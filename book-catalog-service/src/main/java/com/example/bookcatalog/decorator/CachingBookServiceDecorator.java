@@ -0,0 +1,74 @@
+package com.example.bookcatalog.decorator;
+
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.jfr.CacheLookupEvent;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache for {@code getBookById}. Any mutating call through the chain empties it; writes
+ * that bypass the chain (bulk jobs, write-behind flushes) are only bounded by the TTL.
+ */
+public class CachingBookServiceDecorator extends ForwardingBookServiceDecorator {
+
+    private final Map<Long, CachedBook> books = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public CachingBookServiceDecorator(BookServiceDecorator delegate, long ttlMillis, int maxEntries) {
+        super(delegate);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Optional<Book> getBookById(Long id) {
+        long now = System.nanoTime();
+        CachedBook cached = books.get(id);
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            CacheLookupEvent.record(id, true);
+            return Optional.of(cached.book);
+        }
+        CacheLookupEvent.record(id, false);
+        // a write that completes while we load bumps the generation, so the stale row is not kept
+        long loadedGeneration = generation.get();
+        Optional<Book> book = super.getBookById(id);
+        if (book.isPresent() && generation.get() == loadedGeneration) {
+            if (books.size() >= maxEntries) {
+                books.clear();
+            }
+            books.put(id, new CachedBook(book.get(), now));
+        }
+        return book;
+    }
+
+    @Override
+    protected <T> T invoke(BookOperation operation, Supplier<T> call) {
+        if (!operation.isMutating()) {
+            return call.get();
+        }
+        try {
+            return call.get();
+        } finally {
+            generation.incrementAndGet();
+            books.clear();
+        }
+    }
+
+    private static class CachedBook {
+
+        private final Book book;
+        private final long loadedAt;
+
+        CachedBook(Book book, long loadedAt) {
+            this.book = book;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bookcatalog.decorator;
+
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.validator.BookValidationReport;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Base for chain links. Every method funnels through {@link #invoke}, so a cross-cutting decorator
+ * overrides that one hook instead of repeating itself per method; decorators that care about a
+ * specific call (caching a lookup) override that method as well.
+ */
+public abstract class ForwardingBookServiceDecorator implements BookServiceDecorator {
+
+    protected final BookServiceDecorator delegate;
+
+    protected ForwardingBookServiceDecorator(BookServiceDecorator delegate) {
+        this.delegate = delegate;
+    }
+
+    protected <T> T invoke(BookOperation operation, Supplier<T> call) {
+        return call.get();
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        return invoke(BookOperation.GET_ALL_BOOKS, delegate::getAllBooks);
+    }
+
+    @Override
+    public Optional<Book> getBookById(Long id) {
+        return invoke(BookOperation.GET_BOOK_BY_ID, () -> delegate.getBookById(id));
+    }
+
+    @Override
+    public Optional<Book> getBookAsOf(Long id, LocalDateTime asOf) {
+        return invoke(BookOperation.GET_BOOK_AS_OF, () -> delegate.getBookAsOf(id, asOf));
+    }
+
+    @Override
+    public Optional<Book> getBookByIsbn(String isbn) {
+        return invoke(BookOperation.GET_BOOK_BY_ISBN, () -> delegate.getBookByIsbn(isbn));
+    }
+
+    @Override
+    public List<Book> getBooksByAuthor(String author) {
+        return invoke(BookOperation.GET_BOOKS_BY_AUTHOR, () -> delegate.getBooksByAuthor(author));
+    }
+
+    @Override
+    public List<Book> searchBooksByTitle(String title) {
+        return invoke(BookOperation.SEARCH_BOOKS_BY_TITLE, () -> delegate.searchBooksByTitle(title));
+    }
+
+    @Override
+    public List<Book> searchBooks(String searchType, String searchTerm) {
+        return invoke(BookOperation.SEARCH_BOOKS, () -> delegate.searchBooks(searchType, searchTerm));
+    }
+
+    @Override
+    public Book saveBookWithBuilder(String title, String author, String isbn, Integer publicationYear, Double price) {
+        return invoke(BookOperation.SAVE_BOOK_WITH_BUILDER,
+                () -> delegate.saveBookWithBuilder(title, author, isbn, publicationYear, price));
+    }
+
+    @Override
+    public List<Book> saveBooks(List<Book> books) {
+        return invoke(BookOperation.SAVE_BOOKS, () -> delegate.saveBooks(books));
+    }
+
+    @Override
+    public BookValidationReport validateBooks(List<Book> books, String validatorType) {
+        return invoke(BookOperation.VALIDATE_BOOKS, () -> delegate.validateBooks(books, validatorType));
+    }
+
+    @Override
+    public Book updateBook(Long id, Book bookDetails) {
+        return invoke(BookOperation.UPDATE_BOOK, () -> delegate.updateBook(id, bookDetails));
+    }
+
+    @Override
+    public Book updateBook(Long id, Book bookDetails, Long expectedVersion) {
+        return invoke(BookOperation.UPDATE_BOOK, () -> delegate.updateBook(id, bookDetails, expectedVersion));
+    }
+
+    @Override
+    public void deleteBook(Long id) {
+        invoke(BookOperation.DELETE_BOOK, () -> {
+            delegate.deleteBook(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteBooks(List<Long> ids) {
+        invoke(BookOperation.DELETE_BOOKS, () -> {
+            delegate.deleteBooks(ids);
+            return null;
+        });
+    }
+
+    @Override
+    public void undoLastOperation() {
+        invoke(BookOperation.UNDO_LAST_OPERATION, () -> {
+            delegate.undoLastOperation();
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> getOperationHistory() {
+        return invoke(BookOperation.GET_OPERATION_HISTORY, delegate::getOperationHistory);
+    }
+
+    @Override
+    public void clearOperationHistory() {
+        invoke(BookOperation.CLEAR_OPERATION_HISTORY, () -> {
+            delegate.clearOperationHistory();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bookcatalog.decorator;
+
+import com.example.bookcatalog.jfr.ServiceOperationEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Emits a {@link ServiceOperationEvent} per call so flight recordings line service operations up
+ * with GC pauses and lock contention. Costs next to nothing while no recording enables the event.
+ */
+public class JfrBookServiceDecorator extends ForwardingBookServiceDecorator {
+
+    public JfrBookServiceDecorator(BookServiceDecorator delegate) {
+        super(delegate);
+    }
+
+    @Override
+    protected <T> T invoke(BookOperation operation, Supplier<T> call) {
+        ServiceOperationEvent event = new ServiceOperationEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            event.complete(operation.getMethodName(), operation.getSearchType(), failed);
+        }
+    }
+}
@@ -1,198 +1,73 @@
 package com.example.bookcatalog.decorator;
 
-import com.example.bookcatalog.entity.Book;
 import com.example.bookcatalog.service.BookService;
+import com.example.bookcatalog.validator.BookValidationReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
-@Component
-public class LoggingBookServiceDecorator implements BookServiceDecorator {
+/**
+ * Detailed per-call tracing at DEBUG for a sample of calls. Latency numbers come from the metrics
+ * decorator; this is for reading individual calls, so unsampled calls and disabled DEBUG cost a
+ * level check and nothing else.
+ */
+public class LoggingBookServiceDecorator extends ForwardingBookServiceDecorator {
     
     private static final Logger logger = LoggerFactory.getLogger(LoggingBookServiceDecorator.class);
+
+    private final double sampleRate;
     
-    private final BookService bookService;
-    
-    public LoggingBookServiceDecorator(BookService bookService) {
-        this.bookService = bookService;
-    }
-    
-    @Override
-    public List<Book> getAllBooks() {
-        long startTime = System.currentTimeMillis();
-        logMethodEntry("getAllBooks");
-        
-        try {
-            List<Book> result = bookService.getAllBooks();
-            long endTime = System.currentTimeMillis();
-            logMethodExit("getAllBooks", endTime - startTime, result.size() + " books retrieved");
-            return result;
-        } catch (Exception e) {
-            logMethodError("getAllBooks", e);
-            throw e;
-        }
-    }
-    
-    @Override
-    public Optional<Book> getBookById(Long id) {
-        long startTime = System.currentTimeMillis();
-        logMethodEntry("getBookById", "id=" + id);
-        
-        try {
-            Optional<Book> result = bookService.getBookById(id);
-            long endTime = System.currentTimeMillis();
-            logMethodExit("getBookById", endTime - startTime, 
-                result.isPresent() ? "Book found" : "Book not found");
-            return result;
-        } catch (Exception e) {
-            logMethodError("getBookById", e);
-            throw e;
-        }
+    public LoggingBookServiceDecorator(BookServiceDecorator delegate, double sampleRate) {
+        super(delegate);
+        this.sampleRate = sampleRate;
     }
-    
-    @Override
-    public Optional<Book> getBookByIsbn(String isbn) {
-        long startTime = System.currentTimeMillis();
-        logMethodEntry("getBookByIsbn", "isbn=" + isbn);
-        
-        try {
-            Optional<Book> result = bookService.getBookByIsbn(isbn);
-            long endTime = System.currentTimeMillis();
-            logMethodExit("getBookByIsbn", endTime - startTime, 
-                result.isPresent() ? "Book found" : "Book not found");
-            return result;
-        } catch (Exception e) {
-            logMethodError("getBookByIsbn", e);
-            throw e;
-        }
+
+    public LoggingBookServiceDecorator(BookService bookService) {
+        this(new TargetBookServiceDecorator(bookService), 1.0);
     }
     
     @Override
-    public List<Book> getBooksByAuthor(String author) {
-        long startTime = System.currentTimeMillis();
-        logMethodEntry("getBooksByAuthor", "author=" + author);
-        
-        try {
-            List<Book> result = bookService.getBooksByAuthor(author);
-            long endTime = System.currentTimeMillis();
-            logMethodExit("getBooksByAuthor", endTime - startTime, 
-                result.size() + " books found for author");
-            return result;
-        } catch (Exception e) {
-            logMethodError("getBooksByAuthor", e);
-            throw e;
+    protected <T> T invoke(BookOperation operation, Supplier<T> call) {
+        if (!logger.isDebugEnabled() || !sampled()) {
+            return call.get();
         }
-    }
-    
-    @Override
-    public List<Book> searchBooksByTitle(String title) {
-        long startTime = System.currentTimeMillis();
-        logMethodEntry("searchBooksByTitle", "title=" + title);
+        long startTime = System.nanoTime();
+        logger.debug("Entering method: {}", operation.getMethodName());
         
         try {
-            List<Book> result = bookService.searchBooksByTitle(title);
-            long endTime = System.currentTimeMillis();
-            logMethodExit("searchBooksByTitle", endTime - startTime, 
-                result.size() + " books found matching title");
+            T result = call.get();
+            logger.debug("Exiting method: {} - Execution time: {}us - Result: {}", operation.getMethodName(),
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime), describe(result));
             return result;
-        } catch (Exception e) {
-            logMethodError("searchBooksByTitle", e);
+        } catch (RuntimeException e) {
+            logger.debug("Error in method: {} - Exception: {}", operation.getMethodName(), e.getMessage(), e);
             throw e;
         }
     }
-    
-    @Override
-    public List<Book> searchBooks(String searchType, String searchTerm) {
-        long startTime = System.currentTimeMillis();
-        logMethodEntry("searchBooks", "searchType=" + searchType + ", searchTerm=" + searchTerm);
-        
-        try {
-            List<Book> result = bookService.searchBooks(searchType, searchTerm);
-            long endTime = System.currentTimeMillis();
-            logMethodExit("searchBooks", endTime - startTime, 
-                result.size() + " books found");
-            return result;
-        } catch (Exception e) {
-            logMethodError("searchBooks", e);
-            throw e;
-        }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
     }
-    
-    @Override
-    public Book saveBookWithBuilder(String title, String author, String isbn, Integer publicationYear, Double price) {
-        long startTime = System.currentTimeMillis();
 
-        logMethodEntry("saveBook", "book=" + title);
-        try {
-            Book result = bookService.saveBookWithBuilder(title, author, isbn, publicationYear, price);;
-            long endTime = System.currentTimeMillis();
-            logMethodExit("saveBook", endTime - startTime, 
-                "Book saved with ID " + result.getId());
-            return result;
-        } catch (Exception e) {
-            logMethodError("saveBook", e);
-            throw e;
+    private static String describe(Object result) {
+        if (result == null) {
+            return "completed";
         }
-    }
-    
-    @Override
-    public Book updateBook(Long id, Book bookDetails) {
-        long startTime = System.currentTimeMillis();
-        logMethodEntry("updateBook", "id=" + id + ", book=" + 
-            (bookDetails != null ? bookDetails.getTitle() : "null"));
-        
-        try {
-            Book result = bookService.updateBook(id, bookDetails);
-            long endTime = System.currentTimeMillis();
-            logMethodExit("updateBook", endTime - startTime, 
-                "Book updated successfully");
-            return result;
-        } catch (Exception e) {
-            logMethodError("updateBook", e);
-            throw e;
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size() + " items";
         }
-    }
-    
-    @Override
-    public void deleteBook(Long id) {
-        long startTime = System.currentTimeMillis();
-        logMethodEntry("deleteBook", "id=" + id);
-        
-        try {
-            bookService.deleteBook(id);
-            long endTime = System.currentTimeMillis();
-            logMethodExit("deleteBook", endTime - startTime, 
-                "Book deleted successfully");
-        } catch (Exception e) {
-            logMethodError("deleteBook", e);
-            throw e;
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? "found" : "not found";
         }
-    }
-    
-    private void logMethodEntry(String methodName) {
-        logMethodEntry(methodName, null);
-    }
-    
-    private void logMethodEntry(String methodName, String parameters) {
-        String message = "Entering method: " + methodName;
-        if (parameters != null) {
-            message += " with parameters: " + parameters;
+        if (result instanceof BookValidationReport) {
+            BookValidationReport report = (BookValidationReport) result;
+            return report.getInvalidRows() + " of " + report.getTotalRows() + " books invalid";
         }
-        logger.info(message);
-    }
-    
-    private void logMethodExit(String methodName, long executionTime, String result) {
-        logger.info("Exiting method: {} - Execution time: {}ms - Result: {}",
-            methodName, executionTime, result);
-
+        return result.getClass().getSimpleName();
     }
-    
-    private void logMethodError(String methodName, Exception e) {
-        logger.error("Error in method: {} - Exception: {}", methodName, e.getMessage(), e);
-    }
-
 }
-
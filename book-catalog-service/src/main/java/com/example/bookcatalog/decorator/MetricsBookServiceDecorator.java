@@ -0,0 +1,88 @@
+package com.example.bookcatalog.decorator;
+
+import com.example.bookcatalog.entity.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times every call into {@code bookcatalog.service.calls}, tagged by operation, search type and
+ * outcome. The timers are registered up front so a call only indexes an array; percentiles and
+ * histogram buckets come from the {@code management.metrics.distribution.*} properties.
+ */
+public class MetricsBookServiceDecorator extends ForwardingBookServiceDecorator {
+
+    static final String METER_NAME = "bookcatalog.service.calls";
+
+    private static final String[] SEARCH_TYPES = {"title", "author", "isbn"};
+    private static final int SUCCESS = 0;
+    private static final int ERROR = 1;
+
+    private final Timer[][] operationTimers;
+    private final Timer[][] searchTimers;
+
+    public MetricsBookServiceDecorator(BookServiceDecorator delegate, MeterRegistry meterRegistry) {
+        super(delegate);
+        BookOperation[] operations = BookOperation.values();
+        operationTimers = new Timer[operations.length][];
+        for (BookOperation operation : operations) {
+            operationTimers[operation.ordinal()] = timers(meterRegistry, operation, operation.getSearchType());
+        }
+        // unknown types share one series so user input cannot grow the tag cardinality
+        searchTimers = new Timer[SEARCH_TYPES.length + 1][];
+        for (int i = 0; i < SEARCH_TYPES.length; i++) {
+            searchTimers[i] = timers(meterRegistry, BookOperation.SEARCH_BOOKS, SEARCH_TYPES[i]);
+        }
+        searchTimers[SEARCH_TYPES.length] = timers(meterRegistry, BookOperation.SEARCH_BOOKS, "other");
+    }
+
+    @Override
+    public List<Book> searchBooks(String searchType, String searchTerm) {
+        return record(searchTimers[searchTypeIndex(searchType)], () -> delegate.searchBooks(searchType, searchTerm));
+    }
+
+    @Override
+    protected <T> T invoke(BookOperation operation, Supplier<T> call) {
+        return record(operationTimers[operation.ordinal()], call);
+    }
+
+    private static <T> T record(Timer[] timers, Supplier<T> call) {
+        long started = System.nanoTime();
+        try {
+            T result = call.get();
+            timers[SUCCESS].record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            timers[ERROR].record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static int searchTypeIndex(String searchType) {
+        for (int i = 0; i < SEARCH_TYPES.length; i++) {
+            if (SEARCH_TYPES[i].equalsIgnoreCase(searchType)) {
+                return i;
+            }
+        }
+        return SEARCH_TYPES.length;
+    }
+
+    private static Timer[] timers(MeterRegistry meterRegistry, BookOperation operation, String searchType) {
+        return new Timer[]{
+                timer(meterRegistry, operation, searchType, "success"),
+                timer(meterRegistry, operation, searchType, "error")
+        };
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, BookOperation operation, String searchType, String outcome) {
+        return Timer.builder(METER_NAME)
+                .description("Book service calls through the decorator chain")
+                .tag("operation", operation.getMethodName())
+                .tag("searchType", searchType)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bookcatalog.decorator;
+
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.service.BookService;
+import com.example.bookcatalog.validator.BookValidationReport;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Innermost link of the chain: plain calls into {@link BookService}.
+ */
+public class TargetBookServiceDecorator implements BookServiceDecorator {
+
+    private final BookService bookService;
+
+    public TargetBookServiceDecorator(BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    @Override
+    public Optional<Book> getBookById(Long id) {
+        return bookService.getBookById(id);
+    }
+
+    @Override
+    public Optional<Book> getBookAsOf(Long id, LocalDateTime asOf) {
+        return bookService.getBookAsOf(id, asOf);
+    }
+
+    @Override
+    public Optional<Book> getBookByIsbn(String isbn) {
+        return bookService.getBookByIsbn(isbn);
+    }
+
+    @Override
+    public List<Book> getBooksByAuthor(String author) {
+        return bookService.getBooksByAuthor(author);
+    }
+
+    @Override
+    public List<Book> searchBooksByTitle(String title) {
+        return bookService.searchBooksByTitle(title);
+    }
+
+    @Override
+    public List<Book> searchBooks(String searchType, String searchTerm) {
+        return bookService.searchBooks(searchType, searchTerm);
+    }
+
+    @Override
+    public Book saveBookWithBuilder(String title, String author, String isbn, Integer publicationYear, Double price) {
+        return bookService.saveBookWithBuilder(title, author, isbn, publicationYear, price);
+    }
+
+    @Override
+    public List<Book> saveBooks(List<Book> books) {
+        return bookService.saveBooks(books);
+    }
+
+    @Override
+    public BookValidationReport validateBooks(List<Book> books, String validatorType) {
+        return bookService.validateBooks(books, validatorType);
+    }
+
+    @Override
+    public Book updateBook(Long id, Book bookDetails) {
+        return bookService.updateBook(id, bookDetails);
+    }
+
+    @Override
+    public Book updateBook(Long id, Book bookDetails, Long expectedVersion) {
+        return bookService.updateBook(id, bookDetails, expectedVersion);
+    }
+
+    @Override
+    public void deleteBook(Long id) {
+        bookService.deleteBook(id);
+    }
+
+    @Override
+    public void deleteBooks(List<Long> ids) {
+        bookService.deleteBooks(ids);
+    }
+
+    @Override
+    public void undoLastOperation() {
+        bookService.undoLastOperation();
+    }
+
+    @Override
+    public List<String> getOperationHistory() {
+        return bookService.getOperationHistory();
+    }
+
+    @Override
+    public void clearOperationHistory() {
+        bookService.clearOperationHistory();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.bookcatalog.decorator;
+
+import com.example.bookcatalog.tracing.Tracing;
+
+import java.util.function.Supplier;
+
+/**
+ * Adds a {@code service} span per call to the request's trace; a no-op outside a trace.
+ */
+public class TracingBookServiceDecorator extends ForwardingBookServiceDecorator {
+
+    public TracingBookServiceDecorator(BookServiceDecorator delegate) {
+        super(delegate);
+    }
+
+    @Override
+    protected <T> T invoke(BookOperation operation, Supplier<T> call) {
+        Tracing.enter("service", operation.getMethodName());
+        try {
+            return call.get();
+        } finally {
+            Tracing.exit();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.bookcatalog.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
+
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "books")
+@SQLRestriction("deleted_at IS NULL")
 public class Book {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +29,14 @@ public class Book {
 
     private BigDecimal price;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public Book() {}
 
     public Book(String title, String author, String isbn, Integer publicationYear, BigDecimal price) {
@@ -82,6 +95,22 @@ public class Book {
         this.price = price;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     @Override
     public String toString() {
         return "Book{" +
@@ -91,6 +120,7 @@ public class Book {
                 ", isbn='" + isbn + '\'' +
                 ", publicationYear=" + publicationYear +
                 ", price=" + price +
+                ", version=" + version +
                 '}';
     }
 }
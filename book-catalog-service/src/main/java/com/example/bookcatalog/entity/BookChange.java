@@ -0,0 +1,38 @@
+package com.example.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One row per book mutation, written in the mutation's transaction. The auto-increment
+ * sequence is the delta sync token; rows only say which book changed, readers join the
+ * current row.
+ */
+@Entity
+@Table(name = "book_changes", indexes = @Index(name = "idx_book_changes_changed_at", columnList = "changed_at"))
+public class BookChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public BookChange() {}
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
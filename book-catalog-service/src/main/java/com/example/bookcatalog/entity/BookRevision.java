@@ -0,0 +1,83 @@
+package com.example.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only copy of a book as of {@code validFrom}; a revision stays valid until the
+ * next one for the same book. Tombstones ({@code deleted}) mark when the book went away.
+ */
+@Entity
+@Table(name = "book_revisions",
+       indexes = @Index(name = "idx_book_revisions_book_valid_from", columnList = "book_id, valid_from"))
+public class BookRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "valid_from", nullable = false)
+    private LocalDateTime validFrom;
+
+    private String title;
+
+    private String author;
+
+    private String isbn;
+
+    @Column(name = "publication_year")
+    private Integer publicationYear;
+
+    private BigDecimal price;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    public BookRevision() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public LocalDateTime getValidFrom() {
+        return validFrom;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
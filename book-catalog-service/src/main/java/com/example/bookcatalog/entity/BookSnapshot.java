@@ -0,0 +1,100 @@
+package com.example.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+@Entity
+@Table(name = "book_snapshots")
+@IdClass(BookSnapshot.Key.class)
+public class BookSnapshot {
+
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private String author;
+
+    @Column(nullable = false)
+    private String isbn;
+
+    @Column(name = "publication_year")
+    private Integer publicationYear;
+
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private Long version;
+
+    public BookSnapshot() {}
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public static class Key implements Serializable {
+        private Long jobId;
+        private Long bookId;
+
+        public Key() {}
+
+        public Key(Long jobId, Long bookId) {
+            this.jobId = jobId;
+            this.bookId = bookId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(jobId, key.jobId) && Objects.equals(bookId, key.bookId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(jobId, bookId);
+        }
+    }
+}
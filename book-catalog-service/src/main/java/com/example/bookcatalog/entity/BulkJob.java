@@ -0,0 +1,231 @@
+package com.example.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "bulk_jobs")
+public class BulkJob {
+
+    public enum Type {
+        REPRICE, DELETE
+    }
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED, UNDONE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private String author;
+
+    @Column(name = "published_before")
+    private Integer publishedBefore;
+
+    @Column(name = "percent_change", precision = 7, scale = 3)
+    private BigDecimal percentChange;
+
+    @Column(name = "chunk_size", nullable = false)
+    private int chunkSize;
+
+    @Column(name = "start_id")
+    private Long startId;
+
+    @Column(name = "end_id")
+    private Long endId;
+
+    @Column(name = "next_id")
+    private Long nextId;
+
+    @Column(name = "rows_affected", nullable = false)
+    private long rowsAffected;
+
+    @Column(name = "chunks_completed", nullable = false)
+    private int chunksCompleted;
+
+    @Column(name = "rows_restored", nullable = false)
+    private long rowsRestored;
+
+    @Column(name = "rows_skipped", nullable = false)
+    private long rowsSkipped;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public BulkJob() {}
+
+    public BulkJob(Type type, String author, Integer publishedBefore, BigDecimal percentChange, int chunkSize) {
+        this.type = type;
+        this.status = Status.PENDING;
+        this.author = author;
+        this.publishedBefore = publishedBefore;
+        this.percentChange = percentChange;
+        this.chunkSize = chunkSize;
+        this.createdAt = Instant.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public Double getProgress() {
+        if (status == Status.COMPLETED || status == Status.UNDONE) {
+            return 1.0;
+        }
+        if (startId == null || endId == null || nextId == null) {
+            return 0.0;
+        }
+        double span = endId - startId + 1;
+        return Math.min(1.0, Math.max(0.0, (nextId - startId) / span));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getPublishedBefore() {
+        return publishedBefore;
+    }
+
+    public void setPublishedBefore(Integer publishedBefore) {
+        this.publishedBefore = publishedBefore;
+    }
+
+    public BigDecimal getPercentChange() {
+        return percentChange;
+    }
+
+    public void setPercentChange(BigDecimal percentChange) {
+        this.percentChange = percentChange;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Long getStartId() {
+        return startId;
+    }
+
+    public void setStartId(Long startId) {
+        this.startId = startId;
+    }
+
+    public Long getEndId() {
+        return endId;
+    }
+
+    public void setEndId(Long endId) {
+        this.endId = endId;
+    }
+
+    public Long getNextId() {
+        return nextId;
+    }
+
+    public void setNextId(Long nextId) {
+        this.nextId = nextId;
+    }
+
+    public long getRowsAffected() {
+        return rowsAffected;
+    }
+
+    public void setRowsAffected(long rowsAffected) {
+        this.rowsAffected = rowsAffected;
+    }
+
+    public int getChunksCompleted() {
+        return chunksCompleted;
+    }
+
+    public void setChunksCompleted(int chunksCompleted) {
+        this.chunksCompleted = chunksCompleted;
+    }
+
+    public long getRowsRestored() {
+        return rowsRestored;
+    }
+
+    public void setRowsRestored(long rowsRestored) {
+        this.rowsRestored = rowsRestored;
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public void setRowsSkipped(long rowsSkipped) {
+        this.rowsSkipped = rowsSkipped;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.bookcatalog.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "bookcatalog.sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcMonitoringConfiguration {
+
+    /**
+     * Wraps the data source after the pool has started; the pool itself is still what Spring
+     * closes on shutdown.
+     */
+    @Bean
+    public static BeanPostProcessor statementTrackingPostProcessor(ObjectProvider<StatementMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof StatementTrackingDataSource)) {
+                    return new StatementTrackingDataSource((DataSource) bean, monitor.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bookcatalog.jdbc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool activity over one tuning interval, as deltas of the cumulative pool and statement counters.
+ */
+class PoolInterval {
+
+    private final double seconds;
+    private final long acquires;
+    private final long acquireNanos;
+    private final long usages;
+    private final long usageNanos;
+    private final long statements;
+    private final long statementNanos;
+    private final int pending;
+
+    PoolInterval(double seconds, long acquires, long acquireNanos, long usages, long usageNanos,
+                 long statements, long statementNanos, int pending) {
+        this.seconds = seconds;
+        this.acquires = acquires;
+        this.acquireNanos = acquireNanos;
+        this.usages = usages;
+        this.usageNanos = usageNanos;
+        this.statements = statements;
+        this.statementNanos = statementNanos;
+        this.pending = pending;
+    }
+
+    long getAcquires() {
+        return acquires;
+    }
+
+    int getPending() {
+        return pending;
+    }
+
+    double meanAcquireMillis() {
+        return acquires > 0 ? toMillis(acquireNanos) / acquires : 0;
+    }
+
+    double meanUsageMillis() {
+        return usages > 0 ? toMillis(usageNanos) / usages : 0;
+    }
+
+    /**
+     * Mean statement time when statement tracking is on, otherwise the connection hold time.
+     */
+    double meanDbMillis() {
+        return statements > 0 ? toMillis(statementNanos) / statements : meanUsageMillis();
+    }
+
+    /**
+     * Little's law: connections busy on average = acquire rate x mean time each one is held.
+     */
+    double busyConnections() {
+        return seconds > 0 ? acquires / seconds * meanUsageMillis() / 1000.0 : 0;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bookcatalog.jdbc;
+
+/**
+ * Decides the pool size from one interval at a time. Growth is only recommended while callers wait
+ * a noticeable fraction of the hold time for a connection, and is walked back once database
+ * response time degrades after a grow (the pool was not the bottleneck). Shrinking needs the
+ * Little's law demand to sit clearly below the current size. A direction must repeat for
+ * {@code stableIntervals} evaluations before the recommendation moves, and it moves at most
+ * {@code maxStep} connections at a time.
+ */
+class PoolSizer {
+
+    enum Reason { HOLD, STARVED, OVERSIZED, DB_BOUND }
+
+    private final int minSize;
+    private final int maxSize;
+    private final double headroom;
+    private final double starvedWaitRatio;
+    private final double dbDegradation;
+    private final int stableIntervals;
+    private final int maxStep;
+
+    private int ceiling;
+    private int direction;
+    private int streak;
+    private int sizeBeforeGrow = -1;
+    private double dbMillisBeforeGrow;
+    private Reason reason = Reason.HOLD;
+    private double busyConnections;
+
+    PoolSizer(int minSize, int maxSize, double headroom, double starvedWaitRatio, double dbDegradation,
+              int stableIntervals, int maxStep) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Pool size bounds must satisfy 1 <= min <= max");
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.headroom = headroom;
+        this.starvedWaitRatio = starvedWaitRatio;
+        this.dbDegradation = dbDegradation;
+        this.stableIntervals = Math.max(1, stableIntervals);
+        this.maxStep = Math.max(1, maxStep);
+        this.ceiling = maxSize;
+    }
+
+    /**
+     * Returns the recommended maximum pool size; {@code current} when nothing should change.
+     */
+    synchronized int recommend(PoolInterval interval, int current) {
+        busyConnections = interval.busyConnections();
+        double dbMillis = interval.meanDbMillis();
+        double waitMillis = interval.meanAcquireMillis();
+        double usageMillis = interval.meanUsageMillis();
+
+        if (sizeBeforeGrow > 0 && interval.getAcquires() > 0) {
+            if (dbMillisBeforeGrow > 0 && dbMillis > dbMillisBeforeGrow * dbDegradation) {
+                ceiling = sizeBeforeGrow;
+                sizeBeforeGrow = -1;
+                resetStreak();
+                reason = Reason.DB_BOUND;
+                return Math.max(minSize, Math.min(current, ceiling));
+            }
+            sizeBeforeGrow = -1;
+        }
+        if (dbMillisBeforeGrow > 0 && dbMillis <= dbMillisBeforeGrow) {
+            // the database has recovered to where it was before the grow that overloaded it
+            ceiling = maxSize;
+        }
+
+        int target = clamp((int) Math.ceil(busyConnections * headroom));
+        boolean starved = waitMillis > usageMillis * starvedWaitRatio
+                && (interval.getPending() > 0 || waitMillis > 1.0);
+        int wanted;
+        if (starved && current < ceiling) {
+            wanted = 1;
+            reason = Reason.STARVED;
+        } else if (!starved && target < current - 1 && current > minSize) {
+            wanted = -1;
+            reason = Reason.OVERSIZED;
+        } else {
+            resetStreak();
+            reason = Reason.HOLD;
+            return current;
+        }
+
+        streak = wanted == direction ? streak + 1 : 1;
+        direction = wanted;
+        if (streak < stableIntervals) {
+            return current;
+        }
+        resetStreak();
+        if (wanted > 0) {
+            sizeBeforeGrow = current;
+            dbMillisBeforeGrow = dbMillis;
+            return Math.min(ceiling, Math.min(current + maxStep, clamp(Math.max(target, current + 1))));
+        }
+        return Math.max(clamp(target), current - maxStep);
+    }
+
+    synchronized Reason lastReason() {
+        return reason;
+    }
+
+    synchronized double lastBusyConnections() {
+        return busyConnections;
+    }
+
+    synchronized int ceiling() {
+        return ceiling;
+    }
+
+    private void resetStreak() {
+        direction = 0;
+        streak = 0;
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.bookcatalog.jdbc;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically sizes the Hikari pool from its own acquire and usage timers. Each tick turns the
+ * cumulative counters into a {@link PoolInterval}, asks the {@link PoolSizer} for a size and logs
+ * every change of recommendation; in {@code dry-run} mode, the default, the pool itself is left alone.
+ */
+@Component
+@ConditionalOnProperty(name = "bookcatalog.pool.tuning.enabled", havingValue = "true")
+public class PoolTuner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolTuner.class);
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final StatementMonitor statementMonitor;
+    private final PoolSizer sizer;
+    private final boolean dryRun;
+
+    private HikariDataSource pool;
+    private volatile int recommended;
+    private long lastTick;
+    private long lastAcquires;
+    private long lastAcquireNanos;
+    private long lastUsages;
+    private long lastUsageNanos;
+    private long lastStatements;
+    private long lastStatementNanos;
+
+    @Autowired
+    public PoolTuner(DataSource dataSource, MeterRegistry meterRegistry, StatementMonitor statementMonitor,
+                     @Value("${bookcatalog.pool.tuning.min-size:5}") int minSize,
+                     @Value("${bookcatalog.pool.tuning.max-size:50}") int maxSize,
+                     @Value("${bookcatalog.pool.tuning.headroom:1.5}") double headroom,
+                     @Value("${bookcatalog.pool.tuning.starved-wait-ratio:0.2}") double starvedWaitRatio,
+                     @Value("${bookcatalog.pool.tuning.db-degradation:1.3}") double dbDegradation,
+                     @Value("${bookcatalog.pool.tuning.stable-intervals:3}") int stableIntervals,
+                     @Value("${bookcatalog.pool.tuning.max-step:4}") int maxStep,
+                     @Value("${bookcatalog.pool.tuning.dry-run:true}") boolean dryRun) {
+        this(dataSource, meterRegistry, statementMonitor,
+                new PoolSizer(minSize, maxSize, headroom, starvedWaitRatio, dbDegradation, stableIntervals, maxStep),
+                dryRun);
+    }
+
+    PoolTuner(DataSource dataSource, MeterRegistry meterRegistry, StatementMonitor statementMonitor,
+              PoolSizer sizer, boolean dryRun) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.statementMonitor = statementMonitor;
+        this.sizer = sizer;
+        this.dryRun = dryRun;
+        Gauge.builder("bookcatalog.pool.busy.connections", sizer, PoolSizer::lastBusyConnections)
+                .description("Little's law estimate of connections in use over the last tuning interval")
+                .register(meterRegistry);
+        Gauge.builder("bookcatalog.pool.recommended.size", this, tuner -> tuner.recommended)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${bookcatalog.pool.tuning.interval-seconds:30}",
+            initialDelayString = "${bookcatalog.pool.tuning.interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public synchronized void tune() {
+        HikariDataSource hikari = hikari();
+        HikariPoolMXBean poolBean = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        Timer acquire = hikari != null ? timer("hikaricp.connections.acquire", hikari.getPoolName()) : null;
+        Timer usage = hikari != null ? timer("hikaricp.connections.usage", hikari.getPoolName()) : null;
+        if (poolBean == null || acquire == null || usage == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long acquires = acquire.count();
+        long acquireNanos = (long) acquire.totalTime(TimeUnit.NANOSECONDS);
+        long usages = usage.count();
+        long usageNanos = (long) usage.totalTime(TimeUnit.NANOSECONDS);
+        long statements = statementMonitor.getTotalExecutions();
+        long statementNanos = statementMonitor.getTotalExecutionNanos();
+        boolean first = lastTick == 0;
+        PoolInterval interval = new PoolInterval((now - lastTick) / 1e9, acquires - lastAcquires,
+                acquireNanos - lastAcquireNanos, usages - lastUsages, usageNanos - lastUsageNanos,
+                statements - lastStatements, statementNanos - lastStatementNanos,
+                poolBean.getThreadsAwaitingConnection());
+        lastTick = now;
+        lastAcquires = acquires;
+        lastAcquireNanos = acquireNanos;
+        lastUsages = usages;
+        lastUsageNanos = usageNanos;
+        lastStatements = statements;
+        lastStatementNanos = statementNanos;
+
+        HikariConfigMXBean config = hikari.getHikariConfigMXBean();
+        int current = config.getMaximumPoolSize();
+        if (first) {
+            recommended = current;
+            return;
+        }
+        int size = sizer.recommend(interval, current);
+        logger.debug("Pool {}: {} acquires, wait {} ms, hold {} ms, db {} ms, ~{} busy, {} pending",
+                hikari.getPoolName(), interval.getAcquires(), format(interval.meanAcquireMillis()),
+                format(interval.meanUsageMillis()), format(interval.meanDbMillis()),
+                format(interval.busyConnections()), interval.getPending());
+        if (size != recommended) {
+            logger.info("Pool {} size recommendation {} -> {} ({}): wait {} ms vs hold {} ms, db {} ms, "
+                            + "~{} connections busy, {} threads pending{}",
+                    hikari.getPoolName(), current, size, sizer.lastReason(), format(interval.meanAcquireMillis()),
+                    format(interval.meanUsageMillis()), format(interval.meanDbMillis()),
+                    format(interval.busyConnections()), interval.getPending(), dryRun ? " (dry run)" : "");
+        }
+        recommended = size;
+        if (!dryRun && size != current) {
+            if (config.getMinimumIdle() > size) {
+                config.setMinimumIdle(size);
+            }
+            config.setMaximumPoolSize(size);
+        }
+    }
+
+    int getRecommendedSize() {
+        return recommended;
+    }
+
+    private HikariDataSource hikari() {
+        if (pool == null) {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    pool = dataSource.unwrap(HikariDataSource.class);
+                }
+            } catch (SQLException e) {
+                logger.warn("Cannot reach the Hikari pool behind the data source, pool tuning is inactive", e);
+            }
+        }
+        return pool;
+    }
+
+    private Timer timer(String name, String poolName) {
+        return meterRegistry.find(name).tag("pool", poolName).timer();
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
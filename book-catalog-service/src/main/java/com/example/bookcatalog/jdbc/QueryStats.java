@@ -0,0 +1,70 @@
+package com.example.bookcatalog.jdbc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals for one query fingerprint since startup or the last reset.
+ */
+public class QueryStats {
+
+    private final String fingerprint;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    QueryStats(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    void recordExecution(long nanos, boolean failed) {
+        executions.increment();
+        totalNanos.add(nanos);
+        if (failed) {
+            errors.increment();
+        }
+        if (nanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    void recordRows(long fetched) {
+        rows.add(fetched);
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRowsFetched() {
+        return rows.sum();
+    }
+
+    public double getTotalMillis() {
+        return totalNanos.sum() / 1_000_000.0;
+    }
+
+    public long getMeanMicros() {
+        long count = executions.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count);
+    }
+
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+}
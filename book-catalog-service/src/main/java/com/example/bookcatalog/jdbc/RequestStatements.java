@@ -0,0 +1,54 @@
+package com.example.bookcatalog.jdbc;
+
+/**
+ * Statement totals for the request running on one thread. Reused across requests; repeats are
+ * tracked for the first {@link #TRACKED_QUERIES} distinct queries, which is enough to spot N+1.
+ */
+final class RequestStatements {
+
+    static final int TRACKED_QUERIES = 32;
+
+    final QueryStats[] queries = new QueryStats[TRACKED_QUERIES];
+    final int[] repeats = new int[TRACKED_QUERIES];
+    int distinct;
+    int statements;
+    long jdbcNanos;
+    long rows;
+    boolean active;
+
+    void record(QueryStats stats, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+        for (int i = 0; i < distinct; i++) {
+            if (queries[i] == stats) {
+                repeats[i]++;
+                return;
+            }
+        }
+        if (distinct < TRACKED_QUERIES) {
+            queries[distinct] = stats;
+            repeats[distinct++] = 1;
+        }
+    }
+
+    int mostRepeated() {
+        int most = -1;
+        for (int i = 0; i < distinct; i++) {
+            if (most < 0 || repeats[i] > repeats[most]) {
+                most = i;
+            }
+        }
+        return most;
+    }
+
+    void reset() {
+        for (int i = 0; i < distinct; i++) {
+            queries[i] = null;
+        }
+        distinct = 0;
+        statements = 0;
+        jdbcNanos = 0;
+        rows = 0;
+        active = false;
+    }
+}
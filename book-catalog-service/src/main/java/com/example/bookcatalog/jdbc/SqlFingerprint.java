@@ -0,0 +1,93 @@
+package com.example.bookcatalog.jdbc;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a SQL string to its shape: comments dropped, whitespace collapsed, literals replaced by
+ * {@code ?} and IN lists of any length folded into one, so every execution of a query aggregates
+ * under one key.
+ */
+final class SqlFingerprint {
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)(\\bin )\\(\\?(?:, \\?)+\\)");
+
+    private SqlFingerprint() {
+    }
+
+    static String of(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                appendSpace(out);
+                continue;
+            }
+            if (c == '\'') {
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                out.append('?');
+                continue;
+            }
+            if (Character.isDigit(c) && !partOfIdentifier(out)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+                continue;
+            }
+            if (c == ',') {
+                trimTrailingSpace(out);
+                out.append(", ");
+                i++;
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                continue;
+            }
+            out.append(c);
+            i++;
+        }
+        trimTrailingSpace(out);
+        return IN_LIST.matcher(out.toString().replace("( ", "(").replace(" )", ")")).replaceAll("$1(?...)");
+    }
+
+    private static boolean partOfIdentifier(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char previous = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_';
+    }
+
+    private static void appendSpace(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    private static void trimTrailingSpace(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) == ' ') {
+            out.setLength(out.length() - 1);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bookcatalog.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Per-fingerprint statement totals at {@code /actuator/sqlstats}, most expensive first.
+ * {@code ?limit=} caps the list; a DELETE starts the totals over.
+ */
+@Component
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final StatementMonitor statementMonitor;
+
+    public SqlStatsEndpoint(StatementMonitor statementMonitor) {
+        this.statementMonitor = statementMonitor;
+    }
+
+    @ReadOperation
+    public List<QueryStats> queries(@Nullable Integer limit) {
+        return statementMonitor.getTopQueries(limit != null && limit > 0 ? limit : DEFAULT_LIMIT);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statementMonitor.reset();
+    }
+}
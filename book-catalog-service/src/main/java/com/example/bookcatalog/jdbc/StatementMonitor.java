@@ -0,0 +1,203 @@
+package com.example.bookcatalog.jdbc;
+
+import com.example.bookcatalog.threads.CatalogThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates every JDBC statement by fingerprint, logs slow ones with their bind shape, and flags
+ * requests that run too many statements or repeat one query often enough to look like N+1.
+ */
+@Component
+public class StatementMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementMonitor.class);
+
+    private final Map<String, QueryStats> bySql = new ConcurrentHashMap<>();
+    private final Map<String, QueryStats> byFingerprint = new ConcurrentHashMap<>();
+    private final ThreadLocal<RequestStatements> requests = new ThreadLocal<>();
+    // idle request buffers when request threads are virtual and never serve a second request
+    private final BlockingQueue<RequestStatements> pool;
+    private final long slowQueryNanos;
+    private final int maxStatementsPerRequest;
+    private final int nPlusOneThreshold;
+    private final int maxFingerprints;
+    private final QueryStats overflow = new QueryStats("<other>");
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder executionNanos = new LongAdder();
+    private final Counter slowQueries;
+    private final Counter tooManyStatements;
+    private final Counter nPlusOne;
+    private final DistributionSummary statementsPerRequest;
+
+    @Autowired
+    public StatementMonitor(MeterRegistry meterRegistry,
+                            @Value("${bookcatalog.sql.slow-query-ms:200}") long slowQueryMillis,
+                            @Value("${bookcatalog.sql.max-statements-per-request:50}") int maxStatementsPerRequest,
+                            @Value("${bookcatalog.sql.n-plus-one-threshold:10}") int nPlusOneThreshold,
+                            @Value("${bookcatalog.sql.max-fingerprints:2000}") int maxFingerprints,
+                            @Value("${" + CatalogThreads.VIRTUAL_PROPERTY + ":false}") boolean virtualThreads,
+                            @Value("${bookcatalog.threads.buffer-pool-size:1024}") int bufferPoolSize) {
+        this(meterRegistry, slowQueryMillis, maxStatementsPerRequest, nPlusOneThreshold, maxFingerprints,
+                virtualThreads && CatalogThreads.virtualThreadsSupported() ? bufferPoolSize : 0);
+    }
+
+    StatementMonitor(MeterRegistry meterRegistry, long slowQueryMillis, int maxStatementsPerRequest,
+                     int nPlusOneThreshold, int maxFingerprints, int bufferPoolSize) {
+        this.pool = bufferPoolSize > 0 ? new ArrayBlockingQueue<>(bufferPoolSize) : null;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.maxStatementsPerRequest = maxStatementsPerRequest;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxFingerprints = maxFingerprints;
+        this.slowQueries = meterRegistry.counter("bookcatalog.sql.slow");
+        this.tooManyStatements = meterRegistry.counter("bookcatalog.sql.requests.flagged", "reason", "statements");
+        this.nPlusOne = meterRegistry.counter("bookcatalog.sql.requests.flagged", "reason", "n-plus-one");
+        this.statementsPerRequest = DistributionSummary.builder("bookcatalog.sql.statements.per.request")
+                .register(meterRegistry);
+    }
+
+    QueryStats statsFor(String sql) {
+        if (sql == null) {
+            return overflow;
+        }
+        QueryStats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String fingerprint = SqlFingerprint.of(sql);
+        stats = byFingerprint.get(fingerprint);
+        if (stats == null) {
+            if (byFingerprint.size() >= maxFingerprints) {
+                return overflow;
+            }
+            stats = byFingerprint.computeIfAbsent(fingerprint, QueryStats::new);
+        }
+        // raw variants (IN lists of every arity) are bounded too, they just fall back to fingerprinting
+        if (bySql.size() < maxFingerprints * 4) {
+            bySql.put(sql, stats);
+        }
+        return stats;
+    }
+
+    void recordExecution(QueryStats stats, long nanos, boolean failed, Object[] binds, int bindCount) {
+        stats.recordExecution(nanos, failed);
+        executions.increment();
+        executionNanos.add(nanos);
+        RequestStatements request = requests.get();
+        if (request != null && request.active) {
+            request.record(stats, nanos);
+        }
+        if (nanos >= slowQueryNanos) {
+            slowQueries.increment();
+            logger.warn("Slow query took {} ms: {} binds={}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    stats.getFingerprint(), bindShape(binds, bindCount));
+        }
+    }
+
+    void recordRows(QueryStats stats, long rows) {
+        stats.recordRows(rows);
+        RequestStatements request = requests.get();
+        if (request != null && request.active) {
+            request.rows += rows;
+        }
+    }
+
+    public boolean beginRequest() {
+        RequestStatements request = requests.get();
+        if (request == null) {
+            request = pool != null ? pool.poll() : null;
+            if (request == null) {
+                request = new RequestStatements();
+            }
+            requests.set(request);
+        } else if (request.active) {
+            return false;
+        }
+        request.active = true;
+        return true;
+    }
+
+    public void endRequest(String method, String uri) {
+        RequestStatements request = requests.get();
+        if (request == null) {
+            return;
+        }
+        try {
+            if (request.statements == 0) {
+                return;
+            }
+            statementsPerRequest.record(request.statements);
+            if (request.statements > maxStatementsPerRequest) {
+                tooManyStatements.increment();
+                logger.warn("{} {} ran {} statements ({} ms in JDBC, {} rows)", method, uri, request.statements,
+                        TimeUnit.NANOSECONDS.toMillis(request.jdbcNanos), request.rows);
+            }
+            int most = request.mostRepeated();
+            if (most >= 0 && request.repeats[most] >= nPlusOneThreshold) {
+                nPlusOne.increment();
+                logger.warn("Possible N+1 in {} {}: {} executed {} times", method, uri,
+                        request.queries[most].getFingerprint(), request.repeats[most]);
+            }
+        } finally {
+            request.reset();
+            if (pool != null) {
+                requests.remove();
+                pool.offer(request);
+            }
+        }
+    }
+
+    public List<QueryStats> getTopQueries(int limit) {
+        List<QueryStats> all = new ArrayList<>(byFingerprint.values());
+        if (overflow.getExecutions() > 0) {
+            all.add(overflow);
+        }
+        all.sort(Comparator.comparingLong(QueryStats::totalNanos).reversed());
+        return all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+    }
+
+    /**
+     * Cumulative statement count and time since startup; not cleared by {@link #reset()} so callers
+     * can take deltas.
+     */
+    public long getTotalExecutions() {
+        return executions.sum();
+    }
+
+    public long getTotalExecutionNanos() {
+        return executionNanos.sum();
+    }
+
+    public void reset() {
+        bySql.clear();
+        byFingerprint.clear();
+    }
+
+    private static String bindShape(Object[] binds, int bindCount) {
+        StringBuilder shape = new StringBuilder("[");
+        for (int i = 0; i < bindCount; i++) {
+            if (i > 0) {
+                shape.append(", ");
+            }
+            Object bind = binds[i];
+            shape.append(bind == null ? "null" : bind instanceof Class ? ((Class<?>) bind).getSimpleName() : bind);
+        }
+        return shape.append(']').toString();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.bookcatalog.jdbc;
+
+import com.example.bookcatalog.tracing.Tracing;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Wraps the pooled data source so every statement, whether issued by Hibernate or a
+ * {@code JdbcTemplate}, is timed, counted against its fingerprint and traced as a jdbc span.
+ * Only bind types are kept, never values, so the slow-query log cannot leak catalog data.
+ */
+public class StatementTrackingDataSource extends DelegatingDataSource {
+
+    private static final ClassLoader CLASS_LOADER = StatementTrackingDataSource.class.getClassLoader();
+
+    private final StatementMonitor monitor;
+
+    public StatementTrackingDataSource(DataSource target, StatementMonitor monitor) {
+        super(target);
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invokeTarget(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = invokeTarget(method, target, args);
+            if (result instanceof Statement) {
+                QueryStats stats = ("prepareStatement".equals(name) || "prepareCall".equals(name))
+                        ? monitor.statsFor((String) args[0]) : null;
+                return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{method.getReturnType()},
+                        new StatementHandler((Statement) result, stats));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private QueryStats stats;
+        private Object[] binds = new Object[8];
+        private int bindCount;
+        private ResultSetHandler openResults;
+
+        StatementHandler(Statement target, QueryStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], "setNull".equals(name) || args[1] == null ? null : args[1].getClass());
+            } else if ("clearParameters".equals(name)) {
+                bindCount = 0;
+            } else if ("addBatch".equals(name) && args != null && args.length == 1) {
+                stats = monitor.statsFor((String) args[0]);
+            } else if ("getResultSet".equals(name)) {
+                return wrapResults(invokeTarget(method, target, args));
+            } else if ("close".equals(name)) {
+                flushRows();
+            } else if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            return invokeTarget(method, target, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                stats = monitor.statsFor((String) args[0]);
+            }
+            QueryStats current = stats != null ? stats : monitor.statsFor(null);
+            flushRows();
+            boolean failed = true;
+            Tracing.enter("jdbc", current.getFingerprint());
+            long started = System.nanoTime();
+            try {
+                Object result = invokeTarget(method, target, args);
+                failed = false;
+                return wrapResults(result);
+            } finally {
+                long elapsed = System.nanoTime() - started;
+                Tracing.exit();
+                monitor.recordExecution(current, elapsed, failed, binds, bindCount);
+            }
+        }
+
+        private void bind(int parameterIndex, Object type) {
+            int slot = parameterIndex - 1;
+            if (slot < 0) {
+                return;
+            }
+            if (slot >= binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(binds.length * 2, slot + 1));
+            }
+            binds[slot] = type;
+            bindCount = Math.max(bindCount, slot + 1);
+        }
+
+        private Object wrapResults(Object result) {
+            if (!(result instanceof ResultSet) || stats == null) {
+                return result;
+            }
+            flushRows();
+            openResults = new ResultSetHandler((ResultSet) result, stats);
+            return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{ResultSet.class}, openResults);
+        }
+
+        private void flushRows() {
+            if (openResults != null) {
+                openResults.flush();
+                openResults = null;
+            }
+        }
+    }
+
+    /**
+     * Counts rows locally and reports them once, on close or when the owning statement moves on.
+     */
+    private final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final QueryStats stats;
+        private long rows;
+
+        ResultSetHandler(ResultSet target, QueryStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("next".equals(name)) {
+                Object hasRow = invokeTarget(method, target, args);
+                if (Boolean.TRUE.equals(hasRow)) {
+                    rows++;
+                }
+                return hasRow;
+            }
+            if ("close".equals(name)) {
+                flush();
+            } else if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            return invokeTarget(method, target, args);
+        }
+
+        void flush() {
+            if (rows > 0) {
+                monitor.recordRows(stats, rows);
+                rows = 0;
+            }
+        }
+    }
+}
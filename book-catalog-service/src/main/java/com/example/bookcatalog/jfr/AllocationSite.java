@@ -0,0 +1,32 @@
+package com.example.bookcatalog.jfr;
+
+public class AllocationSite {
+
+    private final String site;
+    private final String objectClass;
+    private final long bytes;
+    private final double percent;
+
+    public AllocationSite(String site, String objectClass, long bytes, double percent) {
+        this.site = site;
+        this.objectClass = objectClass;
+        this.bytes = bytes;
+        this.percent = percent;
+    }
+
+    public String getSite() {
+        return site;
+    }
+
+    public String getObjectClass() {
+        return objectClass;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public double getPercent() {
+        return percent;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bookcatalog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Instant event, one per cache lookup. A miss is followed by the service operation that loaded
+ * the book.
+ */
+@Name("com.example.bookcatalog.CacheLookup")
+@Label("Book Cache Lookup")
+@Category({"Book Catalog", "Cache"})
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Book Id")
+    long bookId;
+
+    @Label("Hit")
+    boolean hit;
+
+    public static void record(Long bookId, boolean hit) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        if (event.shouldCommit()) {
+            event.bookId = bookId != null ? bookId : -1;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+}
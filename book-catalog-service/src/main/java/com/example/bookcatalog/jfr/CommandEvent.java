@@ -0,0 +1,40 @@
+package com.example.bookcatalog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.bookcatalog.Command")
+@Label("Command Execution")
+@Category({"Book Catalog", "Commands"})
+@StackTrace(false)
+public class CommandEvent extends Event {
+
+    public static final String EXECUTE = "execute";
+    public static final String UNDO = "undo";
+
+    @Label("Action")
+    String action;
+
+    @Label("Command")
+    String command;
+
+    @Label("Client Id")
+    String clientId;
+
+    @Label("Failed")
+    boolean failed;
+
+    public void complete(String action, Object command, String clientId, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.action = action;
+            this.command = command != null ? command.getClass().getSimpleName() : null;
+            this.clientId = clientId;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
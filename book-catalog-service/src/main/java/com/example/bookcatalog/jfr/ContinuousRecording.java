@@ -0,0 +1,106 @@
+package com.example.bookcatalog.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps a bounded, on-disk flight recording running for the life of the service with the JDK
+ * defaults plus {@code jfr/bookcatalog.jfc}. Dump it on demand with
+ * {@code jcmd <pid> JFR.dump name=bookcatalog-continuous}; it is also written to the dump directory on
+ * shutdown.
+ */
+@Component
+@ConditionalOnProperty(name = "bookcatalog.jfr.continuous.enabled", havingValue = "true")
+public class ContinuousRecording {
+
+    static final String RECORDING_NAME = "bookcatalog-continuous";
+    static final String SETTINGS = "jfr/bookcatalog.jfc";
+
+    private static final Logger logger = LoggerFactory.getLogger(ContinuousRecording.class);
+
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Path dumpDirectory;
+    private Recording recording;
+
+    @Autowired
+    public ContinuousRecording(@Value("${bookcatalog.jfr.continuous.max-age-minutes:60}") long maxAgeMinutes,
+                               @Value("${bookcatalog.jfr.continuous.max-size-mb:250}") long maxSizeMb,
+                               @Value("${bookcatalog.jfr.continuous.dump-directory:./data/jfr}") String dumpDirectory) {
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.dumpDirectory = Paths.get(dumpDirectory);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(dumpDirectory);
+        recording = new Recording(settings());
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        // the JVM's own shutdown hook may stop the recording before this bean is destroyed
+        recording.setDestination(dumpDirectory.resolve(RECORDING_NAME + "-" + System.currentTimeMillis() + ".jfr"));
+        recording.setDumpOnExit(true);
+        recording.start();
+        logger.info("Continuous flight recording started (max age {}, max size {} MB)",
+                maxAge, maxSizeBytes / (1024 * 1024));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+                logger.info("Flight recording written to {}", recording.getDestination());
+            }
+        } catch (IllegalStateException e) {
+            logger.debug("Flight recording already stopped by the JVM", e);
+        } finally {
+            recording.close();
+        }
+    }
+
+    /**
+     * The JDK default settings with this service's overrides applied on top.
+     */
+    static Map<String, String> settings() {
+        try (Reader reader = new InputStreamReader(new ClassPathResource(SETTINGS).getInputStream(),
+                StandardCharsets.UTF_8)) {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(Configuration.create(reader).getSettings());
+            return settings;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid flight recorder settings in " + SETTINGS, e);
+        }
+    }
+}
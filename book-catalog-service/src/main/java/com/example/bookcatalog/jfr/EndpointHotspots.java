@@ -0,0 +1,41 @@
+package com.example.bookcatalog.jfr;
+
+import java.util.List;
+
+public class EndpointHotspots {
+
+    private final String endpoint;
+    private final long cpuSamples;
+    private final long allocatedBytes;
+    private final List<HotMethod> hotMethods;
+    private final List<AllocationSite> allocationSites;
+
+    public EndpointHotspots(String endpoint, long cpuSamples, long allocatedBytes, List<HotMethod> hotMethods,
+                            List<AllocationSite> allocationSites) {
+        this.endpoint = endpoint;
+        this.cpuSamples = cpuSamples;
+        this.allocatedBytes = allocatedBytes;
+        this.hotMethods = hotMethods;
+        this.allocationSites = allocationSites;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getCpuSamples() {
+        return cpuSamples;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public List<HotMethod> getHotMethods() {
+        return hotMethods;
+    }
+
+    public List<AllocationSite> getAllocationSites() {
+        return allocationSites;
+    }
+}
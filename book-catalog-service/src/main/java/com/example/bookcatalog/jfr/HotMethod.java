@@ -0,0 +1,32 @@
+package com.example.bookcatalog.jfr;
+
+public class HotMethod {
+
+    private final String method;
+    private final long selfSamples;
+    private final long totalSamples;
+    private final double selfPercent;
+
+    public HotMethod(String method, long selfSamples, long totalSamples, double selfPercent) {
+        this.method = method;
+        this.selfSamples = selfSamples;
+        this.totalSamples = totalSamples;
+        this.selfPercent = selfPercent;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getSelfSamples() {
+        return selfSamples;
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public double getSelfPercent() {
+        return selfPercent;
+    }
+}
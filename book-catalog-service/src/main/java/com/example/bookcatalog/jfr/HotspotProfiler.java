@@ -0,0 +1,151 @@
+package com.example.bookcatalog.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Always-on sampling profiler fed by an in-process JFR stream of execution and allocation samples.
+ * A sample is charged to the innermost controller method on its stack, so attribution needs no
+ * request bookkeeping; stacks deeper than the JVM's {@code stackdepth} (64 by default) that lose their
+ * controller frame are counted as {@link #TRUNCATED}.
+ */
+@Component
+@ConditionalOnProperty(name = "bookcatalog.profiling.enabled", havingValue = "true")
+public class HotspotProfiler {
+
+    static final String BACKGROUND = "(background)";
+    static final String TRUNCATED = "(truncated)";
+    static final String HTTP = "(http)";
+    static final String CONTROLLER_PACKAGE = "com.example.bookcatalog.controller.";
+    static final String APPLICATION_PACKAGE = "com.example.bookcatalog.";
+    static final String SERVLET_PACKAGE = "jakarta.servlet.";
+
+    private static final Logger logger = LoggerFactory.getLogger(HotspotProfiler.class);
+
+    private final Duration samplePeriod;
+    private final String allocationThrottle;
+    private final HotspotTable table;
+    private RecordingStream stream;
+
+    @Autowired
+    public HotspotProfiler(@Value("${bookcatalog.profiling.sample-period-ms:20}") long samplePeriodMillis,
+                           @Value("${bookcatalog.profiling.allocation-samples-per-second:100}") int allocationRate,
+                           @Value("${bookcatalog.profiling.window-seconds:300}") long windowSeconds,
+                           @Value("${bookcatalog.profiling.bucket-seconds:30}") long bucketSeconds,
+                           @Value("${bookcatalog.profiling.max-stacks-per-endpoint:2000}") int maxStacks) {
+        this.samplePeriod = Duration.ofMillis(samplePeriodMillis);
+        this.allocationThrottle = allocationRate + "/s";
+        this.table = new HotspotTable(windowSeconds * 1000, bucketSeconds * 1000, maxStacks);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.ExecutionSample").withPeriod(samplePeriod);
+        stream.enable("jdk.ObjectAllocationSample").with("throttle", allocationThrottle);
+        // events are consumed as they are flushed; nothing needs to stay in the repository
+        stream.setMaxAge(Duration.ofSeconds(30));
+        stream.onEvent("jdk.ExecutionSample", this::onExecutionSample);
+        stream.onEvent("jdk.ObjectAllocationSample", this::onAllocationSample);
+        stream.startAsync();
+        logger.info("Hotspot profiler sampling every {} ms and {} allocation samples", samplePeriod.toMillis(),
+                allocationThrottle);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public synchronized List<EndpointHotspots> getHotspots(int limit) {
+        return table.report(System.currentTimeMillis(), limit);
+    }
+
+    public synchronized String getCollapsedStacks(boolean allocations, String endpoint) {
+        return table.collapsed(System.currentTimeMillis(), allocations, endpoint);
+    }
+
+    public synchronized void reset() {
+        table.clear();
+    }
+
+    private void onExecutionSample(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+        String[] frames = frames(stackTrace);
+        String endpoint = endpoint(frames, stackTrace.isTruncated());
+        synchronized (this) {
+            table.recordCpu(event.getStartTime().toEpochMilli(), endpoint, frames);
+        }
+    }
+
+    private void onAllocationSample(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String[] frames = stackTrace != null ? frames(stackTrace) : new String[0];
+        String endpoint = endpoint(frames, stackTrace != null && stackTrace.isTruncated());
+        RecordedClass objectClass = event.getClass("objectClass");
+        synchronized (this) {
+            table.recordAllocation(event.getStartTime().toEpochMilli(), endpoint, frames, site(frames),
+                    objectClass != null ? objectClass.getName() : "unknown", event.getLong("weight"));
+        }
+    }
+
+    private static String[] frames(RecordedStackTrace stackTrace) {
+        List<RecordedFrame> recorded = stackTrace.getFrames();
+        String[] frames = new String[recorded.size()];
+        for (int i = 0; i < frames.length; i++) {
+            RecordedFrame frame = recorded.get(i);
+            frames[i] = frame.getMethod().getType().getName() + '.' + frame.getMethod().getName();
+        }
+        return frames;
+    }
+
+    /**
+     * The controller method the sample ran under, as {@code BookController.searchBooksByTitle}.
+     * Request work outside any controller method (filters, message conversion) is {@link #HTTP}.
+     */
+    static String endpoint(String[] frames, boolean truncated) {
+        boolean servlet = false;
+        for (String frame : frames) {
+            if (frame.startsWith(CONTROLLER_PACKAGE)) {
+                int method = frame.lastIndexOf('.');
+                if (frame.startsWith("Controller", method - "Controller".length())) {
+                    return frame.substring(CONTROLLER_PACKAGE.length(), method) + frame.substring(method);
+                }
+            }
+            servlet |= frame.startsWith(SERVLET_PACKAGE);
+        }
+        return servlet ? HTTP : truncated ? TRUNCATED : BACKGROUND;
+    }
+
+    /**
+     * The innermost application frame, which is where an allocation can be fixed; JDK and library
+     * frames above it only say which collection grew.
+     */
+    static String site(String[] frames) {
+        for (String frame : frames) {
+            if (frame.startsWith(APPLICATION_PACKAGE)) {
+                return frame;
+            }
+        }
+        return frames.length > 0 ? frames[0] : "unknown";
+    }
+}
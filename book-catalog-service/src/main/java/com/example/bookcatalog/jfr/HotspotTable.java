@@ -0,0 +1,199 @@
+package com.example.bookcatalog.jfr;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rolling per-endpoint CPU and allocation tables. Samples land in fixed time buckets that are
+ * recycled as the window moves, so memory stays bounded without a cleanup pass. Stack frames are
+ * leaf first, the order JFR reports them in. Not thread-safe; the profiler serializes access.
+ */
+class HotspotTable {
+
+    static final String OTHER_STACKS = "(other stacks)";
+
+    private final long bucketMillis;
+    private final Bucket[] buckets;
+    private final int maxStacks;
+
+    HotspotTable(long windowMillis, long bucketMillis, int maxStacks) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new Bucket[(int) Math.max(1, windowMillis / bucketMillis)];
+        this.maxStacks = maxStacks;
+    }
+
+    void recordCpu(long timeMillis, String endpoint, String[] frames) {
+        Profile profile = profile(timeMillis, endpoint);
+        if (profile == null || frames.length == 0) {
+            return;
+        }
+        profile.cpuSamples++;
+        increment(profile.selfSamples, frames[0], 1);
+        Set<String> seen = new HashSet<>();
+        for (String frame : frames) {
+            if (seen.add(frame)) {
+                increment(profile.totalSamples, frame, 1);
+            }
+        }
+        addStack(profile.cpuStacks, collapse(endpoint, frames, null), 1);
+    }
+
+    void recordAllocation(long timeMillis, String endpoint, String[] frames, String site, String objectClass,
+                          long bytes) {
+        Profile profile = profile(timeMillis, endpoint);
+        if (profile == null) {
+            return;
+        }
+        profile.allocatedBytes += bytes;
+        increment(profile.allocationSites, site + '\n' + objectClass, bytes);
+        addStack(profile.allocationStacks, collapse(endpoint, frames, objectClass), bytes);
+    }
+
+    List<EndpointHotspots> report(long nowMillis, int limit) {
+        List<EndpointHotspots> report = new ArrayList<>();
+        for (Map.Entry<String, Profile> entry : merged(nowMillis).entrySet()) {
+            Profile profile = entry.getValue();
+            List<HotMethod> methods = new ArrayList<>();
+            for (Map.Entry<String, long[]> self : top(profile.selfSamples, limit)) {
+                long total = profile.totalSamples.get(self.getKey())[0];
+                methods.add(new HotMethod(self.getKey(), self.getValue()[0], total,
+                        percent(self.getValue()[0], profile.cpuSamples)));
+            }
+            List<AllocationSite> sites = new ArrayList<>();
+            for (Map.Entry<String, long[]> site : top(profile.allocationSites, limit)) {
+                int split = site.getKey().indexOf('\n');
+                sites.add(new AllocationSite(site.getKey().substring(0, split), site.getKey().substring(split + 1),
+                        site.getValue()[0], percent(site.getValue()[0], profile.allocatedBytes)));
+            }
+            report.add(new EndpointHotspots(entry.getKey(), profile.cpuSamples, profile.allocatedBytes, methods, sites));
+        }
+        report.sort(Comparator.comparingLong(EndpointHotspots::getCpuSamples).reversed());
+        return report;
+    }
+
+    /**
+     * Brendan Gregg's collapsed format, one {@code frame;frame;frame count} line per stack with the
+     * endpoint as the root frame, ready for flamegraph.pl or speedscope.
+     */
+    String collapsed(long nowMillis, boolean allocations, String endpointFilter) {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Profile> entry : merged(nowMillis).entrySet()) {
+            if (endpointFilter != null && !endpointFilter.equals(entry.getKey())) {
+                continue;
+            }
+            Profile profile = entry.getValue();
+            for (Map.Entry<String, long[]> stack : (allocations ? profile.allocationStacks : profile.cpuStacks).entrySet()) {
+                out.append(stack.getKey()).append(' ').append(stack.getValue()[0]).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = null;
+        }
+    }
+
+    private Profile profile(long timeMillis, String endpoint) {
+        long id = timeMillis / bucketMillis;
+        int slot = (int) (id % buckets.length);
+        Bucket bucket = buckets[slot];
+        if (bucket == null || bucket.id < id) {
+            bucket = new Bucket(id);
+            buckets[slot] = bucket;
+        } else if (bucket.id > id) {
+            // older than the window already covers
+            return null;
+        }
+        return bucket.profiles.computeIfAbsent(endpoint, key -> new Profile());
+    }
+
+    private Map<String, Profile> merged(long nowMillis) {
+        long oldest = nowMillis / bucketMillis - buckets.length + 1;
+        Map<String, Profile> merged = new HashMap<>();
+        for (Bucket bucket : buckets) {
+            if (bucket == null || bucket.id < oldest) {
+                continue;
+            }
+            for (Map.Entry<String, Profile> entry : bucket.profiles.entrySet()) {
+                merged.computeIfAbsent(entry.getKey(), key -> new Profile()).add(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private void addStack(Map<String, long[]> stacks, String stack, long weight) {
+        if (stacks.size() >= maxStacks && !stacks.containsKey(stack)) {
+            stack = stack.substring(0, stack.indexOf(';') + 1) + OTHER_STACKS;
+        }
+        increment(stacks, stack, weight);
+    }
+
+    private static String collapse(String endpoint, String[] frames, String leaf) {
+        StringBuilder stack = new StringBuilder(endpoint);
+        for (int i = frames.length - 1; i >= 0; i--) {
+            stack.append(';').append(frames[i]);
+        }
+        if (leaf != null) {
+            stack.append(';').append(leaf);
+        }
+        return stack.toString();
+    }
+
+    private static void increment(Map<String, long[]> counts, String key, long amount) {
+        counts.computeIfAbsent(key, k -> new long[1])[0] += amount;
+    }
+
+    private static List<Map.Entry<String, long[]>> top(Map<String, long[]> counts, int limit) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : Math.round(part * 1000.0 / whole) / 10.0;
+    }
+
+    private static class Bucket {
+
+        private final long id;
+        private final Map<String, Profile> profiles = new HashMap<>();
+
+        Bucket(long id) {
+            this.id = id;
+        }
+    }
+
+    private static class Profile {
+
+        private long cpuSamples;
+        private long allocatedBytes;
+        private final Map<String, long[]> selfSamples = new HashMap<>();
+        private final Map<String, long[]> totalSamples = new HashMap<>();
+        private final Map<String, long[]> cpuStacks = new HashMap<>();
+        private final Map<String, long[]> allocationSites = new HashMap<>();
+        private final Map<String, long[]> allocationStacks = new HashMap<>();
+
+        void add(Profile other) {
+            cpuSamples += other.cpuSamples;
+            allocatedBytes += other.allocatedBytes;
+            merge(selfSamples, other.selfSamples);
+            merge(totalSamples, other.totalSamples);
+            merge(cpuStacks, other.cpuStacks);
+            merge(allocationSites, other.allocationSites);
+            merge(allocationStacks, other.allocationStacks);
+        }
+
+        private static void merge(Map<String, long[]> into, Map<String, long[]> from) {
+            for (Map.Entry<String, long[]> entry : from.entrySet()) {
+                increment(into, entry.getKey(), entry.getValue()[0]);
+            }
+        }
+    }
+}
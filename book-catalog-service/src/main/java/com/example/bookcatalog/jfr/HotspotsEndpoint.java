@@ -0,0 +1,53 @@
+package com.example.bookcatalog.jfr;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hot methods and allocation sites per controller method at {@code /actuator/hotspots}, and
+ * collapsed stacks for flame graphs at {@code /actuator/hotspots/cpu} and
+ * {@code /actuator/hotspots/alloc}, optionally narrowed with {@code ?endpoint=BookController.getBookById}.
+ */
+@Component
+@Endpoint(id = "hotspots")
+@ConditionalOnProperty(name = "bookcatalog.profiling.enabled", havingValue = "true")
+public class HotspotsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final HotspotProfiler profiler;
+
+    public HotspotsEndpoint(HotspotProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public List<EndpointHotspots> hotspots(@Nullable Integer limit) {
+        return profiler.getHotspots(limit != null && limit > 0 ? limit : DEFAULT_LIMIT);
+    }
+
+    @ReadOperation(produces = "text/plain")
+    public String collapsed(@Selector String kind, @Nullable String endpoint) {
+        switch (kind) {
+            case "cpu":
+                return profiler.getCollapsedStacks(false, endpoint);
+            case "alloc":
+                return profiler.getCollapsedStacks(true, endpoint);
+            default:
+                throw new InvalidEndpointRequestException("Unknown stack kind: " + kind, "Use cpu or alloc");
+        }
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bookcatalog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Records the term length rather than the term, so recordings can be shared without exposing what
+ * users searched for.
+ */
+@Name("com.example.bookcatalog.SearchStrategy")
+@Label("Search Strategy Execution")
+@Category({"Book Catalog", "Search"})
+@StackTrace(false)
+public class SearchStrategyEvent extends Event {
+
+    @Label("Search Type")
+    String searchType;
+
+    @Label("Term Length")
+    int termLength;
+
+    @Label("Result Count")
+    int resultCount;
+
+    public void complete(String searchType, String searchTerm, int resultCount) {
+        end();
+        if (shouldCommit()) {
+            this.searchType = searchType;
+            this.termLength = searchTerm != null ? searchTerm.length() : 0;
+            this.resultCount = resultCount;
+            commit();
+        }
+    }
+}
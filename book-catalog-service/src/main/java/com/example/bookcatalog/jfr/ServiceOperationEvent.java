@@ -0,0 +1,35 @@
+package com.example.bookcatalog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.bookcatalog.ServiceOperation")
+@Label("Book Service Operation")
+@Description("One call through the book service decorator chain")
+@Category({"Book Catalog", "Service"})
+@StackTrace(false)
+public class ServiceOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Search Type")
+    String searchType;
+
+    @Label("Failed")
+    boolean failed;
+
+    public void complete(String operation, String searchType, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.searchType = searchType;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bookcatalog.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.bookcatalog.Validation")
+@Label("Book Validation")
+@Category({"Book Catalog", "Validation"})
+@StackTrace(false)
+public class ValidationEvent extends Event {
+
+    @Label("Validator")
+    String validator;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Violations")
+    int violations;
+
+    public void complete(String validator, int rows, int violations) {
+        end();
+        if (shouldCommit()) {
+            this.validator = validator;
+            this.rows = rows;
+            this.violations = violations;
+            commit();
+        }
+    }
+}
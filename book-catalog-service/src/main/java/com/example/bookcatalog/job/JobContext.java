@@ -0,0 +1,25 @@
+package com.example.bookcatalog.job;
+
+public interface JobContext {
+
+    JobContext NONE = new JobContext() {
+        @Override
+        public void reportProgress(long processed, long total) {
+        }
+
+        @Override
+        public void reportError(String message) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    void reportProgress(long processed, long total);
+
+    void reportError(String message);
+
+    boolean isCancelled();
+}
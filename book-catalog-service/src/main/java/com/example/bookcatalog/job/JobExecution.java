@@ -0,0 +1,140 @@
+package com.example.bookcatalog.job;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class JobExecution implements JobContext {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private static final int MAX_ERRORS = 100;
+
+    private final Long id;
+    private final String type;
+    private final Instant submittedAt;
+    private final JobWork work;
+    private final String clientId;
+
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long processed;
+    private volatile long total;
+    private volatile boolean cancelRequested;
+    private volatile Object result;
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    JobExecution(Long id, String type, JobWork work, String clientId) {
+        this.id = id;
+        this.type = type;
+        this.work = work;
+        this.clientId = clientId;
+        this.submittedAt = Instant.now();
+    }
+
+    @Override
+    public void reportProgress(long processed, long total) {
+        this.processed = processed;
+        this.total = total;
+    }
+
+    @Override
+    public void reportError(String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public double getThroughputPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0.0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Duration.between(start, end).toMillis();
+        return millis > 0 ? processed * 1000.0 / millis : 0.0;
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    @JsonIgnore
+    JobWork getWork() {
+        return work;
+    }
+
+    @JsonIgnore
+    String getClientId() {
+        return clientId;
+    }
+
+    boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    void markRunning() {
+        this.startedAt = Instant.now();
+        this.state = State.RUNNING;
+    }
+
+    void markFinished(State finalState, Object result) {
+        this.result = result;
+        this.finishedAt = Instant.now();
+        this.state = finalState;
+    }
+}
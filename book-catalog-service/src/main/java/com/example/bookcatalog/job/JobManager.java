@@ -0,0 +1,238 @@
+package com.example.bookcatalog.job;
+
+import com.example.bookcatalog.command.ClientContext;
+import com.example.bookcatalog.threads.CatalogThreads;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+@Component
+public class JobManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobManager.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Environment environment;
+    private final int defaultTypeLimit;
+    private final int queueCapacity;
+    private final int retainedJobs;
+
+    private final AtomicLong idSequence = new AtomicLong();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<Long, JobExecution> jobs = new ConcurrentHashMap<>();
+    private final Map<String, TypeSlot> slots = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JobManager(Environment environment,
+                      @Value("${bookcatalog.jobs.pool-size:2}") int poolSize,
+                      @Value("${bookcatalog.jobs.queue-capacity:50}") int queueCapacity,
+                      @Value("${bookcatalog.jobs.max-concurrent-per-type:1}") int defaultTypeLimit,
+                      @Value("${bookcatalog.jobs.retained:200}") int retainedJobs) {
+        this.environment = environment;
+        this.defaultTypeLimit = defaultTypeLimit;
+        this.queueCapacity = queueCapacity;
+        this.retainedJobs = retainedJobs;
+        // the pool size stays a limit on concurrent jobs even when its threads are virtual
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                CatalogThreads.factory("catalog-job-", CatalogThreads.virtualThreadsEnabled(environment)));
+    }
+
+    public JobExecution submit(String type, JobWork work) {
+        if (executor.isShutdown()) {
+            throw new JobRejectedException("Job manager is shutting down");
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            throw new JobRejectedException("Job queue is full, retry later");
+        }
+        JobExecution job = new JobExecution(idSequence.incrementAndGet(), type, work,
+                ClientContext.currentClientId());
+        jobs.put(job.getId(), job);
+        evictFinishedJobs();
+
+        TypeSlot slot = slots.computeIfAbsent(type, t -> new TypeSlot(
+                environment.getProperty("bookcatalog.jobs.type-limits." + t, Integer.class, defaultTypeLimit)));
+        slot.lock.lock();
+        try {
+            if (slot.running < slot.limit) {
+                slot.running++;
+                dispatch(job, slot);
+            } else {
+                slot.pending.addLast(job);
+            }
+        } finally {
+            slot.lock.unlock();
+        }
+        return job;
+    }
+
+    public Optional<JobExecution> find(Long id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<JobExecution> list() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(JobExecution::getId).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public boolean cancel(Long id) {
+        JobExecution job = jobs.get(id);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        job.requestCancel();
+        TypeSlot slot = slots.get(job.getType());
+        if (slot != null) {
+            slot.lock.lock();
+            try {
+                if (slot.pending.remove(job)) {
+                    queued.decrementAndGet();
+                    job.markFinished(JobExecution.State.CANCELLED, null);
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(JobExecution::requestCancel);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(JobExecution job, TypeSlot slot) {
+        try {
+            executor.execute(() -> {
+                queued.decrementAndGet();
+                try {
+                    run(job);
+                } finally {
+                    JobExecution next;
+                    slot.lock.lock();
+                    try {
+                        next = slot.pending.pollFirst();
+                        if (next == null) {
+                            slot.running--;
+                        }
+                    } finally {
+                        slot.lock.unlock();
+                    }
+                    if (next != null) {
+                        dispatch(next, slot);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the executor queue holds every admitted job, so this only happens after shutdown
+            abandon(job, slot);
+        }
+    }
+
+    /**
+     * Cancels a job the executor refused along with everything still waiting behind it in its
+     * slot, none of which can run any more, and releases the slot.
+     */
+    private void abandon(JobExecution job, TypeSlot slot) {
+        List<JobExecution> abandoned = new ArrayList<>();
+        abandoned.add(job);
+        slot.lock.lock();
+        try {
+            abandoned.addAll(slot.pending);
+            slot.pending.clear();
+            slot.running--;
+        } finally {
+            slot.lock.unlock();
+        }
+        for (JobExecution dropped : abandoned) {
+            queued.decrementAndGet();
+            dropped.markFinished(JobExecution.State.CANCELLED, null);
+        }
+        logger.warn("Cancelled {} queued jobs of type {}, the job executor is shut down",
+                abandoned.size(), job.getType());
+    }
+
+    private void run(JobExecution job) {
+        if (job.isCancelled()) {
+            job.markFinished(JobExecution.State.CANCELLED, null);
+            return;
+        }
+        job.markRunning();
+        // commands executed by the job land in the submitting client's journal
+        ClientContext.setClientId(job.getClientId());
+        try {
+            Object result = job.getWork().run(job);
+            job.markFinished(job.isCancelled() ? JobExecution.State.CANCELLED : JobExecution.State.SUCCEEDED, result);
+        } catch (Exception e) {
+            logger.error("Job {} of type {} failed", job.getId(), job.getType(), e);
+            job.reportError(e.getMessage());
+            job.markFinished(JobExecution.State.FAILED, null);
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() <= retainedJobs) {
+            return;
+        }
+        List<JobExecution> finished = new ArrayList<>();
+        for (JobExecution job : jobs.values()) {
+            if (job.isFinished()) {
+                finished.add(job);
+            }
+        }
+        finished.sort(Comparator.comparing(JobExecution::getId));
+        int excess = jobs.size() - retainedJobs;
+        for (int i = 0; i < excess && i < finished.size(); i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    private static final class TypeSlot {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<JobExecution> pending = new ArrayDeque<>();
+        private final int limit;
+        private int running;
+
+        private TypeSlot(int limit) {
+            this.limit = Math.max(1, limit);
+        }
+    }
+}
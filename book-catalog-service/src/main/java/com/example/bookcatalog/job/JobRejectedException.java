@@ -0,0 +1,8 @@
+package com.example.bookcatalog.job;
+
+public class JobRejectedException extends RuntimeException {
+
+    public JobRejectedException(String message) {
+        super(message);
+    }
+}
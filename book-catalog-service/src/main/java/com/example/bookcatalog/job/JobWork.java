@@ -0,0 +1,6 @@
+package com.example.bookcatalog.job;
+
+@FunctionalInterface
+public interface JobWork {
+    Object run(JobContext context) throws Exception;
+}
@@ -0,0 +1,19 @@
+package com.example.bookcatalog.limit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the admission class of a handler. Unannotated GET handlers are
+ * {@link RequestClass#INTERACTIVE}, everything else {@link RequestClass#WRITE}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+
+    RequestClass value();
+}
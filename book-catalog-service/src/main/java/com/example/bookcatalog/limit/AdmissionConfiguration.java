@@ -0,0 +1,27 @@
+package com.example.bookcatalog.limit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts admission control in front of the book API. Change streams are long-lived and bulk jobs only
+ * enqueue work for the job executor, so neither holds a slot.
+ */
+@Configuration
+public class AdmissionConfiguration implements WebMvcConfigurer {
+
+    private final ObjectProvider<AdmissionScheduler> scheduler;
+
+    public AdmissionConfiguration(ObjectProvider<AdmissionScheduler> scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        scheduler.ifAvailable(available -> registry.addInterceptor(new AdmissionInterceptor(available))
+                .addPathPatterns("/api/books", "/api/books/**")
+                .excludePathPatterns("/api/books/changes/**", "/api/books/bulk/**"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bookcatalog.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Runs after handler mapping, so the request class comes from the handler method itself. Shed
+ * requests get 503 with {@code Retry-After} before any controller or database work starts.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    static final String ADMITTED_AT = AdmissionInterceptor.class.getName() + ".admittedAt";
+    static final String REQUEST_CLASS = AdmissionInterceptor.class.getName() + ".requestClass";
+
+    private final AdmissionScheduler scheduler;
+
+    public AdmissionInterceptor(AdmissionScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        RequestClass requestClass = classify(request, (HandlerMethod) handler);
+        long admittedAt = scheduler.admit(requestClass);
+        if (admittedAt < 0) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(scheduler.getRetryAfterSeconds()));
+            return false;
+        }
+        request.setAttribute(REQUEST_CLASS, requestClass);
+        request.setAttribute(ADMITTED_AT, admittedAt);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object requestClass = request.getAttribute(REQUEST_CLASS);
+        if (requestClass != null) {
+            request.removeAttribute(REQUEST_CLASS);
+            scheduler.release((RequestClass) requestClass, (Long) request.getAttribute(ADMITTED_AT));
+        }
+    }
+
+    static RequestClass classify(HttpServletRequest request, HandlerMethod handler) {
+        Admission admission = handler.getMethodAnnotation(Admission.class);
+        if (admission != null) {
+            return admission.value();
+        }
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())
+                ? RequestClass.INTERACTIVE : RequestClass.WRITE;
+    }
+}
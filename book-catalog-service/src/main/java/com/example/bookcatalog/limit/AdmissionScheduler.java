@@ -0,0 +1,195 @@
+package com.example.bookcatalog.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits requests against one adaptive concurrency limit shared by every {@link RequestClass}.
+ * A class may only fill its share of the limit, so as the limit shrinks under load bulk traffic is
+ * shed first, then search, then writes, and the slice above the largest lower-class share stays
+ * reserved for interactive lookups. A class that is full may queue briefly; each freed slot goes to
+ * a queued class by smooth weighted round robin, so low classes slow down rather than starve.
+ */
+@Component
+@ConditionalOnProperty(name = "bookcatalog.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionScheduler {
+
+    private static final RequestClass[] CLASSES = RequestClass.values();
+
+    private final GradientLimit limit;
+    private final ClassState[] states = new ClassState[CLASSES.length];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int retryAfterSeconds;
+    private int inFlight;
+
+    @Autowired
+    public AdmissionScheduler(MeterRegistry meterRegistry, Environment environment,
+                              @Value("${bookcatalog.admission.limit.initial:20}") int initialLimit,
+                              @Value("${bookcatalog.admission.limit.min:4}") int minLimit,
+                              @Value("${bookcatalog.admission.limit.max:40}") int maxLimit,
+                              @Value("${bookcatalog.admission.rtt-tolerance:1.5}") double tolerance,
+                              @Value("${bookcatalog.admission.smoothing:0.2}") double smoothing,
+                              @Value("${bookcatalog.admission.long-window:600}") int longWindow,
+                              @Value("${bookcatalog.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this(meterRegistry, new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, smoothing, longWindow),
+                policies(environment), retryAfterSeconds);
+    }
+
+    AdmissionScheduler(MeterRegistry meterRegistry, GradientLimit limit, ClassPolicy[] policies, int retryAfterSeconds) {
+        this.limit = limit;
+        this.retryAfterSeconds = retryAfterSeconds;
+        for (RequestClass requestClass : CLASSES) {
+            states[requestClass.ordinal()] = new ClassState(requestClass, policies[requestClass.ordinal()], meterRegistry);
+        }
+        Gauge.builder("bookcatalog.admission.limit", limit, GradientLimit::getLimit).register(meterRegistry);
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * Admits a request, waiting up to the class's max wait if it has a queue. Returns the admission
+     * time in nanos for {@link #release}, or -1 when the request is shed.
+     */
+    public long admit(RequestClass requestClass) {
+        ClassState state = states[requestClass.ordinal()];
+        lock.lock();
+        try {
+            if (state.waiters.isEmpty() && canAdmit(state)) {
+                grant(state);
+                return System.nanoTime();
+            }
+            if (state.waiters.size() >= state.policy.maxQueue || state.policy.maxWaitMillis <= 0) {
+                state.shed.increment();
+                return -1;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            state.waiters.addLast(waiter);
+            state.queued = state.waiters.size();
+            long remaining = TimeUnit.MILLISECONDS.toNanos(state.policy.maxWaitMillis);
+            try {
+                while (!waiter.admitted && remaining > 0) {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!waiter.admitted) {
+                state.waiters.remove(waiter);
+                state.queued = state.waiters.size();
+                state.shed.increment();
+                return -1;
+            }
+            // queue time is not service time, so the limit only sees time spent after admission
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(RequestClass requestClass, long admittedAtNanos) {
+        long rtt = System.nanoTime() - admittedAtNanos;
+        ClassState state = states[requestClass.ordinal()];
+        lock.lock();
+        try {
+            limit.onSample(rtt, inFlight);
+            inFlight--;
+            state.inFlight--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canAdmit(ClassState state) {
+        int classLimit = Math.max(1, (int) (limit.getLimit() * state.policy.share));
+        return inFlight < classLimit;
+    }
+
+    private void grant(ClassState state) {
+        inFlight++;
+        state.inFlight++;
+        state.admitted.increment();
+    }
+
+    private void dispatch() {
+        while (true) {
+            ClassState next = null;
+            int totalWeight = 0;
+            for (ClassState state : states) {
+                if (!state.waiters.isEmpty() && canAdmit(state)) {
+                    state.credit += state.policy.weight;
+                    totalWeight += state.policy.weight;
+                    if (next == null || state.credit > next.credit) {
+                        next = state;
+                    }
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            next.credit -= totalWeight;
+            Waiter waiter = next.waiters.pollFirst();
+            next.queued = next.waiters.size();
+            waiter.admitted = true;
+            grant(next);
+            waiter.condition.signal();
+        }
+    }
+
+    private static ClassPolicy[] policies(Environment environment) {
+        ClassPolicy[] policies = new ClassPolicy[CLASSES.length];
+        for (RequestClass requestClass : CLASSES) {
+            policies[requestClass.ordinal()] = ClassPolicy.from(environment, requestClass);
+        }
+        return policies;
+    }
+
+    private static class Waiter {
+
+        private final Condition condition;
+        private boolean admitted;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    private static class ClassState {
+
+        private final ClassPolicy policy;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private final Counter admitted;
+        private final Counter shed;
+        private volatile int inFlight;
+        private volatile int queued;
+        private int credit;
+
+        ClassState(RequestClass requestClass, ClassPolicy policy, MeterRegistry meterRegistry) {
+            this.policy = policy;
+            this.admitted = meterRegistry.counter("bookcatalog.admission.admitted", "class", requestClass.getTag());
+            this.shed = meterRegistry.counter("bookcatalog.admission.shed", "class", requestClass.getTag());
+            Gauge.builder("bookcatalog.admission.queue", this, state -> state.queued)
+                    .tag("class", requestClass.getTag()).register(meterRegistry);
+            Gauge.builder("bookcatalog.admission.inflight", this, state -> state.inFlight)
+                    .tag("class", requestClass.getTag()).register(meterRegistry);
+        }
+    }
+}
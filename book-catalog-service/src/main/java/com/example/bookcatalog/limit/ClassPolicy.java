@@ -0,0 +1,30 @@
+package com.example.bookcatalog.limit;
+
+import org.springframework.core.env.Environment;
+
+class ClassPolicy {
+
+    final double share;
+    final int weight;
+    final int maxQueue;
+    final long maxWaitMillis;
+
+    ClassPolicy(double share, int weight, int maxQueue, long maxWaitMillis) {
+        if (share <= 0 || share > 1 || weight < 1) {
+            throw new IllegalArgumentException("Admission share must be in (0, 1] and weight at least 1");
+        }
+        this.share = share;
+        this.weight = weight;
+        this.maxQueue = maxQueue;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    static ClassPolicy from(Environment environment, RequestClass requestClass) {
+        String prefix = "bookcatalog.admission." + requestClass.getTag() + ".";
+        return new ClassPolicy(
+                environment.getProperty(prefix + "share", Double.class, requestClass.getDefaultShare()),
+                environment.getProperty(prefix + "weight", Integer.class, requestClass.getDefaultWeight()),
+                environment.getProperty(prefix + "max-queue", Integer.class, requestClass.getDefaultMaxQueue()),
+                environment.getProperty(prefix + "max-wait-ms", Long.class, requestClass.getDefaultMaxWaitMillis()));
+    }
+}
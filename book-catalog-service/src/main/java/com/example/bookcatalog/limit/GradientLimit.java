@@ -0,0 +1,56 @@
+package com.example.bookcatalog.limit;
+
+/**
+ * Gradient-style concurrency limit. A slow moving average of latency is the baseline; when recent
+ * latency rises above it (requests queueing on the pool), the limit shrinks in proportion, and
+ * while latency holds it grows by roughly its square root. Updates are cheap and synchronized, one
+ * per completed request.
+ */
+class GradientLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longWindowWeight;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing, int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWindowWeight = 2.0 / (longWindow + 1);
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    synchronized int onSample(long rttNanos, int inFlight) {
+        double shortRtt = rttNanos;
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos += (shortRtt - longRttNanos) * longWindowWeight;
+        }
+        // after a sustained spike the baseline is inflated; let it decay back so the limit recovers
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+        // an idle limiter has learned nothing about capacity, so it must not grow
+        if (inFlight < estimatedLimit / 2) {
+            return (int) estimatedLimit;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        return (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.bookcatalog.limit;
+
+/**
+ * Admission classes in priority order, highest first. The defaults are the per-class settings
+ * used when {@code bookcatalog.admission.<class>.*} is not configured: the share of the concurrency
+ * limit the class may fill, its weight when queued requests compete for a freed slot, and how many
+ * requests may wait and for how long before being shed.
+ */
+public enum RequestClass {
+
+    INTERACTIVE("interactive", 1.0, 8, 50, 50),
+    WRITE("write", 0.8, 4, 20, 50),
+    SEARCH("search", 0.6, 2, 10, 20),
+    BULK("bulk", 0.3, 1, 0, 0);
+
+    private final String tag;
+    private final double defaultShare;
+    private final int defaultWeight;
+    private final int defaultMaxQueue;
+    private final long defaultMaxWaitMillis;
+
+    RequestClass(String tag, double defaultShare, int defaultWeight, int defaultMaxQueue, long defaultMaxWaitMillis) {
+        this.tag = tag;
+        this.defaultShare = defaultShare;
+        this.defaultWeight = defaultWeight;
+        this.defaultMaxQueue = defaultMaxQueue;
+        this.defaultMaxWaitMillis = defaultMaxWaitMillis;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    double getDefaultShare() {
+        return defaultShare;
+    }
+
+    int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    int getDefaultMaxQueue() {
+        return defaultMaxQueue;
+    }
+
+    long getDefaultMaxWaitMillis() {
+        return defaultMaxWaitMillis;
+    }
+}
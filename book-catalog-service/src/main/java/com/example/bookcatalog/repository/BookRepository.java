@@ -2,10 +2,15 @@ package com.example.bookcatalog.repository;
 
 import com.example.bookcatalog.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +22,39 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> findByAuthor(String author);
     
     List<Book> findByTitleContainingIgnoreCase(String title);
-}
 
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.title = :title, b.author = :author, b.isbn = :isbn, " +
+           "b.publicationYear = :publicationYear, b.price = :price, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.version = :version AND b.deletedAt IS NULL")
+    int updateIfVersionMatches(@Param("id") Long id,
+                               @Param("version") Long version,
+                               @Param("title") String title,
+                               @Param("author") String author,
+                               @Param("isbn") String isbn,
+                               @Param("publicationYear") Integer publicationYear,
+                               @Param("price") BigDecimal price);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE books SET deleted_at = :deletedAt, version = version + 1 " +
+                   "WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteById(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE books SET deleted_at = NULL, version = version + 1 " +
+                   "WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int restoreById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM books WHERE isbn = :isbn AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeDeletedByIsbn(@Param("isbn") String isbn);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM books WHERE isbn IN (:isbns) AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeDeletedByIsbnIn(@Param("isbns") Collection<String> isbns);
+}
@@ -0,0 +1,9 @@
+package com.example.bookcatalog.repository;
+
+import com.example.bookcatalog.entity.BulkJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BulkJobRepository extends JpaRepository<BulkJob, Long> {
+}
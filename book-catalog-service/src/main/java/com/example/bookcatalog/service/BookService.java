@@ -1,20 +1,37 @@
 package com.example.bookcatalog.service;
 
 import com.example.bookcatalog.builder.BookBuilder;
+import com.example.bookcatalog.changes.BookChangeLog;
+import com.example.bookcatalog.changes.BookChangePublisher;
+import com.example.bookcatalog.changes.BookRevisionLog;
+import com.example.bookcatalog.command.BulkJobCommand;
+import com.example.bookcatalog.command.Command;
+import com.example.bookcatalog.command.CommandBatchExecutor;
 import com.example.bookcatalog.command.CommandInvoker;
+import com.example.bookcatalog.command.CompositeCommand;
 import com.example.bookcatalog.command.DeleteBookCommand;
 import com.example.bookcatalog.command.SaveBookCommand;
 import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.jfr.SearchStrategyEvent;
 import com.example.bookcatalog.repository.BookRepository;
 import com.example.bookcatalog.strategy.SearchStrategy;
 import com.example.bookcatalog.strategy.SearchStrategyFactory;
+import com.example.bookcatalog.tracing.Tracing;
+import com.example.bookcatalog.validator.BookValidationReport;
 import com.example.bookcatalog.validator.BookValidator;
 import com.example.bookcatalog.validator.BookValidatorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 @Service
 public class BookService {
@@ -23,16 +40,31 @@ public class BookService {
     private final SearchStrategyFactory searchStrategyFactory;
     private final BookValidatorFactory bookValidatorFactory;
     private final CommandInvoker commandInvoker;
+    private final CommandBatchExecutor commandBatchExecutor;
+    private final BookChangePublisher bookChangePublisher;
+    private final BookChangeLog bookChangeLog;
+    private final BookRevisionLog bookRevisionLog;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public BookService(BookRepository bookRepository, 
                       SearchStrategyFactory searchStrategyFactory,
                       BookValidatorFactory bookValidatorFactory,
-                      CommandInvoker commandInvoker) {
+                      CommandInvoker commandInvoker,
+                      CommandBatchExecutor commandBatchExecutor,
+                      BookChangePublisher bookChangePublisher,
+                      BookChangeLog bookChangeLog,
+                      BookRevisionLog bookRevisionLog,
+                      TransactionTemplate transactionTemplate) {
         this.bookRepository = bookRepository;
         this.searchStrategyFactory = searchStrategyFactory;
         this.bookValidatorFactory = bookValidatorFactory;
         this.commandInvoker = commandInvoker;
+        this.commandBatchExecutor = commandBatchExecutor;
+        this.bookChangePublisher = bookChangePublisher;
+        this.bookChangeLog = bookChangeLog;
+        this.bookRevisionLog = bookRevisionLog;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public List<Book> getAllBooks() {
@@ -43,6 +75,10 @@ public class BookService {
         return bookRepository.findById(id);
     }
 
+    public Optional<Book> getBookAsOf(Long id, LocalDateTime asOf) {
+        return bookRevisionLog.findAsOf(id, asOf);
+    }
+
     public Optional<Book> getBookByIsbn(String isbn) {
         List<Book> bookList = searchBooks("isbn", isbn);
         return bookList.stream().findFirst();
@@ -58,17 +94,67 @@ public class BookService {
 
     public List<Book> searchBooks(String searchType, String searchTerm) {
         SearchStrategy strategy = searchStrategyFactory.getSearchStrategy(searchType);
-        return strategy.search(searchTerm, bookRepository);
+        SearchStrategyEvent event = new SearchStrategyEvent();
+        event.begin();
+        Tracing.enter("strategy", searchType);
+        List<Book> results = null;
+        try {
+            results = strategy.search(searchTerm, bookRepository);
+            return results;
+        } finally {
+            Tracing.exit();
+            event.complete(searchType, searchTerm, results != null ? results.size() : -1);
+        }
     }
 
     public Book saveBook(Book book) {
         BookValidator validator = bookValidatorFactory.getValidator("standard");
         validator.validate(book);
 
-        SaveBookCommand saveCommand = new SaveBookCommand(bookRepository, book);
-        commandInvoker.executeCommand(saveCommand);
+        return transactionTemplate.execute(status -> {
+            releaseIsbn(book.getIsbn());
+            SaveBookCommand saveCommand = new SaveBookCommand(bookRepository, book);
+            commandInvoker.executeCommand(saveCommand);
+            bookChangeLog.record(saveCommand.getSavedBookId());
+            return bookRepository.findById(saveCommand.getSavedBookId()).orElse(book);
+        });
+    }
+
+    public List<Book> saveBooks(List<Book> books) {
+        if (books == null || books.isEmpty()) {
+            throw new IllegalArgumentException("At least one book is required");
+        }
+        BookValidator validator = bookValidatorFactory.getValidator("standard");
+        List<SaveBookCommand> saveCommands = new ArrayList<>(books.size());
+        Set<String> isbns = new HashSet<>();
+        for (Book book : books) {
+            validator.validate(book);
+            if (!isbns.add(book.getIsbn())) {
+                throw new IllegalArgumentException("Duplicate ISBN in batch: " + book.getIsbn());
+            }
+            saveCommands.add(new SaveBookCommand(bookRepository, book));
+        }
+
+        return transactionTemplate.execute(status -> {
+            bookRepository.purgeDeletedByIsbnIn(isbns);
+            CompositeCommand composite = new CompositeCommand("Save " + books.size() + " books",
+                    saveCommands, commandBatchExecutor);
+            commandInvoker.executeCommand(composite);
+            bookChangeLog.recordCommand(composite);
+
+            List<Long> ids = new ArrayList<>(saveCommands.size());
+            for (SaveBookCommand command : saveCommands) {
+                ids.add(command.getSavedBookId());
+            }
+            return bookRepository.findAllById(ids);
+        });
+    }
 
-        return bookRepository.findById(saveCommand.getSavedBookId()).orElse(book);
+    public BookValidationReport validateBooks(List<Book> books, String validatorType) {
+        if (books == null || books.isEmpty()) {
+            throw new IllegalArgumentException("At least one book is required");
+        }
+        return bookValidatorFactory.validateAll(books, validatorType);
     }
 
     public Book saveBookWithBuilder(String title, String author, String isbn, Integer publicationYear, Double price) {
@@ -84,28 +170,123 @@ public class BookService {
     }
 
     public Book updateBook(Long id, Book bookDetails) {
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
+        Book saved = transactionTemplate.execute(status -> {
+            Book book = bookRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
+
+            BookValidator validator = bookValidatorFactory.getValidator("update");
+            validator.validate(bookDetails);
+            releaseIsbn(bookDetails.getIsbn());
+
+            book.setTitle(bookDetails.getTitle());
+            book.setAuthor(bookDetails.getAuthor());
+            book.setIsbn(bookDetails.getIsbn());
+            book.setPublicationYear(bookDetails.getPublicationYear());
+            book.setPrice(bookDetails.getPrice());
 
+            // flushed first: the change log captures the revision from the table, not the entity
+            Book updated = bookRepository.saveAndFlush(book);
+            bookChangeLog.record(id);
+            return updated;
+        });
+        bookChangePublisher.bookUpdated(saved);
+        return saved;
+    }
+
+    public Book updateBook(Long id, Book bookDetails, Long expectedVersion) {
         BookValidator validator = bookValidatorFactory.getValidator("update");
         validator.validate(bookDetails);
 
-        book.setTitle(bookDetails.getTitle());
-        book.setAuthor(bookDetails.getAuthor());
-        book.setIsbn(bookDetails.getIsbn());
-        book.setPublicationYear(bookDetails.getPublicationYear());
-        book.setPrice(bookDetails.getPrice());
+        Book current = transactionTemplate.execute(status -> {
+            releaseIsbn(bookDetails.getIsbn());
+            int updated = bookRepository.updateIfVersionMatches(id, expectedVersion,
+                    bookDetails.getTitle(),
+                    bookDetails.getAuthor(),
+                    bookDetails.getIsbn(),
+                    bookDetails.getPublicationYear(),
+                    bookDetails.getPrice());
+
+            Book stored = bookRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
+            if (updated == 0) {
+                throw new BookVersionConflictException(id, expectedVersion, stored.getVersion());
+            }
+            bookChangeLog.record(id);
+            return stored;
+        });
+        bookChangePublisher.bookUpdated(current);
+        return current;
+    }
+
+    public Book updateBookWithRetry(Long id, UnaryOperator<Book> merge, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        BookVersionConflictException lastConflict = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            Book current = bookRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
+            Long readVersion = current.getVersion();
+            // merge into a detached copy: changes made to a managed instance would be flushed,
+            // with a version bump, ahead of the compare-and-set and make it conflict with itself
+            Book merged = merge.apply(copyOf(current));
+            try {
+                return updateBook(id, merged, readVersion);
+            } catch (BookVersionConflictException e) {
+                lastConflict = e;
+            }
+        }
+        throw lastConflict;
+    }
 
-        return bookRepository.save(book);
+    private static Book copyOf(Book book) {
+        Book copy = new Book(book.getTitle(), book.getAuthor(), book.getIsbn(),
+                book.getPublicationYear(), book.getPrice());
+        copy.setId(book.getId());
+        copy.setVersion(book.getVersion());
+        return copy;
     }
 
     public void deleteBook(Long id) {
         DeleteBookCommand deleteCommand = new DeleteBookCommand(bookRepository, id);
-        commandInvoker.executeCommand(deleteCommand);
+        transactionTemplate.execute(status -> {
+            commandInvoker.executeCommand(deleteCommand);
+            bookChangeLog.record(id);
+            return null;
+        });
+    }
+
+    public void deleteBooks(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one book id is required");
+        }
+        List<DeleteBookCommand> deleteCommands = new ArrayList<>(ids.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            deleteCommands.add(new DeleteBookCommand(bookRepository, id));
+        }
+        CompositeCommand composite = new CompositeCommand("Delete " + deleteCommands.size() + " books",
+                deleteCommands, commandBatchExecutor);
+        transactionTemplate.execute(status -> {
+            commandInvoker.executeCommand(composite);
+            bookChangeLog.recordCommand(composite);
+            return null;
+        });
     }
 
     public void undoLastOperation() {
-        commandInvoker.undoLastCommand();
+        if (commandInvoker.peekLastCommand() instanceof BulkJobCommand) {
+            // bulk undo commits chunk by chunk and records its own changes; one wrapping
+            // transaction would hold every restored row locked until the end
+            commandInvoker.undoLastCommand();
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            Command undone = commandInvoker.undoLastCommand();
+            if (undone != null) {
+                bookChangeLog.recordCommand(undone);
+            }
+            return null;
+        });
     }
 
     public List<String> getOperationHistory() {
@@ -115,5 +296,14 @@ public class BookService {
     public void clearOperationHistory() {
         commandInvoker.clearHistory();
     }
+
+    // a soft-deleted book still holds its unique isbn until purged; reusing the isbn purges it early.
+    // The new book wins even over a delete that is still in someone's journal: undoing that delete
+    // then fails with UndoNotPossibleException rather than blocking the isbn until the entry ages out
+    private void releaseIsbn(String isbn) {
+        if (isbn != null) {
+            bookRepository.purgeDeletedByIsbn(isbn);
+        }
+    }
 }
 
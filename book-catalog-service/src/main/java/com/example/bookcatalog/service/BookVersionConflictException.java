@@ -0,0 +1,28 @@
+package com.example.bookcatalog.service;
+
+public class BookVersionConflictException extends RuntimeException {
+
+    private final Long bookId;
+    private final Long expectedVersion;
+    private final Long currentVersion;
+
+    public BookVersionConflictException(Long bookId, Long expectedVersion, Long currentVersion) {
+        super("Version conflict for book with id: " + bookId +
+                " (expected " + expectedVersion + ", current " + currentVersion + ")");
+        this.bookId = bookId;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bookcatalog.slo;
+
+/**
+ * Latency and SLO figures for one route over one window. A burn rate of 1 spends the error budget
+ * exactly over the SLO period; above 1 it runs out early.
+ */
+public class LatencyWindow {
+
+    private final String window;
+    private final long requests;
+    private final double throughputPerSecond;
+    private final double p50Millis;
+    private final double p90Millis;
+    private final double p99Millis;
+    private final double p999Millis;
+    private final double maxMillis;
+    private final double errorRate;
+    private final double compliance;
+    private final double burnRate;
+
+    public LatencyWindow(String window, long requests, double throughputPerSecond, double p50Millis,
+                         double p90Millis, double p99Millis, double p999Millis, double maxMillis,
+                         double errorRate, double compliance, double burnRate) {
+        this.window = window;
+        this.requests = requests;
+        this.throughputPerSecond = throughputPerSecond;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.p999Millis = p999Millis;
+        this.maxMillis = maxMillis;
+        this.errorRate = errorRate;
+        this.compliance = compliance;
+        this.burnRate = burnRate;
+    }
+
+    public String getWindow() {
+        return window;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP90Millis() {
+        return p90Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getP999Millis() {
+        return p999Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public double getCompliance() {
+        return compliance;
+    }
+
+    public double getBurnRate() {
+        return burnRate;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bookcatalog.slo;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recorders and rotated interval histograms for one route, split by status class. Request threads
+ * only touch the lock-free recorders; everything else runs on the rotation thread or under the
+ * tracker's lock. Short windows merge the most recent intervals, the hour merges minute rollups.
+ */
+class RouteLatency {
+
+    static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final int SERVER_ERROR = 4;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final SloObjective objective;
+    private final Recorder[] recorders = new Recorder[STATUS_CLASSES.length];
+    private final Histogram[][] intervals;
+    private final Histogram[][] minutes;
+    private Histogram[] currentMinute = new Histogram[STATUS_CLASSES.length];
+
+    RouteLatency(SloObjective objective, int intervalSlots, int minuteSlots) {
+        this.objective = objective;
+        for (int i = 0; i < recorders.length; i++) {
+            // not packed: HdrHistogram 2.1.12's packed recorders can deadlock concurrent writers while resizing
+            recorders[i] = new Recorder(SIGNIFICANT_DIGITS);
+        }
+        this.intervals = new Histogram[intervalSlots][];
+        this.minutes = new Histogram[minuteSlots][];
+    }
+
+    SloObjective getObjective() {
+        return objective;
+    }
+
+    void record(int status, long nanos) {
+        int statusClass = Math.min(Math.max(status / 100 - 1, 0), SERVER_ERROR);
+        recorders[statusClass].recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    void rotate(long rotation, int intervalsPerMinute) {
+        Histogram[] interval = new Histogram[STATUS_CLASSES.length];
+        for (int i = 0; i < recorders.length; i++) {
+            Histogram histogram = recorders[i].getIntervalHistogram();
+            if (histogram.getTotalCount() > 0) {
+                interval[i] = histogram;
+                if (currentMinute[i] == null) {
+                    currentMinute[i] = new Histogram(SIGNIFICANT_DIGITS);
+                }
+                currentMinute[i].add(histogram);
+            }
+        }
+        intervals[(int) (rotation % intervals.length)] = interval;
+        if ((rotation + 1) % intervalsPerMinute == 0) {
+            minutes[(int) ((rotation + 1) / intervalsPerMinute % minutes.length)] = currentMinute;
+            currentMinute = new Histogram[STATUS_CLASSES.length];
+        }
+    }
+
+    /** Merges the last {@code count} rotated intervals, oldest slots dropped once overwritten. */
+    Histogram[] recentIntervals(long rotations, int count) {
+        Histogram[] merged = new Histogram[STATUS_CLASSES.length];
+        for (long rotation = rotations - 1; rotation >= Math.max(0, rotations - count); rotation--) {
+            merge(merged, intervals[(int) (rotation % intervals.length)]);
+        }
+        return merged;
+    }
+
+    Histogram[] allMinutes() {
+        Histogram[] merged = new Histogram[STATUS_CLASSES.length];
+        for (Histogram[] minute : minutes) {
+            merge(merged, minute);
+        }
+        merge(merged, currentMinute);
+        return merged;
+    }
+
+    LatencyWindow window(String name, Histogram[] byStatus, double seconds) {
+        Histogram all = new Histogram(SIGNIFICANT_DIGITS);
+        long errors = 0;
+        for (int i = 0; i < byStatus.length; i++) {
+            if (byStatus[i] != null) {
+                all.add(byStatus[i]);
+                if (i == SERVER_ERROR) {
+                    errors = byStatus[i].getTotalCount();
+                }
+            }
+        }
+        long requests = all.getTotalCount();
+        if (requests == 0) {
+            return new LatencyWindow(name, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0);
+        }
+        long thresholdMicros = TimeUnit.MILLISECONDS.toMicros(objective.getLatencyMillis());
+        long good = 0;
+        for (int i = 0; i < SERVER_ERROR; i++) {
+            if (byStatus[i] != null) {
+                good += countAtOrBelow(byStatus[i], thresholdMicros);
+            }
+        }
+        double compliance = (double) good / requests;
+        double burnRate = (1 - compliance) / (1 - objective.getObjective());
+        return new LatencyWindow(name, requests, round(requests / seconds), millis(all.getValueAtPercentile(50)),
+                millis(all.getValueAtPercentile(90)), millis(all.getValueAtPercentile(99)),
+                millis(all.getValueAtPercentile(99.9)), millis(all.getMaxValue()), round((double) errors / requests),
+                round(compliance), round(burnRate));
+    }
+
+    static Map<String, Long> countsByStatus(Histogram[] byStatus) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < byStatus.length; i++) {
+            if (byStatus[i] != null) {
+                counts.put(STATUS_CLASSES[i], byStatus[i].getTotalCount());
+            }
+        }
+        return counts;
+    }
+
+    private static long countAtOrBelow(Histogram histogram, long valueMicros) {
+        if (valueMicros >= histogram.getMaxValue()) {
+            return histogram.getTotalCount();
+        }
+        return histogram.getCountBetweenValues(0, valueMicros);
+    }
+
+    private static void merge(Histogram[] into, Histogram[] from) {
+        if (from == null) {
+            return;
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] != null) {
+                if (into[i] == null) {
+                    into[i] = new Histogram(SIGNIFICANT_DIGITS);
+                }
+                into[i].add(from[i]);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10_000) / 10_000.0;
+    }
+}
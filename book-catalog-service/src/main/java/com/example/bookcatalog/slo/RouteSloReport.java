@@ -0,0 +1,43 @@
+package com.example.bookcatalog.slo;
+
+import java.util.List;
+import java.util.Map;
+
+public class RouteSloReport {
+
+    private final String route;
+    private final long latencyObjectiveMillis;
+    private final double objective;
+    private final Map<String, Long> requestsByStatus;
+    private final List<LatencyWindow> windows;
+
+    public RouteSloReport(String route, long latencyObjectiveMillis, double objective,
+                          Map<String, Long> requestsByStatus, List<LatencyWindow> windows) {
+        this.route = route;
+        this.latencyObjectiveMillis = latencyObjectiveMillis;
+        this.objective = objective;
+        this.requestsByStatus = requestsByStatus;
+        this.windows = windows;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getLatencyObjectiveMillis() {
+        return latencyObjectiveMillis;
+    }
+
+    public double getObjective() {
+        return objective;
+    }
+
+    /** Requests per status class over the longest window. */
+    public Map<String, Long> getRequestsByStatus() {
+        return requestsByStatus;
+    }
+
+    public List<LatencyWindow> getWindows() {
+        return windows;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bookcatalog.slo;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Percentiles, throughput, SLO compliance and error-budget burn rate per route at
+ * {@code /actuator/slo}.
+ */
+@Component
+@Endpoint(id = "slo")
+public class SloEndpoint {
+
+    private final SloTracker sloTracker;
+
+    public SloEndpoint(SloTracker sloTracker) {
+        this.sloTracker = sloTracker;
+    }
+
+    @ReadOperation
+    public List<RouteSloReport> routes() {
+        return sloTracker.getReports();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.bookcatalog.slo;
+
+/**
+ * A latency objective for one route: {@code objective} of requests must finish within
+ * {@code latencyMillis} without a 5xx. Configured as {@code METHOD /route/template=latencyMs@objective},
+ * for example {@code GET /api/books/isbn/{isbn}=50@0.99}.
+ */
+public class SloObjective {
+
+    private final long latencyMillis;
+    private final double objective;
+
+    public SloObjective(long latencyMillis, double objective) {
+        if (latencyMillis <= 0 || objective <= 0 || objective >= 1) {
+            throw new IllegalArgumentException("SLO needs a positive latency and an objective between 0 and 1");
+        }
+        this.latencyMillis = latencyMillis;
+        this.objective = objective;
+    }
+
+    static SloObjective parse(String spec) {
+        int at = spec.indexOf('@');
+        if (at < 0) {
+            throw new IllegalArgumentException("SLO must be latencyMs@objective: " + spec);
+        }
+        return new SloObjective(Long.parseLong(spec.substring(0, at).trim()),
+                Double.parseDouble(spec.substring(at + 1).trim()));
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public double getObjective() {
+        return objective;
+    }
+}
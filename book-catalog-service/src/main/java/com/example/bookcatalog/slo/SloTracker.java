@@ -0,0 +1,106 @@
+package com.example.bookcatalog.slo;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route latency against configured SLOs over 1m, 5m and 1h windows. Interval histograms are
+ * rotated every {@code interval-seconds}, so the figures lag live traffic by at most one interval.
+ */
+@Component
+public class SloTracker {
+
+    static final String OTHER_ROUTES = "OTHER";
+    private static final int FIVE_MINUTES = 300;
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private final Map<String, RouteLatency> routes = new ConcurrentHashMap<>();
+    private final Map<String, SloObjective> objectives = new HashMap<>();
+    private final SloObjective defaultObjective;
+    private final int intervalSeconds;
+    private final int intervalsPerMinute;
+    private final int maxRoutes;
+    private long rotations;
+
+    @Autowired
+    public SloTracker(@Value("${bookcatalog.slo.interval-seconds:10}") int intervalSeconds,
+                      @Value("${bookcatalog.slo.default:200@0.99}") String defaultObjective,
+                      @Value("${bookcatalog.slo.objectives:}") List<String> objectives,
+                      @Value("${bookcatalog.slo.max-routes:200}") int maxRoutes) {
+        if (intervalSeconds <= 0 || 60 % intervalSeconds != 0) {
+            throw new IllegalArgumentException("bookcatalog.slo.interval-seconds must divide a minute");
+        }
+        this.intervalSeconds = intervalSeconds;
+        this.intervalsPerMinute = 60 / intervalSeconds;
+        this.defaultObjective = SloObjective.parse(defaultObjective);
+        this.maxRoutes = maxRoutes;
+        for (String objective : objectives) {
+            if (objective.isBlank()) {
+                continue;
+            }
+            int split = objective.lastIndexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("SLO must be 'METHOD /route=latencyMs@objective': " + objective);
+            }
+            this.objectives.put(objective.substring(0, split).trim(), SloObjective.parse(objective.substring(split + 1)));
+        }
+    }
+
+    /**
+     * Records one request against its route template, for example {@code GET /api/books/{id}}.
+     */
+    public void record(String route, int status, long nanos) {
+        RouteLatency latency = routes.get(route);
+        if (latency == null) {
+            latency = routes.size() < maxRoutes
+                    ? routes.computeIfAbsent(route, this::newRoute)
+                    : routes.computeIfAbsent(OTHER_ROUTES, this::newRoute);
+        }
+        latency.record(status, nanos);
+    }
+
+    @Scheduled(fixedRateString = "${bookcatalog.slo.interval-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    public synchronized void rotate() {
+        for (RouteLatency latency : routes.values()) {
+            latency.rotate(rotations, intervalsPerMinute);
+        }
+        rotations++;
+    }
+
+    public synchronized List<RouteSloReport> getReports() {
+        double elapsedSeconds = rotations * (double) intervalSeconds;
+        List<RouteSloReport> reports = new ArrayList<>();
+        for (Map.Entry<String, RouteLatency> entry : routes.entrySet()) {
+            RouteLatency latency = entry.getValue();
+            Histogram[] hour = latency.allMinutes();
+            List<LatencyWindow> windows = new ArrayList<>(3);
+            windows.add(latency.window("1m", latency.recentIntervals(rotations, intervalsPerMinute),
+                    Math.min(60, elapsedSeconds)));
+            windows.add(latency.window("5m", latency.recentIntervals(rotations, FIVE_MINUTES / intervalSeconds),
+                    Math.min(FIVE_MINUTES, elapsedSeconds)));
+            windows.add(latency.window("1h", hour, Math.min(MINUTES_PER_HOUR * 60, elapsedSeconds)));
+            SloObjective objective = latency.getObjective();
+            reports.add(new RouteSloReport(entry.getKey(), objective.getLatencyMillis(), objective.getObjective(),
+                    RouteLatency.countsByStatus(hour), windows));
+        }
+        reports.sort(Comparator.comparing(RouteSloReport::getRoute));
+        return reports;
+    }
+
+    private RouteLatency newRoute(String route) {
+        // the minute still being filled completes the hour
+        return new RouteLatency(objectives.getOrDefault(route, defaultObjective),
+                FIVE_MINUTES / intervalSeconds, MINUTES_PER_HOUR - 1);
+    }
+}
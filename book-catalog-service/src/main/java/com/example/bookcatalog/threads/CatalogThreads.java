@@ -0,0 +1,89 @@
+package com.example.bookcatalog.threads;
+
+import org.springframework.core.env.Environment;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the service's internal executors. With {@code spring.threads.virtual.enabled}
+ * on a runtime that has virtual threads (21+), they hand out virtual threads, otherwise the usual
+ * daemon platform threads. The builder API is looked up reflectively so the service still compiles
+ * and runs on 17, where the switch is simply inert.
+ */
+public final class CatalogThreads {
+
+    public static final String VIRTUAL_PROPERTY = "spring.threads.virtual.enabled";
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method IS_VIRTUAL;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method isVirtual = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            isVirtual = Thread.class.getMethod("isVirtual");
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            // pre-21 runtime: platform threads only
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        IS_VIRTUAL = isVirtual;
+    }
+
+    private CatalogThreads() {
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Whether virtual threads are both requested and available.
+     */
+    public static boolean virtualThreadsEnabled(Environment environment) {
+        return virtualThreadsSupported() && environment.getProperty(VIRTUAL_PROPERTY, Boolean.class, false);
+    }
+
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Names threads {@code prefix1}, {@code prefix2}, ...; platform threads are daemons, as virtual
+     * threads always are.
+     */
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual && virtualThreadsSupported()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 1L);
+                return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create virtual thread factory", e);
+            }
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bookcatalog.threads;
+
+/**
+ * A method that holds an object monitor, either because it is declared {@code synchronized} or
+ * because it contains {@code synchronized} blocks. A virtual thread that blocks while holding one is
+ * pinned to its carrier thread (until JDK 24).
+ */
+public class MonitorSite {
+
+    private final String className;
+    private final String methodName;
+    private final boolean synchronizedMethod;
+    private final int monitorBlocks;
+
+    public MonitorSite(String className, String methodName, boolean synchronizedMethod, int monitorBlocks) {
+        this.className = className;
+        this.methodName = methodName;
+        this.synchronizedMethod = synchronizedMethod;
+        this.monitorBlocks = monitorBlocks;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public boolean isSynchronizedMethod() {
+        return synchronizedMethod;
+    }
+
+    public int getMonitorBlocks() {
+        return monitorBlocks;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + methodName + (synchronizedMethod ? " (synchronized method)"
+                : " (" + monitorBlocks + " synchronized block" + (monitorBlocks == 1 ? ")" : "s)"));
+    }
+}
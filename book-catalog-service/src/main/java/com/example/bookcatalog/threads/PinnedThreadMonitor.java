@@ -0,0 +1,102 @@
+package com.example.bookcatalog.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} while virtual threads are on and counts each pinned wait
+ * against the innermost application frame (or the top frame when the application is not on the
+ * stack). The first occurrence per site is logged with its stack.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor {
+
+    static final String OTHER_SITES = "(other)";
+
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final int maxSites;
+    private final Set<String> sites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @Autowired
+    public PinnedThreadMonitor(MeterRegistry meterRegistry,
+                               @Value("${bookcatalog.threads.pinned-threshold-ms:20}") long thresholdMillis,
+                               @Value("${bookcatalog.threads.max-pinned-sites:50}") int maxSites) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+        this.maxSites = maxSites;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.setMaxAge(Duration.ofSeconds(30));
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+        logger.info("Watching for virtual threads pinned longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String site = site(frames);
+        if (!sites.contains(site)) {
+            if (sites.size() >= maxSites) {
+                site = OTHER_SITES;
+            } else if (sites.add(site)) {
+                logger.warn("Virtual thread pinned for {} ms at {}:{}", event.getDuration().toMillis(), site,
+                        stack(frames));
+            }
+        }
+        meterRegistry.counter("bookcatalog.threads.pinned", "site", site).increment();
+    }
+
+    private static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(PinningReport.APPLICATION_PACKAGE + ".")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        if (frames.isEmpty()) {
+            return OTHER_SITES;
+        }
+        return frames.get(0).getMethod().getType().getName() + "." + frames.get(0).getMethod().getName();
+    }
+
+    private static String stack(List<RecordedFrame> frames) {
+        StringBuilder stack = new StringBuilder();
+        for (RecordedFrame frame : frames) {
+            stack.append(System.lineSeparator()).append("    at ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+        }
+        return stack.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bookcatalog.threads;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Logs, once at startup, where a virtual thread could be pinned: every monitor site in the
+ * application itself and, per third-party package (the JDBC driver and pool by default), the classes
+ * with the most. Blocking I/O under any of these ties up a carrier thread, so the list is what to
+ * look at before turning virtual threads on, and what to cross-check against
+ * {@code bookcatalog.threads.pinned} once they are.
+ */
+@Component
+@ConditionalOnProperty(name = "bookcatalog.threads.pinning-report.enabled", havingValue = "true")
+public class PinningReport {
+
+    static final String APPLICATION_PACKAGE = "com.example.bookcatalog";
+
+    private static final Logger logger = LoggerFactory.getLogger(PinningReport.class);
+
+    private final Environment environment;
+    private final List<String> libraryPackages;
+    private final int topClasses;
+
+    @Autowired
+    public PinningReport(Environment environment,
+                         @Value("${bookcatalog.threads.pinning-report.packages:com.mysql.cj,com.zaxxer.hikari}")
+                         List<String> libraryPackages,
+                         @Value("${bookcatalog.threads.pinning-report.top-classes:5}") int topClasses) {
+        this.environment = environment;
+        this.libraryPackages = libraryPackages;
+        this.topClasses = topClasses;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        try {
+            logger.info(render());
+        } catch (IOException e) {
+            logger.warn("Pinning report could not scan the classpath", e);
+        }
+    }
+
+    String render() throws IOException {
+        PinningScanner scanner = new PinningScanner(new PathMatchingResourcePatternResolver(getClass().getClassLoader()));
+        boolean virtual = CatalogThreads.virtualThreadsEnabled(environment);
+        StringBuilder report = new StringBuilder("Virtual thread pinning report: ")
+                .append(virtual ? "virtual threads ON"
+                        : CatalogThreads.virtualThreadsSupported() ? "virtual threads off"
+                        : "virtual threads unavailable on Java " + Runtime.version().feature())
+                .append(System.lineSeparator());
+
+        List<MonitorSite> own = scanner.scan(APPLICATION_PACKAGE);
+        report.append("  ").append(APPLICATION_PACKAGE).append(": ").append(own.size()).append(" monitor sites")
+                .append(System.lineSeparator());
+        for (MonitorSite site : own) {
+            report.append("    ").append(site).append(System.lineSeparator());
+        }
+
+        for (String libraryPackage : libraryPackages) {
+            int before = scanner.getClassesScanned();
+            List<MonitorSite> sites = scanner.scan(libraryPackage.trim());
+            Map<String, Integer> byClass = new TreeMap<>();
+            for (MonitorSite site : sites) {
+                byClass.merge(site.getClassName(), 1, Integer::sum);
+            }
+            report.append("  ").append(libraryPackage.trim()).append(": ").append(sites.size())
+                    .append(" monitor sites in ").append(byClass.size()).append(" of ")
+                    .append(scanner.getClassesScanned() - before).append(" classes");
+            Map<String, Integer> top = top(byClass);
+            if (!top.isEmpty()) {
+                report.append(", most in ").append(top);
+            }
+            report.append(System.lineSeparator());
+        }
+        if (virtual) {
+            report.append("  Blocking calls under these monitors pin a carrier; pinned waits over the threshold are")
+                    .append(" counted in bookcatalog.threads.pinned");
+        } else {
+            report.append("  Enable with ").append(CatalogThreads.VIRTUAL_PROPERTY).append("=true on Java 21+");
+        }
+        return report.toString();
+    }
+
+    private Map<String, Integer> top(Map<String, Integer> byClass) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(byClass.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries.subList(0, Math.min(topClasses, entries.size()))) {
+            String className = entry.getKey();
+            top.put(className.substring(className.lastIndexOf('.') + 1), entry.getValue());
+        }
+        return top;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bookcatalog.threads;
+
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds monitor use in compiled classes by reading their bytecode: {@code ACC_SYNCHRONIZED} methods
+ * and {@code monitorenter} instructions. Nothing is loaded or initialised, so it is safe to point at
+ * driver packages.
+ */
+class PinningScanner {
+
+    private final ResourcePatternResolver resolver;
+    private int classesScanned;
+
+    PinningScanner(ResourcePatternResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    List<MonitorSite> scan(String basePackage) throws IOException {
+        List<MonitorSite> sites = new ArrayList<>();
+        Resource[] resources = resolver.getResources(
+                ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + basePackage.replace('.', '/') + "/**/*.class");
+        for (Resource resource : resources) {
+            try (InputStream in = resource.getInputStream()) {
+                new ClassReader(in).accept(new MonitorVisitor(sites), ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+                classesScanned++;
+            } catch (IOException | IllegalArgumentException e) {
+                // unreadable or newer class file version than ASM knows; not worth failing the report for
+            }
+        }
+        return sites;
+    }
+
+    int getClassesScanned() {
+        return classesScanned;
+    }
+
+    private static class MonitorVisitor extends ClassVisitor {
+
+        private final List<MonitorSite> sites;
+        private String className;
+
+        MonitorVisitor(List<MonitorSite> sites) {
+            super(SpringAsmInfo.ASM_VERSION);
+            this.sites = sites;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                          String[] interfaces) {
+            className = name.replace('/', '.');
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                         String[] exceptions) {
+            boolean synchronizedMethod = (access & Opcodes.ACC_SYNCHRONIZED) != 0;
+            return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                private int monitorBlocks;
+
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER) {
+                        monitorBlocks++;
+                    }
+                }
+
+                @Override
+                public void visitEnd() {
+                    if (synchronizedMethod || monitorBlocks > 0) {
+                        sites.add(new MonitorSite(className, name, synchronizedMethod, monitorBlocks));
+                    }
+                }
+            };
+        }
+    }
+}
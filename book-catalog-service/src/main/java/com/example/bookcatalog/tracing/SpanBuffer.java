@@ -0,0 +1,80 @@
+package com.example.bookcatalog.tracing;
+
+/**
+ * One thread's spans for the request in flight, kept in parallel arrays that are allocated once and
+ * reused. Span names and details must be existing strings so recording never allocates.
+ */
+final class SpanBuffer {
+
+    final String[] names;
+    final String[] details;
+    final long[] starts;
+    final long[] ends;
+    final int[] parents;
+
+    int count;
+    int current = -1;
+    int overflowDepth;
+    int dropped;
+    boolean active;
+    boolean headSampled;
+    long traceId;
+    long startedAtMillis;
+
+    SpanBuffer(int capacity) {
+        names = new String[capacity];
+        details = new String[capacity];
+        starts = new long[capacity];
+        ends = new long[capacity];
+        parents = new int[capacity];
+    }
+
+    boolean isFull() {
+        return count == names.length;
+    }
+
+    int push(String name, String detail, long start, long end, int parent) {
+        int index = count++;
+        names[index] = name;
+        details[index] = detail;
+        starts[index] = start;
+        ends[index] = end;
+        parents[index] = parent;
+        return index;
+    }
+
+    long durationNanos() {
+        return ends[0] - starts[0];
+    }
+
+    /**
+     * Trimmed copy handed to the flusher, so this buffer can be reused straight away.
+     */
+    SpanBuffer copy() {
+        SpanBuffer copy = new SpanBuffer(count);
+        System.arraycopy(names, 0, copy.names, 0, count);
+        System.arraycopy(details, 0, copy.details, 0, count);
+        System.arraycopy(starts, 0, copy.starts, 0, count);
+        System.arraycopy(ends, 0, copy.ends, 0, count);
+        System.arraycopy(parents, 0, copy.parents, 0, count);
+        copy.count = count;
+        copy.dropped = dropped;
+        copy.headSampled = headSampled;
+        copy.traceId = traceId;
+        copy.startedAtMillis = startedAtMillis;
+        return copy;
+    }
+
+    void reset() {
+        for (int i = 0; i < count; i++) {
+            names[i] = null;
+            details[i] = null;
+        }
+        count = 0;
+        current = -1;
+        overflowDepth = 0;
+        dropped = 0;
+        active = false;
+        headSampled = false;
+    }
+}
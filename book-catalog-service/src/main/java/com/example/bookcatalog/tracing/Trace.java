@@ -0,0 +1,84 @@
+package com.example.bookcatalog.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class Trace {
+
+    public static final String REASON_SAMPLED = "sampled";
+    public static final String REASON_SLOW = "slow";
+
+    private final String traceId;
+    private final String reason;
+    private final Instant startedAt;
+    private final long durationMicros;
+    private final int droppedSpans;
+    private final List<TraceSpan> spans;
+
+    public Trace(String traceId, String reason, Instant startedAt, long durationMicros, int droppedSpans,
+                 List<TraceSpan> spans) {
+        this.traceId = traceId;
+        this.reason = reason;
+        this.startedAt = startedAt;
+        this.durationMicros = durationMicros;
+        this.droppedSpans = droppedSpans;
+        this.spans = spans;
+    }
+
+    static Trace from(SpanBuffer buffer, String reason) {
+        int count = buffer.count;
+        int[] depths = new int[count];
+        for (int i = 1; i < count; i++) {
+            int parent = buffer.parents[i];
+            // completed spans are re-parented to a later index, so resolve depth by walking up
+            int depth = 1;
+            while (parent > 0) {
+                depth++;
+                parent = buffer.parents[parent];
+            }
+            depths[i] = depth;
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> buffer.starts[i]));
+        long origin = buffer.starts[0];
+        List<TraceSpan> spans = new ArrayList<>(count);
+        for (int i : order) {
+            long duration = buffer.ends[i] >= 0 ? TimeUnit.NANOSECONDS.toMicros(buffer.ends[i] - buffer.starts[i]) : -1;
+            spans.add(new TraceSpan(buffer.names[i], buffer.details[i], depths[i],
+                    TimeUnit.NANOSECONDS.toMicros(buffer.starts[i] - origin), duration));
+        }
+        return new Trace(String.format("%016x", buffer.traceId), reason, Instant.ofEpochMilli(buffer.startedAtMillis),
+                TimeUnit.NANOSECONDS.toMicros(buffer.durationNanos()), buffer.dropped, spans);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public List<TraceSpan> getSpans() {
+        return spans;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.bookcatalog.tracing;
+
+import com.example.bookcatalog.threads.CatalogThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decides which traces to keep: a head-sampled fraction of requests plus every request slower than
+ * the threshold. Kept traces are copied off the request thread's buffer and turned into
+ * {@link Trace}s on a background thread; the rest are discarded without allocating.
+ */
+@Component
+public class TraceCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceCollector.class);
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int retainedTraces;
+    private final BlockingQueue<PendingTrace> pending;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Executor flushExecutor;
+    private final Deque<Trace> recent = new ArrayDeque<>();
+    private final BlockingQueue<SpanBuffer> buffers;
+    private final Counter sampledCounter;
+    private final Counter slowCounter;
+    private final Counter droppedCounter;
+
+    @Autowired
+    public TraceCollector(MeterRegistry meterRegistry,
+                          @Value("${bookcatalog.tracing.enabled:true}") boolean enabled,
+                          @Value("${bookcatalog.tracing.sample-rate:0.01}") double sampleRate,
+                          @Value("${bookcatalog.tracing.slow-threshold-ms:500}") long slowThresholdMillis,
+                          @Value("${bookcatalog.tracing.retained-traces:200}") int retainedTraces,
+                          @Value("${bookcatalog.tracing.queue-capacity:1000}") int queueCapacity,
+                          @Value("${" + CatalogThreads.VIRTUAL_PROPERTY + ":false}") boolean virtualThreads,
+                          @Value("${bookcatalog.threads.buffer-pool-size:1024}") int bufferPoolSize) {
+        this(meterRegistry, enabled, sampleRate, slowThresholdMillis, retainedTraces, queueCapacity,
+                Executors.newSingleThreadExecutor(CatalogThreads.factory("catalog-trace-", virtualThreads)),
+                virtualThreads && CatalogThreads.virtualThreadsSupported() ? bufferPoolSize : 0);
+    }
+
+    /**
+     * With a positive {@code bufferPoolSize} span buffers are borrowed per trace from a pool of up to
+     * that many idle buffers rather than kept per thread, for request threads that never come back.
+     */
+    TraceCollector(MeterRegistry meterRegistry, boolean enabled, double sampleRate, long slowThresholdMillis,
+                   int retainedTraces, int queueCapacity, Executor flushExecutor, int bufferPoolSize) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.retainedTraces = retainedTraces;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushExecutor = flushExecutor;
+        this.buffers = bufferPoolSize > 0 ? new ArrayBlockingQueue<>(bufferPoolSize) : null;
+        this.sampledCounter = Counter.builder("bookcatalog.traces.recorded").tag("reason", Trace.REASON_SAMPLED)
+                .register(meterRegistry);
+        this.slowCounter = Counter.builder("bookcatalog.traces.recorded").tag("reason", Trace.REASON_SLOW)
+                .register(meterRegistry);
+        this.droppedCounter = meterRegistry.counter("bookcatalog.traces.dropped");
+    }
+
+    /**
+     * Opens a trace on the calling thread. Returns false when tracing is off or a trace is already
+     * open, in which case the caller must not call {@link #finishTrace()}.
+     */
+    public boolean startTrace(String name, String detail) {
+        if (!enabled) {
+            return false;
+        }
+        boolean headSampled = sampleRate >= 1.0
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+        return Tracing.begin(name, detail, headSampled, buffers);
+    }
+
+    public void finishTrace() {
+        SpanBuffer buffer = Tracing.end();
+        if (buffer == null) {
+            return;
+        }
+        try {
+            String reason = buffer.headSampled ? Trace.REASON_SAMPLED
+                    : buffer.durationNanos() >= slowThresholdNanos ? Trace.REASON_SLOW : null;
+            if (reason != null) {
+                submit(new PendingTrace(buffer.copy(), reason));
+            }
+        } finally {
+            Tracing.release(buffer, buffers);
+        }
+    }
+
+    public List<Trace> getRecentTraces() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public Optional<Trace> findTrace(String traceId) {
+        synchronized (recent) {
+            for (Trace trace : recent) {
+                if (trace.getTraceId().equals(traceId)) {
+                    return Optional.of(trace);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushExecutor instanceof ExecutorService) {
+            ((ExecutorService) flushExecutor).shutdownNow();
+        }
+    }
+
+    private void submit(PendingTrace trace) {
+        if (!pending.offer(trace)) {
+            droppedCounter.increment();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        PendingTrace next;
+        while ((next = pending.poll()) != null) {
+            Trace trace = Trace.from(next.buffer, next.reason);
+            if (Trace.REASON_SLOW.equals(next.reason)) {
+                slowCounter.increment();
+                logger.info("Slow request {} {} took {} ms, trace {}", next.buffer.names[0], next.buffer.details[0],
+                        TimeUnit.MICROSECONDS.toMillis(trace.getDurationMicros()), trace.getTraceId());
+            } else {
+                sampledCounter.increment();
+            }
+            synchronized (recent) {
+                recent.addFirst(trace);
+                while (recent.size() > retainedTraces) {
+                    recent.removeLast();
+                }
+            }
+        }
+    }
+
+    private static class PendingTrace {
+
+        private final SpanBuffer buffer;
+        private final String reason;
+
+        PendingTrace(SpanBuffer buffer, String reason) {
+            this.buffer = buffer;
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bookcatalog.tracing;
+
+public class TraceSpan {
+
+    private final String name;
+    private final String detail;
+    private final int depth;
+    private final long offsetMicros;
+    private final long durationMicros;
+
+    public TraceSpan(String name, String detail, int depth, long offsetMicros, long durationMicros) {
+        this.name = name;
+        this.detail = detail;
+        this.depth = depth;
+        this.offsetMicros = offsetMicros;
+        this.durationMicros = durationMicros;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getOffsetMicros() {
+        return offsetMicros;
+    }
+
+    /**
+     * -1 when the span was still open as the request finished.
+     */
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bookcatalog.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Recently kept traces at {@code /actuator/traces}, newest first, and a single trace at
+ * {@code /actuator/traces/{traceId}}.
+ */
+@Component
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private final TraceCollector traceCollector;
+
+    public TracesEndpoint(TraceCollector traceCollector) {
+        this.traceCollector = traceCollector;
+    }
+
+    @ReadOperation
+    public List<Trace> traces() {
+        return traceCollector.getRecentTraces();
+    }
+
+    @ReadOperation
+    public Trace trace(@Selector String traceId) {
+        return traceCollector.findTrace(traceId).orElse(null);
+    }
+}
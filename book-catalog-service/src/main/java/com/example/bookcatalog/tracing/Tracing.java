@@ -0,0 +1,120 @@
+package com.example.bookcatalog.tracing;
+
+import java.util.Queue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Span recording for the current thread. Every request with a trace open records into its thread's
+ * preallocated {@link SpanBuffer}; {@link TraceCollector} decides at the end whether to keep it.
+ * Outside a trace all methods return immediately. Virtual threads live for one request, so there
+ * the buffer is borrowed from a shared pool for the length of the trace instead of kept per thread.
+ */
+public final class Tracing {
+
+    static final int MAX_SPANS = 256;
+
+    private static final ThreadLocal<SpanBuffer> BUFFERS = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    public static void enter(String name, String detail) {
+        SpanBuffer buffer = BUFFERS.get();
+        if (buffer == null || !buffer.active) {
+            return;
+        }
+        if (buffer.isFull()) {
+            buffer.dropped++;
+            buffer.overflowDepth++;
+            return;
+        }
+        buffer.current = buffer.push(name, detail, System.nanoTime(), -1, buffer.current);
+    }
+
+    public static void exit() {
+        SpanBuffer buffer = BUFFERS.get();
+        if (buffer == null || !buffer.active) {
+            return;
+        }
+        if (buffer.overflowDepth > 0) {
+            buffer.overflowDepth--;
+            return;
+        }
+        if (buffer.current > 0) {
+            buffer.ends[buffer.current] = System.nanoTime();
+            buffer.current = buffer.parents[buffer.current];
+        }
+    }
+
+    /**
+     * Records a span that has already finished, for callbacks that only report a duration. Spans
+     * recorded while it ran become its children.
+     */
+    public static void record(String name, String detail, long durationNanos) {
+        SpanBuffer buffer = BUFFERS.get();
+        if (buffer == null || !buffer.active) {
+            return;
+        }
+        if (buffer.isFull()) {
+            buffer.dropped++;
+            return;
+        }
+        long end = System.nanoTime();
+        int parent = buffer.current;
+        long start = Math.max(end - durationNanos, buffer.starts[parent]);
+        int index = buffer.push(name, detail, start, end, parent);
+        for (int i = index - 1; i > parent; i--) {
+            if (buffer.parents[i] == parent && buffer.starts[i] >= start) {
+                buffer.parents[i] = index;
+            }
+        }
+    }
+
+    /**
+     * Opens the root span. With a {@code pool} the buffer is borrowed from it and must be handed
+     * back through {@link #release}; without one it stays with the thread.
+     */
+    static boolean begin(String name, String detail, boolean headSampled, Queue<SpanBuffer> pool) {
+        SpanBuffer buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = pool != null ? pool.poll() : null;
+            if (buffer == null) {
+                buffer = new SpanBuffer(MAX_SPANS);
+            }
+            BUFFERS.set(buffer);
+        } else if (buffer.active) {
+            return false;
+        }
+        buffer.active = true;
+        buffer.headSampled = headSampled;
+        buffer.traceId = ThreadLocalRandom.current().nextLong();
+        buffer.startedAtMillis = System.currentTimeMillis();
+        buffer.current = buffer.push(name, detail, System.nanoTime(), -1, -1);
+        return true;
+    }
+
+    /**
+     * Closes the root span and returns the buffer, still owned by this thread until released.
+     */
+    static SpanBuffer end() {
+        SpanBuffer buffer = BUFFERS.get();
+        if (buffer == null || !buffer.active) {
+            return null;
+        }
+        buffer.ends[0] = System.nanoTime();
+        buffer.active = false;
+        return buffer;
+    }
+
+    /**
+     * Clears a buffer returned by {@link #end()}; with a pool it also leaves the thread and goes back
+     * to the pool, or to the garbage collector when the pool is full.
+     */
+    static void release(SpanBuffer buffer, Queue<SpanBuffer> pool) {
+        buffer.reset();
+        if (pool != null) {
+            BUFFERS.remove();
+            pool.offer(buffer);
+        }
+    }
+}
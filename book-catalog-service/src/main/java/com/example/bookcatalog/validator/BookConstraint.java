@@ -0,0 +1,102 @@
+package com.example.bookcatalog.validator;
+
+import com.example.bookcatalog.entity.Book;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Field rules shared by the book validators, evaluated in declaration order. A rule returns the
+ * violation message (or {@code null}) rather than throwing, and a partial check skips absent
+ * fields the way updates do.
+ */
+enum BookConstraint {
+
+    TITLE("title") {
+        @Override
+        String check(Book book, boolean partial) {
+            return text(book.getTitle(), partial,
+                    "Book title cannot be null or empty", "Book title cannot be empty if provided");
+        }
+    },
+    AUTHOR("author") {
+        @Override
+        String check(Book book, boolean partial) {
+            return text(book.getAuthor(), partial,
+                    "Book author cannot be null or empty", "Book author cannot be empty if provided");
+        }
+    },
+    ISBN("isbn") {
+        @Override
+        String check(Book book, boolean partial) {
+            String violation = text(book.getIsbn(), partial,
+                    "Book ISBN cannot be null or empty", "Book ISBN cannot be empty if provided");
+            if (violation != null) {
+                return violation;
+            }
+            return book.getIsbn() == null || Isbn.isValid(book.getIsbn()) ? null : "Invalid ISBN format";
+        }
+    },
+    PUBLICATION_YEAR("publicationYear") {
+        @Override
+        String check(Book book, boolean partial) {
+            Integer year = book.getPublicationYear();
+            return year != null && (year < MIN_YEAR || year > MAX_YEAR)
+                    ? "Publication year must be between 1000 and 2030" : null;
+        }
+    },
+    PRICE("price") {
+        @Override
+        String check(Book book, boolean partial) {
+            BigDecimal price = book.getPrice();
+            return price != null && price.signum() < 0 ? "Book price cannot be negative" : null;
+        }
+    };
+
+    static final int MIN_YEAR = 1000;
+    static final int MAX_YEAR = 2030;
+
+    private static final BookConstraint[] PIPELINE = values();
+
+    private final String field;
+
+    BookConstraint(String field) {
+        this.field = field;
+    }
+
+    String getField() {
+        return field;
+    }
+
+    abstract String check(Book book, boolean partial);
+
+    static String firstViolation(Book book, boolean partial) {
+        for (BookConstraint constraint : PIPELINE) {
+            String violation = constraint.check(book, partial);
+            if (violation != null) {
+                return violation;
+            }
+        }
+        return null;
+    }
+
+    static void collectViolations(Book book, boolean partial, int row, List<BookViolation> violations) {
+        if (book == null) {
+            violations.add(new BookViolation(row, "book", "Book cannot be null"));
+            return;
+        }
+        for (BookConstraint constraint : PIPELINE) {
+            String violation = constraint.check(book, partial);
+            if (violation != null) {
+                violations.add(new BookViolation(row, constraint.getField(), violation));
+            }
+        }
+    }
+
+    private static String text(String value, boolean partial, String required, String provided) {
+        if (value == null) {
+            return partial ? null : required;
+        }
+        return value.isBlank() ? (partial ? provided : required) : null;
+    }
+}
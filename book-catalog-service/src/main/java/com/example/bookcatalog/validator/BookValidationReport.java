@@ -0,0 +1,48 @@
+package com.example.bookcatalog.validator;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch validation. Violations are ordered by row, and a row may appear more than
+ * once when several of its fields are invalid.
+ */
+public class BookValidationReport {
+
+    private final int totalRows;
+    private final int invalidRows;
+    private final List<BookViolation> violations;
+
+    public BookValidationReport(int totalRows, List<BookViolation> violations) {
+        this.totalRows = totalRows;
+        this.violations = violations;
+        int invalid = 0;
+        int lastRow = -1;
+        for (BookViolation violation : violations) {
+            if (violation.getRow() != lastRow) {
+                invalid++;
+                lastRow = violation.getRow();
+            }
+        }
+        this.invalidRows = invalid;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getValidRows() {
+        return totalRows - invalidRows;
+    }
+
+    public int getInvalidRows() {
+        return invalidRows;
+    }
+
+    public List<BookViolation> getViolations() {
+        return violations;
+    }
+
+    public boolean isValid() {
+        return violations.isEmpty();
+    }
+}
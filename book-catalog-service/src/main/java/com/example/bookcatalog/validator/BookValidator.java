@@ -2,7 +2,14 @@ package com.example.bookcatalog.validator;
 
 import com.example.bookcatalog.entity.Book;
 
+import java.util.List;
+
 public interface BookValidator {
     void validate(Book book);
-}
 
+    /**
+     * Adds every violation of {@code book} to {@code violations} instead of throwing on the first,
+     * tagging each with {@code row} so batch callers can report them per input row.
+     */
+    void collectViolations(Book book, int row, List<BookViolation> violations);
+}
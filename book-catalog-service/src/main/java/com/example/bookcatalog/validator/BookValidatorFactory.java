@@ -1,11 +1,21 @@
 package com.example.bookcatalog.validator;
 
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.jfr.ValidationEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 @Component
 public class BookValidatorFactory {
 
+    static final int BATCH_CHUNK_SIZE = 1000;
+
     private final StandardBookValidator standardBookValidator;
     private final UpdateBookValidator updateBookValidator;
 
@@ -26,5 +36,57 @@ public class BookValidatorFactory {
                 throw new IllegalArgumentException("Unknown validator type: " + validatorType);
         }
     }
-}
 
+    /**
+     * Validates every book without throwing and reports all violations by row index. Batches larger
+     * than one chunk are split across the common fork/join pool.
+     */
+    public BookValidationReport validateAll(List<Book> books, String validatorType) {
+        BookValidator validator = getValidator(validatorType);
+        ValidationEvent event = new ValidationEvent();
+        event.begin();
+        List<Book> rows = books instanceof RandomAccess ? books : new ArrayList<>(books);
+        BatchValidationTask task = new BatchValidationTask(validator, rows, 0, rows.size());
+        List<BookViolation> violations = rows.size() <= BATCH_CHUNK_SIZE
+                ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+        BookValidationReport report = new BookValidationReport(rows.size(), violations);
+        event.complete(validatorType, report.getTotalRows(), violations.size());
+        return report;
+    }
+
+    private static class BatchValidationTask extends RecursiveTask<List<BookViolation>> {
+
+        private final BookValidator validator;
+        private final List<Book> books;
+        private final int from;
+        private final int to;
+
+        BatchValidationTask(BookValidator validator, List<Book> books, int from, int to) {
+            this.validator = validator;
+            this.books = books;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<BookViolation> compute() {
+            if (to - from <= BATCH_CHUNK_SIZE) {
+                List<BookViolation> violations = new ArrayList<>();
+                for (int row = from; row < to; row++) {
+                    validator.collectViolations(books.get(row), row, violations);
+                }
+                return violations;
+            }
+            int middle = (from + to) >>> 1;
+            BatchValidationTask right = new BatchValidationTask(validator, books, middle, to);
+            right.fork();
+            List<BookViolation> violations = new BatchValidationTask(validator, books, from, middle).compute();
+            List<BookViolation> rightViolations = right.join();
+            if (violations.isEmpty()) {
+                return rightViolations;
+            }
+            violations.addAll(rightViolations);
+            return violations;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.bookcatalog.validator;
+
+/**
+ * Single-pass ISBN-10 / ISBN-13 checksum verification. Hyphens and spaces are skipped while
+ * scanning, so the input is never copied, trimmed or matched against a regex.
+ */
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    public static boolean isValid(CharSequence isbn) {
+        if (isbn == null) {
+            return false;
+        }
+        int digits = 0;
+        int sum10 = 0;
+        int sum13 = 0;
+        boolean checkX = false;
+        for (int i = 0, length = isbn.length(); i < length; i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (checkX || digits == 13) {
+                return false;
+            }
+            int value;
+            if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if ((c == 'X' || c == 'x') && digits == 9) {
+                value = 10;
+                checkX = true;
+            } else {
+                return false;
+            }
+            if (digits < 10) {
+                sum10 += (10 - digits) * value;
+            }
+            sum13 += (digits & 1) == 0 ? value : 3 * value;
+            digits++;
+        }
+        if (digits == 10) {
+            return sum10 % 11 == 0;
+        }
+        return digits == 13 && sum13 % 10 == 0;
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.bookcatalog.validator;
 
 import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.jfr.ValidationEvent;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class UpdateBookValidator implements BookValidator {
     
@@ -12,36 +15,17 @@ public class UpdateBookValidator implements BookValidator {
             throw new IllegalArgumentException("Book cannot be null");
         }
 
-        if (book.getTitle() != null && book.getTitle().trim().isEmpty()) {
-            throw new IllegalArgumentException("Book title cannot be empty if provided");
-        }
-        
-        if (book.getAuthor() != null && book.getAuthor().trim().isEmpty()) {
-            throw new IllegalArgumentException("Book author cannot be empty if provided");
-        }
-        
-        if (book.getIsbn() != null) {
-            if (book.getIsbn().trim().isEmpty()) {
-                throw new IllegalArgumentException("Book ISBN cannot be empty if provided");
-            }
-            if (!isValidIsbn(book.getIsbn())) {
-                throw new IllegalArgumentException("Invalid ISBN format");
-            }
-        }
-        
-        if (book.getPublicationYear() != null && 
-            (book.getPublicationYear() < 1000 || book.getPublicationYear() > 2030)) {
-            throw new IllegalArgumentException("Publication year must be between 1000 and 2030");
-        }
-        
-        if (book.getPrice() != null && book.getPrice().compareTo(java.math.BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Book price cannot be negative");
+        ValidationEvent event = new ValidationEvent();
+        event.begin();
+        String violation = BookConstraint.firstViolation(book, true);
+        event.complete("update", 1, violation != null ? 1 : 0);
+        if (violation != null) {
+            throw new IllegalArgumentException(violation);
         }
     }
-    
-    private boolean isValidIsbn(String isbn) {
-        String cleanIsbn = isbn.replaceAll("-", "");
-        return cleanIsbn.length() == 10 || cleanIsbn.length() == 13;
+
+    @Override
+    public void collectViolations(Book book, int row, List<BookViolation> violations) {
+        BookConstraint.collectViolations(book, true, row, violations);
     }
 }
-
@@ -0,0 +1,86 @@
+package com.example.bookcatalog.writebehind;
+
+import com.example.bookcatalog.entity.Book;
+
+import java.math.BigDecimal;
+
+/**
+ * A full-row book update waiting to be flushed. It is only applied while the row's version lies
+ * between {@code minVersion} and {@code maxVersion}: the versions it could have been accepted
+ * against. A null range means the book did not exist when the update was accepted.
+ */
+public class PendingBookUpdate {
+
+    private final Long bookId;
+    private final String title;
+    private final String author;
+    private final String isbn;
+    private final Integer publicationYear;
+    private final BigDecimal price;
+    private final Long minVersion;
+    private final Long maxVersion;
+    private final long acceptedAtMillis;
+
+    public PendingBookUpdate(Long bookId, String title, String author, String isbn,
+                             Integer publicationYear, BigDecimal price,
+                             Long minVersion, Long maxVersion, long acceptedAtMillis) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.isbn = isbn;
+        this.publicationYear = publicationYear;
+        this.price = price;
+        this.minVersion = minVersion;
+        this.maxVersion = maxVersion;
+        this.acceptedAtMillis = acceptedAtMillis;
+    }
+
+    public static PendingBookUpdate of(Long bookId, Book bookDetails,
+                                       Long minVersion, Long maxVersion, long acceptedAtMillis) {
+        return new PendingBookUpdate(bookId,
+                bookDetails.getTitle(),
+                bookDetails.getAuthor(),
+                bookDetails.getIsbn(),
+                bookDetails.getPublicationYear(),
+                bookDetails.getPrice(),
+                minVersion,
+                maxVersion,
+                acceptedAtMillis);
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Long getMinVersion() {
+        return minVersion;
+    }
+
+    public Long getMaxVersion() {
+        return maxVersion;
+    }
+
+    public long getAcceptedAtMillis() {
+        return acceptedAtMillis;
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.bookcatalog.writebehind;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of accepted write-behind updates, stored in preallocated memory-mapped
+ * segment files. Each record is {@code [length][crc32][payload]}; a zero length marks the
+ * end of a segment. A segment released by a checkpoint is kept as a spare and recycled for the
+ * next one instead of allocating and mapping a new file. Not thread-safe, callers serialize access.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d+)\\.log");
+    private static final int HEADER_BYTES = 8;
+    private static final String SPARE_NAME = "wal.spare";
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // no explicit unmapping, segments are released when the buffer is collected
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    private long generation;
+    private long oldestGeneration;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public WriteAheadLog(Path directory, int segmentSize, boolean fsync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+    }
+
+    public List<PendingBookUpdate> replay() {
+        List<PendingBookUpdate> records = new ArrayList<>();
+        for (Path segment : listSegments()) {
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                readSegment(data, records);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to replay WAL segment " + segment, e);
+            }
+        }
+        return records;
+    }
+
+    public void open() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create WAL directory " + directory, e);
+        }
+        List<Path> segments = listSegments();
+        generation = segments.isEmpty() ? 0 : generationOf(segments.get(segments.size() - 1));
+        roll();
+        oldestGeneration = segments.isEmpty() ? generation : generationOf(segments.get(0));
+    }
+
+    public void append(PendingBookUpdate update) {
+        byte[] payload = encode(update);
+        int recordSize = HEADER_BYTES + payload.length;
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("WAL record of " + recordSize + " bytes exceeds segment size");
+        }
+        if (buffer.remaining() < recordSize + Integer.BYTES) {
+            roll();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        if (buffer.remaining() >= Integer.BYTES) {
+            // a recycled segment still holds old records past this point
+            buffer.putInt(buffer.position(), 0);
+        }
+        if (fsync) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Starts a fresh segment holding only the updates that are still pending and releases
+     * every older segment, so replay never resurrects updates that already reached MySQL.
+     */
+    public void checkpoint(Collection<PendingBookUpdate> stillPending) {
+        long previousGeneration = generation;
+        roll();
+        for (PendingBookUpdate update : stillPending) {
+            append(update);
+        }
+        buffer.force();
+        Path spare = directory.resolve(SPARE_NAME);
+        for (Path segment : listSegments()) {
+            if (generationOf(segment) <= previousGeneration) {
+                try {
+                    if (!Files.exists(spare) && Files.size(segment) == segmentSize) {
+                        Files.move(segment, spare);
+                    } else {
+                        Files.deleteIfExists(segment);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to release WAL segment " + segment, e);
+                }
+            }
+        }
+        oldestGeneration = generation;
+    }
+
+    /**
+     * Whether the log spans more than the current segment, either because appends filled one
+     * or because it was left over from a previous run; only a checkpoint reclaims those.
+     */
+    public boolean hasFullSegments() {
+        return generation > oldestGeneration;
+    }
+
+    public int segmentCount() {
+        return listSegments().size();
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            buffer.force();
+            unmap(buffer);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private void roll() {
+        close();
+        generation++;
+        Path segment = directory.resolve("wal-" + generation + ".log");
+        Path spare = directory.resolve(SPARE_NAME);
+        try {
+            if (Files.exists(spare) && Files.size(spare) != segmentSize) {
+                Files.delete(spare);
+            }
+            if (Files.exists(spare)) {
+                // blank the first record before the spare becomes visible to replay again
+                channel = FileChannel.open(spare, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                buffer.putInt(0, 0);
+                buffer.force();
+                Files.move(spare, segment, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create WAL segment " + segment, e);
+        }
+    }
+
+    private static void unmap(MappedByteBuffer mapped) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, mapped);
+        } catch (ReflectiveOperationException e) {
+            // left to the garbage collector
+        }
+    }
+
+    private List<Path> listSegments() {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted((a, b) -> Long.compare(generationOf(a), generationOf(b)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list WAL directory " + directory, e);
+        }
+    }
+
+    private static long generationOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a WAL segment: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static void readSegment(ByteBuffer data, List<PendingBookUpdate> records) {
+        while (data.remaining() >= HEADER_BYTES) {
+            int length = data.getInt();
+            if (length <= 0 || length > data.remaining() - Integer.BYTES) {
+                return;
+            }
+            int expectedCrc = data.getInt();
+            byte[] payload = new byte[length];
+            data.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, payload.length);
+            if ((int) crc.getValue() != expectedCrc) {
+                // torn write at the tail of a segment; everything after it is unusable
+                return;
+            }
+            records.add(decode(ByteBuffer.wrap(payload)));
+        }
+    }
+
+    private static byte[] encode(PendingBookUpdate update) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(update.getBookId());
+            out.writeLong(update.getAcceptedAtMillis());
+            out.writeBoolean(update.getMinVersion() != null);
+            out.writeLong(update.getMinVersion() != null ? update.getMinVersion() : 0);
+            out.writeLong(update.getMaxVersion() != null ? update.getMaxVersion() : 0);
+            writeString(out, update.getTitle());
+            writeString(out, update.getAuthor());
+            writeString(out, update.getIsbn());
+            out.writeBoolean(update.getPublicationYear() != null);
+            out.writeInt(update.getPublicationYear() != null ? update.getPublicationYear() : 0);
+            writeString(out, update.getPrice() != null ? update.getPrice().toPlainString() : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static PendingBookUpdate decode(ByteBuffer in) {
+        long bookId = in.getLong();
+        long acceptedAt = in.getLong();
+        boolean hasVersions = in.get() != 0;
+        long minVersion = in.getLong();
+        long maxVersion = in.getLong();
+        String title = readString(in);
+        String author = readString(in);
+        String isbn = readString(in);
+        boolean hasYear = in.get() != 0;
+        int year = in.getInt();
+        String price = readString(in);
+        return new PendingBookUpdate(bookId, title, author, isbn,
+                hasYear ? year : null,
+                price != null ? new BigDecimal(price) : null,
+                hasVersions ? minVersion : null,
+                hasVersions ? maxVersion : null,
+                acceptedAt);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
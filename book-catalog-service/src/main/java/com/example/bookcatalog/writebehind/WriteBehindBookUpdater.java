@@ -0,0 +1,332 @@
+package com.example.bookcatalog.writebehind;
+
+import com.example.bookcatalog.changes.BookChangeLog;
+import com.example.bookcatalog.changes.BookChangePublisher;
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.validator.BookValidatorFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Paths;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@ConditionalOnProperty(name = "bookcatalog.write-behind.enabled", havingValue = "true")
+public class WriteBehindBookUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindBookUpdater.class);
+
+    static final String UPDATE_SQL = "UPDATE books SET title = ?, author = ?, isbn = ?, " +
+            "publication_year = ?, price = ?, version = version + 1 " +
+            "WHERE id = ? AND version BETWEEN ? AND ? AND deleted_at IS NULL";
+
+    static final String VERSION_SQL = "SELECT version FROM books WHERE id = ? AND deleted_at IS NULL";
+
+    static final String VERSIONS_SQL = "SELECT id, version FROM books WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookValidatorFactory bookValidatorFactory;
+    private final WriteAheadLog writeAheadLog;
+    private final int maxBatchSize;
+    private final long checkpointIntervalMillis;
+    private final BookChangePublisher bookChangePublisher;
+    private final BookChangeLog bookChangeLog;
+
+    private final Map<Long, PendingBookUpdate> pending = new ConcurrentHashMap<>();
+    private final Map<Long, PendingBookUpdate> inFlight = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastCheckpointMillis;
+
+    private final Counter acceptedCounter;
+    private final Counter coalescedCounter;
+    private final Counter flushedCounter;
+    private final Counter deadLetteredCounter;
+    private final Timer flushTimer;
+
+    @Autowired
+    public WriteBehindBookUpdater(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  BookValidatorFactory bookValidatorFactory,
+                                  MeterRegistry meterRegistry,
+                                  BookChangePublisher bookChangePublisher,
+                                  BookChangeLog bookChangeLog,
+                                  @Value("${bookcatalog.write-behind.wal-directory:./data/wal}") String walDirectory,
+                                  @Value("${bookcatalog.write-behind.segment-size-bytes:16777216}") int segmentSize,
+                                  @Value("${bookcatalog.write-behind.fsync:true}") boolean fsync,
+                                  @Value("${bookcatalog.write-behind.max-batch-size:500}") int maxBatchSize,
+                                  @Value("${bookcatalog.write-behind.checkpoint-interval-ms:10000}") long checkpointIntervalMillis) {
+        this(jdbcTemplate, transactionTemplate, bookValidatorFactory, meterRegistry,
+                new WriteAheadLog(Paths.get(walDirectory), segmentSize, fsync), maxBatchSize, checkpointIntervalMillis,
+                bookChangePublisher, bookChangeLog);
+    }
+
+    WriteBehindBookUpdater(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           BookValidatorFactory bookValidatorFactory,
+                           MeterRegistry meterRegistry,
+                           WriteAheadLog writeAheadLog,
+                           int maxBatchSize,
+                           long checkpointIntervalMillis,
+                           BookChangePublisher bookChangePublisher,
+                           BookChangeLog bookChangeLog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookValidatorFactory = bookValidatorFactory;
+        this.writeAheadLog = writeAheadLog;
+        this.maxBatchSize = maxBatchSize;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.bookChangePublisher = bookChangePublisher;
+        this.bookChangeLog = bookChangeLog;
+
+        this.acceptedCounter = meterRegistry.counter("bookcatalog.writebehind.accepted");
+        this.coalescedCounter = meterRegistry.counter("bookcatalog.writebehind.coalesced");
+        this.flushedCounter = meterRegistry.counter("bookcatalog.writebehind.flushed");
+        this.deadLetteredCounter = meterRegistry.counter("bookcatalog.writebehind.deadlettered");
+        this.flushTimer = meterRegistry.timer("bookcatalog.writebehind.flush");
+        Gauge.builder("bookcatalog.writebehind.queue.depth", pending, Map::size)
+                .description("Coalesced book updates waiting to be flushed")
+                .register(meterRegistry);
+        Gauge.builder("bookcatalog.writebehind.flush.lag", this, WriteBehindBookUpdater::getFlushLagMillis)
+                .description("Age in milliseconds of the oldest unflushed update")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void recover() {
+        List<PendingBookUpdate> replayed = writeAheadLog.replay();
+        for (PendingBookUpdate update : replayed) {
+            pending.put(update.getBookId(), update);
+        }
+        writeAheadLog.open();
+        lastCheckpointMillis = System.currentTimeMillis();
+        if (!replayed.isEmpty()) {
+            logger.info("Replayed {} write-behind updates ({} books) from the WAL",
+                    replayed.size(), pending.size());
+            flush();
+        }
+    }
+
+    public void accept(Long id, Book bookDetails) {
+        // the flush overwrites every column and a later update replaces an earlier one,
+        // so a partial update would null out fields; require the full row up front
+        bookValidatorFactory.getValidator("standard").validate(bookDetails);
+        long acceptedAt = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            PendingBookUpdate previous = pending.get(id);
+            PendingBookUpdate writing = inFlight.get(id);
+            Long minVersion;
+            Long maxVersion;
+            if (previous != null) {
+                // replaces an update accepted against the same row; keep the oldest acceptance
+                // time so the lag gauge reflects real staleness
+                minVersion = previous.getMinVersion();
+                maxVersion = previous.getMaxVersion();
+                acceptedAt = previous.getAcceptedAtMillis();
+                coalescedCounter.increment();
+            } else if (writing != null) {
+                // the flush in progress leaves the row where it is or one version further
+                minVersion = writing.getMinVersion();
+                maxVersion = writing.getMaxVersion() != null ? writing.getMaxVersion() + 1 : null;
+            } else {
+                // read under the lock, so no write-behind update to this book is uncommitted
+                minVersion = currentVersion(id);
+                maxVersion = minVersion;
+            }
+            PendingBookUpdate update = PendingBookUpdate.of(id, bookDetails, minVersion, maxVersion, acceptedAt);
+            writeAheadLog.append(update);
+            pending.put(id, update);
+        } finally {
+            lock.unlock();
+        }
+        acceptedCounter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${bookcatalog.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<PendingBookUpdate> batch;
+        lock.lock();
+        try {
+            batch = new ArrayList<>(pending.values());
+            for (PendingBookUpdate update : batch) {
+                pending.remove(update.getBookId(), update);
+                inFlight.put(update.getBookId(), update);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        flushTimer.record(() -> {
+            List<PendingBookUpdate> retry = new ArrayList<>();
+            for (int from = 0; from < batch.size(); from += maxBatchSize) {
+                List<PendingBookUpdate> chunk = batch.subList(from, Math.min(from + maxBatchSize, batch.size()));
+                if (!retry.isEmpty()) {
+                    retry.addAll(chunk);
+                    continue;
+                }
+                try {
+                    writeBatch(chunk);
+                } catch (RuntimeException e) {
+                    logger.warn("Write-behind batch of {} updates failed, retrying one by one", chunk.size(), e);
+                    writeEach(chunk, retry);
+                }
+            }
+            lock.lock();
+            try {
+                for (PendingBookUpdate update : batch) {
+                    inFlight.remove(update.getBookId(), update);
+                }
+                // an update accepted meanwhile covers the retried one's versions as well
+                for (PendingBookUpdate update : retry) {
+                    pending.putIfAbsent(update.getBookId(), update);
+                }
+                // until the next checkpoint a crash replays updates that were already written;
+                // the row has moved past their versions by then, so they are skipped
+                long now = System.currentTimeMillis();
+                if (writeAheadLog.hasFullSegments()
+                        || (retry.size() < batch.size() && now - lastCheckpointMillis >= checkpointIntervalMillis)) {
+                    writeAheadLog.checkpoint(new ArrayList<>(pending.values()));
+                    lastCheckpointMillis = now;
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public long getFlushLagMillis() {
+        long oldest = Long.MAX_VALUE;
+        for (PendingBookUpdate update : pending.values()) {
+            oldest = Math.min(oldest, update.getAcceptedAtMillis());
+        }
+        return oldest == Long.MAX_VALUE ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        lock.lock();
+        try {
+            writeAheadLog.checkpoint(new ArrayList<>(pending.values()));
+            writeAheadLog.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Isolates the rows that broke a batch. A row the database rejects outright is dead-lettered
+     * so it cannot block the queue; any other failure leaves it and the rest pending for the next flush.
+     */
+    private void writeEach(List<PendingBookUpdate> updates, List<PendingBookUpdate> retry) {
+        for (PendingBookUpdate update : updates) {
+            if (!retry.isEmpty()) {
+                retry.add(update);
+                continue;
+            }
+            try {
+                writeBatch(Collections.singletonList(update));
+            } catch (DataIntegrityViolationException e) {
+                deadLetteredCounter.increment();
+                logger.error("Dead-lettering write-behind update for book {}: title={}, author={}, isbn={}, "
+                                + "publicationYear={}, price={}", update.getBookId(), update.getTitle(),
+                        update.getAuthor(), update.getIsbn(), update.getPublicationYear(), update.getPrice(), e);
+            } catch (RuntimeException e) {
+                logger.error("Write-behind update for book {} failed, will retry", update.getBookId(), e);
+                retry.add(update);
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingBookUpdate> updates) {
+        List<Object[]> args = new ArrayList<>(updates.size());
+        for (PendingBookUpdate update : updates) {
+            args.add(new Object[]{update.getTitle(), update.getAuthor(), update.getIsbn(),
+                    update.getPublicationYear(), update.getPrice(), update.getBookId(),
+                    update.getMinVersion(), update.getMaxVersion()});
+        }
+        int[] argTypes = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DECIMAL,
+                Types.BIGINT, Types.BIGINT, Types.BIGINT};
+        Map<Long, Long> versions = new HashMap<>();
+        int[] counts = transactionTemplate.execute(status -> {
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, args, argTypes);
+            if (updated != null) {
+                List<Long> changed = new ArrayList<>(updates.size());
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] != 0) {
+                        changed.add(updates.get(i).getBookId());
+                    }
+                }
+                if (bookChangeLog != null) {
+                    bookChangeLog.recordAll(changed);
+                }
+                if (bookChangePublisher != null && !changed.isEmpty()) {
+                    // the rows are locked by the update, so these are the versions it wrote
+                    String placeholders = String.join(", ", Collections.nCopies(changed.size(), "?"));
+                    jdbcTemplate.query(String.format(VERSIONS_SQL, placeholders), rs -> {
+                        versions.put(rs.getLong("id"), rs.getLong("version"));
+                    }, changed.toArray());
+                }
+            }
+            return updated;
+        });
+        int applied = 0;
+        for (int i = 0; counts != null && i < counts.length; i++) {
+            if (counts[i] == 0) {
+                logger.warn("Dropping write-behind update for book with id {}: missing, deleted or changed since "
+                        + "it was accepted", updates.get(i).getBookId());
+            } else {
+                applied++;
+                publishUpdate(updates.get(i), versions.get(updates.get(i).getBookId()));
+            }
+        }
+        flushedCounter.increment(applied);
+    }
+
+    private Long currentVersion(Long id) {
+        List<Long> version = jdbcTemplate.queryForList(VERSION_SQL, Long.class, id);
+        return version.isEmpty() ? null : version.get(0);
+    }
+
+    private void publishUpdate(PendingBookUpdate update, Long version) {
+        if (bookChangePublisher == null) {
+            return;
+        }
+        Book book = new Book(update.getTitle(), update.getAuthor(), update.getIsbn(),
+                update.getPublicationYear(), update.getPrice());
+        book.setId(update.getBookId());
+        book.setVersion(version);
+        bookChangePublisher.bookUpdated(book);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bookcatalog.benchmark;
+
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.validator.Isbn;
+import com.example.bookcatalog.validator.StandardBookValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of ISBN validation: the former {@code replaceAll} length check against the
+ * single-pass checksum, plus a full standard validation as a bulk import would run it per row.
+ * Add {@code -prof gc} to see the allocation rate drop to zero for the new path.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookValidationBenchmark {
+
+    @Param({"9780306406157", "978-0-306-40615-7", "0-8044-2957-X"})
+    public String isbn;
+
+    private final StandardBookValidator validator = new StandardBookValidator();
+    private Book book;
+
+    @Setup
+    public void prepare() {
+        book = new Book("Title", "Author", isbn, 2020, new BigDecimal("9.99"));
+    }
+
+    @Benchmark
+    public boolean legacyLengthCheck() {
+        String cleanIsbn = isbn.replaceAll("-", "");
+        return cleanIsbn.length() == 10 || cleanIsbn.length() == 13;
+    }
+
+    @Benchmark
+    public boolean checksum() {
+        return Isbn.isValid(isbn);
+    }
+
+    @Benchmark
+    public Book validateBook() {
+        validator.validate(book);
+        return book;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.bookcatalog.benchmark;
+
+import com.example.bookcatalog.command.CommandLog;
+import com.example.bookcatalog.command.CommandLogRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Command log append throughput and recovery time for a one-million-entry log.
+ * Run with {@code java -cp target/test-classes:<test classpath> com.example.bookcatalog.benchmark.CommandLogBenchmark}.
+ */
+@Fork(1)
+public class CommandLogBenchmark {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final byte[] BODY = new byte[96];
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+
+        @Param({"true", "false"})
+        public boolean fsync;
+
+        Path directory;
+        CommandLog log;
+
+        @Setup(Level.Iteration)
+        public void open() throws IOException {
+            directory = Files.createTempDirectory("command-log-append");
+            log = new CommandLog(directory, SEGMENT_SIZE, fsync);
+            log.open();
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            log.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RecoveryState {
+
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void populate() throws IOException {
+            directory = Files.createTempDirectory("command-log-recovery");
+            CommandLog log = new CommandLog(directory, SEGMENT_SIZE, false);
+            log.open();
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 1_000_000; i++) {
+                long sequence = log.appendExecuted("client-" + (i % 1000), (byte) 1, BODY, now);
+                if (i % 10 == 0) {
+                    log.appendUndone("client-" + (i % 1000), sequence, now);
+                }
+            }
+            log.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(8)
+    public long append(AppendState state) {
+        return state.log.appendExecuted("client-" + Thread.currentThread().getId(), (byte) 1, BODY,
+                System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Map<String, Deque<CommandLogRecord>> recoverMillionEntries(RecoveryState state) {
+        return new CommandLog(state.directory, SEGMENT_SIZE, false).replay(100, Long.MIN_VALUE);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CommandLogBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.bookcatalog.benchmark;
+
+import com.example.bookcatalog.command.CommandBatchExecutor;
+import com.example.bookcatalog.command.CompositeCommand;
+import com.example.bookcatalog.command.SaveBookCommand;
+import com.example.bookcatalog.entity.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving 1,000 books as 1,000 single-row transactions versus one batched composite command.
+ * Defaults to in-memory H2; pass {@code -Dbenchmark.jdbc.url=jdbc:mysql://...&rewriteBatchedStatements=true}
+ * (plus user/password) to measure against MySQL, where the saved round trips dominate.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CompositeCommandBenchmark {
+
+    private static final int BOOKS = 1000;
+    private static final String INSERT_SQL = "INSERT INTO books (title, author, isbn, publication_year, price, version) " +
+            "VALUES (?, ?, ?, ?, ?, 0)";
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private CommandBatchExecutor batchExecutor;
+    private long isbnSequence;
+
+    @Setup(Level.Trial)
+    public void connect() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:composite;MODE=MySQL;DB_CLOSE_DELAY=-1"),
+                System.getProperty("benchmark.jdbc.user", "sa"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS books");
+        jdbcTemplate.execute("CREATE TABLE books (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, isbn VARCHAR(20) NOT NULL UNIQUE, " +
+                "publication_year INT, price DECIMAL(10, 2), version BIGINT NOT NULL DEFAULT 0, " +
+                "deleted_at TIMESTAMP NULL)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        batchExecutor = new CommandBatchExecutor(jdbcTemplate, transactionTemplate, 500);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("DELETE FROM books");
+    }
+
+    @Benchmark
+    public int individualTransactions() {
+        for (Book book : nextBooks()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL,
+                    book.getTitle(), book.getAuthor(), book.getIsbn(), book.getPublicationYear(), book.getPrice()));
+        }
+        return BOOKS;
+    }
+
+    @Benchmark
+    public int compositeBatch() {
+        List<SaveBookCommand> commands = new ArrayList<>(BOOKS);
+        for (Book book : nextBooks()) {
+            commands.add(new SaveBookCommand(null, book));
+        }
+        new CompositeCommand("Save " + BOOKS + " books", commands, batchExecutor).execute();
+        return BOOKS;
+    }
+
+    private List<Book> nextBooks() {
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            long isbn = isbnSequence++;
+            books.add(new Book("Title " + isbn, "Author", String.valueOf(isbn), 2020, new BigDecimal("9.99")));
+        }
+        return books;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompositeCommandBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.bookcatalog.benchmark;
+
+import com.example.bookcatalog.decorator.BookServiceDecorator;
+import com.example.bookcatalog.decorator.BulkheadBookServiceDecorator;
+import com.example.bookcatalog.decorator.ForwardingBookServiceDecorator;
+import com.example.bookcatalog.decorator.MetricsBookServiceDecorator;
+import com.example.bookcatalog.decorator.TracingBookServiceDecorator;
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.validator.BookValidationReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch overhead of the decorator chain over an in-memory target, so only the chain is measured:
+ * a direct call, pass-through links, and the metrics/tracing/bulkhead links outside a trace.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DecoratorChainBenchmark {
+
+    private BookServiceDecorator target;
+    private BookServiceDecorator passThrough;
+    private BookServiceDecorator instrumented;
+
+    @Setup
+    public void build() {
+        target = new InMemoryTarget(new Book("Title", "Author", "9780306406157", 2020, new BigDecimal("9.99")));
+        BookServiceDecorator chain = target;
+        for (int i = 0; i < 4; i++) {
+            chain = new ForwardingBookServiceDecorator(chain) {
+            };
+        }
+        passThrough = chain;
+        instrumented = new MetricsBookServiceDecorator(
+                new TracingBookServiceDecorator(
+                        new BulkheadBookServiceDecorator(target, 64, 0)),
+                new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Optional<Book> direct() {
+        return target.getBookById(1L);
+    }
+
+    @Benchmark
+    public Optional<Book> fourPassThroughLinks() {
+        return passThrough.getBookById(1L);
+    }
+
+    @Benchmark
+    public Optional<Book> metricsTracingBulkhead() {
+        return instrumented.getBookById(1L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DecoratorChainBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static class InMemoryTarget implements BookServiceDecorator {
+
+        private final Optional<Book> book;
+
+        InMemoryTarget(Book book) {
+            this.book = Optional.of(book);
+        }
+
+        @Override
+        public List<Book> getAllBooks() {
+            return Collections.singletonList(book.get());
+        }
+
+        @Override
+        public Optional<Book> getBookById(Long id) {
+            return book;
+        }
+
+        @Override
+        public Optional<Book> getBookAsOf(Long id, LocalDateTime asOf) {
+            return book;
+        }
+
+        @Override
+        public Optional<Book> getBookByIsbn(String isbn) {
+            return book;
+        }
+
+        @Override
+        public List<Book> getBooksByAuthor(String author) {
+            return getAllBooks();
+        }
+
+        @Override
+        public List<Book> searchBooksByTitle(String title) {
+            return getAllBooks();
+        }
+
+        @Override
+        public List<Book> searchBooks(String searchType, String searchTerm) {
+            return getAllBooks();
+        }
+
+        @Override
+        public Book saveBookWithBuilder(String title, String author, String isbn, Integer publicationYear, Double price) {
+            return book.get();
+        }
+
+        @Override
+        public List<Book> saveBooks(List<Book> books) {
+            return books;
+        }
+
+        @Override
+        public BookValidationReport validateBooks(List<Book> books, String validatorType) {
+            return new BookValidationReport(books.size(), Collections.emptyList());
+        }
+
+        @Override
+        public Book updateBook(Long id, Book bookDetails) {
+            return bookDetails;
+        }
+
+        @Override
+        public Book updateBook(Long id, Book bookDetails, Long expectedVersion) {
+            return bookDetails;
+        }
+
+        @Override
+        public void deleteBook(Long id) {
+        }
+
+        @Override
+        public void deleteBooks(List<Long> ids) {
+        }
+
+        @Override
+        public void undoLastOperation() {
+        }
+
+        @Override
+        public List<String> getOperationHistory() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void clearOperationHistory() {
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.bookcatalog.benchmark;
+
+import com.example.bookcatalog.BookCatalogServiceApplication;
+import com.example.bookcatalog.threads.CatalogThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request throughput with thousands of slow clients, platform against virtual request threads. Every
+ * client holds a keep-alive connection and trickles a validation request body in {@code chunks} pieces
+ * over {@code slowMillis}, so a request thread that starts reading early blocks for the rest of the
+ * upload, the way it would on a slow JDBC call. One benchmark op is one completed request; thread
+ * count, heap and RSS at the end of each iteration are printed alongside.
+ * <p>
+ * The client and the service share the fork, so allow two descriptors per client, e.g.
+ * {@code ulimit -n 65536}. The build targets 17 but virtual threads need a 21+ runtime, so point the
+ * fork at one, otherwise the virtual case refuses to run rather than measure platform threads twice:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main ThreadModeBenchmark -jvm <jdk21>/bin/java}.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 15)
+@Measurement(iterations = 3, time = 15)
+public class ThreadModeBenchmark {
+
+    private static final byte[] BODY = ("[{\"title\":\"Slow Client\",\"author\":\"Benchmark\",\"isbn\":\"9780306406157\","
+            + "\"publicationYear\":2000,\"price\":9.99}]").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEAD = ("POST /api/books/validate HTTP/1.1\r\nHost: localhost\r\n"
+            + "Content-Type: application/json\r\nContent-Length: " + BODY.length + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"10000"})
+    public int clients;
+
+    @Param({"1000"})
+    public long slowMillis;
+
+    @Param({"4"})
+    public int chunks;
+
+    private final Semaphore completed = new Semaphore(0);
+    private ConfigurableApplicationContext context;
+    private SlowClients load;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && !CatalogThreads.virtualThreadsSupported()) {
+            throw new IllegalStateException("Java " + Runtime.version().feature()
+                    + " has no virtual threads, run the fork on Java 21+ with -jvm");
+        }
+        // command line arguments, so they win over application.properties
+        context = new SpringApplicationBuilder(BookCatalogServiceApplication.class).run(
+                "--server.port=0",
+                "--" + CatalogThreads.VIRTUAL_PROPERTY + "=" + virtual,
+                "--server.tomcat.threads.max=200",
+                "--server.tomcat.max-connections=" + (clients + 1000),
+                "--server.tomcat.accept-count=" + clients,
+                "--server.tomcat.max-keep-alive-requests=-1",
+                "--server.tomcat.keep-alive-timeout=120s",
+                "--spring.datasource.url=jdbc:h2:mem:threadmode;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--bookcatalog.admission.enabled=false",
+                "--bookcatalog.profiling.enabled=false",
+                "--bookcatalog.jfr.continuous.enabled=false",
+                "--bookcatalog.threads.pinning-report.enabled=false",
+                "--bookcatalog.tracing.enabled=false",
+                "--logging.level.com.example.bookcatalog=WARN",
+                // clients still mid-upload at the end of a trial are cut off
+                "--logging.level.org.springframework.web=ERROR");
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        load = new SlowClients(new InetSocketAddress("localhost", port), clients,
+                TimeUnit.MILLISECONDS.toNanos(slowMillis) / chunks, chunks, completed);
+        load.start();
+    }
+
+    @Benchmark
+    public void request() throws InterruptedException {
+        if (!completed.tryAcquire(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("No request completed in 30 s: " + load.failure);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void footprint() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        System.out.printf("%n%s threads: %d live platform threads (peak %d), heap %d MB, non-heap %d MB, rss %s%n",
+                threads, threadBean.getThreadCount(), threadBean.getPeakThreadCount(),
+                memoryBean.getHeapMemoryUsage().getUsed() >> 20, memoryBean.getNonHeapMemoryUsage().getUsed() >> 20,
+                residentSetSize());
+        threadBean.resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        load.interrupt();
+        load.join();
+        context.close();
+    }
+
+    private static String residentSetSize() {
+        Path status = Paths.get("/proc/self/status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return line.substring("VmRSS:".length()).trim();
+                }
+            }
+        } catch (IOException e) {
+            // not Linux
+        }
+        return "n/a";
+    }
+
+    /**
+     * Single selector thread driving every connection, so the client costs the same in both modes.
+     */
+    static class SlowClients extends Thread {
+
+        private final InetSocketAddress address;
+        private final int clients;
+        private final long chunkIntervalNanos;
+        private final int chunks;
+        private final Semaphore completed;
+        private volatile Exception failure;
+
+        SlowClients(InetSocketAddress address, int clients, long chunkIntervalNanos, int chunks, Semaphore completed) {
+            super("slow-clients");
+            setDaemon(true);
+            this.address = address;
+            this.clients = clients;
+            this.chunkIntervalNanos = chunkIntervalNanos;
+            this.chunks = chunks;
+            this.completed = completed;
+        }
+
+        @Override
+        public void run() {
+            List<Client> all = new ArrayList<>(clients);
+            try (Selector selector = Selector.open()) {
+                long start = System.nanoTime();
+                for (int i = 0; i < clients; i++) {
+                    SocketChannel channel = SocketChannel.open(address);
+                    channel.configureBlocking(false);
+                    Client client = new Client(channel);
+                    channel.register(selector, SelectionKey.OP_READ, client);
+                    // spread the first requests over one chunk interval instead of starting them in lockstep
+                    client.begin(start + i * chunkIntervalNanos / clients);
+                    all.add(client);
+                }
+                while (!isInterrupted()) {
+                    long now = System.nanoTime();
+                    for (Client client : all) {
+                        client.sendDue(now);
+                    }
+                    selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(chunkIntervalNanos) / 4));
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (((Client) key.attachment()).read()) {
+                            completed.release();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                for (Client client : all) {
+                    client.close();
+                }
+            }
+        }
+
+        private class Client {
+
+            private final SocketChannel channel;
+            private final ByteBuffer in = ByteBuffer.allocate(4096);
+            private int sentChunks;
+            private long nextSendNanos = Long.MAX_VALUE;
+
+            Client(SocketChannel channel) {
+                this.channel = channel;
+            }
+
+            void begin(long at) {
+                sentChunks = 0;
+                nextSendNanos = at;
+            }
+
+            void sendDue(long now) throws IOException {
+                if (sentChunks > chunks || now < nextSendNanos) {
+                    return;
+                }
+                // chunk 0 is the header block, then the body in equal slices
+                ByteBuffer out;
+                if (sentChunks == 0) {
+                    out = ByteBuffer.wrap(HEAD);
+                } else {
+                    int from = BODY.length * (sentChunks - 1) / chunks;
+                    int to = BODY.length * sentChunks / chunks;
+                    out = ByteBuffer.wrap(BODY, from, to - from);
+                }
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                sentChunks++;
+                nextSendNanos = sentChunks > chunks ? Long.MAX_VALUE : now + chunkIntervalNanos;
+            }
+
+            /**
+             * Returns true when a complete response has arrived; the next request starts right away.
+             */
+            boolean read() throws IOException {
+                if (channel.read(in) < 0) {
+                    throw new IOException("Server closed a keep-alive connection");
+                }
+                int length = responseLength();
+                if (length < 0 || in.position() < length) {
+                    return false;
+                }
+                if (in.get(9) != '2') {
+                    throw new IOException("Unexpected response: "
+                            + new String(in.array(), 0, Math.min(in.position(), 64), StandardCharsets.US_ASCII));
+                }
+                in.clear();
+                begin(System.nanoTime());
+                return true;
+            }
+
+            private int responseLength() {
+                String received = new String(in.array(), 0, in.position(), StandardCharsets.US_ASCII);
+                int headerEnd = received.indexOf("\r\n\r\n");
+                if (headerEnd < 0) {
+                    return -1;
+                }
+                String headers = received.substring(0, headerEnd).toLowerCase();
+                int contentLength = headers.indexOf("content-length:");
+                if (contentLength >= 0) {
+                    int end = headers.indexOf("\r\n", contentLength);
+                    return headerEnd + 4 + Integer.parseInt(headers.substring(contentLength + 15,
+                            end < 0 ? headers.length() : end).trim());
+                }
+                return received.endsWith("0\r\n\r\n") ? in.position() : -1;
+            }
+
+            void close() {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // shutting down
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ThreadModeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
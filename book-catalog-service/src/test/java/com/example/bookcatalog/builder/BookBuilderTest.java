@@ -13,7 +13,7 @@ class BookBuilderTest {
     void builder_WithAllFields_ShouldCreateBookCorrectly() {
         String title = "Test Title";
         String author = "Test Author";
-        String isbn = "1234567890";
+        String isbn = "0306406152";
         Integer publicationYear = 2023;
         BigDecimal price = new BigDecimal("29.99");
         
@@ -43,7 +43,7 @@ class BookBuilderTest {
         Book book = BookBuilder.builder()
                 .title("Test Title")
                 .author("Test Author")
-                .isbn("1234567890")
+                .isbn("0306406152")
                 .price(priceValue)
                 .build();
 
@@ -58,14 +58,14 @@ class BookBuilderTest {
         Book book = BookBuilder.builder()
                 .title("Test Title")
                 .author("Test Author")
-                .isbn("1234567890")
+                .isbn("0306406152")
                 .build();
 
          
         assertNotNull(book);
         assertEquals("Test Title", book.getTitle());
         assertEquals("Test Author", book.getAuthor());
-        assertEquals("1234567890", book.getIsbn());
+        assertEquals("0306406152", book.getIsbn());
         assertNull(book.getPublicationYear());
         assertNull(book.getPrice());
     }
@@ -77,7 +77,7 @@ class BookBuilderTest {
             BookBuilder.builder()
                     .title("Test Title")
                     .author("Test Author")
-                    .isbn("1234567890")
+                    .isbn("0306406152")
                     .validate()
                     .build();
         });
@@ -90,11 +90,11 @@ class BookBuilderTest {
             BookBuilder.builder()
                     .title("")
                     .author("Test Author")
-                    .isbn("1234567890")
+                    .isbn("0306406152")
                     .validate()
                     .build();
         });
-        assertEquals("Title is required", exception.getMessage());
+        assertEquals("Book title cannot be null or empty", exception.getMessage());
     }
 
     @Test
@@ -104,11 +104,11 @@ class BookBuilderTest {
             BookBuilder.builder()
                     .title("Test Title")
                     .author(null)
-                    .isbn("1234567890")
+                    .isbn("0306406152")
                     .validate()
                     .build();
         });
-        assertEquals("Author is required", exception.getMessage());
+        assertEquals("Book author cannot be null or empty", exception.getMessage());
     }
 
     @Test
@@ -122,7 +122,51 @@ class BookBuilderTest {
                     .validate()
                     .build();
         });
-        assertEquals("ISBN is required", exception.getMessage());
+        assertEquals("Book ISBN cannot be null or empty", exception.getMessage());
+    }
+
+    @Test
+    void builder_WithBadIsbnChecksum_ShouldFailValidation() {
+               
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            BookBuilder.builder()
+                    .title("Test Title")
+                    .author("Test Author")
+                    .isbn("0306406153")
+                    .validate()
+                    .build();
+        });
+        assertEquals("Invalid ISBN format", exception.getMessage());
+    }
+
+    @Test
+    void builder_WithYearOutOfRange_ShouldFailValidation() {
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            BookBuilder.builder()
+                    .title("Test Title")
+                    .author("Test Author")
+                    .isbn("0306406152")
+                    .publicationYear(999)
+                    .validate()
+                    .build();
+        });
+        assertEquals("Publication year must be between 1000 and 2030", exception.getMessage());
+    }
+
+    @Test
+    void builder_WithNegativePrice_ShouldFailValidation() {
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            BookBuilder.builder()
+                    .title("Test Title")
+                    .author("Test Author")
+                    .isbn("0306406152")
+                    .price(-1.0)
+                    .validate()
+                    .build();
+        });
+        assertEquals("Book price cannot be negative", exception.getMessage());
     }
 
     @Test
@@ -134,7 +178,7 @@ class BookBuilderTest {
         BookBuilder result = builder
                 .title("Test Title")
                 .author("Test Author")
-                .isbn("1234567890");
+                .isbn("0306406152");
 
          
         assertSame(builder, result);
@@ -0,0 +1,260 @@
+package com.example.bookcatalog.bulk;
+
+import com.example.bookcatalog.changes.BookChangeLog;
+import com.example.bookcatalog.command.CommandInvoker;
+import com.example.bookcatalog.entity.BulkJob;
+import com.example.bookcatalog.job.JobContext;
+import com.example.bookcatalog.repository.BulkJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BulkOperationTest {
+
+    private static final String REPRICE_SQL = BulkOperationService.REPRICE_SQL
+            + " AND price IS NOT NULL AND author = ? AND publication_year < ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BulkJobRepository bulkJobRepository;
+
+    @Mock
+    private BookChangeLog bookChangeLog;
+
+    private CommandInvoker commandInvoker;
+    private BulkOperationService bulkOperationService;
+    private final Map<Long, BulkJob> jobs = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        commandInvoker = new CommandInvoker();
+        bulkOperationService = new BulkOperationService(jdbcTemplate, transactionTemplate,
+                bulkJobRepository, commandInvoker, bookChangeLog, 1000, 0, 1.0);
+
+        when(bulkJobRepository.save(any(BulkJob.class))).thenAnswer(invocation -> {
+            BulkJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(42L);
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(bulkJobRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<Long>getArgument(0))));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    @Test
+    void reprice_ShouldUpdateInIdRangeChunksAndRecordOneHistoryEntry() {
+        stubRange(1L, 2500L);
+        when(jdbcTemplate.update(eq(REPRICE_SQL), any(Object[].class))).thenReturn(400, 300, 100);
+
+        BulkJob job = bulkOperationService.reprice(new BulkRepriceRequest("Author", 2000, new BigDecimal("10")));
+
+        assertEquals(BulkJob.Status.COMPLETED, job.getStatus());
+        assertEquals(800, job.getRowsAffected());
+        assertEquals(3, job.getChunksCompleted());
+        assertEquals(1.0, job.getProgress());
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(REPRICE_SQL, new BigDecimal("1.1"), 1L, 1000L, "Author", 2000);
+        inOrder.verify(jdbcTemplate).update(REPRICE_SQL, new BigDecimal("1.1"), 1001L, 2000L, "Author", 2000);
+        inOrder.verify(jdbcTemplate).update(REPRICE_SQL, new BigDecimal("1.1"), 2001L, 2500L, "Author", 2000);
+        verify(bookChangeLog).recordSnapshots(42L, 2001L, 2500L);
+        assertEquals(1, commandInvoker.getHistorySize());
+        assertTrue(commandInvoker.getCommandHistory().get(0).contains("reprice"));
+    }
+
+    @Test
+    void reprice_WithoutCriteria_ShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkOperationService.reprice(new BulkRepriceRequest(null, null, BigDecimal.TEN)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void reject_ShouldCloseOutPendingJobThatWasNeverScheduled() {
+        BulkJob job = bulkOperationService.prepareReprice(new BulkRepriceRequest("Author", null, BigDecimal.TEN));
+
+        bulkOperationService.reject(job.getId(), "Job queue is full, retry later");
+
+        assertEquals(BulkJob.Status.CANCELLED, jobs.get(job.getId()).getStatus());
+        assertEquals("Job queue is full, retry later", jobs.get(job.getId()).getErrorMessage());
+        assertSame(job, bulkOperationService.prepareResume(job.getId()));
+    }
+
+    @Test
+    void reprice_WhenChunkFails_ShouldKeepCursorAndResume() {
+        stubRange(1L, 2500L);
+        when(jdbcTemplate.update(eq(REPRICE_SQL), any(Object[].class)))
+                .thenReturn(400)
+                .thenThrow(new RuntimeException("Lock wait timeout"))
+                .thenReturn(300, 100);
+
+        BulkJob failed = bulkOperationService.reprice(new BulkRepriceRequest("Author", 2000, BigDecimal.TEN));
+
+        assertEquals(BulkJob.Status.FAILED, failed.getStatus());
+        assertEquals(1001L, failed.getNextId());
+        assertEquals(0, commandInvoker.getHistorySize());
+
+        BulkJob resumed = bulkOperationService.resume(42L);
+
+        assertEquals(BulkJob.Status.COMPLETED, resumed.getStatus());
+        assertEquals(800, resumed.getRowsAffected());
+        assertEquals(1, commandInvoker.getHistorySize());
+    }
+
+    @Test
+    void undo_ShouldRestoreSnapshotPricesAsOneUnit() {
+        stubRange(1L, 1500L);
+        when(jdbcTemplate.update(eq(REPRICE_SQL), any(Object[].class))).thenReturn(10, 5);
+        bulkOperationService.reprice(new BulkRepriceRequest("Author", 2000, BigDecimal.TEN));
+
+        Map<String, Object> snapshotRange = new HashMap<>();
+        snapshotRange.put("min_id", 3L);
+        snapshotRange.put("max_id", 1400L);
+        when(jdbcTemplate.queryForMap(BulkOperationService.SNAPSHOT_RANGE_SQL, 42L)).thenReturn(snapshotRange);
+        when(jdbcTemplate.queryForObject(eq(BulkOperationService.COUNT_SNAPSHOTS_SQL), eq(Integer.class), any(Object[].class)))
+                .thenReturn(10, 5);
+        when(jdbcTemplate.update(eq(BulkOperationService.RESTORE_PRICE_SQL), any(Object[].class))).thenReturn(10, 4);
+
+        commandInvoker.undoLastCommand();
+
+        BulkJob job = jobs.get(42L);
+        assertEquals(BulkJob.Status.UNDONE, job.getStatus());
+        assertEquals(14, job.getRowsRestored());
+        assertEquals(1, job.getRowsSkipped());
+        verify(jdbcTemplate).update(BulkOperationService.DELETE_SNAPSHOTS_SQL, 42L, 3L, 1002L);
+        verify(jdbcTemplate).update(BulkOperationService.DELETE_SNAPSHOTS_SQL, 42L, 1003L, 1400L);
+        assertEquals(0, commandInvoker.getHistorySize());
+    }
+
+    @Test
+    void delete_ShouldSnapshotAndDeleteInIdRangeChunks() {
+        String deleteSql = BulkOperationService.DELETE_SQL + " AND author = ?";
+        String snapshotSql = BulkOperationService.SNAPSHOT_SQL + " AND author = ?";
+        stubRange(5L, 1200L);
+        when(jdbcTemplate.update(eq(deleteSql), any(Object[].class))).thenReturn(7, 2);
+
+        BulkJob job = bulkOperationService.delete(new BulkDeleteRequest("Author", null));
+
+        assertEquals(BulkJob.Type.DELETE, job.getType());
+        assertEquals(BulkJob.Status.COMPLETED, job.getStatus());
+        assertEquals(9, job.getRowsAffected());
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(snapshotSql, 42L, 5L, 1004L, "Author");
+        inOrder.verify(jdbcTemplate).update(eq(deleteSql), any(Timestamp.class), eq(5L), eq(1004L), eq("Author"));
+        inOrder.verify(jdbcTemplate).update(snapshotSql, 42L, 1005L, 1200L, "Author");
+        inOrder.verify(jdbcTemplate).update(eq(deleteSql), any(Timestamp.class), eq(1005L), eq(1200L), eq("Author"));
+        assertEquals(1, commandInvoker.getHistorySize());
+    }
+
+    @Test
+    void undoDelete_ShouldRestoreTombstonesReinsertPurgedRowsAndSkipReusedIsbns() {
+        stubRange(5L, 900L);
+        when(jdbcTemplate.update(eq(BulkOperationService.DELETE_SQL + " AND author = ?"), any(Object[].class)))
+                .thenReturn(3);
+        bulkOperationService.delete(new BulkDeleteRequest("Author", null));
+
+        Map<String, Object> snapshotRange = new HashMap<>();
+        snapshotRange.put("min_id", 5L);
+        snapshotRange.put("max_id", 900L);
+        when(jdbcTemplate.queryForMap(BulkOperationService.SNAPSHOT_RANGE_SQL, 42L)).thenReturn(snapshotRange);
+        when(jdbcTemplate.queryForObject(eq(BulkOperationService.COUNT_SNAPSHOTS_SQL), eq(Integer.class), any(Object[].class)))
+                .thenReturn(3);
+        when(jdbcTemplate.update(eq(BulkOperationService.RESTORE_DELETED_SQL), any(Object[].class))).thenReturn(1);
+        when(jdbcTemplate.update(eq(BulkOperationService.REINSERT_DELETED_SQL), any(Object[].class))).thenReturn(1);
+
+        commandInvoker.undoLastCommand();
+
+        BulkJob job = jobs.get(42L);
+        assertEquals(BulkJob.Status.UNDONE, job.getStatus());
+        assertEquals(2, job.getRowsRestored());
+        assertEquals(1, job.getRowsSkipped());
+        verify(jdbcTemplate).update(BulkOperationService.RESTORE_DELETED_SQL, 42L, 5L, 900L);
+        verify(jdbcTemplate).update(BulkOperationService.REINSERT_DELETED_SQL, 42L, 5L, 900L);
+        verify(jdbcTemplate, never()).update(eq(BulkOperationService.RESTORE_PRICE_SQL), any(Object[].class));
+    }
+
+    @Test
+    void execute_WhenCancelled_ShouldStopBetweenChunksAndStayUndoable() {
+        stubRange(1L, 3000L);
+        when(jdbcTemplate.update(eq(REPRICE_SQL), any(Object[].class))).thenReturn(10);
+        BulkJob prepared = bulkOperationService.prepareReprice(new BulkRepriceRequest("Author", 2000, BigDecimal.TEN));
+        long[] progress = new long[2];
+        JobContext context = new JobContext() {
+            @Override
+            public void reportProgress(long processed, long total) {
+                progress[0] = processed;
+                progress[1] = total;
+            }
+
+            @Override
+            public void reportError(String message) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return progress[0] >= 1000;
+            }
+        };
+
+        BulkJob job = bulkOperationService.execute(prepared.getId(), context);
+
+        assertEquals(BulkJob.Status.CANCELLED, job.getStatus());
+        assertEquals(1001L, job.getNextId());
+        assertEquals(3000, progress[1]);
+        verify(jdbcTemplate, times(1)).update(eq(REPRICE_SQL), any(Object[].class));
+        assertEquals(1, commandInvoker.getHistorySize());
+    }
+
+    private void stubRange(Long min, Long max) {
+        Map<String, Object> range = new HashMap<>();
+        range.put("min_id", min);
+        range.put("max_id", max);
+        when(jdbcTemplate.queryForMap(startsWith("SELECT MIN(id)"), any(Object[].class))).thenReturn(range);
+    }
+
+    @Test
+    void tombstonePurger_ShouldDeleteInBatchesUntilExhausted() {
+        TombstonePurger purger = new TombstonePurger(jdbcTemplate, transactionTemplate,
+                new SimpleMeterRegistry(), 72, 500, 0);
+        when(jdbcTemplate.update(eq(TombstonePurger.PURGE_SQL), any(Timestamp.class), eq(500)))
+                .thenReturn(500, 500, 120);
+
+        long purged = purger.purgeDeletedBefore(LocalDateTime.now().minusDays(3));
+
+        assertEquals(1120, purged);
+        verify(jdbcTemplate, times(3)).update(eq(TombstonePurger.PURGE_SQL), any(Timestamp.class), eq(500));
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bookcatalog.changes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookChangeLogTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private BookChangeLog changeLog;
+    private BookRevisionLog revisionLog;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE books (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, isbn VARCHAR(20) NOT NULL UNIQUE, " +
+                "publication_year INT, price DECIMAL(10, 2), version BIGINT NOT NULL DEFAULT 0, " +
+                "deleted_at TIMESTAMP NULL)");
+        jdbcTemplate.execute("CREATE TABLE book_changes (seq BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "book_id BIGINT NOT NULL, changed_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE book_revisions (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "book_id BIGINT NOT NULL, valid_from TIMESTAMP(6) NOT NULL, title VARCHAR(255), author VARCHAR(255), " +
+                "isbn VARCHAR(20), publication_year INT, price DECIMAL(10, 2), version BIGINT, " +
+                "deleted BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_book_revisions_book_valid_from ON book_revisions (book_id, valid_from)");
+        revisionLog = new BookRevisionLog(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                new SimpleMeterRegistry(), 365, 30, 2, 0);
+        changeLog = new BookChangeLog(jdbcTemplate, revisionLog, 0, 24, 2, 100);
+    }
+
+    @Test
+    void readSince_ShouldReturnCurrentStateOncePerBookAndTombstones() {
+        insertBook(1L, "1111111111");
+        insertBook(2L, "2222222222");
+        long token = changeLog.head();
+        changeLog.record(1L);
+        changeLog.record(2L);
+        jdbcTemplate.update("UPDATE books SET price = 12.50 WHERE id = 1");
+        changeLog.record(1L);
+        jdbcTemplate.update("UPDATE books SET deleted_at = CURRENT_TIMESTAMP WHERE id = 2");
+        changeLog.record(2L);
+
+        BookDeltaPage page = changeLog.readSince(token, 10);
+
+        assertEquals(2, page.getChanges().size());
+        BookDelta first = page.getChanges().get(0);
+        assertEquals(1L, first.getBookId());
+        assertEquals(0, first.getBook().getPrice().compareTo(new BigDecimal("12.50")));
+        assertTrue(page.getChanges().get(1).isDeleted());
+        assertEquals(token + 4, page.getNextToken());
+        assertFalse(page.isHasMore());
+        assertTrue(changeLog.readSince(page.getNextToken(), 10).getChanges().isEmpty());
+    }
+
+    @Test
+    void readSince_ShouldPageByLimit() {
+        insertBook(1L, "1111111111");
+        changeLog.recordAll(List.of(1L, 1L, 1L));
+
+        BookDeltaPage page = changeLog.readSince(0, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(2, page.getNextToken());
+        assertEquals(1, page.getChanges().size());
+        assertEquals(3, changeLog.readSince(page.getNextToken(), 2).getNextToken());
+    }
+
+    @Test
+    void readSince_ShouldHideChangesInsideTheSettleWindow() {
+        BookChangeLog settling = new BookChangeLog(jdbcTemplate, revisionLog, 60_000, 24, 2, 100);
+        insertBook(1L, "1111111111");
+        settling.record(1L);
+
+        assertTrue(settling.readSince(0, 10).getChanges().isEmpty());
+        assertEquals(0, settling.head());
+    }
+
+    @Test
+    void prune_ShouldExpireOldTokensButKeepNewestRow() {
+        Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusDays(2));
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update(BookChangeLog.RECORD_SQL, 1L, old);
+        }
+
+        changeLog.prune();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_changes", Integer.class));
+        assertThrows(ChangeTokenExpiredException.class, () -> changeLog.readSince(0, 10));
+        assertEquals(5, changeLog.readSince(4, 10).getNextToken());
+    }
+
+    @Test
+    void record_ShouldCaptureRevisionsForAsOfReads() {
+        insertBook(1L, "1111111111");
+        LocalDateTime created = LocalDateTime.now().minusDays(20);
+        revisionLog.capture(List.of(1L), Timestamp.valueOf(created));
+        jdbcTemplate.update("UPDATE books SET price = 12.50 WHERE id = 1");
+        revisionLog.capture(List.of(1L), Timestamp.valueOf(created.plusDays(10)));
+        jdbcTemplate.update("DELETE FROM books WHERE id = 1");
+        changeLog.record(1L);
+
+        assertTrue(revisionLog.findAsOf(1L, created.minusDays(1)).isEmpty());
+        assertEquals(0, revisionLog.findAsOf(1L, created.plusDays(5)).orElseThrow()
+                .getPrice().compareTo(new BigDecimal("10.00")));
+        assertEquals(0, revisionLog.findAsOf(1L, created.plusDays(15)).orElseThrow()
+                .getPrice().compareTo(new BigDecimal("12.50")));
+        assertTrue(revisionLog.findAsOf(1L, LocalDateTime.now().plusSeconds(1)).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> revisionLog.findAsOf(1L, created.minusYears(2)));
+    }
+
+    @Test
+    void removeObsolete_ShouldKeepLastRevisionPerDayAndDropExpiredHistory() {
+        insertBook(1L, "1111111111");
+        LocalDateTime day = LocalDateTime.now().minusDays(100).withHour(9).withNano(0);
+        for (int hour = 0; hour < 3; hour++) {
+            jdbcTemplate.update("UPDATE books SET price = ? WHERE id = 1", 10 + hour);
+            revisionLog.capture(List.of(1L), Timestamp.valueOf(day.plusHours(hour)));
+        }
+        revisionLog.capture(List.of(1L), Timestamp.valueOf(day.plusDays(1)));
+
+        long removed = revisionLog.removeObsolete(day.minusDays(1), LocalDateTime.now().minusDays(30));
+
+        assertEquals(2, removed);
+        assertEquals(0, revisionLog.findAsOf(1L, day.plusHours(5)).orElseThrow()
+                .getPrice().compareTo(new BigDecimal("12.00")));
+
+        assertEquals(1, revisionLog.removeObsolete(day.plusDays(1), LocalDateTime.now().minusDays(30)));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_revisions", Integer.class));
+    }
+
+    private void insertBook(Long id, String isbn) {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, isbn, publication_year, price) " +
+                "VALUES (?, 'Title', 'Author', ?, 2020, 10.00)", id, isbn);
+    }
+}
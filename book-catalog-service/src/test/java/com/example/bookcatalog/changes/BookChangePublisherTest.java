@@ -0,0 +1,268 @@
+package com.example.bookcatalog.changes;
+
+import com.example.bookcatalog.command.CommandInvoker;
+import com.example.bookcatalog.command.DeleteBookCommand;
+import com.example.bookcatalog.command.SaveBookCommand;
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookChangePublisherTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private MeterRegistry meterRegistry;
+    private ManualExecutor dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new ManualExecutor();
+    }
+
+    @Test
+    void commands_ShouldReachSubscribersAsConsecutiveEvents() {
+        BookChangePublisher publisher = newPublisher(10, 10, SlowConsumerPolicy.DISCONNECT);
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.addListener(publisher);
+        RecordingSink sink = new RecordingSink();
+        publisher.subscribe(sink, null);
+
+        Book book = book(1L);
+        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.restoreById(1L)).thenReturn(1);
+        invoker.executeCommand(new SaveBookCommand(bookRepository, book));
+        invoker.executeCommand(new DeleteBookCommand(bookRepository, 1L));
+        invoker.undoLastCommand();
+        dispatcher.runAll();
+
+        assertEquals(List.of(BookChangeEvent.Type.CREATED, BookChangeEvent.Type.DELETED,
+                BookChangeEvent.Type.RESTORED), sink.types());
+        assertEquals(sink.events.get(0).getSequence() + 2, sink.events.get(2).getSequence());
+        assertEquals(1L, sink.events.get(2).getBookId());
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldReplayOnlyMissedEvents() {
+        BookChangePublisher publisher = newPublisher(10, 10, SlowConsumerPolicy.DISCONNECT);
+        publisher.bookUpdated(book(1L));
+        long seen = publisher.getLastSequence();
+        publisher.bookUpdated(book(2L));
+        publisher.bookUpdated(book(3L));
+
+        RecordingSink sink = new RecordingSink();
+        publisher.subscribe(sink, seen);
+        dispatcher.runAll();
+
+        assertEquals(2, sink.events.size());
+        assertEquals(seen + 1, sink.events.get(0).getSequence());
+        assertEquals(3L, sink.events.get(1).getBookId());
+    }
+
+    @Test
+    void subscribe_WhenLastEventIdFellOutOfReplayBuffer_ShouldSendReset() {
+        BookChangePublisher publisher = newPublisher(2, 10, SlowConsumerPolicy.DISCONNECT);
+        long seen = publisher.getLastSequence();
+        for (long id = 1; id <= 5; id++) {
+            publisher.bookUpdated(book(id));
+        }
+
+        RecordingSink sink = new RecordingSink();
+        publisher.subscribe(sink, seen);
+        publisher.bookUpdated(book(6L));
+        dispatcher.runAll();
+
+        assertEquals(List.of(BookChangeEvent.Type.RESET, BookChangeEvent.Type.UPDATED), sink.types());
+        assertEquals(sink.events.get(0).getSequence() + 1, sink.events.get(1).getSequence());
+    }
+
+    @Test
+    void slowConsumer_WithDisconnectPolicy_ShouldBeClosedOnOverflow() {
+        BookChangePublisher publisher = newPublisher(10, 2, SlowConsumerPolicy.DISCONNECT);
+        RecordingSink slow = new RecordingSink();
+        publisher.subscribe(slow, null);
+
+        for (long id = 1; id <= 3; id++) {
+            publisher.bookUpdated(book(id));
+        }
+        dispatcher.runAll();
+
+        assertTrue(slow.closed);
+        assertTrue(slow.events.isEmpty());
+        assertEquals(0, publisher.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.get("bookcatalog.changes.slow.disconnected").counter().count());
+    }
+
+    @Test
+    void slowConsumer_WithDropOldestPolicy_ShouldKeepNewestEvents() {
+        BookChangePublisher publisher = newPublisher(10, 2, SlowConsumerPolicy.DROP_OLDEST);
+        RecordingSink slow = new RecordingSink();
+        publisher.subscribe(slow, null);
+
+        for (long id = 1; id <= 3; id++) {
+            publisher.bookUpdated(book(id));
+        }
+        dispatcher.runAll();
+
+        assertFalse(slow.closed);
+        assertEquals(2L, slow.events.get(0).getBookId());
+        assertEquals(3L, slow.events.get(1).getBookId());
+        assertEquals(1.0, meterRegistry.get("bookcatalog.changes.dropped").counter().count());
+    }
+
+    @Test
+    void subscribe_WhenLimitReached_ShouldReject() {
+        BookChangePublisher publisher = new BookChangePublisher(meterRegistry, 10, 10,
+                SlowConsumerPolicy.DISCONNECT, 1, 10_000, dispatcher);
+        publisher.subscribe(new RecordingSink(), null);
+
+        assertThrows(SubscriberLimitException.class, () -> publisher.subscribe(new RecordingSink(), null));
+    }
+
+    @Test
+    void stalledSubscriber_ShouldNotHoldUpOthersAndBeDisconnectedAfterSendTimeout() throws Exception {
+        ExecutorService threads = Executors.newCachedThreadPool();
+        try {
+            BookChangePublisher publisher = new BookChangePublisher(meterRegistry, 10, 10,
+                    SlowConsumerPolicy.DROP_OLDEST, 10, 50, threads);
+            StalledSink stalled = new StalledSink();
+            RecordingSink healthy = new RecordingSink();
+            publisher.subscribe(stalled, null);
+            publisher.subscribe(healthy, null);
+
+            publisher.bookUpdated(book(1L));
+            assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+            awaitEvents(healthy, 1);
+
+            Thread.sleep(100);
+            publisher.bookUpdated(book(2L));
+            awaitEvents(healthy, 2);
+
+            assertEquals(1, publisher.getSubscriberCount());
+            assertEquals(1.0, meterRegistry.get("bookcatalog.changes.slow.disconnected").counter().count());
+            assertFalse(stalled.closed.await(100, TimeUnit.MILLISECONDS));
+
+            // the connection is only closed once the stuck send gives up
+            stalled.release.countDown();
+            assertTrue(stalled.closed.await(5, TimeUnit.SECONDS));
+            assertFalse(healthy.closed);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private static void awaitEvents(RecordingSink sink, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sink.events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, sink.events.size());
+    }
+
+    private BookChangePublisher newPublisher(int replaySize, int subscriberBufferSize, SlowConsumerPolicy policy) {
+        return new BookChangePublisher(meterRegistry, replaySize, subscriberBufferSize, policy, 10, 10_000, dispatcher);
+    }
+
+    private static Book book(Long id) {
+        Book book = new Book("Title " + id, "Author", "1234567890", 2023, new BigDecimal("9.99"));
+        book.setId(id);
+        return book;
+    }
+
+    /** Runs dispatched drains only when asked, so buffers can fill up like they do for a stalled client. */
+    private static class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    /** Blocks in its first send like an emitter writing to a client that stopped reading. */
+    private static class StalledSink implements ChangeSink {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(BookChangeEvent event) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static class RecordingSink implements ChangeSink {
+        private final List<BookChangeEvent> events = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+
+        @Override
+        public void send(BookChangeEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        List<BookChangeEvent.Type> types() {
+            List<BookChangeEvent.Type> types = new ArrayList<>();
+            events.forEach(event -> types.add(event.getType()));
+            return types;
+        }
+    }
+}
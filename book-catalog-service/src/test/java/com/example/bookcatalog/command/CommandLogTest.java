@@ -0,0 +1,223 @@
+package com.example.bookcatalog.command;
+
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Deque;
+import java.util.Map;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommandLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_ShouldDropUndoneAndClearedEntries() {
+        CommandLog log = openLog();
+        long first = log.appendExecuted("client-a", CommandCodec.BULK_JOB, new byte[8], 1L);
+        long second = log.appendExecuted("client-a", CommandCodec.BULK_JOB, new byte[8], 2L);
+        log.appendExecuted("client-b", CommandCodec.BULK_JOB, new byte[8], 3L);
+        log.appendUndone("client-a", second, 4L);
+        log.appendCleared("client-b", 5L);
+        log.close();
+
+        Map<String, Deque<CommandLogRecord>> live = new CommandLog(directory, SEGMENT_SIZE, true)
+                .replay(10, Long.MIN_VALUE);
+
+        assertEquals(1, live.size());
+        assertEquals(1, live.get("client-a").size());
+        assertEquals(first, live.get("client-a").getFirst().getSequence());
+    }
+
+    @Test
+    void replay_ShouldApplyCapacityAndRetention() {
+        CommandLog log = openLog();
+        for (int i = 1; i <= 5; i++) {
+            log.appendExecuted("client-a", CommandCodec.BULK_JOB, new byte[8], i * 100L);
+        }
+        log.close();
+
+        Deque<CommandLogRecord> capped = new CommandLog(directory, SEGMENT_SIZE, true)
+                .replay(3, Long.MIN_VALUE).get("client-a");
+        Deque<CommandLogRecord> unexpired = new CommandLog(directory, SEGMENT_SIZE, true)
+                .replay(10, 400L).get("client-a");
+
+        assertEquals(3, capped.size());
+        assertEquals(300L, capped.getFirst().getTimestampMillis());
+        assertEquals(2, unexpired.size());
+    }
+
+    @Test
+    void replay_ShouldStopAtTornRecord() throws IOException {
+        CommandLog log = openLog();
+        log.appendExecuted("client-a", CommandCodec.BULK_JOB, new byte[8], 1L);
+        log.appendExecuted("client-a", CommandCodec.BULK_JOB, new byte[8], 2L);
+        log.close();
+
+        Path segment = directory.resolve("cmd-1.log");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // header, kind, sequence, timestamp, client id, command type and an 8 byte body
+            int recordSize = 8 + 1 + 8 + 8 + 2 + "client-a".length() + 1 + 8;
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 8 + 2L * recordSize - 1);
+        }
+
+        Deque<CommandLogRecord> live = new CommandLog(directory, SEGMENT_SIZE, true)
+                .replay(10, Long.MIN_VALUE).get("client-a");
+        assertEquals(1, live.size());
+    }
+
+    @Test
+    void compact_ShouldFoldSealedSegmentsIntoSnapshot() {
+        CommandLog log = openLog();
+        for (int i = 0; i < 200; i++) {
+            long sequence = log.appendExecuted("client-a", CommandCodec.BULK_JOB, new byte[64], i);
+            if (i % 2 == 0) {
+                log.appendUndone("client-a", sequence, i);
+            }
+        }
+        int segmentsBefore = log.segmentCount();
+
+        int removed = log.compact(10, Long.MIN_VALUE);
+        log.appendExecuted("client-a", CommandCodec.BULK_JOB, new byte[64], 1000L);
+        log.close();
+
+        assertTrue(segmentsBefore > 2);
+        assertEquals(segmentsBefore - 2, removed);
+        assertEquals(2, new CommandLog(directory, SEGMENT_SIZE, true).segmentCount());
+        Deque<CommandLogRecord> live = new CommandLog(directory, SEGMENT_SIZE, true)
+                .replay(10, Long.MIN_VALUE).get("client-a");
+        assertEquals(10, live.size());
+        assertEquals(1000L, live.getLast().getTimestampMillis());
+        assertTrue(live.stream().allMatch(record -> record.getTimestampMillis() % 2 == 1
+                || record.getTimestampMillis() == 1000L));
+    }
+
+    @Test
+    void persistentHistory_ShouldRestoreJournalsAfterRestart() {
+        Book saved = new Book("Durable Title", "Author", "1234567890", 2020, new BigDecimal("10.00"));
+        saved.setId(7L);
+        when(bookRepository.save(any(Book.class))).thenReturn(saved);
+
+        PersistentCommandHistory history = openHistory();
+        CommandInvoker invoker = new CommandInvoker(10, 10, history);
+        try {
+            ClientContext.setClientId("client-a");
+            invoker.executeCommand(new SaveBookCommand(bookRepository, saved));
+            invoker.executeCommand(new SaveBookCommand(bookRepository, saved));
+            invoker.undoLastCommand();
+        } finally {
+            ClientContext.clear();
+        }
+        history.close();
+
+        CommandInvoker restarted = new CommandInvoker(10, 10, openHistory());
+        restarted.afterSingletonsInstantiated();
+
+        try {
+            ClientContext.setClientId("client-a");
+            assertEquals(1, restarted.getHistorySize());
+            assertEquals("Save book: Durable Title", restarted.getCommandHistory().get(0));
+            restarted.undoLastCommand();
+            verify(bookRepository, times(2)).deleteById(7L);
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    @Test
+    void persistentHistory_UndoingRestoredSave_ShouldKnowTheBookId() {
+        Book saved = new Book("Durable Title", "Author", "1234567890", 2020, new BigDecimal("10.00"));
+        saved.setId(7L);
+        when(bookRepository.save(any(Book.class))).thenReturn(saved);
+
+        PersistentCommandHistory history = openHistory();
+        CommandInvoker invoker = new CommandInvoker(10, 10, history);
+        try {
+            ClientContext.setClientId("client-a");
+            invoker.executeCommand(new SaveBookCommand(bookRepository, saved));
+        } finally {
+            ClientContext.clear();
+        }
+        history.close();
+
+        CommandInvoker restarted = new CommandInvoker(10, 10, openHistory());
+        restarted.afterSingletonsInstantiated();
+
+        try {
+            ClientContext.setClientId("client-a");
+            SaveBookCommand undone = (SaveBookCommand) restarted.undoLastCommand();
+            verify(bookRepository).deleteById(7L);
+            // the change log and the change stream both key the undo on the book's id
+            assertEquals(7L, undone.getBook().getId());
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    @Test
+    void codec_ShouldRoundTripDeleteCommand() {
+        when(bookRepository.softDeleteById(eq(3L), any(LocalDateTime.class))).thenReturn(1);
+        DeleteBookCommand command = new DeleteBookCommand(bookRepository, 3L);
+        command.execute();
+
+        CommandCodec codec = new CommandCodec(bookRepository, () -> null, () -> null);
+        DeleteBookCommand decoded = (DeleteBookCommand) codec.decode(codec.typeOf(command), codec.encode(command));
+
+        assertEquals(3L, decoded.getBookId());
+        assertTrue(decoded.isDeleted());
+    }
+
+    @Test
+    void codec_ShouldRoundTripCompositeCommand() {
+        Book book = new Book("Batched", "Author", "0987654321", 2001, new BigDecimal("7.25"));
+        SaveBookCommand save = new SaveBookCommand(bookRepository, book, 11L);
+        DeleteBookCommand delete = new DeleteBookCommand(bookRepository, 12L, true);
+        CompositeCommand composite = new CompositeCommand("Mixed batch", Arrays.asList(save, delete), null);
+
+        CommandCodec codec = new CommandCodec(bookRepository, () -> null, () -> null);
+        CompositeCommand decoded = (CompositeCommand) codec.decode(codec.typeOf(composite), codec.encode(composite));
+
+        assertEquals("Mixed batch (2 commands)", decoded.getDescription());
+        assertEquals(11L, ((SaveBookCommand) decoded.getCommands().get(0)).getSavedBookId());
+        assertEquals("Batched", ((SaveBookCommand) decoded.getCommands().get(0)).getBook().getTitle());
+        assertEquals(12L, ((DeleteBookCommand) decoded.getCommands().get(1)).getBookId());
+    }
+
+    private CommandLog openLog() {
+        CommandLog log = new CommandLog(directory, SEGMENT_SIZE, true);
+        log.replay(10, Long.MIN_VALUE);
+        log.open();
+        return log;
+    }
+
+    private PersistentCommandHistory openHistory() {
+        PersistentCommandHistory history = new PersistentCommandHistory(
+                new CommandLog(directory, SEGMENT_SIZE, true), new CommandCodec(bookRepository, () -> null, () -> null), 10, 0);
+        history.open();
+        return history;
+    }
+}
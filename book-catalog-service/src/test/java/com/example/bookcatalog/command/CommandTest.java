@@ -7,12 +7,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -67,9 +72,9 @@ class CommandTest {
     }
 
     @Test
-    void deleteBookCommand_Execute_ShouldDeleteBook() {
+    void deleteBookCommand_Execute_ShouldSoftDeleteBook() {
              
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         DeleteBookCommand command = new DeleteBookCommand(bookRepository, 1L);
 
@@ -77,15 +82,15 @@ class CommandTest {
         command.execute();
 
              
-        verify(bookRepository).findById(1L);
-        verify(bookRepository).deleteById(1L);
-        assertNotNull(command.getDeletedBook());
+        verify(bookRepository).softDeleteById(eq(1L), any(LocalDateTime.class));
+        verify(bookRepository, never()).deleteById(anyLong());
+        assertTrue(command.isDeleted());
     }
 
     @Test
     void deleteBookCommand_ExecuteWithNonExistentBook_ShouldThrowException() {
              
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(0);
 
         DeleteBookCommand command = new DeleteBookCommand(bookRepository, 1L);
 
@@ -93,10 +98,10 @@ class CommandTest {
     }
 
     @Test
-    void deleteBookCommand_Undo_ShouldRestoreBook() {
+    void deleteBookCommand_Undo_ShouldRestoreBookWithSameId() {
              
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.restoreById(1L)).thenReturn(1);
 
         DeleteBookCommand command = new DeleteBookCommand(bookRepository, 1L);
         command.execute();
@@ -105,7 +110,65 @@ class CommandTest {
         command.undo();
 
              
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository).restoreById(1L);
+        verify(bookRepository, never()).save(any(Book.class));
+        assertFalse(command.isDeleted());
+    }
+
+    @Test
+    void deleteBookCommand_UndoAfterPurge_ShouldThrow() {
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.restoreById(1L)).thenReturn(0);
+
+        DeleteBookCommand command = new DeleteBookCommand(bookRepository, 1L);
+        command.execute();
+
+        assertThrows(UndoNotPossibleException.class, command::undo);
+        assertFalse(command.isDeleted());
+    }
+
+    @Test
+    void commandInvoker_InsideTransaction_ShouldJournalCommandOnlyAfterCommit() {
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.softDeleteById(eq(2L), any(LocalDateTime.class))).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            commandInvoker.executeCommand(new DeleteBookCommand(bookRepository, 1L));
+            assertEquals(0, commandInvoker.getHistorySize());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, commandInvoker.getHistorySize());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            commandInvoker.executeCommand(new DeleteBookCommand(bookRepository, 2L));
+            // rolled back: only afterCompletion runs
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of("Delete book with ID: 1"), commandInvoker.getCommandHistory());
+    }
+
+    @Test
+    void commandInvoker_UndoNotPossible_ShouldDropCommandAndKeepOlderOnes() {
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.softDeleteById(eq(2L), any(LocalDateTime.class))).thenReturn(1);
+        when(bookRepository.restoreById(1L)).thenReturn(1);
+        when(bookRepository.restoreById(2L)).thenReturn(0);
+        commandInvoker.executeCommand(new DeleteBookCommand(bookRepository, 1L));
+        commandInvoker.executeCommand(new DeleteBookCommand(bookRepository, 2L));
+
+        assertThrows(UndoNotPossibleException.class, commandInvoker::undoLastCommand);
+        assertEquals(1, commandInvoker.getHistorySize());
+
+        commandInvoker.undoLastCommand();
+        verify(bookRepository).restoreById(1L);
+        assertEquals(0, commandInvoker.getHistorySize());
     }
 
     @Test
@@ -148,7 +211,7 @@ class CommandTest {
         DeleteBookCommand command2 = new DeleteBookCommand(bookRepository, 1L);
         
         when(bookRepository.save(any(Book.class))).thenReturn(testBook);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         commandInvoker.executeCommand(command1);
         commandInvoker.executeCommand(command2);
@@ -176,5 +239,78 @@ class CommandTest {
         assertEquals(0, commandInvoker.getHistorySize());
         assertFalse(commandInvoker.hasCommands());
     }
-}
 
+    @Test
+    void commandInvoker_FullJournal_ShouldEvictOldestCommand() {
+        CommandInvoker boundedInvoker = new CommandInvoker(2, 10);
+        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        when(bookRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        boundedInvoker.executeCommand(new SaveBookCommand(bookRepository, testBook));
+        boundedInvoker.executeCommand(new DeleteBookCommand(bookRepository, 1L));
+        boundedInvoker.executeCommand(new SaveBookCommand(bookRepository, testBook));
+
+        var history = boundedInvoker.getCommandHistory();
+        assertEquals(2, history.size());
+        assertTrue(history.get(0).contains("Delete book"));
+        assertTrue(history.get(1).contains("Save book"));
+    }
+
+    @Test
+    void commandInvoker_SeparateClients_ShouldKeepSeparateHistories() {
+        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        try {
+            ClientContext.setClientId("client-a");
+            commandInvoker.executeCommand(new SaveBookCommand(bookRepository, testBook));
+
+            ClientContext.setClientId("client-b");
+            assertFalse(commandInvoker.hasCommands());
+            commandInvoker.undoLastCommand();
+            verify(bookRepository, never()).deleteById(anyLong());
+
+            ClientContext.setClientId("client-a");
+            assertEquals(1, commandInvoker.getHistorySize());
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    @Test
+    void commandInvoker_TooManyClients_ShouldDropLeastRecentlyUsedJournal() {
+        CommandInvoker smallInvoker = new CommandInvoker(10, 2);
+        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        try {
+            for (String clientId : new String[]{"client-a", "client-b", "client-c"}) {
+                ClientContext.setClientId(clientId);
+                smallInvoker.executeCommand(new SaveBookCommand(bookRepository, testBook));
+            }
+
+            assertEquals(2, smallInvoker.getClientCount());
+            ClientContext.setClientId("client-c");
+            assertEquals(1, smallInvoker.getHistorySize());
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    @Test
+    void commandJournal_ConcurrentAppends_ShouldStayWithinCapacity() throws InterruptedException {
+        CommandJournal journal = new CommandJournal(64);
+        Command command = new DeleteBookCommand(bookRepository, 1L);
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                for (int n = 0; n < 1000; n++) {
+                    journal.append(command);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(64, journal.size());
+        assertEquals(64, journal.descriptions().size());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.bookcatalog.command;
+
+import com.example.bookcatalog.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompositeCommandTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CommandBatchExecutor batchExecutor;
+    private CommandInvoker commandInvoker;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE books (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, isbn VARCHAR(20) NOT NULL UNIQUE, " +
+                "publication_year INT, price DECIMAL(10, 2), version BIGINT NOT NULL DEFAULT 0, " +
+                "deleted_at TIMESTAMP NULL)");
+        batchExecutor = new CommandBatchExecutor(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 2);
+        commandInvoker = new CommandInvoker();
+    }
+
+    @Test
+    void execute_ShouldInsertAllBooksAsOneHistoryEntry() {
+        List<SaveBookCommand> saves = saveCommands(5);
+
+        commandInvoker.executeCommand(new CompositeCommand("Save 5 books", saves, batchExecutor));
+
+        assertEquals(5, countLive());
+        assertEquals(1, commandInvoker.getHistorySize());
+        assertEquals("Save 5 books (5 commands)", commandInvoker.getCommandHistory().get(0));
+        for (SaveBookCommand save : saves) {
+            assertNotNull(save.getSavedBookId());
+        }
+    }
+
+    @Test
+    void undo_ShouldRemoveEveryBookOfTheComposite() {
+        commandInvoker.executeCommand(new CompositeCommand("Save 5 books", saveCommands(5), batchExecutor));
+
+        commandInvoker.undoLastCommand();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Integer.class));
+        assertFalse(commandInvoker.hasCommands());
+    }
+
+    @Test
+    void delete_WithMissingBook_ShouldRollBackWholeComposite() {
+        List<SaveBookCommand> saves = saveCommands(3);
+        commandInvoker.executeCommand(new CompositeCommand("Save 3 books", saves, batchExecutor));
+        List<DeleteBookCommand> deletes = new ArrayList<>();
+        for (SaveBookCommand save : saves) {
+            deletes.add(new DeleteBookCommand(null, save.getSavedBookId()));
+        }
+        deletes.add(new DeleteBookCommand(null, 999L));
+
+        assertThrows(RuntimeException.class, () ->
+                commandInvoker.executeCommand(new CompositeCommand("Delete 4 books", deletes, batchExecutor)));
+
+        assertEquals(3, countLive());
+        assertEquals(1, commandInvoker.getHistorySize());
+    }
+
+    @Test
+    void deleteUndo_ShouldRestoreOriginalIds() {
+        List<SaveBookCommand> saves = saveCommands(3);
+        commandInvoker.executeCommand(new CompositeCommand("Save 3 books", saves, batchExecutor));
+        List<DeleteBookCommand> deletes = new ArrayList<>();
+        for (SaveBookCommand save : saves) {
+            deletes.add(new DeleteBookCommand(null, save.getSavedBookId()));
+        }
+        commandInvoker.executeCommand(new CompositeCommand("Delete 3 books", deletes, batchExecutor));
+        assertEquals(0, countLive());
+
+        commandInvoker.undoLastCommand();
+
+        assertEquals(3, countLive());
+        for (SaveBookCommand save : saves) {
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM books WHERE id = ? AND deleted_at IS NULL", Integer.class, save.getSavedBookId()));
+        }
+    }
+
+    @Test
+    void deleteUndo_WithPurgedTombstone_ShouldFailWholeUndo() {
+        List<SaveBookCommand> saves = saveCommands(3);
+        commandInvoker.executeCommand(new CompositeCommand("Save 3 books", saves, batchExecutor));
+        List<DeleteBookCommand> deletes = new ArrayList<>();
+        for (SaveBookCommand save : saves) {
+            deletes.add(new DeleteBookCommand(null, save.getSavedBookId()));
+        }
+        commandInvoker.executeCommand(new CompositeCommand("Delete 3 books", deletes, batchExecutor));
+        jdbcTemplate.update("DELETE FROM books WHERE id = ?", saves.get(2).getSavedBookId());
+
+        assertThrows(UndoNotPossibleException.class, commandInvoker::undoLastCommand);
+
+        assertEquals(0, countLive());
+        assertEquals(1, commandInvoker.getHistorySize());
+        assertEquals("Save 3 books (3 commands)", commandInvoker.getCommandHistory().get(0));
+    }
+
+    @Test
+    void constructor_WithNoCommands_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompositeCommand("Nothing", new ArrayList<Command>(), batchExecutor));
+    }
+
+    private List<SaveBookCommand> saveCommands(int count) {
+        List<SaveBookCommand> commands = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = new Book("Title " + i, "Author", "978000000000" + i, 2020, new BigDecimal("9.99"));
+            commands.add(new SaveBookCommand(null, book));
+        }
+        return commands;
+    }
+
+    private int countLive() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE deleted_at IS NULL", Integer.class);
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.bookcatalog.controller;
 
-import com.example.bookcatalog.decorator.LoggingBookServiceDecorator;
+import com.example.bookcatalog.command.UndoNotPossibleException;
+import com.example.bookcatalog.decorator.BookServiceDecorator;
+import com.example.bookcatalog.decorator.BulkheadFullException;
 import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.jdbc.StatementMonitor;
 import com.example.bookcatalog.repository.BookRepository;
-import com.example.bookcatalog.service.BookService;
+import com.example.bookcatalog.service.BookVersionConflictException;
+import com.example.bookcatalog.slo.SloTracker;
+import com.example.bookcatalog.tracing.TraceCollector;
+import com.example.bookcatalog.validator.BookValidationReport;
+import com.example.bookcatalog.validator.BookViolation;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +21,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -30,13 +38,19 @@ class BookControllerTest {
     private MockMvc mockMvc;
 
     @MockBean
-    private BookService bookService;
+    private BookServiceDecorator loggingBookService;
 
     @MockBean
-    private LoggingBookServiceDecorator loggingBookService;
+    private BookRepository bookRepository;
 
     @MockBean
-    private BookRepository bookRepository;
+    private TraceCollector traceCollector;
+
+    @MockBean
+    private StatementMonitor statementMonitor;
+
+    @MockBean
+    private SloTracker sloTracker;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -92,6 +106,38 @@ class BookControllerTest {
         verify(loggingBookService).getBookById(1L);
     }
 
+    @Test
+    void request_ShouldBeRecordedAgainstRouteTemplate() throws Exception {
+        when(loggingBookService.getBookById(42L)).thenReturn(Optional.of(testBook));
+
+        mockMvc.perform(get("/api/books/42"))
+                .andExpect(status().isOk());
+
+        verify(sloTracker).record(eq("GET /api/books/{id}"), eq(200), anyLong());
+    }
+
+    @Test
+    void getBookById_WithAsOf_ShouldReturnHistoricalRevision() throws Exception {
+        when(loggingBookService.getBookAsOf(1L, LocalDateTime.of(2024, 5, 1, 0, 0)))
+                .thenReturn(Optional.of(testBook));
+
+        mockMvc.perform(get("/api/books/1").param("asOf", "2024-05-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.price").value(29.99));
+
+        verify(loggingBookService, never()).getBookById(any());
+    }
+
+    @Test
+    void getBookById_WithAsOfBeforeRetention_ShouldReturnBadRequest() throws Exception {
+        when(loggingBookService.getBookAsOf(eq(1L), any(LocalDateTime.class)))
+                .thenThrow(new IllegalArgumentException("asOf is older than the revision retention"));
+
+        mockMvc.perform(get("/api/books/1").param("asOf", "2001-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getBookByIsbn_WhenBookExists_ShouldReturnBook() throws Exception {
              
@@ -198,6 +244,63 @@ class BookControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createBooks_ShouldReturnCreatedBooks() throws Exception {
+        Book second = new Book("Second", "Author", "9780306406157", 2021, new BigDecimal("12.00"));
+        second.setId(2L);
+        when(loggingBookService.saveBooks(anyList())).thenReturn(Arrays.asList(testBook, second));
+
+        mockMvc.perform(post("/api/books/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(testBook, second))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    void validateBooks_ShouldReportViolationsPerRow() throws Exception {
+        BookValidationReport report = new BookValidationReport(2,
+                Arrays.asList(new BookViolation(1, "isbn", "Invalid ISBN format")));
+        when(loggingBookService.validateBooks(anyList(), eq("standard"))).thenReturn(report);
+
+        mockMvc.perform(post("/api/books/validate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(testBook, testBook))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.validRows").value(1))
+                .andExpect(jsonPath("$.violations[0].row").value(1))
+                .andExpect(jsonPath("$.violations[0].field").value("isbn"));
+    }
+
+    @Test
+    void getAllBooks_WhenBulkheadIsFull_ShouldReturnServiceUnavailable() throws Exception {
+        when(loggingBookService.getAllBooks()).thenThrow(new BulkheadFullException("full"));
+
+        mockMvc.perform(get("/api/books"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void deleteBooks_WhenOneIsMissing_ShouldReturnNotFound() throws Exception {
+        doThrow(new RuntimeException("Book not found with id: 9")).when(loggingBookService).deleteBooks(anyList());
+
+        mockMvc.perform(post("/api/books/batch/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 9]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void undo_WhenDeletedBookWasPurged_ShouldReturnConflict() throws Exception {
+        doThrow(new UndoNotPossibleException("Book with ID 1 was purged and cannot be restored"))
+                .when(loggingBookService).undoLastOperation();
+
+        mockMvc.perform(post("/api/books/undo"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Book with ID 1 was purged and cannot be restored"));
+    }
+
     @Test
     void updateBook_WithValidBook_ShouldReturnUpdatedBook() throws Exception {
              
@@ -230,6 +333,86 @@ class BookControllerTest {
         verify(loggingBookService).updateBook(eq(1L), any(Book.class));
     }
 
+    @Test
+    void getBookById_ShouldReturnVersionAsETag() throws Exception {
+        testBook.setVersion(7L);
+        when(loggingBookService.getBookById(1L)).thenReturn(Optional.of(testBook));
+
+        mockMvc.perform(get("/api/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""));
+    }
+
+    @Test
+    void updateBook_WithMatchingIfMatch_ShouldUseVersionedUpdate() throws Exception {
+        Book updatedBook = new Book("Updated Title", "Updated Author", "1234567890", 2024, new BigDecimal("49.99"));
+        testBook.setVersion(4L);
+        when(loggingBookService.updateBook(eq(1L), any(Book.class), eq(3L))).thenReturn(testBook);
+
+        mockMvc.perform(put("/api/books/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedBook)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+
+        verify(loggingBookService).updateBook(eq(1L), any(Book.class), eq(3L));
+        verify(loggingBookService, never()).updateBook(eq(1L), any(Book.class));
+    }
+
+    @Test
+    void updateBook_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        Book updatedBook = new Book("Updated Title", "Updated Author", "1234567890", 2024, new BigDecimal("49.99"));
+        when(loggingBookService.updateBook(eq(1L), any(Book.class), eq(3L)))
+                .thenThrow(new BookVersionConflictException(1L, 3L, 5L));
+
+        mockMvc.perform(put("/api/books/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedBook)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", "\"5\""));
+    }
+
+    @Test
+    void updateBook_WithWeakIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        Book updatedBook = new Book("Updated Title", "Updated Author", "1234567890", 2024, new BigDecimal("49.99"));
+
+        mockMvc.perform(put("/api/books/1")
+                .header("If-Match", "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedBook)))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(loggingBookService);
+    }
+
+    @Test
+    void updateBook_WithMalformedIfMatch_ShouldReturnBadRequest() throws Exception {
+        Book updatedBook = new Book("Updated Title", "Updated Author", "1234567890", 2024, new BigDecimal("49.99"));
+
+        mockMvc.perform(put("/api/books/1")
+                .header("If-Match", "\"abc\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedBook)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(loggingBookService);
+    }
+
+    @Test
+    void updateBookAsync_WhenWriteBehindDisabled_ShouldReturnBadRequest() throws Exception {
+        Book updatedBook = new Book("Updated Title", "Updated Author", "1234567890", 2024, new BigDecimal("49.99"));
+
+        mockMvc.perform(put("/api/books/1")
+                .param("async", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedBook)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(loggingBookService);
+    }
+
     @Test
     void deleteBook_WhenBookExists_ShouldReturnNoContent() throws Exception {
              
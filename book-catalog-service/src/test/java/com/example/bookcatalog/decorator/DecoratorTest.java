@@ -2,6 +2,7 @@ package com.example.bookcatalog.decorator;
 
 import com.example.bookcatalog.entity.Book;
 import com.example.bookcatalog.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +13,8 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -109,5 +112,77 @@ class DecoratorTest {
         verify(bookService).getBookById(1L);
     }
 
-}
+    @Test
+    void chain_ShouldApplyDecoratorsInConfiguredOrder() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookServiceDecoratorFactory factory = new BookServiceDecoratorFactory(meterRegistry, 60_000, 100, 4, 0, 1.0);
+        when(bookService.getBookById(1L)).thenReturn(Optional.of(testBook));
+
+        BookServiceDecorator chain = factory.build(bookService, Arrays.asList("metrics", "cache", "logging"));
+        chain.getBookById(1L);
+        chain.getBookById(1L);
+
+        assertTrue(chain instanceof MetricsBookServiceDecorator);
+        verify(bookService, times(1)).getBookById(1L);
+        assertEquals(2, meterRegistry.get("bookcatalog.service.calls")
+                .tag("operation", "getBookById").tag("outcome", "success").timer().count());
+        assertThrows(IllegalArgumentException.class, () -> factory.build(bookService, List.of("auditing")));
+    }
+
+    @Test
+    void metricsDecorator_ShouldTagSearchTypeAndCollapseUnknownTypes() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsBookServiceDecorator metrics = new MetricsBookServiceDecorator(
+                new TargetBookServiceDecorator(bookService), meterRegistry);
+        when(bookService.searchBooks("Author", "Tolkien")).thenReturn(List.of(testBook));
+        when(bookService.searchBooks("publisher", "Acme")).thenThrow(new IllegalArgumentException("Unknown search type"));
+        when(bookService.getBookByIsbn("9780306406157")).thenReturn(Optional.empty());
+
+        metrics.searchBooks("Author", "Tolkien");
+        assertThrows(IllegalArgumentException.class, () -> metrics.searchBooks("publisher", "Acme"));
+        metrics.getBookByIsbn("9780306406157");
+
+        assertEquals(1, meterRegistry.get("bookcatalog.service.calls").tag("operation", "searchBooks")
+                .tag("searchType", "author").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("bookcatalog.service.calls").tag("operation", "searchBooks")
+                .tag("searchType", "other").tag("outcome", "error").timer().count());
+        assertEquals(1, meterRegistry.get("bookcatalog.service.calls").tag("operation", "getBookByIsbn")
+                .tag("searchType", "isbn").tag("outcome", "success").timer().count());
+    }
 
+    @Test
+    void cachingDecorator_MutatingCall_ShouldInvalidateCachedBooks() {
+        CachingBookServiceDecorator cache = new CachingBookServiceDecorator(new TargetBookServiceDecorator(bookService),
+                60_000, 100);
+        when(bookService.getBookById(1L)).thenReturn(Optional.of(testBook));
+
+        cache.getBookById(1L);
+        cache.deleteBook(2L);
+        cache.getBookById(1L);
+
+        verify(bookService, times(2)).getBookById(1L);
+    }
+
+    @Test
+    void bulkheadDecorator_WhenPermitsAreTaken_ShouldRejectAndReleaseAfterwards() throws Exception {
+        BulkheadBookServiceDecorator bulkhead = new BulkheadBookServiceDecorator(
+                new TargetBookServiceDecorator(bookService), 1, 0);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookService.getAllBooks()).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(testBook);
+        }).thenReturn(List.of());
+        Thread holder = new Thread(bulkhead::getAllBooks);
+        holder.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        assertThrows(BulkheadFullException.class, bulkhead::getAllBooks);
+
+        release.countDown();
+        holder.join(5000);
+        assertEquals(1, bulkhead.getAvailablePermits());
+        assertEquals(List.of(), bulkhead.getAllBooks());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bookcatalog.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolSizerTest {
+
+    private final PoolSizer sizer = new PoolSizer(5, 50, 1.5, 0.2, 1.3, 3, 4);
+
+    @Test
+    void recommend_ShouldGrowOnlyAfterStarvationPersists() {
+        // 1000 acquires/s held 20 ms each keep ~20 connections busy; callers wait 15 ms for one
+        PoolInterval starved = interval(1000, 15, 20, 5, 12);
+
+        assertEquals(20, sizer.recommend(starved, 20));
+        assertEquals(20, sizer.recommend(starved, 20));
+        assertEquals(24, sizer.recommend(starved, 20));
+        assertEquals(PoolSizer.Reason.STARVED, sizer.lastReason());
+        assertEquals(20.0, sizer.lastBusyConnections(), 0.01);
+
+        assertEquals(24, sizer.recommend(interval(1000, 0.1, 20, 5, 0), 24), "no waiting means hold");
+    }
+
+    @Test
+    void recommend_ShouldWalkBackGrowthWhenDatabaseSlowsDown() {
+        PoolInterval starved = interval(1000, 15, 20, 5, 12);
+        for (int i = 0; i < 2; i++) {
+            sizer.recommend(starved, 20);
+        }
+        assertEquals(24, sizer.recommend(starved, 20));
+
+        // more connections only made each statement slower: the database is the bottleneck
+        assertEquals(20, sizer.recommend(interval(1000, 15, 30, 9, 12), 24));
+        assertEquals(PoolSizer.Reason.DB_BOUND, sizer.lastReason());
+        assertEquals(20, sizer.ceiling());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(20, sizer.recommend(interval(1000, 15, 30, 9, 12), 20));
+        }
+
+        // the ceiling lifts again once statements are back to their earlier speed
+        sizer.recommend(starved, 20);
+        assertEquals(50, sizer.ceiling());
+    }
+
+    @Test
+    void recommend_ShouldShrinkTowardsLittlesLawDemandWithinBounds() {
+        // 100 acquires/s held 10 ms: one busy connection, well under the 20 configured
+        PoolInterval quiet = interval(100, 0.05, 10, 3, 0);
+
+        assertEquals(20, sizer.recommend(quiet, 20));
+        assertEquals(20, sizer.recommend(quiet, 20));
+        assertEquals(16, sizer.recommend(quiet, 20));
+        assertEquals(PoolSizer.Reason.OVERSIZED, sizer.lastReason());
+        for (int i = 0; i < 3; i++) {
+            sizer.recommend(quiet, 6);
+        }
+        assertEquals(6, sizer.recommend(quiet, 6), "within one of the floor stays put");
+        assertEquals(PoolSizer.Reason.HOLD, sizer.lastReason());
+    }
+
+    private static PoolInterval interval(long acquiresPerSecond, double waitMillis, double holdMillis,
+                                         double statementMillis, int pending) {
+        long acquires = acquiresPerSecond * 10;
+        return new PoolInterval(10.0, acquires, nanos(waitMillis) * acquires, acquires, nanos(holdMillis) * acquires,
+                acquires * 2, nanos(statementMillis) * acquires * 2, pending);
+    }
+
+    private static long nanos(double millis) {
+        return (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bookcatalog.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StatementMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new StatementMonitor(meterRegistry, 60_000, 5, 3, 100, 0);
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(new StatementTrackingDataSource(dataSource, monitor));
+        jdbcTemplate.execute("CREATE TABLE books (id BIGINT PRIMARY KEY, title VARCHAR(255))");
+        for (int id = 1; id <= 4; id++) {
+            jdbcTemplate.update("INSERT INTO books (id, title) VALUES (?, ?)", id, "Title " + id);
+        }
+        monitor.reset();
+    }
+
+    @Test
+    void fingerprint_ShouldNormalizeLiteralsCommentsAndInLists() {
+        assertEquals("SELECT * FROM books WHERE id IN (?...) AND title = ?",
+                SqlFingerprint.of("/* load */ SELECT *\n  FROM books WHERE id IN (1, 2,3) AND title = 'It''s'"));
+        assertEquals(SqlFingerprint.of("select b1_0.id from book b1_0 where b1_0.id in (?, ?)"),
+                SqlFingerprint.of("select b1_0.id from book b1_0 where b1_0.id in (?,?,?,?)"));
+        assertEquals("insert into book (a, b) values (?, ?)", SqlFingerprint.of("insert into book (a,b) values (1, 2)"));
+    }
+
+    @Test
+    void trackedDataSource_ShouldAggregateExecutionsAndRowsByFingerprint() {
+        jdbcTemplate.queryForList("SELECT title FROM books WHERE id IN (1, 2)", String.class);
+        jdbcTemplate.queryForList("SELECT title FROM books WHERE id IN (3, 4, 5)", String.class);
+        jdbcTemplate.queryForList("SELECT title FROM books WHERE id > ?", String.class, 0);
+
+        List<QueryStats> queries = monitor.getTopQueries(10);
+        assertEquals(2, queries.size());
+        QueryStats inList = queries.stream()
+                .filter(stats -> stats.getFingerprint().contains("IN (?...)")).findFirst().orElseThrow();
+        assertEquals(2, inList.getExecutions());
+        assertEquals(4, inList.getRowsFetched());
+        assertEquals(1, monitor.getTopQueries(1).size());
+    }
+
+    @Test
+    void request_ShouldBeFlaggedForRepeatedQueriesAndTooManyStatements() {
+        assertTrue(monitor.beginRequest());
+        assertFalse(monitor.beginRequest());
+        for (int id = 1; id <= 6; id++) {
+            jdbcTemplate.queryForList("SELECT title FROM books WHERE id = ?", String.class, id);
+        }
+        monitor.endRequest("GET", "/api/books");
+
+        assertEquals(1, meterRegistry.counter("bookcatalog.sql.requests.flagged", "reason", "n-plus-one").count());
+        assertEquals(1, meterRegistry.counter("bookcatalog.sql.requests.flagged", "reason", "statements").count());
+        assertEquals(6, meterRegistry.find("bookcatalog.sql.statements.per.request").summary().totalAmount());
+
+        assertTrue(monitor.beginRequest());
+        jdbcTemplate.queryForList("SELECT title FROM books WHERE id = ?", String.class, 1);
+        monitor.endRequest("GET", "/api/books/1");
+        assertEquals(1, meterRegistry.counter("bookcatalog.sql.requests.flagged", "reason", "n-plus-one").count());
+    }
+
+    @Test
+    void pooledRequests_ShouldHandTheBufferOnCleanToTheNextThread() throws InterruptedException {
+        StatementMonitor pooled = new StatementMonitor(meterRegistry, 60_000, 5, 3, 100, 1);
+        JdbcTemplate tracked = new JdbcTemplate(new StatementTrackingDataSource(
+                ((StatementTrackingDataSource) jdbcTemplate.getDataSource()).getTargetDataSource(), pooled));
+
+        for (int request = 0; request < 2; request++) {
+            Thread thread = new Thread(() -> {
+                assertTrue(pooled.beginRequest());
+                for (int id = 1; id <= 4; id++) {
+                    tracked.queryForList("SELECT title FROM books WHERE id = ?", String.class, id);
+                }
+                pooled.endRequest("GET", "/api/books");
+            });
+            thread.start();
+            thread.join();
+        }
+
+        // each request saw only its own statements: 4 is under the limit of 5
+        assertEquals(0, meterRegistry.counter("bookcatalog.sql.requests.flagged", "reason", "statements").count());
+        assertEquals(2, meterRegistry.counter("bookcatalog.sql.requests.flagged", "reason", "n-plus-one").count());
+        assertEquals(4, meterRegistry.find("bookcatalog.sql.statements.per.request").summary().max());
+    }
+}
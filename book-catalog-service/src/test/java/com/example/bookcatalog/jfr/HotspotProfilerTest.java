@@ -0,0 +1,91 @@
+package com.example.bookcatalog.jfr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotspotProfilerTest {
+
+    private static final String[] SEARCH_STACK = {
+            "java.lang.String.toLowerCase",
+            "com.example.bookcatalog.strategy.TitleSearchStrategy.search",
+            "com.example.bookcatalog.service.BookService.searchBooks",
+            "com.example.bookcatalog.controller.BookController.searchBooksByTitle",
+            "org.springframework.web.servlet.DispatcherServlet.doDispatch"
+    };
+
+    @Test
+    void endpoint_ShouldBeFirstControllerFrameOrBackground() {
+        assertEquals("BookController.searchBooksByTitle", HotspotProfiler.endpoint(SEARCH_STACK, false));
+        assertEquals(HotspotProfiler.BACKGROUND, HotspotProfiler.endpoint(new String[]{"java.lang.Thread.run"}, false));
+        assertEquals(HotspotProfiler.TRUNCATED, HotspotProfiler.endpoint(new String[]{"java.lang.Object.wait"}, true));
+        assertEquals(HotspotProfiler.HTTP, HotspotProfiler.endpoint(new String[]{
+                "com.fasterxml.jackson.databind.ObjectMapper.writeValue",
+                "com.example.bookcatalog.controller.TracingFilter.doFilterInternal",
+                "jakarta.servlet.http.HttpServlet.service"}, true));
+        assertEquals("com.example.bookcatalog.strategy.TitleSearchStrategy.search", HotspotProfiler.site(SEARCH_STACK));
+    }
+
+    @Test
+    void table_ShouldRankSelfTimeAndRollOldBucketsOut() {
+        HotspotTable table = new HotspotTable(60_000, 10_000, 100);
+        for (int i = 0; i < 3; i++) {
+            table.recordCpu(1_000, "BookController.searchBooksByTitle", SEARCH_STACK);
+        }
+        table.recordCpu(1_000, "BookController.searchBooksByTitle",
+                new String[]{"com.example.bookcatalog.service.BookService.searchBooks", SEARCH_STACK[3]});
+        table.recordAllocation(1_000, "BookController.searchBooksByTitle", SEARCH_STACK,
+                HotspotProfiler.site(SEARCH_STACK), "java.lang.String", 4096);
+
+        List<EndpointHotspots> report = table.report(2_000, 10);
+        assertEquals(1, report.size());
+        EndpointHotspots search = report.get(0);
+        assertEquals(4, search.getCpuSamples());
+        assertEquals("java.lang.String.toLowerCase", search.getHotMethods().get(0).getMethod());
+        assertEquals(75.0, search.getHotMethods().get(0).getSelfPercent());
+        HotMethod service = search.getHotMethods().get(1);
+        assertEquals(1, service.getSelfSamples());
+        assertEquals(4, service.getTotalSamples());
+        assertEquals("java.lang.String", search.getAllocationSites().get(0).getObjectClass());
+        assertEquals(4096, search.getAllocatedBytes());
+
+        String collapsed = table.collapsed(2_000, false, null);
+        assertTrue(collapsed.contains("BookController.searchBooksByTitle;org.springframework.web.servlet."
+                + "DispatcherServlet.doDispatch;com.example.bookcatalog.controller.BookController.searchBooksByTitle;"
+                + "com.example.bookcatalog.service.BookService.searchBooks;"
+                + "com.example.bookcatalog.strategy.TitleSearchStrategy.search;java.lang.String.toLowerCase 3\n"));
+        assertTrue(table.collapsed(2_000, true, null).endsWith(";java.lang.String 4096\n"));
+        assertEquals("", table.collapsed(2_000, false, "BookController.getBookById"));
+
+        assertTrue(table.report(70_000, 10).isEmpty());
+    }
+
+    @Test
+    void profiler_ShouldAttributeStreamedExecutionSamples() throws Exception {
+        HotspotProfiler profiler = new HotspotProfiler(10, 100, 300, 30, 2000);
+        profiler.start();
+        try {
+            long deadline = System.currentTimeMillis() + 15_000;
+            while (System.currentTimeMillis() < deadline && !profiler.getCollapsedStacks(false, null).contains("spin")) {
+                spin();
+            }
+            // test runner stacks are deeper than the default stackdepth, so these land in (truncated)
+            assertTrue(profiler.getHotspots(5).stream()
+                    .flatMap(endpoint -> endpoint.getHotMethods().stream())
+                    .anyMatch(method -> method.getMethod().endsWith("HotspotProfilerTest.spin")));
+        } finally {
+            profiler.stop();
+        }
+    }
+
+    private static double spin() {
+        double sum = 0;
+        long end = System.nanoTime() + 200_000_000L;
+        while (System.nanoTime() < end) {
+            sum += Math.sqrt(sum + 1);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bookcatalog.jfr;
+
+import com.example.bookcatalog.decorator.BookServiceDecorator;
+import com.example.bookcatalog.decorator.CachingBookServiceDecorator;
+import com.example.bookcatalog.decorator.JfrBookServiceDecorator;
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.validator.StandardBookValidator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JfrEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void settings_ShouldLayerServiceOverridesOnJdkDefaults() {
+        Map<String, String> settings = ContinuousRecording.settings();
+
+        assertEquals("1 ms", settings.get("com.example.bookcatalog.ServiceOperation#threshold"));
+        assertEquals("false", settings.get("com.example.bookcatalog.CacheLookup#enabled"));
+        assertEquals("10 ms", settings.get("jdk.JavaMonitorEnter#threshold"));
+        assertEquals("true", settings.get("jdk.GarbageCollection#enabled"));
+    }
+
+    @Test
+    void recording_ShouldCaptureServiceCacheAndValidationEvents() throws Exception {
+        Book book = new Book("Title", "Author", "0306406152", 2000, new BigDecimal("10.00"));
+        BookServiceDecorator target = mock(BookServiceDecorator.class);
+        when(target.getBookById(1L)).thenReturn(Optional.of(book));
+        BookServiceDecorator chain = new JfrBookServiceDecorator(new CachingBookServiceDecorator(target, 60_000, 10));
+
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ServiceOperationEvent.class).withThreshold(null);
+            recording.enable(CacheLookupEvent.class);
+            recording.enable(ValidationEvent.class).withThreshold(null);
+            recording.start();
+            chain.getBookById(1L);
+            chain.getBookById(1L);
+            new StandardBookValidator().validate(book);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> operations = named(events, "com.example.bookcatalog.ServiceOperation");
+        assertEquals(2, operations.size());
+        assertEquals("getBookById", operations.get(0).getString("operation"));
+        assertFalse(operations.get(0).getBoolean("failed"));
+        List<Boolean> hits = named(events, "com.example.bookcatalog.CacheLookup").stream()
+                .map(event -> event.getBoolean("hit")).collect(Collectors.toList());
+        assertEquals(List.of(false, true), hits);
+        RecordedEvent validation = named(events, "com.example.bookcatalog.Validation").get(0);
+        assertEquals("standard", validation.getString("validator"));
+        assertEquals(0, validation.getInt("violations"));
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
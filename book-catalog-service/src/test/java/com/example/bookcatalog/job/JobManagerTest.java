@@ -0,0 +1,170 @@
+package com.example.bookcatalog.job;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobManagerTest {
+
+    private MockEnvironment environment;
+    private JobManager jobManager;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment();
+        jobManager = new JobManager(environment, 2, 3, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobManager.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRunJobAndReportProgress() throws Exception {
+        JobExecution job = jobManager.submit("reprice", context -> {
+            context.reportProgress(50, 100);
+            return "done";
+        });
+
+        awaitFinished(job);
+
+        assertEquals(JobExecution.State.SUCCEEDED, job.getState());
+        assertEquals("done", job.getResult());
+        assertEquals(50, job.getProcessed());
+        assertEquals(100, job.getTotal());
+        assertNotNull(job.getStartedAt());
+        assertTrue(jobManager.find(job.getId()).isPresent());
+    }
+
+    @Test
+    void submit_ShouldLimitConcurrencyPerType() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        JobExecution first = jobManager.submit("reprice", context -> release.await(5, TimeUnit.SECONDS));
+        JobExecution second = jobManager.submit("reprice", context -> "second");
+        JobExecution other = jobManager.submit("delete", context -> "other");
+
+        awaitFinished(other);
+        assertEquals(JobExecution.State.SUCCEEDED, other.getState());
+        assertEquals(JobExecution.State.QUEUED, second.getState());
+
+        release.countDown();
+        awaitFinished(first);
+        awaitFinished(second);
+        assertEquals(JobExecution.State.SUCCEEDED, second.getState());
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ShouldReject() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            jobManager.submit("reprice", context -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            jobManager.submit("reprice", context -> null);
+            jobManager.submit("reprice", context -> null);
+            jobManager.submit("reprice", context -> null);
+
+            assertThrows(JobRejectedException.class, () -> jobManager.submit("reprice", context -> null));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void cancel_ShouldStopQueuedJobImmediatelyAndFlagRunningJob() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        JobExecution running = jobManager.submit("reprice", context -> {
+            started.countDown();
+            while (!context.isCancelled()) {
+                Thread.sleep(5);
+            }
+            return null;
+        });
+        JobExecution queued = jobManager.submit("reprice", context -> "never");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(jobManager.cancel(queued.getId()));
+        assertEquals(JobExecution.State.CANCELLED, queued.getState());
+
+        assertTrue(jobManager.cancel(running.getId()));
+        awaitFinished(running);
+        assertEquals(JobExecution.State.CANCELLED, running.getState());
+        assertFalse(jobManager.cancel(running.getId()));
+    }
+
+    @Test
+    void shutdown_ShouldCancelJobsQueuedBehindRunningJob() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JobExecution running = jobManager.submit("reprice", context -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        JobExecution waiting = jobManager.submit("reprice", context -> "never");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread stopper = new Thread(jobManager::shutdown);
+        stopper.start();
+        // parked in awaitTermination, so the executor no longer accepts work
+        while (stopper.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        stopper.join(5000);
+
+        awaitFinished(running);
+        awaitFinished(waiting);
+        assertEquals(JobExecution.State.CANCELLED, waiting.getState());
+        assertNull(waiting.getResult());
+        assertThrows(JobRejectedException.class, () -> jobManager.submit("reprice", context -> null));
+    }
+
+    @Test
+    void failingJob_ShouldRecordError() throws Exception {
+        JobExecution job = jobManager.submit("reprice", context -> {
+            throw new IllegalStateException("Lock wait timeout");
+        });
+
+        awaitFinished(job);
+
+        assertEquals(JobExecution.State.FAILED, job.getState());
+        assertEquals(1, job.getErrors().size());
+        assertEquals("Lock wait timeout", job.getErrors().get(0));
+    }
+
+    @Test
+    void typeLimitOverride_ShouldAllowMoreConcurrentJobs() throws Exception {
+        environment.setProperty("bookcatalog.jobs.type-limits.export", "2");
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        JobWork work = context -> {
+            bothRunning.countDown();
+            return bothRunning.await(5, TimeUnit.SECONDS);
+        };
+
+        JobExecution first = jobManager.submit("export", work);
+        JobExecution second = jobManager.submit("export", work);
+        awaitFinished(first);
+        awaitFinished(second);
+
+        assertEquals(Boolean.TRUE, first.getResult());
+        assertEquals(Boolean.TRUE, second.getResult());
+    }
+
+    private static void awaitFinished(JobExecution job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(job.isFinished(), "job " + job.getId() + " did not finish");
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.bookcatalog.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionSchedulerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void gradientLimit_ShouldGrowWhileLatencyHoldsAndShrinkWhenItRises() {
+        GradientLimit limit = new GradientLimit(10, 2, 50, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit());
+        }
+        assertEquals(50, limit.getLimit());
+
+        for (int i = 0; i < 30; i++) {
+            limit.onSample(80 * MILLIS, limit.getLimit());
+        }
+        assertTrue(limit.getLimit() < 20, "limit should back off under queueing, was " + limit.getLimit());
+
+        GradientLimit idle = new GradientLimit(10, 2, 50, 1.5, 0.2, 100);
+        for (int i = 0; i < 200; i++) {
+            idle.onSample(10 * MILLIS, 1);
+        }
+        assertEquals(10, idle.getLimit());
+    }
+
+    @Test
+    void admit_ShouldShedLowerClassesFirstAndReserveCapacityForInteractive() {
+        AdmissionScheduler scheduler = scheduler(0);
+
+        assertAdmitted(scheduler, RequestClass.BULK, 3);
+        assertEquals(-1, scheduler.admit(RequestClass.BULK));
+        assertAdmitted(scheduler, RequestClass.SEARCH, 3);
+        assertEquals(-1, scheduler.admit(RequestClass.SEARCH));
+        assertAdmitted(scheduler, RequestClass.WRITE, 2);
+        assertEquals(-1, scheduler.admit(RequestClass.WRITE));
+        assertAdmitted(scheduler, RequestClass.INTERACTIVE, 2);
+        assertEquals(-1, scheduler.admit(RequestClass.INTERACTIVE));
+
+        assertEquals(3, meterRegistry.counter("bookcatalog.admission.admitted", "class", "bulk").count());
+        assertEquals(1, meterRegistry.counter("bookcatalog.admission.shed", "class", "bulk").count());
+        assertEquals(2, meterRegistry.get("bookcatalog.admission.inflight").tag("class", "interactive").gauge().value());
+    }
+
+    @Test
+    void release_ShouldHandFreedSlotToQueuedRequest() throws Exception {
+        AdmissionScheduler scheduler = scheduler(5_000);
+        long[] admitted = new long[10];
+        for (int i = 0; i < admitted.length; i++) {
+            admitted[i] = scheduler.admit(RequestClass.INTERACTIVE);
+        }
+
+        CompletableFuture<Long> queued = CompletableFuture.supplyAsync(() -> scheduler.admit(RequestClass.INTERACTIVE));
+        while (meterRegistry.get("bookcatalog.admission.queue").tag("class", "interactive").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+        assertFalse(queued.isDone());
+        scheduler.release(RequestClass.INTERACTIVE, admitted[0]);
+
+        assertTrue(queued.get(5, TimeUnit.SECONDS) > 0);
+        assertEquals(0, meterRegistry.get("bookcatalog.admission.queue").tag("class", "interactive").gauge().value());
+        assertEquals(10, meterRegistry.get("bookcatalog.admission.inflight").tag("class", "interactive").gauge().value());
+    }
+
+    @Test
+    void interceptor_ShouldClassifyHandlersAndRejectWithRetryAfter() throws Exception {
+        AdmissionScheduler scheduler = new AdmissionScheduler(meterRegistry, new GradientLimit(1, 1, 1, 1.5, 0.2, 100),
+                policies(0), 2);
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(scheduler);
+        HandlerMethod scan = new HandlerMethod(new Handlers(), Handlers.class.getMethod("scan"));
+        HandlerMethod lookup = new HandlerMethod(new Handlers(), Handlers.class.getMethod("lookup"));
+
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/books/1");
+        assertEquals(RequestClass.BULK, AdmissionInterceptor.classify(get, scan));
+        assertEquals(RequestClass.INTERACTIVE, AdmissionInterceptor.classify(get, lookup));
+        assertEquals(RequestClass.WRITE, AdmissionInterceptor.classify(new MockHttpServletRequest("PUT", "/"), lookup));
+
+        assertTrue(interceptor.preHandle(get, new MockHttpServletResponse(), scan));
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/books/2"), rejected, lookup));
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+
+        interceptor.afterCompletion(get, new MockHttpServletResponse(), scan, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/books/2"),
+                new MockHttpServletResponse(), lookup));
+    }
+
+    private AdmissionScheduler scheduler(long interactiveWaitMillis) {
+        return new AdmissionScheduler(meterRegistry, new GradientLimit(10, 10, 10, 1.5, 0.2, 100),
+                policies(interactiveWaitMillis), 1);
+    }
+
+    private static ClassPolicy[] policies(long interactiveWaitMillis) {
+        return new ClassPolicy[]{
+                new ClassPolicy(1.0, 8, 10, interactiveWaitMillis),
+                new ClassPolicy(0.8, 4, 0, 0),
+                new ClassPolicy(0.6, 2, 0, 0),
+                new ClassPolicy(0.3, 1, 0, 0)
+        };
+    }
+
+    private static void assertAdmitted(AdmissionScheduler scheduler, RequestClass requestClass, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(scheduler.admit(requestClass) > 0, requestClass + " request " + i + " should be admitted");
+        }
+    }
+
+    static class Handlers {
+
+        @Admission(RequestClass.BULK)
+        public void scan() {
+        }
+
+        public void lookup() {
+        }
+    }
+}
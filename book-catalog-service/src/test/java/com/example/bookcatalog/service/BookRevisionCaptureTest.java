@@ -0,0 +1,92 @@
+package com.example.bookcatalog.service;
+
+import com.example.bookcatalog.changes.BookChangeLog;
+import com.example.bookcatalog.changes.BookChangePublisher;
+import com.example.bookcatalog.changes.BookRevisionLog;
+import com.example.bookcatalog.command.CommandBatchExecutor;
+import com.example.bookcatalog.command.CommandInvoker;
+import com.example.bookcatalog.command.SaveBookCommand;
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.repository.BookRepository;
+import com.example.bookcatalog.strategy.SearchStrategyFactory;
+import com.example.bookcatalog.validator.BookValidatorFactory;
+import com.example.bookcatalog.validator.StandardBookValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Revisions are read back from the table with JDBC, so these run against a real persistence
+ * context: a change still sitting in it unflushed would be captured as the old row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class BookRevisionCaptureTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BookChangeLog bookChangeLog;
+    private BookService bookService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BookRevisionLog bookRevisionLog = new BookRevisionLog(jdbcTemplate, transactionTemplate,
+                new SimpleMeterRegistry(), 365, 30, 100, 0);
+        bookChangeLog = new BookChangeLog(jdbcTemplate, bookRevisionLog, 0, 24, 100, 100);
+        BookValidatorFactory bookValidatorFactory = mock(BookValidatorFactory.class);
+        when(bookValidatorFactory.getValidator("update")).thenReturn(new StandardBookValidator());
+        bookService = new BookService(bookRepository, mock(SearchStrategyFactory.class), bookValidatorFactory,
+                mock(CommandInvoker.class), mock(CommandBatchExecutor.class), mock(BookChangePublisher.class),
+                bookChangeLog, bookRevisionLog, transactionTemplate);
+    }
+
+    @Test
+    void updateBook_ShouldCaptureTheUpdatedRow() {
+        Book book = bookRepository.saveAndFlush(
+                new Book("Test Title", "Test Author", "0306406152", 2023, new BigDecimal("10.00")));
+
+        bookService.updateBook(book.getId(),
+                new Book("Updated Title", "Test Author", "0306406152", 2023, new BigDecimal("12.50")));
+
+        Map<String, Object> revision = latestRevision(book.getId());
+        assertEquals("Updated Title", revision.get("title"));
+        assertEquals(0, new BigDecimal("12.50").compareTo((BigDecimal) revision.get("price")));
+        assertEquals(1L, ((Number) revision.get("version")).longValue());
+    }
+
+    @Test
+    void undoingSave_ShouldCaptureATombstone() {
+        SaveBookCommand save = new SaveBookCommand(bookRepository,
+                new Book("Test Title", "Test Author", "0306406152", 2023, new BigDecimal("10.00")));
+        save.execute();
+        Long bookId = save.getSavedBookId();
+
+        save.undo();
+        bookChangeLog.recordCommand(save);
+
+        assertEquals(Boolean.TRUE, latestRevision(bookId).get("deleted"));
+    }
+
+    private Map<String, Object> latestRevision(Long bookId) {
+        return jdbcTemplate.queryForMap("SELECT title, price, version, deleted FROM book_revisions " +
+                "WHERE book_id = ? ORDER BY id DESC LIMIT 1", bookId);
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.bookcatalog.service;
 
+import com.example.bookcatalog.changes.BookChangeLog;
+import com.example.bookcatalog.changes.BookChangePublisher;
+import com.example.bookcatalog.changes.BookRevisionLog;
+import com.example.bookcatalog.command.CommandBatchExecutor;
 import com.example.bookcatalog.command.CommandInvoker;
+import com.example.bookcatalog.command.CompositeCommand;
 import com.example.bookcatalog.command.DeleteBookCommand;
 import com.example.bookcatalog.command.SaveBookCommand;
 import com.example.bookcatalog.entity.Book;
@@ -14,12 +19,16 @@ import com.example.bookcatalog.validator.StandardBookValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -55,6 +64,21 @@ class BookServiceTest {
     @Mock
     private CommandInvoker commandInvoker;
 
+    @Mock
+    private CommandBatchExecutor commandBatchExecutor;
+
+    @Mock
+    private BookChangePublisher bookChangePublisher;
+
+    @Mock
+    private BookChangeLog bookChangeLog;
+
+    @Mock
+    private BookRevisionLog bookRevisionLog;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private BookService bookService;
 
@@ -64,6 +88,10 @@ class BookServiceTest {
     void setUp() {
         testBook = new Book("Test Title", "Test Author", "1234567890", 2023, new BigDecimal("29.99"));
         testBook.setId(1L);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
     }
 
     @Test
@@ -190,6 +218,46 @@ class BookServiceTest {
         verify(bookRepository).findById(testBook.getId());
     }
 
+    @Test
+    void saveBook_ShouldReleaseIsbnHeldBySoftDeletedBook() {
+        when(bookValidatorFactory.getValidator("standard")).thenReturn(standardBookValidator);
+        doAnswer(invocation -> {
+            SaveBookCommand command = invocation.getArgument(0);
+            setCommandSavedBookId(command, testBook.getId());
+            return command;
+        }).when(commandInvoker).executeCommand(any(SaveBookCommand.class));
+        when(bookRepository.findById(testBook.getId())).thenReturn(Optional.of(testBook));
+
+        bookService.saveBook(testBook);
+
+        InOrder inOrder = inOrder(bookRepository, commandInvoker);
+        inOrder.verify(bookRepository).purgeDeletedByIsbn(testBook.getIsbn());
+        inOrder.verify(commandInvoker).executeCommand(any(SaveBookCommand.class));
+    }
+
+    @Test
+    void saveBooks_ShouldExecuteOneCompositeCommand() {
+        Book second = new Book("Second", "Author", "9780306406157", 2021, new BigDecimal("12.00"));
+        when(bookValidatorFactory.getValidator("standard")).thenReturn(standardBookValidator);
+        when(bookRepository.findAllById(anyList())).thenReturn(Arrays.asList(testBook, second));
+
+        List<Book> result = bookService.saveBooks(Arrays.asList(testBook, second));
+
+        assertEquals(2, result.size());
+        verify(standardBookValidator, times(2)).validate(any(Book.class));
+        verify(bookRepository).purgeDeletedByIsbnIn(anyCollection());
+        verify(commandInvoker, times(1)).executeCommand(any(CompositeCommand.class));
+    }
+
+    @Test
+    void saveBooks_WithDuplicateIsbn_ShouldThrowBeforeExecuting() {
+        Book duplicate = new Book("Other", "Author", testBook.getIsbn(), 2021, new BigDecimal("12.00"));
+        when(bookValidatorFactory.getValidator("standard")).thenReturn(standardBookValidator);
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.saveBooks(Arrays.asList(testBook, duplicate)));
+        verify(commandInvoker, never()).executeCommand(any());
+    }
+
     private void setCommandSavedBookId(SaveBookCommand command, Long id) {
         try {
             Field field = SaveBookCommand.class.getDeclaredField("savedBookId");
@@ -209,7 +277,7 @@ class BookServiceTest {
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(testBook));
         when(bookValidatorFactory.getValidator("update")).thenReturn(standardBookValidator);
         doNothing().when(standardBookValidator).validate(updatedDetails);
-        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(testBook);
 
         
         Book result = bookService.updateBook(bookId, updatedDetails);
@@ -219,7 +287,8 @@ class BookServiceTest {
         verify(bookRepository).findById(bookId);
         verify(bookValidatorFactory).getValidator("update");
         verify(standardBookValidator).validate(updatedDetails);
-        verify(bookRepository).save(any(Book.class));
+        verify(bookRepository).saveAndFlush(any(Book.class));
+        verify(bookChangePublisher).bookUpdated(testBook);
     }
 
     @Test
@@ -236,12 +305,98 @@ class BookServiceTest {
         verify(bookRepository, never()).save(any(Book.class));
     }
 
+    @Test
+    void updateBookWithVersion_WhenVersionMatches_ShouldReturnUpdatedBook() {
+        Book updatedDetails = new Book("Updated Title", "Updated Author", "0987654321", 2024, new BigDecimal("39.99"));
+        Book stored = new Book("Updated Title", "Updated Author", "0987654321", 2024, new BigDecimal("39.99"));
+        stored.setId(1L);
+        stored.setVersion(4L);
+
+        when(bookValidatorFactory.getValidator("update")).thenReturn(standardBookValidator);
+        when(bookRepository.updateIfVersionMatches(1L, 3L, "Updated Title", "Updated Author",
+                "0987654321", 2024, new BigDecimal("39.99"))).thenReturn(1);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        Book result = bookService.updateBook(1L, updatedDetails, 3L);
+
+        assertEquals(4L, result.getVersion());
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    void updateBookWithVersion_WhenVersionIsStale_ShouldThrowConflict() {
+        Book updatedDetails = new Book("Updated Title", "Updated Author", "0987654321", 2024, new BigDecimal("39.99"));
+        testBook.setVersion(5L);
+
+        when(bookValidatorFactory.getValidator("update")).thenReturn(standardBookValidator);
+        when(bookRepository.updateIfVersionMatches(eq(1L), eq(3L), any(), any(), any(), any(), any())).thenReturn(0);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+
+        BookVersionConflictException exception = assertThrows(BookVersionConflictException.class,
+                () -> bookService.updateBook(1L, updatedDetails, 3L));
+        assertEquals(5L, exception.getCurrentVersion());
+    }
+
+    @Test
+    void updateBookWithVersion_WhenBookDoesNotExist_ShouldThrowNotFound() {
+        Book updatedDetails = new Book("Updated Title", "Updated Author", "0987654321", 2024, new BigDecimal("39.99"));
+
+        when(bookValidatorFactory.getValidator("update")).thenReturn(standardBookValidator);
+        when(bookRepository.updateIfVersionMatches(eq(1L), eq(3L), any(), any(), any(), any(), any())).thenReturn(0);
+        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> bookService.updateBook(1L, updatedDetails, 3L));
+        assertFalse(exception instanceof BookVersionConflictException);
+    }
+
+    @Test
+    void updateBookWithRetry_ShouldReapplyMergeAfterConflict() {
+        Book first = new Book("Test Title", "Test Author", "1234567890", 2023, new BigDecimal("10.00"));
+        first.setId(1L);
+        first.setVersion(1L);
+        Book second = new Book("Test Title", "Test Author", "1234567890", 2023, new BigDecimal("12.00"));
+        second.setId(1L);
+        second.setVersion(2L);
+        Book stored = new Book("Test Title", "Test Author", "1234567890", 2023, new BigDecimal("13.20"));
+        stored.setId(1L);
+        stored.setVersion(3L);
+
+        when(bookValidatorFactory.getValidator("update")).thenReturn(standardBookValidator);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(first), Optional.of(second),
+                Optional.of(second), Optional.of(stored));
+        when(bookRepository.updateIfVersionMatches(eq(1L), eq(1L), any(), any(), any(), any(), any())).thenReturn(0);
+        when(bookRepository.updateIfVersionMatches(eq(1L), eq(2L), any(), any(), any(), any(),
+                eq(new BigDecimal("13.20")))).thenReturn(1);
+
+        Book result = bookService.updateBookWithRetry(1L, book -> {
+            book.setPrice(book.getPrice().multiply(new BigDecimal("1.10")).setScale(2));
+            return book;
+        }, 3);
+
+        assertEquals(3L, result.getVersion());
+        assertEquals(new BigDecimal("10.00"), first.getPrice());
+        assertEquals(new BigDecimal("12.00"), second.getPrice());
+        verify(bookRepository, times(2)).updateIfVersionMatches(eq(1L), anyLong(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void updateBookWithRetry_WhenAttemptsExhausted_ShouldThrowConflict() {
+        testBook.setVersion(1L);
+        when(bookValidatorFactory.getValidator("update")).thenReturn(standardBookValidator);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.updateIfVersionMatches(eq(1L), eq(1L), any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(BookVersionConflictException.class,
+                () -> bookService.updateBookWithRetry(1L, book -> book, 2));
+        verify(bookRepository, times(2)).updateIfVersionMatches(eq(1L), eq(1L), any(), any(), any(), any(), any());
+    }
+
     @Test
     void deleteBook_WhenBookExists_ShouldDeleteBook() {
         Long bookId = 1L;
 
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(testBook));
-        doNothing().when(bookRepository).deleteById(bookId);
+        when(bookRepository.softDeleteById(eq(bookId), any(LocalDateTime.class))).thenReturn(1);
 
         doAnswer(invocation -> {
             DeleteBookCommand command = invocation.getArgument(0);
@@ -252,15 +407,16 @@ class BookServiceTest {
 
         bookService.deleteBook(bookId);
 
-        verify(bookRepository).findById(bookId);
-        verify(bookRepository).deleteById(bookId);
+        verify(bookRepository).softDeleteById(eq(bookId), any(LocalDateTime.class));
+        verify(bookRepository, never()).deleteById(bookId);
+        verify(bookChangeLog).record(bookId);
     }
 
     @Test
     void deleteBook_WhenBookDoesNotExist_ShouldThrowException() {
         
         Long bookId = 1L;
-        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        when(bookRepository.softDeleteById(eq(bookId), any(LocalDateTime.class))).thenReturn(0);
         doAnswer(invocation -> {
             DeleteBookCommand command = invocation.getArgument(0);
             setCommandDeletedBookId(command, bookId);
@@ -270,8 +426,20 @@ class BookServiceTest {
 
          
         assertThrows(RuntimeException.class, () -> bookService.deleteBook(bookId));
-        verify(bookRepository).findById(bookId);
+        verify(bookRepository).softDeleteById(eq(bookId), any(LocalDateTime.class));
         verify(bookRepository, never()).delete(any(Book.class));
+        verify(bookChangeLog, never()).record(any());
+    }
+
+    @Test
+    void undoLastOperation_ShouldRecordTheUndoneBooks() {
+        DeleteBookCommand undone = new DeleteBookCommand(bookRepository, 1L);
+        when(commandInvoker.undoLastCommand()).thenReturn(undone);
+
+        bookService.undoLastOperation();
+
+        verify(transactionTemplate).execute(any());
+        verify(bookChangeLog).recordCommand(undone);
     }
 
     private void setCommandDeletedBookId(DeleteBookCommand command, Long id) {
@@ -0,0 +1,104 @@
+package com.example.bookcatalog.slo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SloTrackerTest {
+
+    private static final String ISBN_ROUTE = "GET /api/books/isbn/{isbn}";
+
+    @Test
+    void report_ShouldComputePercentilesComplianceAndBurnRate() {
+        SloTracker tracker = new SloTracker(10, "200@0.99", List.of(ISBN_ROUTE + "=50@0.99"), 10);
+        for (int i = 0; i < 96; i++) {
+            tracker.record(ISBN_ROUTE, 200, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        for (int i = 0; i < 3; i++) {
+            tracker.record(ISBN_ROUTE, 200, TimeUnit.MILLISECONDS.toNanos(80));
+        }
+        tracker.record(ISBN_ROUTE, 503, TimeUnit.MILLISECONDS.toNanos(1));
+        tracker.rotate();
+
+        RouteSloReport report = tracker.getReports().get(0);
+        assertEquals(ISBN_ROUTE, report.getRoute());
+        assertEquals(50, report.getLatencyObjectiveMillis());
+        assertEquals(99L, report.getRequestsByStatus().get("2xx"));
+        assertEquals(1L, report.getRequestsByStatus().get("5xx"));
+
+        LatencyWindow minute = report.getWindows().get(0);
+        assertEquals("1m", minute.getWindow());
+        assertEquals(100, minute.getRequests());
+        assertEquals(10.0, minute.getThroughputPerSecond());
+        assertEquals(10.0, minute.getP50Millis(), 0.05);
+        assertEquals(80.0, minute.getP99Millis(), 0.1);
+        assertEquals(0.01, minute.getErrorRate());
+        assertEquals(0.96, minute.getCompliance());
+        assertEquals(4.0, minute.getBurnRate(), 0.0001);
+    }
+
+    @Test
+    void windows_ShouldDropIntervalsAsTheyAgeOut() {
+        SloTracker tracker = new SloTracker(10, "200@0.99", List.of(), 10);
+        tracker.record("GET /api/books/{id}", 200, TimeUnit.MILLISECONDS.toNanos(5));
+        tracker.rotate();
+        for (int i = 0; i < 6; i++) {
+            tracker.rotate();
+        }
+
+        List<LatencyWindow> windows = tracker.getReports().get(0).getWindows();
+        assertEquals(0, windows.get(0).getRequests());
+        assertEquals(1, windows.get(1).getRequests());
+        assertEquals(1, windows.get(2).getRequests());
+        assertEquals(200, tracker.getReports().get(0).getLatencyObjectiveMillis());
+    }
+
+    @Test
+    void record_ShouldFoldRoutesBeyondTheLimitIntoOther() {
+        SloTracker tracker = new SloTracker(10, "200@0.99", List.of(), 1);
+        tracker.record("GET /api/books", 200, 1_000);
+        tracker.record("GET /api/books/{id}", 200, 1_000);
+        tracker.rotate();
+
+        assertEquals(List.of("GET /api/books", SloTracker.OTHER_ROUTES),
+                tracker.getReports().stream().map(RouteSloReport::getRoute).collect(Collectors.toList()));
+    }
+
+    @Test
+    void record_ShouldNotDeadlockWhileIntervalsRotate() throws Exception {
+        SloTracker tracker = new SloTracker(10, "200@0.99", List.of(), 10);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] writers = new Thread[8];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                while (running.get()) {
+                    tracker.record("GET /api/books/{id}", 200, ThreadLocalRandom.current().nextLong(1_000, 5_000_000_000L));
+                }
+            });
+            writers[i].setDaemon(true);
+            writers[i].start();
+        }
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                while (System.nanoTime() < deadline) {
+                    tracker.rotate();
+                }
+            });
+        } finally {
+            running.set(false);
+        }
+        for (Thread writer : writers) {
+            writer.join(5_000);
+            assertFalse(writer.isAlive(), "recording thread is stuck");
+        }
+        assertTrue(tracker.getReports().get(0).getWindows().get(0).getRequests() > 0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bookcatalog.threads;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinningScannerTest {
+
+    @Test
+    void scan_ShouldFindSynchronizedMethodsAndBlocks() throws Exception {
+        PinningScanner scanner = new PinningScanner(new PathMatchingResourcePatternResolver());
+
+        List<String> sites = scanner.scan("com.example.bookcatalog.threads").stream()
+                .filter(site -> site.getClassName().equals(Monitors.class.getName()))
+                .map(MonitorSite::toString)
+                .sorted()
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(
+                Monitors.class.getName() + ".guarded (synchronized method)",
+                Monitors.class.getName() + ".twoBlocks (2 synchronized blocks)"), sites);
+        assertTrue(scanner.getClassesScanned() > 1);
+    }
+
+    @Test
+    void report_ShouldListApplicationSitesAndSummariseLibraries() throws Exception {
+        PinningReport report = new PinningReport(new MockEnvironment(), List.of("org.h2.jdbc"), 3);
+
+        String rendered = report.render();
+
+        assertTrue(rendered.contains(Monitors.class.getName() + ".guarded (synchronized method)"), rendered);
+        assertTrue(rendered.contains("org.h2.jdbc: "), rendered);
+        assertTrue(rendered.contains("virtual threads"), rendered);
+    }
+
+    @Test
+    void factory_ShouldFallBackToNamedDaemonPlatformThreads() {
+        boolean virtual = CatalogThreads.virtualThreadsSupported();
+        ThreadFactory factory = CatalogThreads.factory("catalog-test-", true);
+
+        Thread first = factory.newThread(() -> { });
+        Thread second = factory.newThread(() -> { });
+
+        assertEquals("catalog-test-1", first.getName());
+        assertEquals("catalog-test-2", second.getName());
+        assertTrue(first.isDaemon());
+        assertEquals(virtual, CatalogThreads.isVirtual(first));
+        assertFalse(CatalogThreads.isVirtual(CatalogThreads.factory("catalog-test-", false).newThread(() -> { })));
+        assertFalse(CatalogThreads.virtualThreadsEnabled(new MockEnvironment()));
+    }
+
+    static class Monitors {
+
+        private final Object lock = new Object();
+        private int count;
+
+        synchronized void guarded() {
+            count++;
+        }
+
+        void twoBlocks() {
+            synchronized (lock) {
+                count++;
+            }
+            synchronized (this) {
+                count--;
+            }
+        }
+
+        void unguarded() {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.bookcatalog.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceCollectorTest {
+
+    @Test
+    void sampledTrace_ShouldKeepNestedSpansInStartOrder() {
+        TraceCollector collector = collector(1.0, 60_000);
+
+        assertTrue(collector.startTrace("GET", "/api/books/search"));
+        assertFalse(collector.startTrace("GET", "/nested"));
+        Tracing.enter("service", "searchBooks");
+        Tracing.enter("strategy", "title");
+        Tracing.enter("jdbc", "executeStatement");
+        Tracing.exit();
+        Tracing.record("repository", "findByTitleContainingIgnoreCase", 1_000_000_000L);
+        Tracing.exit();
+        Tracing.exit();
+        collector.finishTrace();
+
+        List<Trace> traces = collector.getRecentTraces();
+        assertEquals(1, traces.size());
+        Trace trace = traces.get(0);
+        assertEquals(Trace.REASON_SAMPLED, trace.getReason());
+        assertEquals(5, trace.getSpans().size());
+        assertEquals("/api/books/search", trace.getSpans().get(0).getDetail());
+        TraceSpan repository = trace.getSpans().stream()
+                .filter(span -> span.getName().equals("repository")).findFirst().orElseThrow();
+        TraceSpan jdbc = trace.getSpans().stream()
+                .filter(span -> span.getName().equals("jdbc")).findFirst().orElseThrow();
+        assertEquals(3, repository.getDepth());
+        assertEquals(4, jdbc.getDepth());
+        assertSame(trace, collector.findTrace(trace.getTraceId()).orElseThrow());
+    }
+
+    @Test
+    void unsampledTrace_ShouldOnlyBeKeptWhenSlow() {
+        TraceCollector fast = collector(0, 60_000);
+        fast.startTrace("GET", "/api/books");
+        Tracing.enter("service", "getAllBooks");
+        Tracing.exit();
+        fast.finishTrace();
+        assertTrue(fast.getRecentTraces().isEmpty());
+
+        TraceCollector slow = collector(0, 0);
+        slow.startTrace("GET", "/api/books");
+        slow.finishTrace();
+        assertEquals(Trace.REASON_SLOW, slow.getRecentTraces().get(0).getReason());
+    }
+
+    @Test
+    void unsampledTrace_ShouldNotAllocate() {
+        TraceCollector collector = collector(0, 60_000);
+        for (int i = 0; i < 20_000; i++) {
+            tracedRequest(collector);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 20_000; i++) {
+            tracedRequest(collector);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // a single allocation per request would be at least 16 bytes * 20,000
+        assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void pooledBuffers_ShouldBeReusedByThreadsThatServeOneRequest() throws InterruptedException {
+        TraceCollector perThread = collector(0, 60_000);
+        TraceCollector pooled = new TraceCollector(new SimpleMeterRegistry(), true, 0, 60_000, 10, 10,
+                Runnable::run, 4);
+        requestOnFreshThread(pooled);
+
+        // a span buffer is several kilobytes; the fresh thread's own bookkeeping is far less
+        assertTrue(requestOnFreshThread(perThread) > 4096);
+        long allocated = requestOnFreshThread(pooled);
+        assertTrue(allocated < 2048, "allocated " + allocated + " bytes");
+    }
+
+    private static long requestOnFreshThread(TraceCollector collector) throws InterruptedException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] allocated = new long[1];
+        Thread thread = new Thread(() -> {
+            long threadId = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            tracedRequest(collector);
+            allocated[0] = threads.getThreadAllocatedBytes(threadId) - before;
+        });
+        thread.start();
+        thread.join();
+        return allocated[0];
+    }
+
+    private static void tracedRequest(TraceCollector collector) {
+        collector.startTrace("GET", "/api/books");
+        Tracing.enter("service", "getAllBooks");
+        Tracing.enter("jdbc", "executeStatement");
+        Tracing.exit();
+        Tracing.record("repository", "findAll", 1000);
+        Tracing.exit();
+        collector.finishTrace();
+    }
+
+    private static TraceCollector collector(double sampleRate, long slowThresholdMillis) {
+        return new TraceCollector(new SimpleMeterRegistry(), true, sampleRate, slowThresholdMillis, 10, 10,
+                Runnable::run, 0);
+    }
+}
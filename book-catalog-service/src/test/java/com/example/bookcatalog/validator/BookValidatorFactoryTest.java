@@ -1,11 +1,17 @@
 package com.example.bookcatalog.validator;
 
+import com.example.bookcatalog.entity.Book;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -92,4 +98,41 @@ class BookValidatorFactoryTest {
                 () -> bookValidatorFactory.getValidator(validatorType));
         assertEquals("Unknown validator type: ", exception.getMessage());
     }
+
+    @Test
+    void validateAll_ShouldCollectEveryViolationAcrossChunksInRowOrder() {
+        BookValidatorFactory factory = new BookValidatorFactory(new StandardBookValidator(), new UpdateBookValidator());
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            books.add(new Book("Title " + i, "Author", "9780306406157", 2020, new BigDecimal("9.99")));
+        }
+        books.get(7).setIsbn("9780306406158");
+        books.set(1200, null);
+        books.get(2499).setTitle(" ");
+        books.get(2499).setPrice(new BigDecimal("-1"));
+
+        BookValidationReport report = factory.validateAll(books, "standard");
+
+        assertEquals(2500, report.getTotalRows());
+        assertEquals(3, report.getInvalidRows());
+        assertEquals(2497, report.getValidRows());
+        assertEquals(4, report.getViolations().size());
+        assertEquals(7, report.getViolations().get(0).getRow());
+        assertEquals("isbn", report.getViolations().get(0).getField());
+        assertEquals(1200, report.getViolations().get(1).getRow());
+        assertEquals("title", report.getViolations().get(2).getField());
+        assertEquals("price", report.getViolations().get(3).getField());
+    }
+
+    @Test
+    void validateAll_WithUpdateType_ShouldIgnoreMissingFields() {
+        BookValidatorFactory factory = new BookValidatorFactory(new StandardBookValidator(), new UpdateBookValidator());
+        Book partial = new Book();
+        partial.setPublicationYear(3000);
+
+        BookValidationReport report = factory.validateAll(Arrays.asList(partial, new Book()), "update");
+
+        assertEquals(1, report.getInvalidRows());
+        assertEquals("publicationYear", report.getViolations().get(0).getField());
+    }
 }
@@ -16,7 +16,7 @@ class StandardBookValidatorTest {
     @BeforeEach
     void setUp() {
         validator = new StandardBookValidator();
-        validBook = new Book("Test Title", "Test Author", "1234567890", 2023, new BigDecimal("29.99"));
+        validBook = new Book("Test Title", "Test Author", "0306406152", 2023, new BigDecimal("29.99"));
     }
 
     @Test
@@ -116,7 +116,7 @@ class StandardBookValidatorTest {
     @Test
     void validate_WithValidIsbn10_ShouldNotThrowException() {
         
-        validBook.setIsbn("1234567890");
+        validBook.setIsbn("0306406152");
 
         
         assertDoesNotThrow(() -> validator.validate(validBook));
@@ -125,7 +125,7 @@ class StandardBookValidatorTest {
     @Test
     void validate_WithValidIsbn13_ShouldNotThrowException() {
         
-        validBook.setIsbn("1234567890123");
+        validBook.setIsbn("9780306406157");
 
         
         assertDoesNotThrow(() -> validator.validate(validBook));
@@ -134,12 +134,34 @@ class StandardBookValidatorTest {
     @Test
     void validate_WithIsbnWithHyphens_ShouldNotThrowException() {
         
-        validBook.setIsbn("123-456-789-0");
+        validBook.setIsbn("0-306-40615-2");
 
         
         assertDoesNotThrow(() -> validator.validate(validBook));
     }
 
+    @Test
+    void validate_WithIsbn10CheckDigitX_ShouldNotThrowException() {
+        
+        validBook.setIsbn("080442957X");
+
+        
+        assertDoesNotThrow(() -> validator.validate(validBook));
+    }
+
+    @Test
+    void validate_WithBadIsbnChecksum_ShouldThrowException() {
+        
+        validBook.setIsbn("978-0-306-40615-8");
+
+        
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class, 
+            () -> validator.validate(validBook)
+        );
+        assertEquals("Invalid ISBN format", exception.getMessage());
+    }
+
     @Test
     void validate_WithInvalidPublicationYearTooLow_ShouldThrowException() {
         
@@ -16,7 +16,7 @@ class UpdateBookValidatorTest {
     @BeforeEach
     void setUp() {
         validator = new UpdateBookValidator();
-        validBook = new Book("Test Title", "Test Author", "1234567890", 2023, new BigDecimal("29.99"));
+        validBook = new Book("Test Title", "Test Author", "0306406152", 2023, new BigDecimal("29.99"));
     }
 
     @Test
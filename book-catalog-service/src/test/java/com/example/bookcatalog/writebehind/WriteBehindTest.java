@@ -0,0 +1,374 @@
+package com.example.bookcatalog.writebehind;
+
+import com.example.bookcatalog.changes.BookChangeLog;
+import com.example.bookcatalog.changes.BookChangePublisher;
+import com.example.bookcatalog.entity.Book;
+import com.example.bookcatalog.validator.BookValidatorFactory;
+import com.example.bookcatalog.validator.StandardBookValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindTest {
+
+    @TempDir
+    Path walDirectory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BookValidatorFactory bookValidatorFactory;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void writeAheadLog_ShouldReplayAppendedRecords() {
+        WriteAheadLog wal = new WriteAheadLog(walDirectory, 4096, true);
+        wal.open();
+        wal.append(new PendingBookUpdate(1L, "Title", "Author", "0306406152", 2023, new BigDecimal("9.99"), 3L, 4L, 100L));
+        wal.append(new PendingBookUpdate(2L, "Other", "Writer", "0987654321", null, null, null, null, 200L));
+        wal.close();
+
+        List<PendingBookUpdate> replayed = new WriteAheadLog(walDirectory, 4096, true).replay();
+
+        assertEquals(2, replayed.size());
+        assertEquals(1L, replayed.get(0).getBookId());
+        assertEquals(new BigDecimal("9.99"), replayed.get(0).getPrice());
+        assertEquals(2023, replayed.get(0).getPublicationYear());
+        assertEquals(3L, replayed.get(0).getMinVersion());
+        assertEquals(4L, replayed.get(0).getMaxVersion());
+        assertNull(replayed.get(1).getMinVersion());
+        assertNull(replayed.get(1).getPublicationYear());
+        assertNull(replayed.get(1).getPrice());
+        assertEquals(200L, replayed.get(1).getAcceptedAtMillis());
+    }
+
+    @Test
+    void writeAheadLog_ShouldRollSegmentsAndDropThemOnCheckpoint() {
+        WriteAheadLog wal = new WriteAheadLog(walDirectory, 256, true);
+        wal.open();
+        for (long id = 1; id <= 10; id++) {
+            wal.append(new PendingBookUpdate(id, "Title", "Author", "0306406152", 2023, BigDecimal.ONE, 1L, 1L, id));
+        }
+        assertTrue(wal.segmentCount() > 1);
+
+        PendingBookUpdate stillPending = new PendingBookUpdate(10L, "Title", "Author", "0306406152", 2023, BigDecimal.ONE, 1L, 1L, 10L);
+        wal.checkpoint(List.of(stillPending));
+        wal.close();
+
+        List<PendingBookUpdate> replayed = new WriteAheadLog(walDirectory, 256, true).replay();
+        assertEquals(1, replayed.size());
+        assertEquals(10L, replayed.get(0).getBookId());
+    }
+
+    @Test
+    void writeAheadLog_ShouldRecycleReleasedSegmentWithoutReplayingItsOldRecords() {
+        WriteAheadLog wal = new WriteAheadLog(walDirectory, 4096, true);
+        wal.open();
+        for (long id = 1; id <= 10; id++) {
+            wal.append(new PendingBookUpdate(id, "Title", "Author", "0306406152", 2023, BigDecimal.ONE, 1L, 1L, id));
+        }
+        wal.checkpoint(List.of());
+        assertTrue(walDirectory.resolve("wal.spare").toFile().exists());
+
+        wal.checkpoint(List.of());
+        assertEquals(1, wal.segmentCount());
+        wal.append(new PendingBookUpdate(42L, "Title", "Author", "0306406152", 2023, BigDecimal.ONE, 1L, 1L, 42L));
+        wal.close();
+
+        List<PendingBookUpdate> replayed = new WriteAheadLog(walDirectory, 4096, true).replay();
+        assertEquals(1, replayed.size());
+        assertEquals(42L, replayed.get(0).getBookId());
+    }
+
+    @Test
+    void updater_ShouldDeferCheckpointUntilIntervalOrShutdown() {
+        WriteBehindBookUpdater updater = new WriteBehindBookUpdater(jdbcTemplate, transactionTemplate,
+                bookValidatorFactory, meterRegistry, new WriteAheadLog(walDirectory, 4096, true), 100, 60_000, null, null);
+        when(bookValidatorFactory.getValidator("standard")).thenReturn(new StandardBookValidator());
+        updater.recover();
+        updater.accept(1L, book("10.00"));
+
+        stubTransactions();
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenReturn(new int[]{1});
+        updater.flush();
+
+        assertEquals(0, updater.getQueueDepth());
+        assertEquals(1, new WriteAheadLog(walDirectory, 4096, true).replay().size());
+
+        updater.shutdown();
+        assertTrue(new WriteAheadLog(walDirectory, 4096, true).replay().isEmpty());
+    }
+
+    @Test
+    void updater_ShouldCoalesceUpdatesPerBookAndFlushInOneBatch() {
+        WriteBehindBookUpdater updater = newUpdater();
+        updater.recover();
+
+        updater.accept(1L, book("10.00"));
+        updater.accept(1L, book("11.00"));
+        updater.accept(2L, book("12.00"));
+
+        assertEquals(2, updater.getQueueDepth());
+        assertEquals(2.0, meterRegistry.get("bookcatalog.writebehind.queue.depth").gauge().value());
+
+        stubTransactions();
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenReturn(new int[]{1, 1});
+
+        updater.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), args.capture(), any(int[].class));
+        assertEquals(2, args.getValue().size());
+        Object[] first = args.getValue().stream().filter(row -> row[5].equals(1L)).findFirst().orElseThrow();
+        assertEquals(new BigDecimal("11.00"), first[4]);
+        assertEquals(0, updater.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("bookcatalog.writebehind.coalesced").counter().count());
+    }
+
+    @Test
+    void updater_ShouldReplayWalAfterCrash() {
+        WriteBehindBookUpdater crashed = newUpdater();
+        crashed.recover();
+        crashed.accept(1L, book("10.00"));
+        // no flush and no shutdown: the process dies here
+
+        stubTransactions();
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenReturn(new int[]{1});
+
+        WriteBehindBookUpdater restarted = newUpdater();
+        restarted.recover();
+
+        verify(jdbcTemplate).batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class));
+        assertEquals(0, restarted.getQueueDepth());
+        assertTrue(new WriteAheadLog(walDirectory, 4096, true).replay().isEmpty());
+    }
+
+    @Test
+    void updater_WhenFlushFails_ShouldKeepUpdatesPending() {
+        WriteBehindBookUpdater updater = newUpdater();
+        updater.recover();
+        updater.accept(1L, book("10.00"));
+
+        stubTransactions();
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenThrow(new RuntimeException("Database unavailable"));
+
+        updater.flush();
+
+        assertEquals(1, updater.getQueueDepth());
+        assertEquals(1, new WriteAheadLog(walDirectory, 4096, true).replay().size());
+    }
+
+    @Test
+    void updater_ForSoftDeletedBook_ShouldDropUpdateWithoutPublishing() {
+        BookChangePublisher publisher = mock(BookChangePublisher.class);
+        BookChangeLog changeLog = mock(BookChangeLog.class);
+        when(bookValidatorFactory.getValidator("standard")).thenReturn(new StandardBookValidator());
+        WriteBehindBookUpdater updater = new WriteBehindBookUpdater(jdbcTemplate, transactionTemplate,
+                bookValidatorFactory, meterRegistry, new WriteAheadLog(walDirectory, 4096, true), 100, 0,
+                publisher, changeLog);
+        updater.recover();
+        updater.accept(1L, book("10.00"));
+
+        stubTransactions();
+        // the tombstone does not match "deleted_at IS NULL"
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenReturn(new int[]{0});
+        updater.flush();
+
+        assertTrue(WriteBehindBookUpdater.UPDATE_SQL.endsWith("AND deleted_at IS NULL"));
+        verify(changeLog).recordAll(List.of());
+        verifyNoInteractions(publisher);
+        assertEquals(0, updater.getQueueDepth());
+    }
+
+    @Test
+    void updater_WithInvalidBook_ShouldRejectBeforeLogging() {
+        WriteBehindBookUpdater updater = newUpdater();
+        updater.recover();
+        Book invalid = book("-1.00");
+
+        assertThrows(IllegalArgumentException.class, () -> updater.accept(1L, invalid));
+        assertEquals(0, updater.getQueueDepth());
+    }
+
+    @Test
+    void updater_WithPartialBook_ShouldRejectSinceFlushWritesEveryColumn() {
+        WriteBehindBookUpdater updater = newUpdater();
+        updater.recover();
+        Book partial = new Book();
+        partial.setPrice(new BigDecimal("9.99"));
+
+        assertThrows(IllegalArgumentException.class, () -> updater.accept(1L, partial));
+        assertEquals(0, updater.getQueueDepth());
+    }
+
+    @Test
+    void updater_WhenOneRowViolatesConstraint_ShouldDeadLetterItAndFlushTheRest() {
+        WriteBehindBookUpdater updater = newUpdater();
+        updater.recover();
+        updater.accept(1L, book("10.00"));
+        updater.accept(2L, book("12.00"));
+        updater.accept(3L, book("13.00"));
+
+        stubTransactions();
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenAnswer(invocation -> {
+                    List<Object[]> rows = invocation.getArgument(1);
+                    if (rows.stream().anyMatch(row -> row[5].equals(2L))) {
+                        throw new DataIntegrityViolationException("Duplicate entry for key 'idx_isbn'");
+                    }
+                    int[] counts = new int[rows.size()];
+                    Arrays.fill(counts, 1);
+                    return counts;
+                });
+
+        updater.flush();
+
+        // one failed batch, then each row on its own
+        verify(jdbcTemplate, times(4)).batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class));
+        assertEquals(0, updater.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("bookcatalog.writebehind.deadlettered").counter().count());
+        assertEquals(2.0, meterRegistry.get("bookcatalog.writebehind.flushed").counter().count());
+        assertTrue(new WriteAheadLog(walDirectory, 4096, true).replay().isEmpty());
+    }
+
+    @Test
+    void updater_OnReplay_ShouldNotOverwriteANewerUpdate() {
+        JdbcTemplate database = booksDatabase();
+        TransactionTemplate transactions = new TransactionTemplate(
+                new DataSourceTransactionManager(database.getDataSource()));
+        when(bookValidatorFactory.getValidator("standard")).thenReturn(new StandardBookValidator());
+        WriteBehindBookUpdater crashed = new WriteBehindBookUpdater(database, transactions, bookValidatorFactory,
+                meterRegistry, new WriteAheadLog(walDirectory, 4096, true), 100, 60_000, null, null);
+        crashed.recover();
+        crashed.accept(1L, book("10.00"));
+        crashed.flush();
+        // a synchronous PUT lands after the flush, then the process dies before a checkpoint
+        database.update("UPDATE books SET price = 20.00, version = version + 1 WHERE id = 1");
+        assertEquals(1, new WriteAheadLog(walDirectory, 4096, true).replay().size());
+
+        WriteBehindBookUpdater restarted = new WriteBehindBookUpdater(database, transactions, bookValidatorFactory,
+                meterRegistry, new WriteAheadLog(walDirectory, 4096, true), 100, 60_000, null, null);
+        restarted.recover();
+
+        assertEquals(0, new BigDecimal("20.00").compareTo(
+                database.queryForObject("SELECT price FROM books WHERE id = 1", BigDecimal.class)));
+        assertEquals(2L, database.queryForObject("SELECT version FROM books WHERE id = 1", Long.class));
+    }
+
+    @Test
+    void updater_ShouldPublishTheVersionItWrote() {
+        JdbcTemplate database = booksDatabase();
+        TransactionTemplate transactions = new TransactionTemplate(
+                new DataSourceTransactionManager(database.getDataSource()));
+        BookChangePublisher publisher = mock(BookChangePublisher.class);
+        when(bookValidatorFactory.getValidator("standard")).thenReturn(new StandardBookValidator());
+        WriteBehindBookUpdater updater = new WriteBehindBookUpdater(database, transactions, bookValidatorFactory,
+                meterRegistry, new WriteAheadLog(walDirectory, 4096, true), 100, 0, publisher, null);
+        updater.recover();
+        updater.accept(1L, book("10.00"));
+        updater.flush();
+
+        ArgumentCaptor<Book> published = ArgumentCaptor.forClass(Book.class);
+        verify(publisher).bookUpdated(published.capture());
+        assertEquals(1L, published.getValue().getId());
+        assertEquals(1L, published.getValue().getVersion());
+    }
+
+    @Test
+    void updater_WhenAcceptedDuringFlush_ShouldAllowForTheWriteInFlight() {
+        WriteBehindBookUpdater updater = newUpdater();
+        updater.recover();
+        when(jdbcTemplate.queryForList(WriteBehindBookUpdater.VERSION_SQL, Long.class, 1L)).thenReturn(List.of(4L));
+        updater.accept(1L, book("10.00"));
+
+        stubTransactions();
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenAnswer(invocation -> {
+                    updater.accept(1L, book("11.00"));
+                    throw new RuntimeException("Database unavailable");
+                });
+        updater.flush();
+
+        // the retried update is superseded by the newer one, which covers both outcomes of the first
+        reset(jdbcTemplate);
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), anyList(), any(int[].class)))
+                .thenReturn(new int[]{1});
+        updater.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(WriteBehindBookUpdater.UPDATE_SQL), args.capture(), any(int[].class));
+        Object[] row = args.getValue().get(0);
+        assertEquals(new BigDecimal("11.00"), row[4]);
+        assertEquals(4L, row[6]);
+        assertEquals(5L, row[7]);
+        assertEquals(0, updater.getQueueDepth());
+    }
+
+    private WriteBehindBookUpdater newUpdater() {
+        lenient().when(bookValidatorFactory.getValidator("standard")).thenReturn(new StandardBookValidator());
+        return new WriteBehindBookUpdater(jdbcTemplate, transactionTemplate, bookValidatorFactory,
+                meterRegistry, new WriteAheadLog(walDirectory, 4096, true), 100, 0, null, null);
+    }
+
+    private static JdbcTemplate booksDatabase() {
+        JdbcTemplate database = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        database.execute("CREATE TABLE books (id BIGINT PRIMARY KEY, title VARCHAR(255), author VARCHAR(255), "
+                + "isbn VARCHAR(255), publication_year INT, price DECIMAL(10, 2), version BIGINT NOT NULL, "
+                + "deleted_at TIMESTAMP)");
+        database.update("INSERT INTO books (id, title, author, isbn, publication_year, price, version) "
+                + "VALUES (1, 'Test Title', 'Test Author', '0306406152', 2023, 9.00, 0)");
+        return database;
+    }
+
+    private void stubTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
+    private static Book book(String price) {
+        return new Book("Test Title", "Test Author", "0306406152", 2023, new BigDecimal(price));
+    }
+}
@@ -9,8 +9,62 @@ CREATE TABLE IF NOT EXISTS books (
     author VARCHAR(255) NOT NULL,
     isbn VARCHAR(20) UNIQUE NOT NULL,
     publication_year INT,
-    price DECIMAL(10, 2)
+    price DECIMAL(10, 2),
+    version BIGINT NOT NULL DEFAULT 0,
+    deleted_at DATETIME(6) NULL,
+    INDEX idx_books_deleted_at (deleted_at)
+);
+
+CREATE TABLE IF NOT EXISTS bulk_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    author VARCHAR(255),
+    published_before INT,
+    percent_change DECIMAL(7, 3),
+    chunk_size INT NOT NULL,
+    start_id BIGINT,
+    end_id BIGINT,
+    next_id BIGINT,
+    rows_affected BIGINT NOT NULL DEFAULT 0,
+    chunks_completed INT NOT NULL DEFAULT 0,
+    rows_restored BIGINT NOT NULL DEFAULT 0,
+    rows_skipped BIGINT NOT NULL DEFAULT 0,
+    error_message VARCHAR(1000),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS book_snapshots (
+    job_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    isbn VARCHAR(20) NOT NULL,
+    publication_year INT,
+    price DECIMAL(10, 2),
+    version BIGINT NOT NULL,
+    PRIMARY KEY (job_id, book_id)
 );
-```
 
+CREATE TABLE IF NOT EXISTS book_changes (
+    seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+    book_id BIGINT NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    INDEX idx_book_changes_changed_at (changed_at)
+);
 
+CREATE TABLE IF NOT EXISTS book_revisions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    book_id BIGINT NOT NULL,
+    valid_from DATETIME(6) NOT NULL,
+    title VARCHAR(255),
+    author VARCHAR(255),
+    isbn VARCHAR(20),
+    publication_year INT,
+    price DECIMAL(10, 2),
+    version BIGINT,
+    deleted BOOLEAN NOT NULL,
+    INDEX idx_book_revisions_book_valid_from (book_id, valid_from)
+);
+```